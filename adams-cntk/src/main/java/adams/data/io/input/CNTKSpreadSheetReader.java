@@ -24,20 +24,16 @@ import adams.core.TechnicalInformation;
 import adams.core.TechnicalInformationHandler;
 import adams.data.io.output.CNTKSpreadSheetWriter;
 import adams.data.io.output.SpreadSheetWriter;
-import adams.data.spreadsheet.DefaultSpreadSheet;
+import adams.data.spreadsheet.Cell;
 import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SparseDataRow;
 import adams.data.spreadsheet.SpreadSheet;
 import adams.env.Environment;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.Reader;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.logging.Level;
-import java.util.regex.Pattern;
 
 /**
  <!-- globalinfo-start -->
@@ -63,16 +59,47 @@ import java.util.regex.Pattern;
  * &nbsp;&nbsp;&nbsp;default: adams.data.spreadsheet.DefaultSpreadSheet
  * </pre>
  *
+ * <pre>-chunk-size &lt;int&gt; (property: chunkSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of rows per chunk; using -1 will read put all data into
+ * &nbsp;&nbsp;&nbsp;a single spreadsheet object.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class CNTKSpreadSheetReader
   extends AbstractSpreadSheetReader
-  implements TechnicalInformationHandler {
+  implements ChunkedSpreadSheetReader, TechnicalInformationHandler {
 
   private static final long serialVersionUID = 6732892846887308208L;
 
+  /** the name of the row ID column. */
+  public static final String COLUMN_ID = "ID";
+
+  /** the chunk size to use. */
+  protected int m_ChunkSize;
+
+  /** the reader in use, null if no more chunks. */
+  protected transient CNTKTextFormatReader m_TextReader;
+
+  /** whether the text reader has a sample that hasn't been added yet. */
+  protected boolean m_Pending;
+
+  /** the header of the data read so far. */
+  protected SpreadSheet m_Header;
+
+  /** whether the row ID column is present. */
+  protected boolean m_HasRowID;
+
+  /** the number of columns per input (index see CNTKTextFormatReader.getNames()). */
+  protected int[] m_Widths;
+
+  /** the column offsets per input. */
+  protected int[] m_Offsets;
+
   /**
    * Returns a string describing the object.
    *
@@ -86,6 +113,52 @@ public class CNTKSpreadSheetReader
 	+ getTechnicalInformation();
   }
 
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "chunk-size", "chunkSize",
+      -1, -1, null);
+  }
+
+  /**
+   * Sets the maximum chunk size.
+   *
+   * @param value	the size of the chunks, &lt; 1 denotes infinity
+   */
+  @Override
+  public void setChunkSize(int value) {
+    if (value < 1)
+      value = -1;
+    m_ChunkSize = value;
+    reset();
+  }
+
+  /**
+   * Returns the current chunk size.
+   *
+   * @return	the size of the chunks, &lt; 1 denotes infinity
+   */
+  @Override
+  public int getChunkSize() {
+    return m_ChunkSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  @Override
+  public String chunkSizeTipText() {
+    return "The maximum number of rows per chunk; using -1 will read put all data into a single spreadsheet object.";
+  }
+
   /**
    * Returns an instance of a TechnicalInformation object, containing
    * detailed information about the technical background of this class,
@@ -140,175 +213,211 @@ public class CNTKSpreadSheetReader
   }
 
   /**
-   * Removes any comments from the data.
+   * Updates the column offsets of the inputs.
+   */
+  protected void updateOffsets() {
+    int		i;
+    int		offset;
+
+    offset = m_HasRowID ? 1 : 0;
+    for (i = 0; i < m_Widths.length; i++) {
+      m_Offsets[i] = offset;
+      offset      += m_Widths[i];
+    }
+  }
+
+  /**
+   * Ensures that the header contains the specified number of columns for
+   * the input, adding columns if necessary.
    *
-   * @param line	the data to process
-   * @return		the cleaned up data
+   * @param sheet	the spreadsheet to update
+   * @param input	the index of the input name
+   * @param width	the number of columns required
    */
-  protected String removeComments(String line) {
-    StringBuilder	result;
-    boolean		comment;
-    int			i;
-    char		c;
-
-    if (!line.contains("#"))
-      return line;
-
-    comment = false;
-    result  = new StringBuilder();
-    for (i = 0; i < line.length(); i++) {
-      c = line.charAt(i);
-      if (c == '#')
-        comment = true;
-      else if (c == '|')
-        comment = false;
-      if (!comment)
-        result.append(c);
+  protected void ensureColumns(SpreadSheet sheet, int input, int width) {
+    String	name;
+    int		n;
+
+    // new input, gets appended
+    if (input >= m_Widths.length) {
+      m_Widths  = Arrays.copyOf(m_Widths, input + 1);
+      m_Offsets = Arrays.copyOf(m_Offsets, input + 1);
+      updateOffsets();
     }
+    if (m_Widths[input] >= width)
+      return;
 
-    return result.toString();
+    name = m_TextReader.getNames().get(input);
+    for (n = m_Widths[input]; n < width; n++)
+      sheet.insertColumn(m_Offsets[input] + n, name + "-" + n);
+    m_Widths[input] = width;
+    updateOffsets();
   }
 
   /**
-   * Performs the actual reading.
+   * Adds the current sample of the text reader to the spreadsheet.
    *
-   * @param r		the reader to read from
-   * @return		the spreadsheet or null in case of an error
-   * @see		#getInputType()
+   * @param sheet	the spreadsheet to add the sample to
    */
-  @Override
-  protected SpreadSheet doRead(Reader r) {
-    SpreadSheet			result;
-    Map<String,SpreadSheet> 	sheets;
-    SpreadSheet			sheet;
-    Row				row;
-    BufferedReader		breader;
-    boolean			sparse;
-    String			line;
-    int				lineNo;
-    String[]			sections;
-    String			rowID;
-    List<String>		rowIDs;
-    boolean			hasRowIDs;
-    Pattern			pattID;
-    List<String> 		names;
-    String			name;
-    String[]			cells;
-    int				i;
-    int				index;
-    double			value;
-    String[]			parts;
-    boolean			initHeader;
-
-    if (r instanceof BufferedReader)
-      breader = (BufferedReader) r;
-    else
-      breader = new BufferedReader(r);
-
-    result    = null;
-    sheets    = null;
-    sparse    = false;
-    lineNo    = 0;
-    pattID    = Pattern.compile("^[0-9]+.*");
-    names     = new ArrayList<>();
-    rowIDs    = new ArrayList<>();
-    hasRowIDs = false;
-    try {
-      while (((line = breader.readLine()) != null) && !isStopped()) {
-        lineNo++;
+  protected void addSample(SpreadSheet sheet) {
+    Row		row;
+    Cell	cell;
+    int		i;
+    int		n;
+    int		input;
+    int		width;
+    int		offset;
+    double	value;
 
-        // remove comments
-	line = removeComments(line);
+    row = sheet.addRow();
 
-        // structure analyzed?
-	if (sheets == null) {
-	  sheets = new HashMap<>();
-	  sparse = line.contains(":");
-	}
+    // row ID
+    if (m_TextReader.getRowID() != null) {
+      if (!m_HasRowID) {
+	sheet.insertColumn(0, COLUMN_ID);
+	m_HasRowID = true;
+	updateOffsets();
+      }
+      row.addCell(0).setContent(m_TextReader.getRowID());
+    }
 
-	// row ID?
-	rowID = null;
-	if (pattID.matcher(line).matches()) {
-	  hasRowIDs = true;
-	  rowID = line.substring(0, line.indexOf("|")).trim();
-	  line = line.substring(line.indexOf("|") + 1);
+    // inputs
+    for (i = 0; i < m_TextReader.getNumInputs(); i++) {
+      input = m_TextReader.getInputNameIndex(i);
+      width = 0;
+      for (n = 0; n < m_TextReader.getNumValues(i); n++)
+	width = Math.max(width, m_TextReader.getIndex(i, n) + 1);
+      ensureColumns(sheet, input, width);
+      offset = m_Offsets[input];
+      for (n = 0; n < m_TextReader.getNumValues(i); n++) {
+	value = m_TextReader.getValue(i, n);
+	cell  = row.addCell(offset + m_TextReader.getIndex(i, n));
+	if (Double.isNaN(value))
+	  cell.setMissing();
+	else
+	  cell.setContent(value);
+      }
+    }
+  }
+
+  /**
+   * Reads the next chunk of data from the text reader.
+   *
+   * @return		the chunk, null in case of an error
+   */
+  protected SpreadSheet readChunk() {
+    SpreadSheet		result;
+    int			count;
+    int			i;
+    boolean		eof;
+
+    if (m_Header == null) {
+      result = m_SpreadSheetType.newInstance();
+      result.setDataRowClass(m_DataRowType.getClass());
+    }
+    else {
+      result = m_Header.getHeader();
+      result.setDataRowClass(m_Header.getDataRowClass());
+    }
+
+    count = 0;
+    eof   = false;
+    try {
+      if (m_Pending) {
+	addSample(result);
+	count++;
+      }
+      m_Pending = false;
+
+      while (!isStopped() && ((m_ChunkSize < 1) || (count < m_ChunkSize))) {
+	if (!m_TextReader.next()) {
+	  eof = true;
+	  break;
 	}
-	rowIDs.add(rowID);
-
-	// split into sections
-	sections = line.split("\\|");
-	for (String section: sections) {
-	  // name of section
-	  if (section.contains(" "))
-	    name = section.substring(0, section.indexOf(" ")).trim();
-	  else
-	    name = section.trim();
-	  section = section.substring(name.length()).trim();
-
-	  // add row
-	  if (!sheets.containsKey(name)) {
-	    initHeader = true;
-	    sheet = new DefaultSpreadSheet();
-	    sheet.setName(name);
-	    names.add(name);
-	    if (sparse)
-	      sheet.setDataRowClass(SparseDataRow.class);
-	    sheets.put(name, sheet);
-	  }
-	  else {
-	    initHeader = false;
-	    sheet = sheets.get(name);
-	  }
-	  while (sheet.getRowCount() < lineNo)
-	    sheet.addRow();
-
-	  // process cells
-	  if (section.isEmpty())
-	    continue;
-	  cells = section.split(" ");
-	  for (i = 0; i < cells.length; i++) {
-	    if (cells[i].contains(":")) {
-	      parts = cells[i].split(":");
-	      index = Integer.parseInt(parts[0]);
-	      value = Double.parseDouble(parts[0]);
+	// sparse data?
+	if ((m_Header == null) && (count == 0)) {
+	  for (i = 0; i < m_TextReader.getNumInputs(); i++) {
+	    if (m_TextReader.isSparse(i)) {
+	      result.setDataRowClass(SparseDataRow.class);
+	      break;
 	    }
-	    else {
-	      index = i;
-	      value = Double.parseDouble(cells[i]);
-	    }
-	    if (initHeader) {
-	      while (sheet.getColumnCount() - 1 < index)
-		sheet.insertColumn(sheet.getColumnCount(), name + "-" + sheet.getColumnCount());
-	    }
-	    row = sheet.getRow(sheet.getRowCount() - 1);
-	    row.addCell(index).setContent(value);
 	  }
 	}
+	addSample(result);
+	count++;
+      }
+
+      // more data available?
+      if (!eof && !isStopped() && (m_ChunkSize > 0)) {
+	m_Pending = m_TextReader.next();
+	eof       = !m_Pending;
       }
     }
     catch (Exception e) {
-      getLogger().log(Level.SEVERE, "Failed to read line " + lineNo + "!", e);
-      sheets = null;
+      getLogger().log(Level.SEVERE, "Failed to read line " + m_TextReader.getLineNo() + "!", e);
+      result = null;
+      eof    = true;
     }
 
-    if (sheets != null) {
-      // row IDs
-      if (hasRowIDs) {
-        sheet = new DefaultSpreadSheet();
-        sheet.setName("Row IDs");
-        sheet.getHeaderRow().addCell("r").setContent("ID");
-        for (String id: rowIDs)
-          sheet.addRow().addCell("r").setContent(id);
-        name = "rowids-" + System.currentTimeMillis();
-        names.add(0, name);
-        sheets.put(name, sheet);
+    if (result != null)
+      m_Header = result.getHeader();
+
+    if (eof || isStopped() || (m_ChunkSize < 1))
+      m_TextReader = null;
+
+    return result;
+  }
+
+  /**
+   * Performs the actual reading.
+   *
+   * @param r		the reader to read from
+   * @return		the spreadsheet or null in case of an error
+   * @see		#getInputType()
+   */
+  @Override
+  protected SpreadSheet doRead(Reader r) {
+    m_TextReader = new CNTKTextFormatReader(r);
+    m_Pending    = false;
+    m_Header     = null;
+    m_HasRowID   = false;
+    m_Widths     = new int[0];
+    m_Offsets    = new int[0];
+
+    return readChunk();
+  }
+
+  /**
+   * Checks whether there is more data to read.
+   *
+   * @return		true if there is more data available
+   */
+  @Override
+  public boolean hasMoreChunks() {
+    return (m_TextReader != null);
+  }
+
+  /**
+   * Returns the next chunk of data.
+   *
+   * @return		the data chunk, null if no more chunks available
+   */
+  @Override
+  public SpreadSheet nextChunk() {
+    CNTKTextFormatReader	reader;
+    SpreadSheet			result;
+
+    if (m_TextReader == null)
+      return null;
+
+    reader = m_TextReader;
+    result = readChunk();
+    if (m_TextReader == null) {
+      try {
+	reader.close();
       }
-      // merge sheets
-      for (String n: names) {
-        if (result == null)
-	  result = sheets.get(n);
-	else
-	  result.mergeWith(sheets.get(n));
+      catch (IOException e) {
+	// ignored
       }
     }
 
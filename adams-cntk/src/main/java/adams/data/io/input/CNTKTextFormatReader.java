@@ -0,0 +1,637 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CNTKTextFormatReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming reader for the CNTK text format, parsing one sample (= line)
+ * at a time into re-usable arrays. Data is read through a char buffer and
+ * tokenized directly, without regular expressions or splitting of lines.
+ * Comments (<code>|#...</code>) get skipped. Tokens that cannot be parsed
+ * as numbers (e.g., missing value placeholders) are returned as NaN.
+ * <br>
+ * Usage:
+ * <pre>
+ * while (reader.next()) {
+ *   for (i = 0; i &lt; reader.getNumInputs(); i++) {
+ *     name = reader.getInputName(i);
+ *     for (n = 0; n &lt; reader.getNumValues(i); n++)
+ *       ... reader.getIndex(i, n) ... reader.getValue(i, n) ...
+ *   }
+ * }
+ * </pre>
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see CNTKSpreadSheetReader
+ */
+public class CNTKTextFormatReader
+  implements Closeable {
+
+  /** the default buffer size. */
+  public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+  /** powers of ten that are exactly representable as double. */
+  protected static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+    1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+  };
+
+  /** the maximum mantissa that can be converted without loss. */
+  protected static final long MAX_EXACT_MANTISSA = (1L << 53);
+
+  /** the underlying reader. */
+  protected Reader m_Reader;
+
+  /** the buffer. */
+  protected char[] m_Buffer;
+
+  /** the current position in the buffer. */
+  protected int m_Pos;
+
+  /** the number of chars in the buffer. */
+  protected int m_Length;
+
+  /** whether the end of the input has been reached. */
+  protected boolean m_EOF;
+
+  /** the current token. */
+  protected char[] m_Token;
+
+  /** the length of the current token. */
+  protected int m_TokenLength;
+
+  /** the input names encountered so far. */
+  protected List<String> m_Names;
+
+  /** the current line number. */
+  protected long m_LineNo;
+
+  /** the row ID of the current sample, null if none. */
+  protected String m_RowID;
+
+  /** the number of inputs in the current sample. */
+  protected int m_NumInputs;
+
+  /** the name indices (see m_Names) of the inputs in the current sample. */
+  protected int[] m_InputNames;
+
+  /** the number of values per input. */
+  protected int[] m_NumValues;
+
+  /** whether the input is sparse. */
+  protected boolean[] m_Sparse;
+
+  /** the indices of the values per input. */
+  protected int[][] m_Indices;
+
+  /** the values per input. */
+  protected double[][] m_Values;
+
+  /**
+   * Initializes the reader with the default buffer size.
+   *
+   * @param reader	the reader to read from
+   */
+  public CNTKTextFormatReader(Reader reader) {
+    this(reader, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Initializes the reader.
+   *
+   * @param reader	the reader to read from
+   * @param bufferSize	the size of the buffer in chars
+   */
+  public CNTKTextFormatReader(Reader reader, int bufferSize) {
+    m_Reader     = reader;
+    m_Buffer     = new char[Math.max(64, bufferSize)];
+    m_Token      = new char[64];
+    m_Names      = new ArrayList<>();
+    m_InputNames = new int[4];
+    m_NumValues  = new int[4];
+    m_Sparse     = new boolean[4];
+    m_Indices    = new int[4][16];
+    m_Values     = new double[4][16];
+  }
+
+  /**
+   * Returns the next character without consuming it.
+   *
+   * @return		the character, -1 if end of input
+   * @throws IOException	if reading fails
+   */
+  protected int peek() throws IOException {
+    if (m_Pos == m_Length) {
+      if (m_EOF)
+	return -1;
+      m_Length = m_Reader.read(m_Buffer, 0, m_Buffer.length);
+      m_Pos    = 0;
+      if (m_Length <= 0) {
+	m_Length = 0;
+	m_EOF    = true;
+	return -1;
+      }
+    }
+    return m_Buffer[m_Pos];
+  }
+
+  /**
+   * Checks whether the character is a line ending.
+   *
+   * @param c		the character to check
+   * @return		true if end of line (or input)
+   */
+  protected static boolean isEOL(int c) {
+    return (c == '\n') || (c == '\r') || (c == -1);
+  }
+
+  /**
+   * Checks whether the character is whitespace (excluding line endings).
+   *
+   * @param c		the character to check
+   * @return		true if whitespace
+   */
+  protected static boolean isBlank(int c) {
+    return (c == ' ') || (c == '\t');
+  }
+
+  /**
+   * Skips blanks.
+   *
+   * @return		the next character (not consumed)
+   * @throws IOException	if reading fails
+   */
+  protected int skipBlanks() throws IOException {
+    int		c;
+
+    while (isBlank(c = peek()))
+      m_Pos++;
+
+    return c;
+  }
+
+  /**
+   * Reads the next token, i.e., up to the next blank, bar or line ending.
+   * Stored in m_Token/m_TokenLength.
+   *
+   * @throws IOException	if reading fails
+   */
+  protected void readToken() throws IOException {
+    char[]	buffer;
+    char	c;
+    int		i;
+    int		len;
+
+    m_TokenLength = 0;
+    while (peek() != -1) {
+      // scan buffer directly
+      buffer = m_Buffer;
+      i      = m_Pos;
+      while (i < m_Length) {
+	c = buffer[i];
+	if ((c == ' ') || (c == '\t') || (c == '|') || (c == '\n') || (c == '\r'))
+	  break;
+	i++;
+      }
+      len = i - m_Pos;
+      if (m_TokenLength + len > m_Token.length)
+	m_Token = Arrays.copyOf(m_Token, Math.max(m_Token.length * 2, m_TokenLength + len));
+      System.arraycopy(buffer, m_Pos, m_Token, m_TokenLength, len);
+      m_TokenLength += len;
+      m_Pos          = i;
+      // token continues in next chunk?
+      if (i < m_Length)
+	break;
+    }
+  }
+
+  /**
+   * Skips everything up to the next bar or line ending.
+   *
+   * @throws IOException	if reading fails
+   */
+  protected void skipSection() throws IOException {
+    int		c;
+
+    while (!isEOL(c = peek()) && (c != '|'))
+      m_Pos++;
+  }
+
+  /**
+   * Consumes the line ending.
+   *
+   * @throws IOException	if reading fails
+   */
+  protected void skipEOL() throws IOException {
+    int		c;
+
+    c = peek();
+    if (c == '\r') {
+      m_Pos++;
+      c = peek();
+    }
+    if (c == '\n')
+      m_Pos++;
+  }
+
+  /**
+   * Parses a double value from the characters, falling back on
+   * {@link Double#parseDouble(String)} if the fast path could lose precision.
+   *
+   * @param chars	the characters
+   * @param start	the start position (incl)
+   * @param end		the end position (excl)
+   * @return		the parsed value, NaN if not a number
+   */
+  public static double parseDouble(char[] chars, int start, int end) {
+    int		i;
+    char	c;
+    boolean	negative;
+    long	mantissa;
+    int		digits;
+    int		exponent;
+    int		exp;
+    boolean	expNegative;
+    boolean	hasDigits;
+
+    i        = start;
+    negative = false;
+    if ((i < end) && ((chars[i] == '-') || (chars[i] == '+'))) {
+      negative = (chars[i] == '-');
+      i++;
+    }
+
+    mantissa  = 0;
+    digits    = 0;
+    exponent  = 0;
+    hasDigits = false;
+
+    // integer part
+    while ((i < end) && ((c = chars[i]) >= '0') && (c <= '9')) {
+      hasDigits = true;
+      if (digits < 18) {
+	mantissa = mantissa * 10 + (c - '0');
+	if (mantissa > 0)
+	  digits++;
+      }
+      else {
+	exponent++;
+	digits++;
+      }
+      i++;
+    }
+
+    // fraction
+    if ((i < end) && (chars[i] == '.')) {
+      i++;
+      while ((i < end) && ((c = chars[i]) >= '0') && (c <= '9')) {
+	hasDigits = true;
+	if (digits < 18) {
+	  mantissa = mantissa * 10 + (c - '0');
+	  if (mantissa > 0)
+	    digits++;
+	  exponent--;
+	}
+	else {
+	  digits++;
+	}
+	i++;
+      }
+    }
+
+    // exponent
+    if (hasDigits && (i < end) && ((chars[i] == 'e') || (chars[i] == 'E'))) {
+      i++;
+      expNegative = false;
+      if ((i < end) && ((chars[i] == '-') || (chars[i] == '+'))) {
+	expNegative = (chars[i] == '-');
+	i++;
+      }
+      exp = 0;
+      if ((i == end) || (chars[i] < '0') || (chars[i] > '9'))
+	return slowParse(chars, start, end);
+      while ((i < end) && ((c = chars[i]) >= '0') && (c <= '9')) {
+	if (exp < 10000)
+	  exp = exp * 10 + (c - '0');
+	i++;
+      }
+      exponent += expNegative ? -exp : exp;
+    }
+
+    if (!hasDigits || (i != end))
+      return slowParse(chars, start, end);
+
+    // exact conversion possible?
+    if ((digits <= 18) && (mantissa < MAX_EXACT_MANTISSA) && (exponent >= -22) && (exponent <= 22)) {
+      if (mantissa == 0)
+	return negative ? -0.0 : 0.0;
+      if (exponent < 0)
+	return negative ? -(mantissa / POWERS_OF_TEN[-exponent]) : (mantissa / POWERS_OF_TEN[-exponent]);
+      else
+	return negative ? -(mantissa * POWERS_OF_TEN[exponent]) : (mantissa * POWERS_OF_TEN[exponent]);
+    }
+
+    return slowParse(chars, start, end);
+  }
+
+  /**
+   * Parses the value using {@link Double#parseDouble(String)}.
+   *
+   * @param chars	the characters
+   * @param start	the start position (incl)
+   * @param end		the end position (excl)
+   * @return		the parsed value, NaN if not a number
+   */
+  protected static double slowParse(char[] chars, int start, int end) {
+    try {
+      return Double.parseDouble(new String(chars, start, end - start));
+    }
+    catch (NumberFormatException e) {
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * Returns the index of the input name stored in the current token,
+   * adds it if not encountered yet.
+   *
+   * @return		the index
+   */
+  protected int lookupName() {
+    int		i;
+    int		n;
+    String	name;
+    boolean	match;
+
+    for (i = 0; i < m_Names.size(); i++) {
+      name = m_Names.get(i);
+      if (name.length() != m_TokenLength)
+	continue;
+      match = true;
+      for (n = 0; n < m_TokenLength; n++) {
+	if (name.charAt(n) != m_Token[n]) {
+	  match = false;
+	  break;
+	}
+      }
+      if (match)
+	return i;
+    }
+
+    m_Names.add(new String(m_Token, 0, m_TokenLength));
+    return m_Names.size() - 1;
+  }
+
+  /**
+   * Starts a new input in the current sample.
+   *
+   * @param name	the index of the name
+   */
+  protected void addInput(int name) {
+    int		i;
+
+    if (m_NumInputs == m_InputNames.length) {
+      m_InputNames = Arrays.copyOf(m_InputNames, m_NumInputs * 2);
+      m_NumValues  = Arrays.copyOf(m_NumValues, m_NumInputs * 2);
+      m_Sparse     = Arrays.copyOf(m_Sparse, m_NumInputs * 2);
+      m_Indices    = Arrays.copyOf(m_Indices, m_NumInputs * 2);
+      m_Values     = Arrays.copyOf(m_Values, m_NumInputs * 2);
+      for (i = m_NumInputs; i < m_Indices.length; i++) {
+	m_Indices[i] = new int[16];
+	m_Values[i]  = new double[16];
+      }
+    }
+    m_InputNames[m_NumInputs] = name;
+    m_NumValues[m_NumInputs]  = 0;
+    m_Sparse[m_NumInputs]     = false;
+    m_NumInputs++;
+  }
+
+  /**
+   * Parses the current token as value and adds it to the current input.
+   */
+  protected void addValue() {
+    int		input;
+    int		count;
+    int		colon;
+    int		i;
+    int		index;
+    double	value;
+
+    input = m_NumInputs - 1;
+    count = m_NumValues[input];
+    if (count == m_Values[input].length) {
+      m_Indices[input] = Arrays.copyOf(m_Indices[input], count * 2);
+      m_Values[input]  = Arrays.copyOf(m_Values[input], count * 2);
+    }
+
+    colon = -1;
+    for (i = 0; i < m_TokenLength; i++) {
+      if (m_Token[i] == ':') {
+	colon = i;
+	break;
+      }
+    }
+
+    if (colon > 0) {
+      index = 0;
+      for (i = 0; i < colon; i++) {
+	if ((m_Token[i] < '0') || (m_Token[i] > '9'))
+	  throw new IllegalStateException("Invalid sparse index in line " + m_LineNo + ": " + new String(m_Token, 0, m_TokenLength));
+	index = index * 10 + (m_Token[i] - '0');
+      }
+      value = parseDouble(m_Token, colon + 1, m_TokenLength);
+      m_Sparse[input] = true;
+    }
+    else {
+      index = count;
+      value = parseDouble(m_Token, 0, m_TokenLength);
+    }
+
+    m_Indices[input][count] = index;
+    m_Values[input][count]  = value;
+    m_NumValues[input]      = count + 1;
+  }
+
+  /**
+   * Reads the next sample. Empty lines get skipped.
+   *
+   * @return		true if a sample was read, false if end of input
+   * @throws IOException	if reading fails
+   */
+  public boolean next() throws IOException {
+    int		c;
+
+    while (true) {
+      m_RowID     = null;
+      m_NumInputs = 0;
+
+      c = skipBlanks();
+      if (c == -1)
+	return false;
+      m_LineNo++;
+
+      // row ID
+      if (!isEOL(c) && (c != '|')) {
+	readToken();
+	if (m_TokenLength > 0)
+	  m_RowID = new String(m_Token, 0, m_TokenLength);
+	skipSection();
+      }
+
+      // inputs
+      while ((c = peek()) == '|') {
+	m_Pos++;
+	readToken();
+	if ((m_TokenLength == 0) || (m_Token[0] == '#')) {
+	  skipSection();
+	  continue;
+	}
+	addInput(lookupName());
+	while (true) {
+	  c = skipBlanks();
+	  if (isEOL(c) || (c == '|'))
+	    break;
+	  readToken();
+	  addValue();
+	}
+      }
+
+      skipEOL();
+      if ((m_RowID != null) || (m_NumInputs > 0))
+	return true;
+    }
+  }
+
+  /**
+   * Returns the number of the current line (1-based).
+   *
+   * @return		the line number
+   */
+  public long getLineNo() {
+    return m_LineNo;
+  }
+
+  /**
+   * Returns all input names encountered so far, in order of appearance.
+   *
+   * @return		the names
+   */
+  public List<String> getNames() {
+    return m_Names;
+  }
+
+  /**
+   * Returns the row ID of the current sample.
+   *
+   * @return		the ID, null if none
+   */
+  public String getRowID() {
+    return m_RowID;
+  }
+
+  /**
+   * Returns the number of inputs in the current sample.
+   *
+   * @return		the number of inputs
+   */
+  public int getNumInputs() {
+    return m_NumInputs;
+  }
+
+  /**
+   * Returns the index of the name of the input (see {@link #getNames()}).
+   *
+   * @param input	the input in the current sample
+   * @return		the name index
+   */
+  public int getInputNameIndex(int input) {
+    return m_InputNames[input];
+  }
+
+  /**
+   * Returns the name of the input.
+   *
+   * @param input	the input in the current sample
+   * @return		the name
+   */
+  public String getInputName(int input) {
+    return m_Names.get(m_InputNames[input]);
+  }
+
+  /**
+   * Returns whether the input contained values in sparse format.
+   *
+   * @param input	the input in the current sample
+   * @return		true if sparse
+   */
+  public boolean isSparse(int input) {
+    return m_Sparse[input];
+  }
+
+  /**
+   * Returns the number of values of the input.
+   *
+   * @param input	the input in the current sample
+   * @return		the number of values
+   */
+  public int getNumValues(int input) {
+    return m_NumValues[input];
+  }
+
+  /**
+   * Returns the 0-based index of the value.
+   *
+   * @param input	the input in the current sample
+   * @param n		the value
+   * @return		the index
+   */
+  public int getIndex(int input, int n) {
+    return m_Indices[input][n];
+  }
+
+  /**
+   * Returns the value.
+   *
+   * @param input	the input in the current sample
+   * @param n		the value
+   * @return		the value, NaN if missing
+   */
+  public double getValue(int input, int n) {
+    return m_Values[input][n];
+  }
+
+  /**
+   * Closes the underlying reader.
+   *
+   * @throws IOException	if closing fails
+   */
+  @Override
+  public void close() throws IOException {
+    m_Reader.close();
+  }
+}
@@ -37,6 +37,7 @@ import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.logging.Level;
 
 /**
@@ -107,6 +108,9 @@ public class CNTKSpreadSheetWriter
 
   private static final long serialVersionUID = -756713262393228509L;
 
+  /** the number of rows to convert into primitive arrays at a time. */
+  public static final int BLOCK_SIZE = 1024;
+
   /** the optional row id column. */
   protected SpreadSheetColumnIndex m_RowID;
 
@@ -371,9 +375,61 @@ public class CNTKSpreadSheetWriter
     return result;
   }
 
+  /**
+   * Reads the values of the columns for the block of rows into the
+   * primitive arrays (row-major), converting each cell only once.
+   *
+   * @param content	the spreadsheet to read from
+   * @param start	the first row of the block
+   * @param count	the number of rows in the block
+   * @param cols	the columns to read
+   * @param rowID	the row ID column, -1 if none
+   * @param values	for storing the values
+   * @param missing	for storing the missing value flags
+   * @param ids		for storing the row IDs (null if none)
+   * @throws IllegalStateException	if a cell is not numeric
+   */
+  protected void readBlock(SpreadSheet content, int start, int count, int[] cols, int rowID, double[] values, boolean[] missing, String[] ids) {
+    Row		row;
+    Cell	cell;
+    Double	value;
+    int		r;
+    int		j;
+    int		k;
+
+    k = 0;
+    for (r = 0; r < count; r++) {
+      row = content.getRow(start + r);
+      for (j = 0; j < cols.length; j++, k++) {
+	cell = row.getCell(cols[j]);
+	if ((cell == null) || cell.isMissing()) {
+	  missing[k] = true;
+	  values[k]  = 0.0;
+	}
+	else {
+	  value = cell.toDouble();
+	  if (value == null)
+	    throw new IllegalStateException("Non-numeric cell in row #" + (start + r + 1) + ", column #" + (cols[j] + 1) + ": " + cell.getContent());
+	  missing[k] = false;
+	  values[k]  = value;
+	}
+      }
+      if (rowID > -1) {
+	cell = row.getCell(rowID);
+	if ((cell != null) && !cell.isMissing())
+	  ids[r] = cell.getContent();
+	else
+	  ids[r] = null;
+      }
+    }
+  }
+
   /**
    * Performs the actual writing. The caller must ensure that the writer gets
-   * closed.
+   * closed.<br>
+   * The data is processed in blocks of rows: the cells of the columns used
+   * by the inputs are first read into primitive arrays (each cell only once,
+   * even if used by several inputs), which the output loop then works on.
    *
    * @param content	the spreadsheet to write
    * @param writer	the writer to write the spreadsheet to
@@ -381,17 +437,29 @@ public class CNTKSpreadSheetWriter
    */
   @Override
   protected boolean doWrite(SpreadSheet content, Writer writer) {
-    int		rowID;
-    int[][]	inputs;
-    int		i;
-    int		n;
-    int		m;
-    int		r;
-    Cell 	cell;
-    String[]	names;
-    Double	value;
-    TIntList	canOutput;
-    boolean	missing;
+    int				rowID;
+    int[][]			inputs;
+    int[][]			slots;
+    int[]			cols;
+    int[]			colSlot;
+    int				numRows;
+    int				numCols;
+    int				start;
+    int				count;
+    int				base;
+    int				i;
+    int				n;
+    int				m;
+    int				r;
+    int				k;
+    String[]			names;
+    double[]			values;
+    boolean[]			missing;
+    String[]			ids;
+    double			value;
+    TIntList			canOutput;
+    boolean			miss;
+    CNTKTextFormatWriter	cntk;
 
     if (m_Inputs.length == 0) {
       getLogger().severe("No input ranges defined!");
@@ -422,92 +490,125 @@ public class CNTKSpreadSheetWriter
 	getLogger().info("input " + (i+1) + " (0-based): " + Utils.arrayToString(inputs[i]));
     }
 
+    // unique columns and their position in the blocks
+    colSlot = new int[content.getColumnCount()];
+    Arrays.fill(colSlot, -1);
+    numCols = 0;
+    for (i = 0; i < inputs.length; i++) {
+      for (n = 0; n < inputs[i].length; n++) {
+	if (colSlot[inputs[i][n]] == -1)
+	  colSlot[inputs[i][n]] = numCols++;
+      }
+    }
+    cols  = new int[numCols];
+    slots = new int[inputs.length][];
+    for (i = 0; i < inputs.length; i++) {
+      slots[i] = new int[inputs[i].length];
+      for (n = 0; n < inputs[i].length; n++) {
+	slots[i][n]                 = colSlot[inputs[i][n]];
+	cols[colSlot[inputs[i][n]]] = inputs[i][n];
+      }
+    }
+
     canOutput = new TIntArrayList();
     if (!m_SuppressMissing) {
       for (i = 0; i < m_Inputs.length; i++)
         canOutput.add(i);
     }
 
+    cntk = new CNTKTextFormatWriter(writer);
+    if (!m_NumberFormat.isEmpty())
+      cntk.setFormatter((double v) -> format(v));
+
+    numRows = content.getRowCount();
+    count   = Math.max(1, Math.min(numRows, BLOCK_SIZE));
+    values  = new double[count * numCols];
+    missing = new boolean[count * numCols];
+    ids     = (rowID > -1) ? new String[count] : null;
+
     // write data
-    r = 0;
-    for (Row row : content.rows()) {
-      if (m_Stopped)
+    for (start = 0; start < numRows; start += BLOCK_SIZE) {
+      count = Math.min(BLOCK_SIZE, numRows - start);
+      try {
+	readBlock(content, start, count, cols, rowID, values, missing, ids);
+      }
+      catch (Exception e) {
+	getLogger().log(Level.SEVERE, "Failed to read data!", e);
 	return false;
-
-      r++;
-      // check which groups can be output when suppressing groups with missing values
-      if (m_SuppressMissing) {
-        canOutput.clear();
-	for (i = 0; i < inputs.length; i++) {
-	  missing = false;
-	  for (n = 0; n < inputs[i].length; n++) {
-	    cell = row.getCell(inputs[i][n]);
-	    if ((cell == null) || cell.isMissing()) {
-	      missing = true;
-	      break;
-	    }
-	  }
-	  if (!missing)
-	    canOutput.add(i);
-	}
       }
-      // skip whole row?
-      if (m_SuppressMissing && isLoggingEnabled())
-        getLogger().fine("Row #" + r + " / inputs to output: " + canOutput);
-      if (canOutput.size() == 0)
-        continue;
 
-      try {
-	// ID
-	if (rowID > -1) {
-	  cell = row.getCell(rowID);
-	  if ((cell != null) && !cell.isMissing()) {
-	    writer.write(cell.getContent());
-	    writer.write(" ");
+      for (r = 0; r < count; r++) {
+	if (m_Stopped)
+	  return false;
+
+	base = r * numCols;
+	// check which groups can be output when suppressing groups with missing values
+	if (m_SuppressMissing) {
+	  canOutput.clear();
+	  for (i = 0; i < inputs.length; i++) {
+	    miss = false;
+	    for (n = 0; n < slots[i].length; n++) {
+	      if (missing[base + slots[i][n]]) {
+		miss = true;
+		break;
+	      }
+	    }
+	    if (!miss)
+	      canOutput.add(i);
 	  }
+	  if (isLoggingEnabled())
+	    getLogger().fine("Row #" + (start + r + 1) + " / inputs to output: " + canOutput);
 	}
-
-	// inputs
-	for (m = 0; m < canOutput.size(); m++) {
-	  i = canOutput.get(m);
-
-	  // separator
-	  writer.write("|");
-
-	  // name
-	  writer.write(names[i]);
-	  writer.write(" ");
-
-	  // values
-	  for (n = 0; n < inputs[i].length; n++) {
-	    cell = row.getCell(inputs[i][n]);
-	    if ((cell == null) || cell.isMissing())
-	      value = null;
-	    else
-	      value = cell.toDouble();
-
-	    if (m_UseSparseFormat) {
-	      if ((value != null) && (value == 0))
-		continue;
-	      writer.write("" + inputs[i][n]);
-	      writer.write(":");
+	// skip whole row?
+	if (canOutput.size() == 0)
+	  continue;
+
+	try {
+	  // ID
+	  if ((ids != null) && (ids[r] != null))
+	    cntk.writeRowID(ids[r]);
+
+	  // inputs
+	  for (m = 0; m < canOutput.size(); m++) {
+	    i = canOutput.get(m);
+	    cntk.startInput(names[i]);
+
+	    // values
+	    for (n = 0; n < slots[i].length; n++) {
+	      k     = base + slots[i][n];
+	      value = values[k];
+	      if (m_UseSparseFormat) {
+		if (missing[k])
+		  cntk.writeMissing(inputs[i][n], m_MissingValue);
+		else if (value != 0)
+		  cntk.writeValue(inputs[i][n], value);
+	      }
+	      else {
+		if (missing[k])
+		  cntk.writeMissing(m_MissingValue);
+		else
+		  cntk.writeValue(value);
+	      }
 	    }
-	    if (value == null)
-	      writer.write(m_MissingValue);
-	    else
-	      writer.write(format(value));
-	    writer.write(" ");
 	  }
-	}
 
-	writer.write("\n");
-      }
-      catch (Exception e) {
-	getLogger().log(Level.SEVERE, "Failed to write data: " + row, e);
-	return false;
+	  cntk.endRow();
+	}
+	catch (Exception e) {
+	  getLogger().log(Level.SEVERE, "Failed to write data: " + content.getRow(start + r), e);
+	  return false;
+	}
       }
     }
 
+    try {
+      cntk.flush();
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to write data!", e);
+      return false;
+    }
+
     return true;
   }
 }
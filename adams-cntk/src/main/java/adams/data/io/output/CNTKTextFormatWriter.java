@@ -0,0 +1,346 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CNTKTextFormatWriter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.output;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.DoubleFunction;
+
+/**
+ * Streaming writer for the CNTK text format, writing one sample (= line)
+ * at a time. Output is collected in a re-usable char buffer that only gets
+ * passed on to the underlying writer when full or flushed.<br>
+ * Unless a custom formatter is supplied, numbers are output like
+ * {@link Double#toString(double)}, with integral values being formatted
+ * without any intermediate objects.
+ * <br>
+ * Usage:
+ * <pre>
+ * writer.writeRowID("1");      // optional
+ * writer.startInput("features");
+ * writer.writeValue(0.5);
+ * writer.startInput("labels");
+ * writer.writeValue(2, 1.0);   // sparse
+ * writer.endRow();
+ * </pre>
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see CNTKSpreadSheetWriter
+ */
+public class CNTKTextFormatWriter
+  implements Closeable, Flushable {
+
+  /** the default buffer size. */
+  public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+  /** the largest integral value that gets formatted directly (Double.toString switches to exponent). */
+  protected static final double MAX_INTEGRAL = 1.0E7;
+
+  /** the underlying writer. */
+  protected Writer m_Writer;
+
+  /** the buffer. */
+  protected char[] m_Buffer;
+
+  /** the current position in the buffer. */
+  protected int m_Pos;
+
+  /** the custom formatter, null for default output. */
+  protected DoubleFunction<String> m_Formatter;
+
+  /** the number of rows written. */
+  protected long m_Rows;
+
+  /**
+   * Initializes the writer with the default buffer size.
+   *
+   * @param writer	the writer to write to
+   */
+  public CNTKTextFormatWriter(Writer writer) {
+    this(writer, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Initializes the writer.
+   *
+   * @param writer	the writer to write to
+   * @param bufferSize	the size of the buffer in chars
+   */
+  public CNTKTextFormatWriter(Writer writer, int bufferSize) {
+    m_Writer = writer;
+    m_Buffer = new char[Math.max(64, bufferSize)];
+    m_Pos    = 0;
+  }
+
+  /**
+   * Sets the custom formatter for numbers.
+   *
+   * @param value	the formatter, null for default output
+   */
+  public void setFormatter(DoubleFunction<String> value) {
+    m_Formatter = value;
+  }
+
+  /**
+   * Returns the custom formatter for numbers.
+   *
+   * @return		the formatter, null for default output
+   */
+  public DoubleFunction<String> getFormatter() {
+    return m_Formatter;
+  }
+
+  /**
+   * Returns the number of rows written so far.
+   *
+   * @return		the number of rows
+   */
+  public long getRowCount() {
+    return m_Rows;
+  }
+
+  /**
+   * Ensures that the specified number of chars fits into the buffer,
+   * flushing the buffer if necessary.
+   *
+   * @param len		the number of chars to fit
+   * @throws IOException	if writing fails
+   */
+  protected void ensure(int len) throws IOException {
+    if (m_Pos + len > m_Buffer.length)
+      flushBuffer();
+  }
+
+  /**
+   * Passes the content of the buffer on to the underlying writer.
+   *
+   * @throws IOException	if writing fails
+   */
+  protected void flushBuffer() throws IOException {
+    if (m_Pos > 0) {
+      m_Writer.write(m_Buffer, 0, m_Pos);
+      m_Pos = 0;
+    }
+  }
+
+  /**
+   * Appends the character.
+   *
+   * @param c		the character to append
+   * @throws IOException	if writing fails
+   */
+  protected void append(char c) throws IOException {
+    if (m_Pos == m_Buffer.length)
+      flushBuffer();
+    m_Buffer[m_Pos++] = c;
+  }
+
+  /**
+   * Appends the string.
+   *
+   * @param s		the string to append
+   * @throws IOException	if writing fails
+   */
+  protected void append(String s) throws IOException {
+    int		len;
+
+    len = s.length();
+    if (len > m_Buffer.length) {
+      flushBuffer();
+      m_Writer.write(s);
+      return;
+    }
+    ensure(len);
+    s.getChars(0, len, m_Buffer, m_Pos);
+    m_Pos += len;
+  }
+
+  /**
+   * Appends the (non-negative) long value.
+   *
+   * @param value	the value to append
+   * @throws IOException	if writing fails
+   */
+  protected void appendDigits(long value) throws IOException {
+    int		start;
+    int		end;
+    char	c;
+
+    ensure(20);
+    start = m_Pos;
+    do {
+      m_Buffer[m_Pos++] = (char) ('0' + (value % 10));
+      value /= 10;
+    }
+    while (value > 0);
+
+    // reverse
+    end = m_Pos - 1;
+    while (start < end) {
+      c                 = m_Buffer[start];
+      m_Buffer[start++] = m_Buffer[end];
+      m_Buffer[end--]   = c;
+    }
+  }
+
+  /**
+   * Appends the number, using the custom formatter if available.
+   *
+   * @param value	the value to append
+   * @throws IOException	if writing fails
+   */
+  protected void appendNumber(double value) throws IOException {
+    long	integral;
+
+    if (m_Formatter != null) {
+      append(m_Formatter.apply(value));
+      return;
+    }
+
+    // integral values: same output as Double.toString
+    if ((value > -MAX_INTEGRAL) && (value < MAX_INTEGRAL)) {
+      integral = (long) value;
+      if ((integral == value) && !((integral == 0) && (Double.doubleToRawLongBits(value) != 0))) {
+	if (integral < 0) {
+	  append('-');
+	  integral = -integral;
+	}
+	appendDigits(integral);
+	append('.');
+	append('0');
+	return;
+      }
+    }
+
+    append(Double.toString(value));
+  }
+
+  /**
+   * Writes the row ID. Must be called before any input gets started.
+   *
+   * @param id		the ID
+   * @throws IOException	if writing fails
+   */
+  public void writeRowID(String id) throws IOException {
+    append(id);
+    append(' ');
+  }
+
+  /**
+   * Starts the input with the specified name.
+   *
+   * @param name	the name of the input
+   * @throws IOException	if writing fails
+   */
+  public void startInput(String name) throws IOException {
+    append('|');
+    append(name);
+    append(' ');
+  }
+
+  /**
+   * Writes the value (dense format).
+   *
+   * @param value	the value
+   * @throws IOException	if writing fails
+   */
+  public void writeValue(double value) throws IOException {
+    appendNumber(value);
+    append(' ');
+  }
+
+  /**
+   * Writes the value (sparse format).
+   *
+   * @param index	the 0-based index of the value
+   * @param value	the value
+   * @throws IOException	if writing fails
+   */
+  public void writeValue(int index, double value) throws IOException {
+    appendDigits(index);
+    append(':');
+    appendNumber(value);
+    append(' ');
+  }
+
+  /**
+   * Writes the placeholder for a missing value (dense format).
+   *
+   * @param missing	the placeholder
+   * @throws IOException	if writing fails
+   */
+  public void writeMissing(String missing) throws IOException {
+    append(missing);
+    append(' ');
+  }
+
+  /**
+   * Writes the placeholder for a missing value (sparse format).
+   *
+   * @param index	the 0-based index of the value
+   * @param missing	the placeholder
+   * @throws IOException	if writing fails
+   */
+  public void writeMissing(int index, String missing) throws IOException {
+    appendDigits(index);
+    append(':');
+    append(missing);
+    append(' ');
+  }
+
+  /**
+   * Finishes the current row.
+   *
+   * @throws IOException	if writing fails
+   */
+  public void endRow() throws IOException {
+    append('\n');
+    m_Rows++;
+  }
+
+  /**
+   * Passes the buffered output on to the underlying writer and flushes it.
+   *
+   * @throws IOException	if writing fails
+   */
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    m_Writer.flush();
+  }
+
+  /**
+   * Flushes the output and closes the underlying writer.
+   *
+   * @throws IOException	if writing or closing fails
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flushBuffer();
+    }
+    finally {
+      m_Writer.close();
+    }
+  }
+}
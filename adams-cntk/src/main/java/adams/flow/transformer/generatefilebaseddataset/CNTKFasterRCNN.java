@@ -20,6 +20,7 @@
 
 package adams.flow.transformer.generatefilebaseddataset;
 
+import adams.core.Performance;
 import adams.core.QuickInfoHelper;
 import adams.core.base.BaseKeyValuePair;
 import adams.core.base.BaseRegExp;
@@ -27,6 +28,7 @@ import adams.core.io.FileUtils;
 import adams.core.io.PlaceholderDirectory;
 import adams.core.io.PlaceholderFile;
 import adams.core.logging.LoggingHelper;
+import adams.core.option.OptionUtils;
 import adams.data.RoundingType;
 import adams.data.SharedStringsTable;
 import adams.data.image.AbstractImageContainer;
@@ -44,14 +46,25 @@ import adams.flow.container.FileBasedDatasetContainer;
 import adams.flow.transformer.locateobjects.LocatedObject;
 import adams.flow.transformer.locateobjects.LocatedObjects;
 
-import javax.media.jai.InterpolationNearest;
-import javax.media.jai.JAI;
-import javax.media.jai.RenderedOp;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
-import java.awt.image.renderable.ParameterBlock;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Generates a CNTK dataset for Faster-RCNN in the specified directory.
@@ -83,6 +96,22 @@ public class CNTKFasterRCNN
 
   public static final String CLASS_MAP = "class_map.txt";
 
+  /**
+   * Container for the output generated from a single image (multiple
+   * images if enlarged).
+   */
+  protected static class ProcessedImage {
+
+    /** the error message, null if successful. */
+    public String error;
+
+    /** the names of the generated images in the output directory. */
+    public List<String> names = new ArrayList<>();
+
+    /** the objects of the generated images (fitted to image). */
+    public List<LocatedObjects> objects = new ArrayList<>();
+  }
+
   /** the output directory for the dataset. */
   protected PlaceholderDirectory m_OutputDir;
 
@@ -110,6 +139,9 @@ public class CNTKFasterRCNN
   /** the object finder to use for the negative images. */
   protected ObjectFinder m_NegativeObjectFinder;
 
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
   /**
    * Returns a string describing the object.
    *
@@ -120,7 +152,11 @@ public class CNTKFasterRCNN
     return "Generates a CNTK dataset for Faster-RCNN in the specified directory.\n"
       + "Expects reports with annotations to be present with the same name (but with .report extension).\n"
       + "Via the 'regExpEnlarge' expression, iamges can be identified that should be split into 2x2 grid "
-      + "and blown up to original size.";
+      + "and blown up to original size.\n"
+      + "All other train/test images get copied unchanged, with only their header being read (via ImageIO) to determine "
+      + "the dimensions. Their annotations therefore only come from the associated report, any meta-data "
+      + "that the image reader would have supplied is not used. Existing files in the output directory get "
+      + "overwritten.";
   }
 
   /**
@@ -165,6 +201,10 @@ public class CNTKFasterRCNN
     m_OptionManager.add(
       "negative-object-finder", "negativeObjectFinder",
       new AllFinder());
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      -1);
   }
 
   /**
@@ -253,7 +293,7 @@ public class CNTKFasterRCNN
    * 			displaying in the GUI or for listing the options.
    */
   public String imageReaderTipText() {
-    return "The image reader to use for the train/test images.";
+    return "The image reader to use for the train/test images that get enlarged or for which ImageIO cannot determine the dimensions from the header.";
   }
 
   /**
@@ -439,6 +479,38 @@ public class CNTKFasterRCNN
     return "The object finder to use for the negative annotations.";
   }
 
+  /**
+   * Sets the number of threads to use for processing the train/test images.
+   *
+   * @param value	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for processing the train/test images.
+   *
+   * @return		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return
+      "The number of threads to use for processing the train/test images; "
+	+ "-1 = # of CPUs/cores; 0/1 = sequential execution; the image/ROI files "
+	+ "list the images in the same order as the incoming files.";
+  }
+
   /**
    * Returns the class that gets generated.
    *
@@ -478,6 +550,7 @@ public class CNTKFasterRCNN
       result += QuickInfoHelper.toString(this, "negativeImageReader", m_NegativeImageReader, ", neg image reader: ");
       result += QuickInfoHelper.toString(this, "negativeObjectFinder", m_NegativeObjectFinder, ", neg finder: ");
     }
+    result += QuickInfoHelper.toString(this, "numThreads", m_NumThreads, ", threads: ");
 
     return result;
   }
@@ -596,14 +669,14 @@ public class CNTKFasterRCNN
    * to the original size. Object locations get adjusted accordingly.
    *
    * @param imgCont	the image to process
+   * @param finder	the object finder to use
    * @return		the generated
    */
-  protected BufferedImageContainer[] enlarge(AbstractImageContainer imgCont) {
+  protected BufferedImageContainer[] enlarge(AbstractImageContainer imgCont, ObjectFinder finder) {
     List<BufferedImageContainer>	result;
     Grid				grid;
     List<BufferedImageContainer>	subImages;
-    ParameterBlock 			params;
-    RenderedOp 				imNew;
+    AffineTransformOp			op;
     BufferedImageContainer		contNew;
     Scale				scale;
     LocatedObjects			objects;
@@ -616,30 +689,23 @@ public class CNTKFasterRCNN
     grid.setNumRows(2);
     grid.setPartial(false);
     grid.setFixInvalid(true);
-    grid.setPrefix(m_ObjectFinder.getPrefix());
+    grid.setPrefix(finder.getPrefix());
     subImages = grid.process(BufferedImageHelper.toBufferedImageContainer(imgCont));
+    op        = new AffineTransformOp(AffineTransform.getScaleInstance(2.0, 2.0), AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
 
     for (BufferedImageContainer subImage: subImages) {
       // scale image
-      params = new ParameterBlock();
-      params.addSource(subImage.toBufferedImage());
-      params.add(2.0F);
-      params.add(2.0F);
-      params.add(0.0F);  // x translate
-      params.add(0.0F);  // y translate
-      params.add(new InterpolationNearest());
-      imNew = JAI.create("scale", params);
       contNew = new BufferedImageContainer();
-      contNew.setContent(imNew.getAsBufferedImage());
+      contNew.setContent(op.filter(subImage.toBufferedImage(), null));
 
       // scale annotations
-      objects = LocatedObjects.fromReport(subImage.getReport(), m_ObjectFinder.getPrefix());
+      objects = LocatedObjects.fromReport(subImage.getReport(), finder.getPrefix());
       scale = new Scale();
       scale.setScaleX(2.0);
       scale.setScaleY(2.0);
       scale.setRoundingType(RoundingType.ROUND);
       objects = scale.filter(objects);
-      contNew.setReport(objects.toReport(m_ObjectFinder.getPrefix()));
+      contNew.setReport(objects.toReport(finder.getPrefix()));
 
       result.add(contNew);
     }
@@ -647,6 +713,128 @@ public class CNTKFasterRCNN
     return result.toArray(new BufferedImageContainer[0]);
   }
 
+  /**
+   * Determines the dimensions of the image. Uses the header information
+   * of the ImageIO reader if possible, otherwise the image gets read.
+   *
+   * @param file	the image to get the dimensions for
+   * @param reader	the reader to use if no ImageIO reader available
+   * @return		the dimensions, null if failed to determine
+   * @throws IOException	if reading fails
+   */
+  protected Dimension readDimensions(File file, AbstractImageReader reader) throws IOException {
+    Iterator<ImageReader>	readers;
+    ImageReader			imgReader;
+    AbstractImageContainer	imgCont;
+
+    try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+      if (in != null) {
+	readers = ImageIO.getImageReaders(in);
+	if (readers.hasNext()) {
+	  imgReader = readers.next();
+	  try {
+	    imgReader.setInput(in, true, true);
+	    return new Dimension(imgReader.getWidth(0), imgReader.getHeight(0));
+	  }
+	  finally {
+	    imgReader.dispose();
+	  }
+	}
+      }
+    }
+
+    imgCont = reader.read(new PlaceholderFile(file));
+    if (imgCont == null)
+      return null;
+    return new Dimension(imgCont.getWidth(), imgCont.getHeight());
+  }
+
+  /**
+   * Processes a single train/test image: copies it unchanged to the output
+   * directory or, if to be enlarged, writes the enlarged sub-images.
+   * Images that get copied are not decoded, i.e., their annotations only
+   * come from the associated report and not from the image reader.
+   * Does not touch any shared state, can be called from multiple threads.
+   *
+   * @param filename	the image to process
+   * @param outDir	the output directory
+   * @param train 	whether a train or test image
+   * @param reader	the image reader to use
+   * @param finder	the object finder to use
+   * @return		the generated output
+   */
+  protected ProcessedImage processImage(String filename, PlaceholderDirectory outDir, boolean train, AbstractImageReader reader, ObjectFinder finder) {
+    ProcessedImage			result;
+    PlaceholderFile			file;
+    Report				report;
+    LocatedObjects			objects;
+    AbstractImageContainer		imgCont;
+    BufferedImageContainer[] 		imgLarge;
+    PlaceholderFile			subfile;
+    Dimension				dims;
+    int					n;
+
+    result = new ProcessedImage();
+    file   = new PlaceholderFile(filename);
+
+    try {
+      // load report
+      report = readAssociatedReport(file.getAbsolutePath());
+      if (report == null) {
+	result.error = "Failed to read associated report for " + (train ? "training" : "test") + " image: " + file;
+	return result;
+      }
+
+      if (m_RegExpEnlarge.isMatch(filename)) {
+	// load image
+	imgCont = reader.read(file);
+	if (imgCont == null) {
+	  result.error = "Failed to read " + (train ? "training" : "test") + " image: " + file;
+	  return result;
+	}
+	imgCont.getReport().mergeWith(report);
+
+	imgLarge = enlarge(imgCont, finder);
+	for (n = 0; n < imgLarge.length; n++) {
+	  subfile = new PlaceholderFile(outDir.getAbsolutePath() + File.separator + FileUtils.replaceExtension(file.getName(), "-" + (n+1) + ".png"));
+	  // store image
+	  result.error = BufferedImageHelper.write(imgLarge[n].toBufferedImage(), subfile);
+	  if (result.error != null)
+	    return result;
+	  // annotations
+	  objects = finder.findObjects(imgLarge[n].getReport());
+	  for (LocatedObject object : objects)
+	    object.makeFit(imgLarge[n].getWidth(), imgLarge[n].getHeight());
+	  result.names.add(subfile.getName());
+	  result.objects.add(objects);
+	}
+      }
+      else {
+	// dimensions from header
+	dims = readDimensions(file.getAbsoluteFile(), reader);
+	if (dims == null) {
+	  result.error = "Failed to read " + (train ? "training" : "test") + " image: " + file;
+	  return result;
+	}
+
+	// store image
+	Files.copy(file.getAbsoluteFile().toPath(), new File(outDir.getAbsolutePath(), file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+	// annotations
+	objects = finder.findObjects(report);
+	for (LocatedObject object : objects)
+	  object.makeFit(dims.width, dims.height);
+	result.names.add(file.getName());
+	result.objects.add(objects);
+      }
+    }
+    catch (Exception e) {
+      result.error = LoggingHelper.handleException(this, "Failed to process " + (train ? "training" : "test") + " '" + file + "!", e);
+    }
+
+    return result;
+  }
+
   /**
    * Outputs the annotations.
    *
@@ -658,128 +846,102 @@ public class CNTKFasterRCNN
   protected String processAnnotations(FileBasedDatasetContainer cont, boolean train, SharedStringsTable labels) {
     String				result;
     String[]				files;
-    PlaceholderDirectory		outDir;
+    final PlaceholderDirectory		outDir;
     int					i;
-    PlaceholderFile			file;
-    PlaceholderFile			subfile;
-    Report				report;
-    LocatedObjects			objects;
+    int					n;
+    int					numThreads;
+    ExecutorService			executor;
+    List<Future<ProcessedImage>>	jobs;
+    final ThreadLocal<AbstractImageReader> readers;
+    final ThreadLocal<ObjectFinder>	finders;
+    ProcessedImage			processed;
+    String				name;
+    String				label;
     List<String> 			imgList;
     List<String> 			roiList;
     List<String>			objList;
     StringBuilder			rois;
-    AbstractImageContainer		imgCont;
-    boolean				enlarge;
-    BufferedImageContainer[] 		imgLarge;
-    int					n;
     int					imgIndex;
 
-    result  = null;
-    files   = cont.getValue(train ? FileBasedDatasetContainer.VALUE_TRAIN : FileBasedDatasetContainer.VALUE_TEST, String[].class);
-    outDir  = new PlaceholderDirectory(m_OutputDir.getAbsolutePath() + File.separator + (train ? SUB_DIR_TRAIN : SUB_DIR_TEST));
-    imgList = new ArrayList<>();
-    roiList = new ArrayList<>();
-    objList = new ArrayList<>();
+    result     = null;
+    files      = cont.getValue(train ? FileBasedDatasetContainer.VALUE_TRAIN : FileBasedDatasetContainer.VALUE_TEST, String[].class);
+    outDir     = new PlaceholderDirectory(m_OutputDir.getAbsolutePath() + File.separator + (train ? SUB_DIR_TRAIN : SUB_DIR_TEST));
+    imgList    = new ArrayList<>();
+    roiList    = new ArrayList<>();
+    objList    = new ArrayList<>();
     objList.add("file,x0,y0,x1,y1,label");
-
-    imgIndex = 0;
-    for (i = 0; i < files.length; i++) {
-      file    = new PlaceholderFile(files[i]);
-      enlarge = m_RegExpEnlarge.isMatch(files[i]);
-      try {
-        // load report
-	report = readAssociatedReport(file.getAbsolutePath());
-	if (report == null) {
-	  result = "Failed to read associated report for " + (train ? "training" : "test") + " image: " + file;
-	  break;
+    numThreads = Math.min(Performance.determineNumThreads(m_NumThreads), files.length);
+    executor   = null;
+
+    try {
+      // process images in parallel, each thread with its own reader and finder
+      if (numThreads > 1) {
+	readers  = ThreadLocal.withInitial(() -> (AbstractImageReader) OptionUtils.shallowCopy(m_ImageReader));
+	finders  = ThreadLocal.withInitial(() -> (ObjectFinder) OptionUtils.shallowCopy(m_ObjectFinder));
+	jobs     = new ArrayList<>();
+	executor = Executors.newFixedThreadPool(numThreads);
+	for (final String file: files) {
+	  jobs.add(executor.submit(new Callable<ProcessedImage>() {
+	    @Override
+	    public ProcessedImage call() throws Exception {
+	      return processImage(file, outDir, train, readers.get(), finders.get());
+	    }
+	  }));
 	}
+      }
+      else {
+	jobs = null;
+      }
 
-	// load image
-	imgCont = m_ImageReader.read(file);
-	if (imgCont == null) {
-	  result = "Failed to read " + (train ? "training" : "test") + " image: " + file;
+      // collect output in order of files
+      imgIndex = 0;
+      for (i = 0; i < files.length; i++) {
+	if (jobs != null)
+	  processed = jobs.get(i).get();
+	else
+	  processed = processImage(files[i], outDir, train, m_ImageReader, m_ObjectFinder);
+	if (processed.error != null) {
+	  result = processed.error;
 	  break;
 	}
-	imgCont.getReport().mergeWith(report);
-
-	if (enlarge) {
-	  imgLarge = enlarge(imgCont);
-	  for (n = 0; n < imgLarge.length; n++) {
-	    subfile = new PlaceholderFile(outDir.getAbsolutePath() + File.separator + FileUtils.replaceExtension(file.getName(), "-" + (n+1) + ".png"));
-	    // store image
-	    result = BufferedImageHelper.write(imgLarge[n].toBufferedImage(), subfile);
-	    if (result != null)
-	      break;
-	    // generate annotations
-	    rois    = new StringBuilder();
-	    objects = m_ObjectFinder.findObjects(imgLarge[n].getReport());
-	    if (objects.size() > 0) {
-	      for (LocatedObject object : objects) {
-		object.makeFit(imgLarge[n].getWidth(), imgLarge[n].getHeight());
-		// roi
-		rois.append(" " + object.getX());
-		rois.append(" " + object.getY());
-		rois.append(" " + (object.getX() + object.getWidth() - 1));
-		rois.append(" " + (object.getY() + object.getHeight() - 1));
-		rois.append(" " + labels.getIndex(translateLabel("" + object.getMetaData().get("type"))));
-		// location
-		if (m_OutputObjectLocations) {
-		  objList.add(
-		    FileUtils.replaceExtension(subfile.getName(), "") + ","
-		      + object.getX() + ","
-		      + object.getY() + ","
-		      + (object.getX() + object.getWidth() - 1) + ","
-		      + (object.getY() + object.getHeight() - 1) + ","
-		      + translateLabel("" + object.getMetaData().get("type")));
-		}
-	      }
-	    }
-	    imgList.add(imgIndex + "\t" + (train ? SUB_DIR_TRAIN : SUB_DIR_TEST) + "/" + subfile.getName() + "\t" + "0");
-	    roiList.add(imgIndex + " |roiAndLabel " + rois);
-	    imgIndex++;
-	  }
-	  if (result != null)
-	    break;
-	}
-	else {
-	  // store image
-	  if (!FileUtils.copy(file, outDir)) {
-	    result = "Failed to copy image '" + file + "' to: " + outDir;
-	    break;
-	  }
 
-	  // generate annotations
-	  rois    = new StringBuilder();
-	  objects = m_ObjectFinder.findObjects(imgCont.getReport());
-	  if (objects.size() > 0) {
-	    for (LocatedObject object : objects) {
-	      object.makeFit(imgCont.getWidth(), imgCont.getHeight());
-	      // roi
-	      rois.append(" " + object.getX());
-	      rois.append(" " + object.getY());
-	      rois.append(" " + (object.getX() + object.getWidth() - 1));
-	      rois.append(" " + (object.getY() + object.getHeight() - 1));
-	      rois.append(" " + labels.getIndex(translateLabel("" + object.getMetaData().get("type"))));
-	      // location
-	      if (m_OutputObjectLocations) {
-		objList.add(
-		  FileUtils.replaceExtension(file.getName(), "") + ","
-		    + object.getX() + ","
-		    + object.getY() + ","
-		    + (object.getX() + object.getWidth() - 1) + ","
-		    + (object.getY() + object.getHeight() - 1) + ","
-		    + translateLabel("" + object.getMetaData().get("type")));
-	      }
+	for (n = 0; n < processed.names.size(); n++) {
+	  name = processed.names.get(n);
+	  rois = new StringBuilder();
+	  for (LocatedObject object : processed.objects.get(n)) {
+	    label = translateLabel("" + object.getMetaData().get("type"));
+	    // roi
+	    rois.append(" " + object.getX());
+	    rois.append(" " + object.getY());
+	    rois.append(" " + (object.getX() + object.getWidth() - 1));
+	    rois.append(" " + (object.getY() + object.getHeight() - 1));
+	    rois.append(" " + labels.getIndex(label));
+	    // location
+	    if (m_OutputObjectLocations) {
+	      objList.add(
+		FileUtils.replaceExtension(name, "") + ","
+		  + object.getX() + ","
+		  + object.getY() + ","
+		  + (object.getX() + object.getWidth() - 1) + ","
+		  + (object.getY() + object.getHeight() - 1) + ","
+		  + label);
 	    }
 	  }
-	  imgList.add(imgIndex + "\t" + (train ? SUB_DIR_TRAIN : SUB_DIR_TEST) + "/" + file.getName() + "\t" + "0");
+	  imgList.add(imgIndex + "\t" + (train ? SUB_DIR_TRAIN : SUB_DIR_TEST) + "/" + name + "\t" + "0");
 	  roiList.add(imgIndex + " |roiAndLabel " + rois);
 	  imgIndex++;
 	}
       }
-      catch (Exception e) {
-	result = LoggingHelper.handleException(this, "Failed to process " + (train ? "training" : "test") + " '" + file + "!", e);
-      }
+    }
+    catch (ExecutionException e) {
+      result = LoggingHelper.handleException(this, "Failed to process " + (train ? "training" : "test") + " images!", e);
+    }
+    catch (InterruptedException e) {
+      result = "Interrupted while processing " + (train ? "training" : "test") + " images!";
+    }
+    finally {
+      if (executor != null)
+	executor.shutdownNow();
     }
 
     if (result == null) {
@@ -854,10 +1016,8 @@ public class CNTKFasterRCNN
     else {
       try {
         for (String fileStr: files) {
-	  if (!FileUtils.copy(new PlaceholderFile(fileStr), outDir)) {
-	    result = "Failed to copy '" + fileStr + "' to: " + outDir;
-	    break;
-	  }
+	  file = new PlaceholderFile(fileStr);
+	  Files.copy(file.getAbsoluteFile().toPath(), new File(outDir.getAbsolutePath(), file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
 	}
       }
       catch (Exception e) {
@@ -0,0 +1,180 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CNTKSpreadSheetReaderTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.input;
+
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SparseDataRow;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.StringReader;
+
+/**
+ * Tests the CNTKSpreadSheetReader class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CNTKSpreadSheetReaderTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public CNTKSpreadSheetReaderTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the value of the cell, 0 if not present.
+   *
+   * @param row		the row to get the value from
+   * @param col		the column
+   * @return		the value
+   */
+  protected double getValue(Row row, int col) {
+    if (!row.hasCell(col))
+      return 0.0;
+    return row.getCell(col).toDouble();
+  }
+
+  /**
+   * Tests reading dense data, incl missing values and non-numeric tokens.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testDense() throws Exception {
+    CNTKSpreadSheetReader	reader;
+    SpreadSheet			sheet;
+
+    reader = new CNTKSpreadSheetReader();
+    sheet  = reader.read(new StringReader(
+      "|features 1 2 3 |labels 1 0\n"
+	+ "|features 4 ? abc |#comment 1 |labels 0 1\n"));
+    assertNotNull("read", sheet);
+    assertEquals("# rows", 2, sheet.getRowCount());
+    assertEquals("# cols", 5, sheet.getColumnCount());
+    assertEquals("name", "features-2", sheet.getColumnName(2));
+    assertEquals("name", "labels-0", sheet.getColumnName(3));
+    assertEquals("value", 3.0, getValue(sheet.getRow(0), 2));
+    assertEquals("value", 4.0, getValue(sheet.getRow(1), 0));
+    assertTrue("missing", sheet.getRow(1).getCell(1).isMissing());
+    assertTrue("non-numeric", sheet.getRow(1).getCell(2).isMissing());
+    assertEquals("value", 1.0, getValue(sheet.getRow(1), 4));
+  }
+
+  /**
+   * Tests reading sparse data: values and indices must not get mixed up.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testSparse() throws Exception {
+    CNTKSpreadSheetReader	reader;
+    SpreadSheet			sheet;
+
+    reader = new CNTKSpreadSheetReader();
+    sheet  = reader.read(new StringReader(
+      "1 |features 0:1.5 3:2.5 |labels 1:1\n"
+	+ "2 |features 1:4\n"));
+    assertNotNull("read", sheet);
+    assertEquals("row type", SparseDataRow.class, sheet.getDataRowClass());
+    assertEquals("# rows", 2, sheet.getRowCount());
+    assertEquals("# cols", 7, sheet.getColumnCount());
+    assertEquals("ID", CNTKSpreadSheetReader.COLUMN_ID, sheet.getColumnName(0));
+    assertEquals("id", "1", sheet.getRow(0).getCell(0).getContent());
+    assertEquals("value", 1.5, getValue(sheet.getRow(0), 1));
+    assertEquals("value", 0.0, getValue(sheet.getRow(0), 2));
+    assertEquals("value", 2.5, getValue(sheet.getRow(0), 4));
+    assertEquals("value", 1.0, getValue(sheet.getRow(0), 6));
+    assertEquals("value", 0.0, getValue(sheet.getRow(1), 1));
+    assertEquals("value", 4.0, getValue(sheet.getRow(1), 2));
+  }
+
+  /**
+   * Tests the chunked mode, incl an input that only appears in a later
+   * chunk.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testChunks() throws Exception {
+    CNTKSpreadSheetReader	reader;
+    SpreadSheet			sheet;
+    StringBuilder		data;
+    int				i;
+    int				rows;
+    int				chunks;
+
+    data = new StringBuilder();
+    for (i = 0; i < 10; i++) {
+      data.append("|features ").append(i).append(" ").append(i * 2);
+      if (i == 9)
+	data.append(" |extra 42");
+      data.append("\n");
+    }
+
+    reader = new CNTKSpreadSheetReader();
+    reader.setChunkSize(4);
+    sheet  = reader.read(new StringReader(data.toString()));
+    rows   = 0;
+    chunks = 0;
+    while (sheet != null) {
+      chunks++;
+      assertEquals("chunk size", (chunks < 3) ? 4 : 2, sheet.getRowCount());
+      for (i = 0; i < sheet.getRowCount(); i++) {
+	assertEquals("value", (double) rows, getValue(sheet.getRow(i), 0));
+	assertEquals("value", (double) rows * 2, getValue(sheet.getRow(i), 1));
+	rows++;
+      }
+      if (!reader.hasMoreChunks())
+	break;
+      sheet = reader.nextChunk();
+    }
+    assertEquals("# chunks", 3, chunks);
+    assertEquals("# rows", 10, rows);
+    assertEquals("# cols", 3, sheet.getColumnCount());
+    assertEquals("name", "extra-0", sheet.getColumnName(2));
+    assertEquals("value", 42.0, getValue(sheet.getRow(1), 2));
+    assertNull("no more chunks", reader.nextChunk());
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(CNTKSpreadSheetReaderTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CNTKTextFormatReaderTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.input;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Tests the CNTKTextFormatReader class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CNTKTextFormatReaderTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public CNTKTextFormatReaderTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Parses the string with the fast parser.
+   *
+   * @param s		the string to parse
+   * @return		the parsed value
+   */
+  protected double parse(String s) {
+    char[]	chars;
+
+    // embed in other characters to test start/end
+    chars = (" " + s + "|").toCharArray();
+    return CNTKTextFormatReader.parseDouble(chars, 1, chars.length - 1);
+  }
+
+  /**
+   * Compares the fast parser with Double.parseDouble, bit by bit.
+   *
+   * @param s		the string to parse
+   */
+  protected void checkParse(String s) {
+    assertEquals(s, Double.doubleToLongBits(Double.parseDouble(s)), Double.doubleToLongBits(parse(s)));
+  }
+
+  /**
+   * Tests the number parsing against Double.parseDouble.
+   */
+  public void testParseDouble() {
+    Random	rand;
+    String[]	values;
+    double	d;
+    int		i;
+
+    values = new String[]{
+      "0", "-0", "+0", "0.0", "-0.0", "1", "-1", "+1", "1.", ".5", "-.5", "0.1", "0.3", "123.456",
+      "1e10", "1E-10", "-1.5e+3", "1e22", "1e23", "1e-22", "1e-23", "9007199254740992", "9007199254740993",
+      "123456789012345678", "1234567890123456789012", "0.000000000000000000001234", "3.141592653589793",
+      "2.2250738585072014E-308", "4.9E-324", "1.7976931348623157E308", "1e400", "-1e400", "1e-400",
+      "00012.5000", "12345678.9",
+    };
+    for (String value: values)
+      checkParse(value);
+
+    rand = new Random(42);
+    for (i = 0; i < 10000; i++) {
+      switch (i % 4) {
+	case 0:
+	  d = rand.nextDouble();
+	  break;
+	case 1:
+	  d = (rand.nextDouble() - 0.5) * 1e6;
+	  break;
+	case 2:
+	  d = rand.nextInt(100000) / 100.0;
+	  break;
+	default:
+	  d = Double.longBitsToDouble(rand.nextLong());
+	  if (Double.isNaN(d) || Double.isInfinite(d))
+	    d = 0;
+      }
+      checkParse(Double.toString(d));
+      checkParse(new BigDecimal(d).toPlainString());
+    }
+  }
+
+  /**
+   * Tests values that are not numbers.
+   */
+  public void testParseInvalid() {
+    String[]	values;
+
+    values = new String[]{"", "-", ".", "e5", "1e", "1e+", "?", "abc", "1.2.3", "1-2", "NaN"};
+    for (String value: values)
+      assertTrue(value, Double.isNaN(parse(value)));
+    assertTrue("Infinity", Double.isInfinite(parse("Infinity")));
+  }
+
+  /**
+   * Tests the tokenizer: row IDs, comments, empty lines, line endings and
+   * tokens spanning buffer boundaries.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testTokenizer() throws Exception {
+    CNTKTextFormatReader	reader;
+    StringBuilder		data;
+    StringBuilder		longValue;
+    int				i;
+
+    longValue = new StringBuilder("0.");
+    for (i = 0; i < 100; i++)
+      longValue.append("1");
+
+    data = new StringBuilder();
+    data.append("id1 |features 1 2\t3 |#comment 4 5 |labels 1\r\n");
+    data.append("\n");
+    data.append("   \n");
+    data.append("|labels 0 |features 4.5 ? -6\n");
+    data.append("|#only a comment\n");
+    data.append("|features ").append(longValue).append(" 7");
+
+    reader = new CNTKTextFormatReader(new StringReader(data.toString()), 64);
+
+    assertTrue("row 1", reader.next());
+    assertEquals("line", 1, reader.getLineNo());
+    assertEquals("id", "id1", reader.getRowID());
+    assertEquals("# inputs", 2, reader.getNumInputs());
+    assertEquals("name", "features", reader.getInputName(0));
+    assertEquals("# values", 3, reader.getNumValues(0));
+    assertEquals("value", 3.0, reader.getValue(0, 2));
+    assertFalse("dense", reader.isSparse(0));
+    assertEquals("name", "labels", reader.getInputName(1));
+    assertEquals("value", 1.0, reader.getValue(1, 0));
+
+    assertTrue("row 2", reader.next());
+    assertEquals("line", 4, reader.getLineNo());
+    assertNull("id", reader.getRowID());
+    assertEquals("name", "labels", reader.getInputName(0));
+    assertEquals("name index", 1, reader.getInputNameIndex(0));
+    assertEquals("value", 4.5, reader.getValue(1, 0));
+    assertTrue("missing", Double.isNaN(reader.getValue(1, 1)));
+    assertEquals("value", -6.0, reader.getValue(1, 2));
+
+    assertTrue("row 3", reader.next());
+    assertEquals("line", 6, reader.getLineNo());
+    assertEquals("# values", 2, reader.getNumValues(0));
+    assertEquals("long value", Double.parseDouble(longValue.toString()), reader.getValue(0, 0));
+    assertEquals("value", 7.0, reader.getValue(0, 1));
+
+    assertFalse("end", reader.next());
+    assertEquals("names", 2, reader.getNames().size());
+    reader.close();
+  }
+
+  /**
+   * Tests parsing of the sparse format: index and value are separate.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testSparse() throws Exception {
+    CNTKTextFormatReader	reader;
+
+    reader = new CNTKTextFormatReader(new StringReader("|features 3:1.5 10:-2 |labels 0:1\n"));
+    assertTrue("row", reader.next());
+    assertTrue("sparse", reader.isSparse(0));
+    assertEquals("# values", 2, reader.getNumValues(0));
+    assertEquals("index", 3, reader.getIndex(0, 0));
+    assertEquals("value", 1.5, reader.getValue(0, 0));
+    assertEquals("index", 10, reader.getIndex(0, 1));
+    assertEquals("value", -2.0, reader.getValue(0, 1));
+    assertEquals("index", 0, reader.getIndex(1, 0));
+    assertEquals("value", 1.0, reader.getValue(1, 0));
+    assertFalse("end", reader.next());
+
+    reader = new CNTKTextFormatReader(new StringReader("|features x:1\n"));
+    try {
+      reader.next();
+      fail("Invalid index not detected");
+    }
+    catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(CNTKTextFormatReaderTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CNTKSpreadSheetWriterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.output;
+
+import adams.core.base.BaseString;
+import adams.data.io.input.CNTKSpreadSheetReader;
+import adams.data.spreadsheet.DefaultSpreadSheet;
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.data.spreadsheet.SpreadSheetColumnIndex;
+import adams.data.spreadsheet.SpreadSheetColumnRange;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Tests the CNTKSpreadSheetWriter class, reading the output back in with
+ * the CNTKSpreadSheetReader.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CNTKSpreadSheetWriterTest
+  extends AdamsTestCase {
+
+  /** the number of rows (spans several blocks). */
+  public final static int NUM_ROWS = CNTKSpreadSheetWriter.BLOCK_SIZE * 2 + 100;
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public CNTKSpreadSheetWriterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a spreadsheet with an ID column and four numeric columns.
+   * Every 7th row has a missing value in the second numeric column.
+   *
+   * @param numRows	the number of rows
+   * @return		the spreadsheet
+   */
+  protected SpreadSheet createSheet(int numRows) {
+    SpreadSheet	result;
+    Row		row;
+    int		i;
+
+    result = new DefaultSpreadSheet();
+    row    = result.getHeaderRow();
+    row.addCell("id").setContent("id");
+    row.addCell("a").setContent("a");
+    row.addCell("b").setContent("b");
+    row.addCell("c").setContent("c");
+    row.addCell("d").setContent("d");
+
+    for (i = 0; i < numRows; i++) {
+      row = result.addRow();
+      row.addCell("id").setContentAsString("r" + i);
+      row.addCell("a").setContent(i);
+      if (i % 7 == 0)
+	row.addCell("b").setMissing();
+      else
+	row.addCell("b").setContent(i * 0.25);
+      row.addCell("c").setContent(-(i + 1) / 3.0);
+      row.addCell("d").setContent(i % 3);
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates the writer, with inputs 'features' (a-c) and 'labels' (c-d),
+   * i.e., column c is used by both inputs.
+   *
+   * @return		the writer
+   */
+  protected CNTKSpreadSheetWriter createWriter() {
+    CNTKSpreadSheetWriter	result;
+
+    result = new CNTKSpreadSheetWriter();
+    result.setMissingValue("?");
+    result.setRowID(new SpreadSheetColumnIndex("1"));
+    result.setInputs(new SpreadSheetColumnRange[]{
+      new SpreadSheetColumnRange("2-4"),
+      new SpreadSheetColumnRange("4-5"),
+    });
+    result.setInputNames(new BaseString[]{
+      new BaseString("features"),
+      new BaseString("labels"),
+    });
+
+    return result;
+  }
+
+  /**
+   * Writes the spreadsheet.
+   *
+   * @param writer	the writer to use
+   * @param sheet	the data to write
+   * @return		the generated output
+   */
+  protected String write(CNTKSpreadSheetWriter writer, SpreadSheet sheet) {
+    StringWriter	out;
+
+    out = new StringWriter();
+    assertTrue("write", writer.write(sheet, out));
+
+    return out.toString();
+  }
+
+  /**
+   * Tests the output of the dense format.
+   */
+  public void testDense() {
+    String	output;
+
+    output = write(createWriter(), createSheet(2));
+    assertEquals(
+      "output",
+      "r0 |features 0.0 ? -0.3333333333333333 |labels -0.3333333333333333 0.0 \n"
+	+ "r1 |features 1.0 0.25 -0.6666666666666666 |labels -0.6666666666666666 1.0 \n",
+      output);
+  }
+
+  /**
+   * Tests the output of the sparse format: zeros get omitted, missing
+   * values are output with their index.
+   */
+  public void testSparse() {
+    CNTKSpreadSheetWriter	writer;
+    SpreadSheet			sheet;
+    String			output;
+
+    writer = new CNTKSpreadSheetWriter();
+    writer.setMissingValue("?");
+    writer.setUseSparseFormat(true);
+    writer.setInputs(new SpreadSheetColumnRange[]{new SpreadSheetColumnRange("first-last")});
+    writer.setInputNames(new BaseString[]{new BaseString("features")});
+    sheet = createSheet(3);
+    sheet.removeColumn(0);
+    output = write(writer, sheet);
+    assertEquals(
+      "output",
+      "|features 1:? 2:-0.3333333333333333 \n"
+	+ "|features 0:1.0 1:0.25 2:-0.6666666666666666 3:1.0 \n"
+	+ "|features 0:2.0 1:0.5 2:-1.0 3:2.0 \n",
+      output);
+  }
+
+  /**
+   * Tests suppressing of inputs with missing values.
+   */
+  public void testSuppressMissing() {
+    CNTKSpreadSheetWriter	writer;
+    SpreadSheet			sheet;
+    String			output;
+
+    writer = createWriter();
+    writer.setSuppressMissing(true);
+    sheet = createSheet(2);
+    // all inputs of the second row missing
+    sheet.getRow(1).getCell(3).setMissing();
+    output = write(writer, sheet);
+    assertEquals(
+      "output",
+      "r0 |labels -0.3333333333333333 0.0 \n",
+      output);
+  }
+
+  /**
+   * Tests writing and reading back the data, spanning several blocks.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testRoundTrip() throws Exception {
+    SpreadSheet			sheet;
+    SpreadSheet			read;
+    CNTKSpreadSheetReader	reader;
+    Row				row;
+    Row				rowRead;
+    int				i;
+
+    sheet  = createSheet(NUM_ROWS);
+    reader = new CNTKSpreadSheetReader();
+    read   = reader.read(new StringReader(write(createWriter(), sheet)));
+    assertNotNull("read", read);
+    assertEquals("# rows", NUM_ROWS, read.getRowCount());
+    assertEquals("# cols", 6, read.getColumnCount());
+    assertEquals("ID", CNTKSpreadSheetReader.COLUMN_ID, read.getColumnName(0));
+    assertEquals("features", "features-0", read.getColumnName(1));
+    assertEquals("labels", "labels-1", read.getColumnName(5));
+
+    for (i = 0; i < NUM_ROWS; i++) {
+      row     = sheet.getRow(i);
+      rowRead = read.getRow(i);
+      assertEquals("id", row.getCell(0).getContent(), rowRead.getCell(0).getContent());
+      assertEquals("a", row.getCell(1).toDouble(), rowRead.getCell(1).toDouble());
+      if (row.getCell(2).isMissing())
+	assertTrue("b missing", rowRead.getCell(2).isMissing());
+      else
+	assertEquals("b", row.getCell(2).toDouble(), rowRead.getCell(2).toDouble());
+      assertEquals("c", row.getCell(3).toDouble(), rowRead.getCell(3).toDouble());
+      assertEquals("c (labels)", row.getCell(3).toDouble(), rowRead.getCell(4).toDouble());
+      assertEquals("d", row.getCell(4).toDouble(), rowRead.getCell(5).toDouble());
+    }
+  }
+
+  /**
+   * Tests that non-numeric cells fail the write.
+   */
+  public void testNonNumeric() {
+    CNTKSpreadSheetWriter	writer;
+    SpreadSheet			sheet;
+
+    writer = createWriter();
+    writer.setRowID(new SpreadSheetColumnIndex());
+    writer.setInputs(new SpreadSheetColumnRange[]{new SpreadSheetColumnRange("first-last")});
+    sheet = createSheet(2);
+    assertFalse("write", writer.write(sheet, new StringWriter()));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(CNTKSpreadSheetWriterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CNTKTextFormatWriterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.output;
+
+import adams.data.io.input.CNTKTextFormatReader;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+/**
+ * Tests the CNTKTextFormatWriter class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CNTKTextFormatWriterTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public CNTKTextFormatWriterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Tests that numbers are output like Double.toString.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testFormat() throws Exception {
+    StringWriter		out;
+    CNTKTextFormatWriter	writer;
+    double[]			values;
+    StringBuilder		expected;
+
+    values   = new double[]{0.0, -0.0, 1.0, -1.0, 42.0, 9999999.0, 1.0E7, -1.0E7, 0.5, 1e-5, 123.456, Double.MAX_VALUE, Double.NaN};
+    out      = new StringWriter();
+    writer   = new CNTKTextFormatWriter(out, 64);
+    expected = new StringBuilder();
+
+    writer.writeRowID("r1");
+    writer.startInput("features");
+    expected.append("r1 |features ");
+    for (double value: values) {
+      writer.writeValue(value);
+      expected.append(Double.toString(value)).append(" ");
+    }
+    writer.writeMissing("?");
+    writer.startInput("labels");
+    writer.writeValue(2, 1.0);
+    writer.writeMissing(5, "?");
+    writer.endRow();
+    expected.append("? |labels 2:1.0 5:? \n");
+    writer.flush();
+
+    assertEquals("output", expected.toString(), out.toString());
+    assertEquals("rows", 1, writer.getRowCount());
+
+    out    = new StringWriter();
+    writer = new CNTKTextFormatWriter(out);
+    writer.setFormatter((double v) -> Double.toString(Math.round(v * 100) / 100.0));
+    writer.startInput("f");
+    writer.writeValue(1.0 / 3.0);
+    writer.endRow();
+    writer.close();
+    assertEquals("formatter", "|f 0.33 \n", out.toString());
+  }
+
+  /**
+   * Tests writing and reading back the data.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testRoundTrip() throws Exception {
+    StringWriter		out;
+    CNTKTextFormatWriter	writer;
+    CNTKTextFormatReader	reader;
+    Random			rand;
+    double[][]			values;
+    int				i;
+    int				n;
+
+    rand   = new Random(1);
+    values = new double[500][10];
+    out    = new StringWriter();
+    writer = new CNTKTextFormatWriter(out, 128);
+    for (i = 0; i < values.length; i++) {
+      writer.writeRowID("" + i);
+      writer.startInput("features");
+      for (n = 0; n < values[i].length; n++) {
+	switch (n % 3) {
+	  case 0:
+	    values[i][n] = rand.nextInt(1000) - 500;
+	    break;
+	  case 1:
+	    values[i][n] = rand.nextGaussian();
+	    break;
+	  default:
+	    values[i][n] = rand.nextDouble() * 1e12;
+	}
+	writer.writeValue(values[i][n]);
+      }
+      writer.startInput("sparse");
+      writer.writeValue(i, values[i][0]);
+      writer.endRow();
+    }
+    writer.close();
+
+    reader = new CNTKTextFormatReader(new StringReader(out.toString()), 100);
+    for (i = 0; i < values.length; i++) {
+      assertTrue("row " + i, reader.next());
+      assertEquals("id", "" + i, reader.getRowID());
+      assertEquals("# values", values[i].length, reader.getNumValues(0));
+      for (n = 0; n < values[i].length; n++)
+	assertEquals("row " + i + ", value " + n, values[i][n], reader.getValue(0, n));
+      assertEquals("sparse index", i, reader.getIndex(1, 0));
+      assertEquals("sparse value", values[i][0], reader.getValue(1, 0));
+    }
+    assertFalse("end", reader.next());
+    reader.close();
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(CNTKTextFormatWriterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CNTKFasterRCNNTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer.generatefilebaseddataset;
+
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderDirectory;
+import adams.core.io.PlaceholderFile;
+import adams.data.io.output.DefaultSimpleReportWriter;
+import adams.env.Environment;
+import adams.flow.container.FileBasedDatasetContainer;
+import adams.flow.transformer.locateobjects.LocatedObject;
+import adams.flow.transformer.locateobjects.LocatedObjects;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Tests the CNTKFasterRCNN dataset generation.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CNTKFasterRCNNTest
+  extends AdamsTestCase {
+
+  /** the temporary directory. */
+  protected File m_TmpDir;
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public CNTKFasterRCNNTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_TmpDir = Files.createTempDirectory("cntk").toFile();
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    if (m_TmpDir != null)
+      FileUtils.delete(m_TmpDir);
+    super.tearDown();
+  }
+
+  /**
+   * Writes an image and its report with a single annotation.
+   *
+   * @param dir		the directory to write to
+   * @param name	the name of the image
+   * @param format	the image format
+   * @param width	the width of the image
+   * @param height	the height of the image
+   * @param object	the annotation
+   * @return		the image file
+   * @throws Exception	if writing fails
+   */
+  protected String writeImage(File dir, String name, String format, int width, int height, LocatedObject object) throws Exception {
+    File			file;
+    LocatedObjects		objects;
+    DefaultSimpleReportWriter	writer;
+
+    dir.mkdirs();
+    file = new File(dir, name);
+    assertTrue("write " + file, ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR), format, file));
+
+    object.getMetaData().put("type", "box");
+    objects = new LocatedObjects();
+    objects.add(object);
+    writer = new DefaultSimpleReportWriter();
+    writer.setOutput(new PlaceholderFile(FileUtils.replaceExtension(file.getAbsolutePath(), ".report")));
+    assertTrue("write report", writer.write(objects.toReport("Object.")));
+
+    return file.getAbsolutePath();
+  }
+
+  /**
+   * Creates the container.
+   *
+   * @param train	the train images
+   * @param test	the test images
+   * @return		the container
+   */
+  protected FileBasedDatasetContainer newContainer(String[] train, String[] test) {
+    FileBasedDatasetContainer	result;
+
+    result = new FileBasedDatasetContainer();
+    result.store(FileBasedDatasetContainer.VALUE_TRAIN, train);
+    result.store(FileBasedDatasetContainer.VALUE_TEST, test);
+    result.store(FileBasedDatasetContainer.VALUE_NEGATIVE, new String[0]);
+
+    return result;
+  }
+
+  /**
+   * Generates the dataset.
+   *
+   * @param cont	the container to process
+   * @param out		the output directory
+   * @param numThreads	the number of threads to use
+   * @return		the generator
+   */
+  protected CNTKFasterRCNN generate(FileBasedDatasetContainer cont, File out, int numThreads) {
+    CNTKFasterRCNN	generator;
+
+    generator = new CNTKFasterRCNN();
+    generator.setOutputDir(new PlaceholderDirectory(out));
+    generator.setNumThreads(numThreads);
+    assertNull("check", generator.check(cont));
+    assertEquals("output", out.getAbsolutePath(), generator.doGenerate(cont));
+
+    return generator;
+  }
+
+  /**
+   * Loads the output file.
+   *
+   * @param out		the output directory
+   * @param name	the file to load
+   * @return		the content
+   */
+  protected List<String> load(File out, String name) {
+    return FileUtils.loadFromFile(new File(out, name));
+  }
+
+  /**
+   * Tests copying images, using the dimensions from the header to fit
+   * the annotations, and enlarging.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testGenerate() throws Exception {
+    File		in;
+    File		out;
+    String[]		train;
+    String[]		test;
+    List<String>	rois;
+    List<String>	images;
+
+    in    = new File(m_TmpDir, "in");
+    out   = new File(m_TmpDir, "out");
+    train = new String[]{
+      writeImage(in, "a.png", "png", 8, 6, new LocatedObject(null, 1, 1, 4, 3)),
+      // exceeds the image, gets fitted
+      writeImage(in, "b.jpg", "jpg", 10, 4, new LocatedObject(null, 5, 2, 10, 10)),
+      writeImage(in, "c-2x2.png", "png", 8, 8, new LocatedObject(null, 0, 0, 2, 2)),
+    };
+    test = new String[]{
+      writeImage(in, "d.bmp", "bmp", 5, 5, new LocatedObject(null, 0, 0, 5, 5)),
+    };
+    generate(newContainer(train, test), out, 1);
+
+    assertTrue("copied", new File(out, "train/a.png").exists());
+    assertTrue("copied", new File(out, "train/b.jpg").exists());
+    assertTrue("enlarged", new File(out, "train/c-2x2-1.png").exists());
+    assertFalse("not copied", new File(out, "train/c-2x2.png").exists());
+
+    images = load(out, "train_img_file.txt");
+    assertEquals("# images", 6, images.size());
+    assertEquals("first", "0\ttrain/a.png\t0", images.get(0));
+    assertEquals("enlarged", "2\ttrain/c-2x2-1.png\t0", images.get(2));
+
+    rois = load(out, "train_roi_file.txt");
+    assertEquals("roi", "0 |roiAndLabel  1 1 4 3 1", rois.get(0));
+    assertEquals("fitted roi", "1 |roiAndLabel  5 2 9 3 1", rois.get(1));
+
+    assertEquals("test images", 1, load(out, "test_img_file.txt").size());
+    assertEquals("class map", 2, load(out, CNTKFasterRCNN.CLASS_MAP).size());
+  }
+
+  /**
+   * Tests that parallel processing generates the same output as
+   * sequential processing.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testParallel() throws Exception {
+    File		in;
+    String[]		train;
+    String[]		test;
+    int			i;
+
+    in    = new File(m_TmpDir, "in");
+    train = new String[20];
+    for (i = 0; i < train.length; i++)
+      train[i] = writeImage(in, "train" + i + ".png", "png", 10 + i, 10, new LocatedObject(null, i, 0, 5, 20));
+    test = new String[]{
+      writeImage(in, "test.png", "png", 10, 10, new LocatedObject(null, 0, 0, 5, 5)),
+    };
+
+    generate(newContainer(train, test), new File(m_TmpDir, "seq"), 1);
+    generate(newContainer(train, test), new File(m_TmpDir, "par"), 4);
+
+    for (String name: new String[]{"train_img_file.txt", "train_roi_file.txt", "test_img_file.txt", "test_roi_file.txt", CNTKFasterRCNN.CLASS_MAP})
+      assertEquals(name, load(new File(m_TmpDir, "seq"), name), load(new File(m_TmpDir, "par"), name));
+  }
+
+  /**
+   * Tests that images with the same name overwrite each other rather than
+   * failing.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testReplaceExisting() throws Exception {
+    File	out;
+    String[]	train;
+
+    out   = new File(m_TmpDir, "out");
+    train = new String[]{
+      writeImage(new File(m_TmpDir, "in1"), "img.png", "png", 8, 8, new LocatedObject(null, 0, 0, 2, 2)),
+      writeImage(new File(m_TmpDir, "in2"), "img.png", "png", 9, 9, new LocatedObject(null, 0, 0, 2, 2)),
+    };
+    generate(newContainer(train, new String[0]), out, 1);
+
+    assertEquals("last one wins", 9, ImageIO.read(new File(out, "train/img.png")).getWidth());
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(CNTKFasterRCNNTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ExecutionMode.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.imagemagick;
+
+import java.util.List;
+
+/**
+ * Determines how ImageMagick commands get executed.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see ImageMagickEmulator
+ */
+public enum ExecutionMode {
+  /** always uses the external ImageMagick executables. */
+  EXTERNAL,
+  /** always executes the commands within the JVM (fails if not supported). */
+  JVM,
+  /** executes the commands within the JVM if supported, otherwise externally. */
+  AUTO;
+
+  /**
+   * Returns whether the commands should be executed within the JVM.
+   *
+   * @param args	the ImageMagick commands
+   * @return		true if to execute within the JVM
+   */
+  public boolean useJVM(List<String> args) {
+    switch (this) {
+      case JVM:
+	return true;
+      case AUTO:
+	return ImageMagickEmulator.isSupported(args);
+      default:
+	return false;
+    }
+  }
+}
@@ -0,0 +1,1073 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ImageMagickEmulator.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.imagemagick;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies a subset of ImageMagick commands within the JVM, i.e., without
+ * starting an external process. Supported commands:
+ * <ul>
+ *   <li>-filter &lt;Point|Box|Triangle|Hermite|Cubic|Catrom|Mitchell|Gaussian|Lanczos&gt;</li>
+ *   <li>-resize &lt;geometry&gt;</li>
+ *   <li>-adaptive-resize &lt;geometry&gt; (approximated with the Triangle filter)</li>
+ *   <li>-scale &lt;geometry&gt; (Box filter)</li>
+ *   <li>-blur &lt;radius&gt;x&lt;sigma&gt;</li>
+ *   <li>-gaussian-blur &lt;radius&gt;x&lt;sigma&gt;</li>
+ *   <li>-unsharp &lt;radius&gt;x&lt;sigma&gt;+&lt;amount&gt;+&lt;threshold&gt;</li>
+ *   <li>-crop &lt;width&gt;x&lt;height&gt;+&lt;x&gt;+&lt;y&gt;</li>
+ *   <li>+repage (ignored)</li>
+ *   <li>-rotate &lt;degrees&gt; (white background)</li>
+ *   <li>-colorspace &lt;Gray|sRGB&gt;</li>
+ * </ul>
+ * Resize geometries support the flags %, !, &lt;, &gt; and ^.
+ * Grayscale and 16-bit images (gray, RGB, with or without alpha) get read
+ * and written via their raw samples, i.e., they keep their type and depth;
+ * all other images get processed as 8-bit RGB.
+ * The results are close to the ones of ImageMagick, but not necessarily
+ * identical.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ImageMagickEmulator {
+
+  /** the pattern for resize geometries. */
+  public final static Pattern RESIZE_GEOMETRY = Pattern.compile("^(\\d+(\\.\\d+)?)?(x(\\d+(\\.\\d+)?)?)?([%!<>^]*)$");
+
+  /** the pattern for crop geometries. */
+  public final static Pattern CROP_GEOMETRY = Pattern.compile("^(\\d+)x(\\d+)([+-]\\d+)([+-]\\d+)$");
+
+  /** the pattern for blur/unsharp geometries. */
+  public final static Pattern BLUR_GEOMETRY = Pattern.compile("^(\\d+(\\.\\d+)?)(x(\\d+(\\.\\d+)?))?(\\+(\\d+(\\.\\d+)?))?(\\+(\\d+(\\.\\d+)?))?$");
+
+  /** the background color (white). */
+  public final static float BACKGROUND = 255.0f;
+
+  /**
+   * The resize filters.
+   */
+  public enum Filter {
+    POINT(0.5),
+    BOX(0.5),
+    TRIANGLE(1.0),
+    HERMITE(1.0),
+    CUBIC(2.0),
+    CATROM(2.0),
+    MITCHELL(2.0),
+    GAUSSIAN(2.0),
+    LANCZOS(3.0);
+
+    /** the support of the filter. */
+    private final double m_Support;
+
+    /**
+     * Initializes the filter.
+     *
+     * @param support	the support
+     */
+    Filter(double support) {
+      m_Support = support;
+    }
+
+    /**
+     * Returns the support of the filter.
+     *
+     * @return		the support
+     */
+    public double getSupport() {
+      return m_Support;
+    }
+
+    /**
+     * Computes the weight for the specified distance.
+     *
+     * @param x		the distance
+     * @return		the weight
+     */
+    public double weight(double x) {
+      x = Math.abs(x);
+      switch (this) {
+	case POINT:
+	case BOX:
+	  return (x <= 0.5) ? 1.0 : 0.0;
+	case TRIANGLE:
+	  return (x < 1.0) ? 1.0 - x : 0.0;
+	case HERMITE:
+	  return (x < 1.0) ? (2.0 * x - 3.0) * x * x + 1.0 : 0.0;
+	case CUBIC:
+	  return bicubic(x, 1.0, 0.0);
+	case CATROM:
+	  return bicubic(x, 0.0, 0.5);
+	case MITCHELL:
+	  return bicubic(x, 1.0 / 3.0, 1.0 / 3.0);
+	case GAUSSIAN:
+	  return Math.exp(-2.0 * x * x);
+	case LANCZOS:
+	  return (x < 3.0) ? sinc(x) * sinc(x / 3.0) : 0.0;
+	default:
+	  throw new IllegalStateException("Unhandled filter: " + this);
+      }
+    }
+
+    /**
+     * Parses the ImageMagick filter name (case-insensitive).
+     *
+     * @param name	the name
+     * @return		the filter, null if not supported
+     */
+    public static Filter parse(String name) {
+      for (Filter filter: values()) {
+	if (filter.name().equalsIgnoreCase(name))
+	  return filter;
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Container for the image data: one plane per channel (R, G, B and
+   * optional alpha), color values premultiplied with alpha, range 0-255
+   * (fractional values retain the precision of 16-bit images).
+   */
+  protected static class Planes {
+
+    /** the width. */
+    public int width;
+
+    /** the height. */
+    public int height;
+
+    /** whether an alpha channel is present. */
+    public boolean alpha;
+
+    /** whether the image is grayscale. */
+    public boolean gray;
+
+    /** the bits per sample of the original image (8 or 16). */
+    public int bits;
+
+    /** the channel data. */
+    public float[][] data;
+
+    /**
+     * Initializes the planes.
+     *
+     * @param width	the width
+     * @param height	the height
+     * @param alpha	whether there is an alpha channel
+     * @param gray	whether the image is grayscale
+     */
+    public Planes(int width, int height, boolean alpha, boolean gray) {
+      this.width  = width;
+      this.height = height;
+      this.alpha  = alpha;
+      this.gray   = gray;
+      this.bits   = 8;
+      this.data   = new float[alpha ? 4 : 3][width * height];
+    }
+  }
+
+  /**
+   * Computes the weight of the (B,C) family of cubic filters.
+   *
+   * @param x		the absolute distance
+   * @param b		the B value
+   * @param c		the C value
+   * @return		the weight
+   */
+  protected static double bicubic(double x, double b, double c) {
+    if (x < 1.0)
+      return ((12 - 9*b - 6*c) * x*x*x + (-18 + 12*b + 6*c) * x*x + (6 - 2*b)) / 6.0;
+    else if (x < 2.0)
+      return ((-b - 6*c) * x*x*x + (6*b + 30*c) * x*x + (-12*b - 48*c) * x + (8*b + 24*c)) / 6.0;
+    else
+      return 0.0;
+  }
+
+  /**
+   * Computes sin(pi*x)/(pi*x).
+   *
+   * @param x		the value
+   * @return		the sinc
+   */
+  protected static double sinc(double x) {
+    if (x == 0.0)
+      return 1.0;
+    x *= Math.PI;
+    return Math.sin(x) / x;
+  }
+
+  /**
+   * Checks whether the commands can be executed within the JVM.
+   *
+   * @param args	the ImageMagick commands
+   * @return		null if supported, otherwise error message
+   */
+  public static String checkSupported(List<String> args) {
+    int		i;
+    String	cmd;
+    String	arg;
+
+    for (i = 0; i < args.size(); i++) {
+      cmd = args.get(i);
+      if (cmd.equals("+repage"))
+	continue;
+      if (i == args.size() - 1)
+	return "Missing argument for command (or unsupported): " + cmd;
+      arg = args.get(++i);
+      switch (cmd) {
+	case "-filter":
+	  if (Filter.parse(arg) == null)
+	    return "Unsupported filter: " + arg;
+	  break;
+	case "-resize":
+	case "-adaptive-resize":
+	case "-scale":
+	  if (!RESIZE_GEOMETRY.matcher(arg).matches() || !arg.matches(".*\\d.*"))
+	    return "Unsupported geometry for " + cmd + ": " + arg;
+	  break;
+	case "-blur":
+	case "-gaussian-blur":
+	case "-unsharp":
+	  if (!BLUR_GEOMETRY.matcher(arg).matches())
+	    return "Unsupported geometry for " + cmd + ": " + arg;
+	  break;
+	case "-crop":
+	  if (!CROP_GEOMETRY.matcher(arg).matches())
+	    return "Unsupported geometry for " + cmd + " (requires WxH+X+Y): " + arg;
+	  break;
+	case "-rotate":
+	  try {
+	    Double.parseDouble(arg);
+	  }
+	  catch (Exception e) {
+	    return "Unsupported angle for " + cmd + ": " + arg;
+	  }
+	  break;
+	case "-colorspace":
+	  if (!arg.equalsIgnoreCase("gray") && !arg.equalsIgnoreCase("srgb"))
+	    return "Unsupported colorspace: " + arg;
+	  break;
+	default:
+	  return "Unsupported command: " + cmd;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns whether the commands can be executed within the JVM.
+   *
+   * @param args	the ImageMagick commands
+   * @return		true if supported
+   */
+  public static boolean isSupported(List<String> args) {
+    return (checkSupported(args) == null);
+  }
+
+  /**
+   * Checks whether the image stores gray or RGB samples (optionally with
+   * alpha) as 8 or 16 bits in separate bands, which get accessed directly.
+   *
+   * @param image	the image to check
+   * @return		true if the samples can be accessed directly
+   */
+  protected static boolean hasComponentSamples(BufferedImage image) {
+    ColorModel	cm;
+    int		type;
+    int		bands;
+
+    cm = image.getColorModel();
+    if (!(cm instanceof ComponentColorModel))
+      return false;
+    type = cm.getTransferType();
+    if ((type != DataBuffer.TYPE_BYTE) && (type != DataBuffer.TYPE_USHORT))
+      return false;
+    if ((cm.getColorSpace().getType() != ColorSpace.TYPE_GRAY) && !cm.getColorSpace().isCS_sRGB())
+      return false;
+    bands = cm.getNumColorComponents() + (cm.hasAlpha() ? 1 : 0);
+    if (image.getRaster().getNumBands() != bands)
+      return false;
+    return (cm.getComponentSize(0) == 8) || (cm.getComponentSize(0) == 16);
+  }
+
+  /**
+   * Turns the image into planes.
+   *
+   * @param image	the image to convert
+   * @return		the planes
+   */
+  protected static Planes toPlanes(BufferedImage image) {
+    Planes	result;
+    ColorModel	cm;
+    Raster	raster;
+    int[]	argb;
+    int[]	samples;
+    float	scale;
+    float[]	a;
+    int		colors;
+    int		b;
+    int		i;
+
+    cm = image.getColorModel();
+
+    if (hasComponentSamples(image)) {
+      colors = cm.getNumColorComponents();
+      result = new Planes(image.getWidth(), image.getHeight(), cm.hasAlpha(), (colors == 1));
+      result.bits = cm.getComponentSize(0);
+      raster      = image.getRaster();
+      scale       = 255.0f / ((1 << result.bits) - 1);
+      samples     = null;
+      a           = null;
+      if (result.alpha) {
+	samples = raster.getSamples(0, 0, result.width, result.height, colors, samples);
+	a       = result.data[3];
+	for (i = 0; i < samples.length; i++)
+	  a[i] = samples[i] * scale;
+      }
+      for (b = 0; b < 3; b++) {
+	if (b < colors)
+	  samples = raster.getSamples(0, 0, result.width, result.height, b, samples);
+	for (i = 0; i < samples.length; i++) {
+	  result.data[b][i] = samples[i] * scale;
+	  if (result.alpha && !cm.isAlphaPremultiplied())
+	    result.data[b][i] *= a[i] / 255.0f;
+	}
+      }
+      return result;
+    }
+
+    result = new Planes(image.getWidth(), image.getHeight(), cm.hasAlpha(), false);
+    argb   = image.getRGB(0, 0, result.width, result.height, null, 0, result.width);
+    for (i = 0; i < argb.length; i++) {
+      scale = result.alpha ? ((argb[i] >>> 24) & 0xFF) / 255.0f : 1.0f;
+      result.data[0][i] = ((argb[i] >> 16) & 0xFF) * scale;
+      result.data[1][i] = ((argb[i] >> 8) & 0xFF) * scale;
+      result.data[2][i] = (argb[i] & 0xFF) * scale;
+      if (result.alpha)
+	result.data[3][i] = scale * 255.0f;
+    }
+
+    return result;
+  }
+
+  /**
+   * Clips and rounds the value to 0-255.
+   *
+   * @param value	the value to clip
+   * @return		the clipped value
+   */
+  protected static int clip(float value) {
+    if (value <= 0.0f)
+      return 0;
+    if (value >= 255.0f)
+      return 255;
+    return Math.round(value);
+  }
+
+  /**
+   * Scales the value from 0-255 to 0-max, clips and rounds it.
+   *
+   * @param value	the value to clip
+   * @param max		the maximum sample value
+   * @param scale	the scale factor (max / 255)
+   * @return		the clipped value
+   */
+  protected static int clip(float value, int max, float scale) {
+    value *= scale;
+    if (value <= 0.0f)
+      return 0;
+    if (value >= max)
+      return max;
+    return Math.round(value);
+  }
+
+  /**
+   * Turns the planes back into an image. Grayscale images and images with
+   * 16 bits per sample get written via their samples, all others as
+   * (A)RGB.
+   *
+   * @param planes	the planes to convert
+   * @param bits	the bits per sample (8 or 16)
+   * @return		the image
+   */
+  protected static BufferedImage toImage(Planes planes, int bits) {
+    BufferedImage	result;
+    ColorModel		cm;
+    WritableRaster	raster;
+    int[]		argb;
+    int[]		samples;
+    int			colors;
+    int			max;
+    float		scale;
+    int			b;
+    int			i;
+    float		a;
+    float		f;
+
+    if (planes.gray || (bits == 16)) {
+      if (planes.gray && !planes.alpha) {
+	result = new BufferedImage(planes.width, planes.height, (bits == 16) ? BufferedImage.TYPE_USHORT_GRAY : BufferedImage.TYPE_BYTE_GRAY);
+      }
+      else {
+	cm = new ComponentColorModel(
+	  ColorSpace.getInstance(planes.gray ? ColorSpace.CS_GRAY : ColorSpace.CS_sRGB),
+	  planes.alpha, false, planes.alpha ? Transparency.TRANSLUCENT : Transparency.OPAQUE,
+	  (bits == 16) ? DataBuffer.TYPE_USHORT : DataBuffer.TYPE_BYTE);
+	result = new BufferedImage(cm, cm.createCompatibleWritableRaster(planes.width, planes.height), false, null);
+      }
+      raster  = result.getRaster();
+      colors  = planes.gray ? 1 : 3;
+      max     = (1 << bits) - 1;
+      scale   = max / 255.0f;
+      samples = new int[planes.width * planes.height];
+      for (b = 0; b < colors; b++) {
+	for (i = 0; i < samples.length; i++) {
+	  if (planes.alpha) {
+	    a = Math.max(0.0f, Math.min(255.0f, planes.data[3][i]));
+	    f = (a > 0.0f) ? 255.0f / a : 0.0f;
+	    samples[i] = clip(Math.min(a, planes.data[b][i]) * f, max, scale);
+	  }
+	  else {
+	    samples[i] = clip(planes.data[b][i], max, scale);
+	  }
+	}
+	raster.setSamples(0, 0, planes.width, planes.height, b, samples);
+      }
+      if (planes.alpha) {
+	for (i = 0; i < samples.length; i++)
+	  samples[i] = clip(planes.data[3][i], max, scale);
+	raster.setSamples(0, 0, planes.width, planes.height, colors, samples);
+      }
+      return result;
+    }
+
+    argb = new int[planes.width * planes.height];
+    for (i = 0; i < argb.length; i++) {
+      if (planes.alpha) {
+	a = Math.max(0.0f, Math.min(255.0f, planes.data[3][i]));
+	f = (a > 0.0f) ? 255.0f / a : 0.0f;
+	argb[i] = (clip(a) << 24)
+	  | (clip(Math.min(a, planes.data[0][i]) * f) << 16)
+	  | (clip(Math.min(a, planes.data[1][i]) * f) << 8)
+	  | clip(Math.min(a, planes.data[2][i]) * f);
+      }
+      else {
+	argb[i] = 0xFF000000
+	  | (clip(planes.data[0][i]) << 16)
+	  | (clip(planes.data[1][i]) << 8)
+	  | clip(planes.data[2][i]);
+      }
+    }
+    result = new BufferedImage(planes.width, planes.height, planes.alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    result.setRGB(0, 0, planes.width, planes.height, argb, 0, planes.width);
+
+    return result;
+  }
+
+  /**
+   * Computes the target dimensions for a resize geometry.
+   *
+   * @param planes	the current image
+   * @param geometry	the geometry
+   * @return		the new width and height
+   */
+  protected static int[] resizeDimensions(Planes planes, String geometry) {
+    Matcher	matcher;
+    String	flags;
+    double	w;
+    double	h;
+    double	scale;
+    boolean	hasW;
+    boolean	hasH;
+
+    matcher = RESIZE_GEOMETRY.matcher(geometry);
+    if (!matcher.matches())
+      throw new IllegalArgumentException("Unsupported geometry: " + geometry);
+    flags = matcher.group(6);
+    hasW  = (matcher.group(1) != null);
+    hasH  = (matcher.group(4) != null);
+    w     = hasW ? Double.parseDouble(matcher.group(1)) : 0.0;
+    h     = hasH ? Double.parseDouble(matcher.group(4)) : 0.0;
+
+    if (flags.contains("%")) {
+      if (!hasW)
+	w = h;
+      if (!hasH)
+	h = w;
+      w = planes.width * w / 100.0;
+      h = planes.height * h / 100.0;
+    }
+    else if (!hasW) {
+      w = planes.width * h / planes.height;
+    }
+    else if (!hasH) {
+      h = planes.height * w / planes.width;
+    }
+    else if (!flags.contains("!")) {
+      if (flags.contains("^"))
+	scale = Math.max(w / planes.width, h / planes.height);
+      else
+	scale = Math.min(w / planes.width, h / planes.height);
+      w = planes.width * scale;
+      h = planes.height * scale;
+    }
+
+    if (flags.contains(">") && (planes.width <= w) && (planes.height <= h))
+      return new int[]{planes.width, planes.height};
+    if (flags.contains("<") && (planes.width >= w) && (planes.height >= h))
+      return new int[]{planes.width, planes.height};
+
+    return new int[]{
+      Math.max(1, (int) Math.floor(w + 0.5)),
+      Math.max(1, (int) Math.floor(h + 0.5))};
+  }
+
+  /**
+   * Computes the contributions of the source pixels for each target pixel
+   * along one axis.
+   *
+   * @param src		the source size
+   * @param dst		the target size
+   * @param filter	the filter to use
+   * @param start	for storing the first contributing source pixel per target pixel
+   * @return		the normalized weights per target pixel
+   */
+  protected static float[][] contributions(int src, int dst, Filter filter, int[] start) {
+    float[][]	result;
+    double	scale;
+    double	factor;
+    double	support;
+    double	center;
+    double	sum;
+    double[]	weights;
+    int		first;
+    int		last;
+    int		x;
+    int		j;
+
+    result = new float[dst][];
+    scale  = (double) dst / src;
+    factor = (filter == Filter.POINT) ? 1.0 : Math.max(1.0, 1.0 / scale);
+    support = Math.max(0.5, filter.getSupport() * factor);
+    for (x = 0; x < dst; x++) {
+      center = (x + 0.5) / scale;
+      if (filter == Filter.POINT) {
+	start[x]  = Math.min(src - 1, (int) center);
+	result[x] = new float[]{1.0f};
+	continue;
+      }
+      first   = Math.max(0, (int) Math.floor(center - support + 0.5));
+      last    = Math.min(src, (int) Math.floor(center + support + 0.5));
+      if (last <= first) {
+	first = Math.min(src - 1, (int) center);
+	last  = first + 1;
+      }
+      weights = new double[last - first];
+      sum     = 0.0;
+      for (j = first; j < last; j++) {
+	weights[j - first] = filter.weight((j + 0.5 - center) / factor);
+	sum += weights[j - first];
+      }
+      start[x]  = first;
+      result[x] = new float[weights.length];
+      for (j = 0; j < weights.length; j++)
+	result[x][j] = (sum != 0.0) ? (float) (weights[j] / sum) : (1.0f / weights.length);
+    }
+
+    return result;
+  }
+
+  /**
+   * Resizes the image, using separate horizontal and vertical passes.
+   *
+   * @param planes	the image to resize
+   * @param width	the new width
+   * @param height	the new height
+   * @param filter	the filter, null for ImageMagick's default
+   * @return		the resized image
+   */
+  protected static Planes resize(Planes planes, int width, int height, Filter filter) {
+    Planes	tmp;
+    Planes	result;
+    int[]	start;
+    float[][]	weights;
+    float[]	in;
+    float[]	out;
+    float	sum;
+    float	w;
+    int		row;
+    int		c;
+    int		x;
+    int		y;
+    int		j;
+
+    if ((width == planes.width) && (height == planes.height))
+      return planes;
+
+    // ImageMagick uses Mitchell for enlarging or images with alpha, otherwise Lanczos
+    if (filter == null) {
+      if (planes.alpha || ((long) width * height > (long) planes.width * planes.height))
+	filter = Filter.MITCHELL;
+      else
+	filter = Filter.LANCZOS;
+    }
+
+    // horizontal
+    tmp     = new Planes(width, planes.height, planes.alpha, planes.gray);
+    start   = new int[width];
+    weights = contributions(planes.width, width, filter, start);
+    for (c = 0; c < planes.data.length; c++) {
+      in  = planes.data[c];
+      out = tmp.data[c];
+      for (y = 0; y < planes.height; y++) {
+	for (x = 0; x < width; x++) {
+	  sum = 0.0f;
+	  for (j = 0; j < weights[x].length; j++)
+	    sum += weights[x][j] * in[y * planes.width + start[x] + j];
+	  out[y * width + x] = sum;
+	}
+      }
+    }
+
+    // vertical
+    result  = new Planes(width, height, planes.alpha, planes.gray);
+    start   = new int[height];
+    weights = contributions(planes.height, height, filter, start);
+    for (c = 0; c < tmp.data.length; c++) {
+      in  = tmp.data[c];
+      out = result.data[c];
+      // accumulate whole rows for better memory locality
+      for (y = 0; y < height; y++) {
+	for (j = 0; j < weights[y].length; j++) {
+	  w   = weights[y][j];
+	  row = (start[y] + j) * width;
+	  for (x = 0; x < width; x++)
+	    out[y * width + x] += w * in[row + x];
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Computes the radius of the Gaussian kernel if none specified, i.e., the
+   * distance at which the normalized weights become insignificant.
+   *
+   * @param sigma	the sigma
+   * @return		the radius
+   */
+  protected static int kernelRadius(double sigma) {
+    int		result;
+    double	norm;
+
+    norm   = Math.sqrt(2.0 * Math.PI) * sigma;
+    result = 1;
+    while ((Math.exp(-(result * result) / (2.0 * sigma * sigma)) / norm >= 1.0 / 65535.0) && (result < 1000))
+      result++;
+
+    return result;
+  }
+
+  /**
+   * Blurs the image with a Gaussian, using separate horizontal and vertical
+   * passes. Pixels outside the image are replaced by the closest edge pixel.
+   *
+   * @param planes	the image to blur
+   * @param radius	the radius, 0 for automatic
+   * @param sigma	the sigma
+   * @return		the blurred image
+   */
+  protected static Planes blur(Planes planes, double radius, double sigma) {
+    Planes	tmp;
+    Planes	result;
+    float[]	kernel;
+    float[]	in;
+    float[]	out;
+    float	sum;
+    double	total;
+    int		row;
+    int		r;
+    int		c;
+    int		x;
+    int		y;
+    int		j;
+
+    if (sigma <= 0.0)
+      return planes;
+
+    r      = (radius > 0.0) ? (int) Math.ceil(radius) : kernelRadius(sigma);
+    kernel = new float[2 * r + 1];
+    total  = 0.0;
+    for (j = -r; j <= r; j++) {
+      kernel[j + r] = (float) Math.exp(-(j * j) / (2.0 * sigma * sigma));
+      total += kernel[j + r];
+    }
+    for (j = 0; j < kernel.length; j++)
+      kernel[j] /= total;
+
+    tmp    = new Planes(planes.width, planes.height, planes.alpha, planes.gray);
+    result = new Planes(planes.width, planes.height, planes.alpha, planes.gray);
+    for (c = 0; c < planes.data.length; c++) {
+      // horizontal
+      in  = planes.data[c];
+      out = tmp.data[c];
+      for (y = 0; y < planes.height; y++) {
+	for (x = 0; x < planes.width; x++) {
+	  sum = 0.0f;
+	  for (j = -r; j <= r; j++)
+	    sum += kernel[j + r] * in[y * planes.width + Math.max(0, Math.min(planes.width - 1, x + j))];
+	  out[y * planes.width + x] = sum;
+	}
+      }
+      // vertical
+      in  = tmp.data[c];
+      out = result.data[c];
+      for (y = 0; y < planes.height; y++) {
+	for (j = -r; j <= r; j++) {
+	  row = Math.max(0, Math.min(planes.height - 1, y + j)) * planes.width;
+	  for (x = 0; x < planes.width; x++)
+	    out[y * planes.width + x] += kernel[j + r] * in[row + x];
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Sharpens the image using an unsharp mask. The alpha channel is left
+   * untouched.
+   *
+   * @param planes	the image to sharpen
+   * @param radius	the radius, 0 for automatic
+   * @param sigma	the sigma
+   * @param amount	the fraction of the difference to add back
+   * @param threshold	the threshold (0-1) for the difference to apply the amount
+   * @return		the sharpened image
+   */
+  protected static Planes unsharp(Planes planes, double radius, double sigma, double amount, double threshold) {
+    Planes	blurred;
+    Planes	result;
+    float	diff;
+    float	limit;
+    int		c;
+    int		i;
+
+    blurred = blur(planes, radius, sigma);
+    result  = new Planes(planes.width, planes.height, planes.alpha, planes.gray);
+    limit   = (float) (threshold * 255.0);
+    for (c = 0; c < planes.data.length; c++) {
+      for (i = 0; i < planes.data[c].length; i++) {
+	if (c == 3) {
+	  result.data[c][i] = planes.data[c][i];
+	  continue;
+	}
+	diff = planes.data[c][i] - blurred.data[c][i];
+	if (Math.abs(2.0f * diff) < limit)
+	  result.data[c][i] = planes.data[c][i];
+	else
+	  result.data[c][i] = planes.data[c][i] + diff * (float) amount;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Crops the image. The region gets clipped to the image bounds.
+   *
+   * @param planes	the image to crop
+   * @param geometry	the geometry (WxH+X+Y)
+   * @return		the cropped image
+   */
+  protected static Planes crop(Planes planes, String geometry) {
+    Planes	result;
+    Matcher	matcher;
+    int		left;
+    int		top;
+    int		right;
+    int		bottom;
+    int		c;
+    int		y;
+
+    matcher = CROP_GEOMETRY.matcher(geometry);
+    if (!matcher.matches())
+      throw new IllegalArgumentException("Unsupported geometry: " + geometry);
+    left   = Integer.parseInt(matcher.group(3).replace("+", ""));
+    top    = Integer.parseInt(matcher.group(4).replace("+", ""));
+    right  = Math.min(planes.width, left + Integer.parseInt(matcher.group(1)));
+    bottom = Math.min(planes.height, top + Integer.parseInt(matcher.group(2)));
+    left   = Math.max(0, left);
+    top    = Math.max(0, top);
+    if ((right <= left) || (bottom <= top))
+      throw new IllegalArgumentException("Crop geometry " + geometry + " does not overlap image of " + planes.width + "x" + planes.height);
+
+    result = new Planes(right - left, bottom - top, planes.alpha, planes.gray);
+    for (c = 0; c < planes.data.length; c++) {
+      for (y = top; y < bottom; y++)
+	System.arraycopy(planes.data[c], y * planes.width + left, result.data[c], (y - top) * result.width, result.width);
+    }
+
+    return result;
+  }
+
+  /**
+   * Rotates the image clockwise. Multiples of 90 degrees are performed
+   * exactly, other angles use bilinear interpolation and enlarge the canvas,
+   * filling it with the background color.
+   *
+   * @param planes	the image to rotate
+   * @param degrees	the angle
+   * @return		the rotated image
+   */
+  protected static Planes rotate(Planes planes, double degrees) {
+    Planes	result;
+    double	angle;
+    double	cos;
+    double	sin;
+    double	cx;
+    double	cy;
+    double	sx;
+    double	sy;
+    double	fx;
+    double	fy;
+    int		w;
+    int		h;
+    int		x;
+    int		y;
+    int		x0;
+    int		y0;
+    int		c;
+    int		quadrant;
+
+    degrees = degrees % 360.0;
+    if (degrees < 0)
+      degrees += 360.0;
+    if (degrees == 0.0)
+      return planes;
+
+    if (degrees % 90.0 == 0.0) {
+      quadrant = (int) (degrees / 90.0);
+      w        = (quadrant == 2) ? planes.width : planes.height;
+      h        = (quadrant == 2) ? planes.height : planes.width;
+      result   = new Planes(w, h, planes.alpha, planes.gray);
+      for (c = 0; c < planes.data.length; c++) {
+	for (y = 0; y < h; y++) {
+	  for (x = 0; x < w; x++) {
+	    switch (quadrant) {
+	      case 1:
+		sx = y;
+		sy = planes.height - 1 - x;
+		break;
+	      case 2:
+		sx = planes.width - 1 - x;
+		sy = planes.height - 1 - y;
+		break;
+	      default:
+		sx = planes.width - 1 - y;
+		sy = x;
+	    }
+	    result.data[c][y * w + x] = planes.data[c][(int) sy * planes.width + (int) sx];
+	  }
+	}
+      }
+      return result;
+    }
+
+    angle  = Math.toRadians(degrees);
+    cos    = Math.cos(angle);
+    sin    = Math.sin(angle);
+    w      = (int) Math.ceil(Math.abs(planes.width * cos) + Math.abs(planes.height * sin) - 1e-6);
+    h      = (int) Math.ceil(Math.abs(planes.width * sin) + Math.abs(planes.height * cos) - 1e-6);
+    result = new Planes(w, h, planes.alpha, planes.gray);
+    cx     = planes.width / 2.0;
+    cy     = planes.height / 2.0;
+    for (y = 0; y < h; y++) {
+      for (x = 0; x < w; x++) {
+	// inverse rotation, pixel centers
+	fx = x + 0.5 - w / 2.0;
+	fy = y + 0.5 - h / 2.0;
+	sx = cos * fx + sin * fy + cx - 0.5;
+	sy = -sin * fx + cos * fy + cy - 0.5;
+	x0 = (int) Math.floor(sx);
+	y0 = (int) Math.floor(sy);
+	fx = sx - x0;
+	fy = sy - y0;
+	for (c = 0; c < planes.data.length; c++) {
+	  result.data[c][y * w + x] = (float) (
+	      sample(planes, c, x0, y0) * (1 - fx) * (1 - fy)
+	    + sample(planes, c, x0 + 1, y0) * fx * (1 - fy)
+	    + sample(planes, c, x0, y0 + 1) * (1 - fx) * fy
+	    + sample(planes, c, x0 + 1, y0 + 1) * fx * fy);
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the value of the channel at the specified location, the
+   * background color if outside the image.
+   *
+   * @param planes	the image
+   * @param c		the channel
+   * @param x		the x position
+   * @param y		the y position
+   * @return		the value
+   */
+  protected static float sample(Planes planes, int c, int x, int y) {
+    if ((x < 0) || (y < 0) || (x >= planes.width) || (y >= planes.height))
+      return BACKGROUND;
+    return planes.data[c][y * planes.width + x];
+  }
+
+  /**
+   * Turns the image into grayscale, using Rec709 luma.
+   *
+   * @param planes	the image to convert
+   * @return		the converted image
+   */
+  protected static Planes gray(Planes planes) {
+    Planes	result;
+    float	luma;
+    int		i;
+
+    result = new Planes(planes.width, planes.height, planes.alpha, true);
+    for (i = 0; i < planes.data[0].length; i++) {
+      luma = 0.2126f * planes.data[0][i] + 0.7152f * planes.data[1][i] + 0.0722f * planes.data[2][i];
+      result.data[0][i] = luma;
+      result.data[1][i] = luma;
+      result.data[2][i] = luma;
+      if (planes.alpha)
+	result.data[3][i] = planes.data[3][i];
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the numeric group or the default value if the group is missing.
+   *
+   * @param matcher	the matcher to use
+   * @param group	the group
+   * @param defValue	the default value
+   * @return		the value
+   */
+  protected static double group(Matcher matcher, int group, double defValue) {
+    if (matcher.group(group) == null)
+      return defValue;
+    else
+      return Double.parseDouble(matcher.group(group));
+  }
+
+  /**
+   * Applies the ImageMagick commands to the image.
+   *
+   * @param image	the image to process
+   * @param args	the commands
+   * @return		the processed image
+   * @throws Exception	if commands not supported or processing fails
+   * @see		#checkSupported(List)
+   */
+  public static BufferedImage apply(BufferedImage image, List<String> args) throws Exception {
+    Planes	planes;
+    Filter	filter;
+    Matcher	matcher;
+    String	msg;
+    String	cmd;
+    String	arg;
+    int[]	dims;
+    int		bits;
+    int		i;
+
+    msg = checkSupported(args);
+    if (msg != null)
+      throw new IllegalArgumentException(msg);
+
+    planes = toPlanes(image);
+    bits   = planes.bits;
+    filter = null;
+    for (i = 0; i < args.size(); i++) {
+      cmd = args.get(i);
+      if (cmd.equals("+repage"))
+	continue;
+      arg = args.get(++i);
+      switch (cmd) {
+	case "-filter":
+	  filter = Filter.parse(arg);
+	  break;
+	case "-resize":
+	  dims   = resizeDimensions(planes, arg);
+	  planes = resize(planes, dims[0], dims[1], filter);
+	  break;
+	case "-adaptive-resize":
+	  dims   = resizeDimensions(planes, arg);
+	  planes = resize(planes, dims[0], dims[1], Filter.TRIANGLE);
+	  break;
+	case "-scale":
+	  dims   = resizeDimensions(planes, arg);
+	  planes = resize(planes, dims[0], dims[1], Filter.BOX);
+	  break;
+	case "-blur":
+	case "-gaussian-blur":
+	  matcher = BLUR_GEOMETRY.matcher(arg);
+	  matcher.matches();
+	  planes = blur(planes, group(matcher, 1, 0.0), group(matcher, 4, 1.0));
+	  break;
+	case "-unsharp":
+	  matcher = BLUR_GEOMETRY.matcher(arg);
+	  matcher.matches();
+	  planes = unsharp(planes, group(matcher, 1, 0.0), group(matcher, 4, 1.0), group(matcher, 7, 1.0), group(matcher, 10, 0.05));
+	  break;
+	case "-crop":
+	  planes = crop(planes, arg);
+	  break;
+	case "-rotate":
+	  planes = rotate(planes, Double.parseDouble(arg));
+	  break;
+	case "-colorspace":
+	  if (arg.equalsIgnoreCase("gray"))
+	    planes = gray(planes);
+	  else
+	    planes.gray = false;
+	  break;
+	default:
+	  throw new IllegalStateException("Unhandled command: " + cmd);
+      }
+    }
+
+    return toImage(planes, bits);
+  }
+}
@@ -23,7 +23,6 @@ import adams.core.io.FileUtils;
 import adams.env.Environment;
 import org.im4java.core.ConvertCmd;
 import org.im4java.core.IMOperation;
-import org.im4java.core.Stream2BufferedImage;
 import org.im4java.process.Pipe;
 
 import java.awt.image.BufferedImage;
@@ -31,6 +30,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Helper class for ImageMagick (http://www.imagemagick.org/).
@@ -43,36 +44,55 @@ public class ImageMagickHelper {
   /** the environment variable to check for imagemagick. */
   public final static String ENV_PATH = "IM_TOOLPATH";
 
-  /** whether "convert" is present. */
-  protected static Boolean m_ConvertPresent;
+  /** the availability of the commands (command - available). */
+  protected static Map<String,Boolean> m_CommandPresent = new HashMap<>();
 
   /**
-   * Checks whether the "convert" utility is available.
+   * Checks whether the specified ImageMagick utility is available.
    *
-   * @return		true if "convert" is available (on PATH)
+   * @param cmd		the command to check, e.g., "convert"
+   * @return		true if available (on PATH)
    */
-  public static boolean isConvertAvailable() {
+  protected static synchronized boolean isCommandAvailable(String cmd) {
     Process	proc;
     String	path;
     String	exec;
 
-    if (m_ConvertPresent == null) {
-      exec = FileUtils.fixExecutable("convert");
+    if (!m_CommandPresent.containsKey(cmd)) {
+      exec = FileUtils.fixExecutable(cmd);
       path = System.getenv(ENV_PATH);
       if (path != null)
         exec = path + File.separator + exec;
       try {
 	proc = Runtime.getRuntime().exec(new String[]{exec, "-version"});
-	m_ConvertPresent = (proc.waitFor() == 0);
+	m_CommandPresent.put(cmd, proc.waitFor() == 0);
       }
       catch (Exception e) {
         System.err.println("Failed to execute '" + exec + "':");
         e.printStackTrace();
-	m_ConvertPresent = false;
+	m_CommandPresent.put(cmd, false);
       }
     }
 
-    return m_ConvertPresent;
+    return m_CommandPresent.get(cmd);
+  }
+
+  /**
+   * Checks whether the "convert" utility is available.
+   *
+   * @return		true if "convert" is available (on PATH)
+   */
+  public static boolean isConvertAvailable() {
+    return isCommandAvailable("convert");
+  }
+
+  /**
+   * Checks whether the "mogrify" utility is available.
+   *
+   * @return		true if "mogrify" is available (on PATH)
+   */
+  public static boolean isMogrifyAvailable() {
+    return isCommandAvailable("mogrify");
   }
 
   /**
@@ -95,6 +115,15 @@ public class ImageMagickHelper {
     return getMissingCommandErrorMessage("convert");
   }
 
+  /**
+   * Returns a standard error message if "mogrify" is not available.
+   *
+   * @return		the error message
+   */
+  public static String getMissingMogrifyErrorMessage() {
+    return getMissingCommandErrorMessage("mogrify");
+  }
+
   /**
    * Reads a BufferedImage from the file.
    *
@@ -157,7 +186,8 @@ public class ImageMagickHelper {
   }
 
   /**
-   * Reads a BufferedImage from the stream.
+   * Reads a BufferedImage from the stream. ImageMagick outputs the image
+   * as PAM, which gets decoded while streaming.
    * Caller must close stream explicitly.
    *
    * @param stream	the stream to read the image from
@@ -167,19 +197,19 @@ public class ImageMagickHelper {
     BufferedImage		result;
     IMOperation			op;
     ConvertCmd			cmd;
-    Stream2BufferedImage 	s2b;
+    PPMOutputConsumer		consumer;
 
     op = new IMOperation();
-    op.addImage("-");  // stdin
-    op.addImage("-");  // stdout (no conversion)
+    op.addImage("-");      // stdin
+    op.addImage("pam:-");  // stdout
 
-    s2b = new Stream2BufferedImage();
+    consumer = new PPMOutputConsumer();
     cmd = new ConvertCmd();
     cmd.setInputProvider(new Pipe(stream, null));
-    cmd.setOutputConsumer(s2b);
+    cmd.setOutputConsumer(consumer);
     try {
       cmd.run(op);
-      result = s2b.getImage();
+      result = consumer.getImage();
     }
     catch (Exception e) {
       result = null;
@@ -199,5 +229,6 @@ public class ImageMagickHelper {
     Environment.setEnvironmentClass(Environment.class);
     System.out.println("Tool availability:");
     System.out.println("- convert? " + isConvertAvailable());
+    System.out.println("- mogrify? " + isMogrifyAvailable());
   }
 }
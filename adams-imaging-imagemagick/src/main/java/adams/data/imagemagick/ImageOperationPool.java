@@ -0,0 +1,254 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ImageOperationPool.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.imagemagick;
+
+import adams.core.io.PlaceholderFile;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shared pool for applying image operations (ImageMagick, dcraw, ufraw),
+ * which limits the number of external processes that run at the same time.
+ * Jobs that exceed the maximum concurrency get queued.<br>
+ * The maximum concurrency defaults to the number of cores and can be set
+ * via the system property {@link #PROPERTY_MAXCONCURRENCY} (&lt;= 0 for
+ * number of cores).
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ImageOperationPool {
+
+  /** the system property for the maximum number of concurrent operations. */
+  public final static String PROPERTY_MAXCONCURRENCY = "adams.imagemagick.pool.maxconcurrency";
+
+  /** the singleton. */
+  protected static ImageOperationPool m_Singleton;
+
+  /** the executor. */
+  protected ThreadPoolExecutor m_Executor;
+
+  /**
+   * Initializes the pool, using as many threads as specified by the
+   * {@link #PROPERTY_MAXCONCURRENCY} system property or as there are cores.
+   */
+  protected ImageOperationPool() {
+    int		threads;
+
+    threads    = getDefaultMaxConcurrency();
+    m_Executor = new ThreadPoolExecutor(
+      threads, threads, 30, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+	protected int m_Count = 0;
+	@Override
+	public synchronized Thread newThread(Runnable r) {
+	  Thread result = new Thread(r, ImageOperationPool.class.getSimpleName() + "-" + (++m_Count));
+	  result.setDaemon(true);
+	  return result;
+	}
+      });
+    m_Executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Sets the maximum number of operations to run at the same time.
+   *
+   * @param value	the maximum, &lt;= 0 for the default
+   * @see		#getDefaultMaxConcurrency()
+   */
+  public synchronized void setMaxConcurrency(int value) {
+    if (value <= 0)
+      value = getDefaultMaxConcurrency();
+    if (value == m_Executor.getMaximumPoolSize())
+      return;
+    if (value > m_Executor.getMaximumPoolSize()) {
+      m_Executor.setMaximumPoolSize(value);
+      m_Executor.setCorePoolSize(value);
+    }
+    else {
+      m_Executor.setCorePoolSize(value);
+      m_Executor.setMaximumPoolSize(value);
+    }
+  }
+
+  /**
+   * Returns the maximum number of operations to run at the same time.
+   *
+   * @return		the maximum
+   */
+  public int getMaxConcurrency() {
+    return m_Executor.getMaximumPoolSize();
+  }
+
+  /**
+   * Returns the number of jobs waiting to be executed.
+   *
+   * @return		the number of queued jobs
+   */
+  public int getQueued() {
+    return m_Executor.getQueue().size();
+  }
+
+  /**
+   * Queues the operation for execution.
+   *
+   * @param operation	the operation to apply
+   * @param input	the input file
+   * @param output	the output file
+   * @return		the job, returns null if successful, otherwise error message
+   */
+  public Future<String> submit(final AbstractImageOperation operation, final PlaceholderFile input, final PlaceholderFile output) {
+    return m_Executor.submit(new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+	return operation.apply(input, output);
+      }
+    });
+  }
+
+  /**
+   * Queues the operation for execution, limiting the number of operations
+   * of the caller via the permits. Blocks until a permit is available, the
+   * permit gets released once the job has finished or got cancelled.
+   *
+   * @param operation	the operation to apply
+   * @param input	the input file
+   * @param output	the output file
+   * @param permits	the permits of the caller
+   * @return		the job, returns null if successful, otherwise error message
+   * @throws InterruptedException	if waiting for a permit got interrupted
+   */
+  public Future<String> submit(final AbstractImageOperation operation, final PlaceholderFile input, final PlaceholderFile output, final Semaphore permits) throws InterruptedException {
+    FutureTask<String>	result;
+
+    permits.acquire();
+    result = new FutureTask<String>(new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+	return operation.apply(input, output);
+      }
+    }) {
+      @Override
+      protected void done() {
+	permits.release();
+      }
+    };
+    try {
+      m_Executor.execute(result);
+    }
+    catch (RejectedExecutionException e) {
+      permits.release();
+      throw e;
+    }
+
+    return result;
+  }
+
+  /**
+   * Waits for the job to finish. Cancels the job if it times out.
+   *
+   * @param job		the job to wait for
+   * @param timeout	the timeout in msec, &lt;= 0 for no timeout
+   * @return		null if successful, otherwise error message
+   * @throws InterruptedException	if waiting got interrupted (job gets cancelled)
+   */
+  public static String waitFor(Future<String> job, int timeout) throws InterruptedException {
+    try {
+      if (timeout > 0)
+	return job.get(timeout, TimeUnit.MILLISECONDS);
+      else
+	return job.get();
+    }
+    catch (TimeoutException e) {
+      job.cancel(true);
+      return "Operation timed out after " + timeout + "msec!";
+    }
+    catch (InterruptedException e) {
+      job.cancel(true);
+      throw e;
+    }
+    catch (ExecutionException e) {
+      return "Failed to apply operation: " + e.getCause();
+    }
+  }
+
+  /**
+   * Applies the operation via the pool and waits for it to finish.
+   *
+   * @param operation	the operation to apply
+   * @param input	the input file
+   * @param output	the output file
+   * @param timeout	the timeout in msec, &lt;= 0 for no timeout
+   * @return		null if successful, otherwise error message
+   */
+  public String apply(AbstractImageOperation operation, PlaceholderFile input, PlaceholderFile output, int timeout) {
+    try {
+      return waitFor(submit(operation, input, output), timeout);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "Interrupted while applying operation!";
+    }
+  }
+
+  /**
+   * Returns the maximum number of concurrent operations to use, either
+   * from the {@link #PROPERTY_MAXCONCURRENCY} system property or the number
+   * of cores.
+   *
+   * @return		the maximum
+   */
+  public static int getDefaultMaxConcurrency() {
+    int		result;
+
+    result = 0;
+    try {
+      result = Integer.parseInt(System.getProperty(PROPERTY_MAXCONCURRENCY, "0").trim());
+    }
+    catch (NumberFormatException e) {
+      System.err.println("Invalid value for system property '" + PROPERTY_MAXCONCURRENCY + "': " + System.getProperty(PROPERTY_MAXCONCURRENCY));
+    }
+    if (result <= 0)
+      result = Runtime.getRuntime().availableProcessors();
+
+    return result;
+  }
+
+  /**
+   * Returns the shared pool.
+   *
+   * @return		the pool
+   */
+  public static synchronized ImageOperationPool getSingleton() {
+    if (m_Singleton == null)
+      m_Singleton = new ImageOperationPool();
+    return m_Singleton;
+  }
+}
@@ -0,0 +1,369 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PNMDecoder.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.imagemagick;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming decoder for binary PNM images: P5 (PGM), P6 (PPM) and
+ * P7 (PAM, 1-4 channels). Supports 8 and 16 bit samples. The pixel data
+ * gets read straight into the raster of the preallocated image, without
+ * buffering the complete stream first. Standard image types are used
+ * where possible (8 bit gray/RGB/RGBA, 16 bit gray).
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PNMDecoder {
+
+  /**
+   * Container for the header information.
+   */
+  protected static class Header {
+
+    /** the width. */
+    public int width;
+
+    /** the height. */
+    public int height;
+
+    /** the number of channels. */
+    public int depth;
+
+    /** the maximum sample value. */
+    public int maxVal;
+  }
+
+  /**
+   * Reads the next character, fails at the end of the stream.
+   *
+   * @param in		the stream to read from
+   * @return		the character
+   * @throws IOException	if reading fails or end of stream reached
+   */
+  protected static int readChar(InputStream in) throws IOException {
+    int		result;
+
+    result = in.read();
+    if (result == -1)
+      throw new EOFException("Premature end of PNM header!");
+
+    return result;
+  }
+
+  /**
+   * Reads the next token, skipping whitespace and comments. The single
+   * whitespace character following the token gets consumed as well.
+   *
+   * @param in		the stream to read from
+   * @return		the token
+   * @throws IOException	if reading fails
+   */
+  protected static String readToken(InputStream in) throws IOException {
+    StringBuilder	result;
+    int			c;
+
+    result = new StringBuilder();
+    c      = readChar(in);
+    while (true) {
+      if (c == '#') {
+	while ((c != '\n') && (c != '\r'))
+	  c = readChar(in);
+      }
+      else if (Character.isWhitespace(c)) {
+	c = readChar(in);
+      }
+      else {
+	break;
+      }
+    }
+    while (!Character.isWhitespace(c)) {
+      result.append((char) c);
+      c = readChar(in);
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Reads the remainder of the line.
+   *
+   * @param in		the stream to read from
+   * @return		the line
+   * @throws IOException	if reading fails
+   */
+  protected static String readLine(InputStream in) throws IOException {
+    StringBuilder	result;
+    int			c;
+
+    result = new StringBuilder();
+    while ((c = readChar(in)) != '\n')
+      result.append((char) c);
+
+    return result.toString().trim();
+  }
+
+  /**
+   * Reads the header of a P5/P6 image.
+   *
+   * @param in		the stream to read from
+   * @param depth	the number of channels
+   * @return		the header
+   * @throws IOException	if reading fails
+   */
+  protected static Header readPNMHeader(InputStream in, int depth) throws IOException {
+    Header	result;
+
+    result        = new Header();
+    result.depth  = depth;
+    result.width  = Integer.parseInt(readToken(in));
+    result.height = Integer.parseInt(readToken(in));
+    result.maxVal = Integer.parseInt(readToken(in));
+
+    return result;
+  }
+
+  /**
+   * Reads the header of a P7 image.
+   *
+   * @param in		the stream to read from
+   * @return		the header
+   * @throws IOException	if reading fails
+   */
+  protected static Header readPAMHeader(InputStream in) throws IOException {
+    Header	result;
+    String	line;
+    String[]	parts;
+
+    result = new Header();
+    while (true) {
+      line = readLine(in);
+      if (line.isEmpty() || line.startsWith("#"))
+	continue;
+      if (line.equals("ENDHDR"))
+	break;
+      parts = line.split("\\s+");
+      if (parts.length < 2)
+	continue;
+      switch (parts[0]) {
+	case "WIDTH":
+	  result.width = Integer.parseInt(parts[1]);
+	  break;
+	case "HEIGHT":
+	  result.height = Integer.parseInt(parts[1]);
+	  break;
+	case "DEPTH":
+	  result.depth = Integer.parseInt(parts[1]);
+	  break;
+	case "MAXVAL":
+	  result.maxVal = Integer.parseInt(parts[1]);
+	  break;
+	default:
+	  // ignored, e.g., TUPLTYPE
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates the image to read the pixels into.
+   *
+   * @param header	the header information
+   * @return		the image
+   * @throws IOException	if unsupported
+   */
+  protected static BufferedImage createImage(Header header) throws IOException {
+    ColorSpace		space;
+    ColorModel		model;
+    WritableRaster	raster;
+    int[]		offsets;
+    int			bits;
+    int			type;
+    boolean		alpha;
+    int			i;
+
+    if ((header.width <= 0) || (header.height <= 0))
+      throw new IOException("Invalid dimensions: " + header.width + "x" + header.height);
+    if ((header.depth < 1) || (header.depth > 4))
+      throw new IOException("Unsupported number of channels: " + header.depth);
+    if ((header.maxVal < 1) || (header.maxVal > 65535))
+      throw new IOException("Unsupported maximum value: " + header.maxVal);
+
+    // use standard image types where possible
+    if (header.maxVal < 256) {
+      switch (header.depth) {
+	case 1:
+	  return new BufferedImage(header.width, header.height, BufferedImage.TYPE_BYTE_GRAY);
+	case 3:
+	  return new BufferedImage(header.width, header.height, BufferedImage.TYPE_3BYTE_BGR);
+	case 4:
+	  return new BufferedImage(header.width, header.height, BufferedImage.TYPE_4BYTE_ABGR);
+      }
+    }
+    else if (header.depth == 1) {
+      return new BufferedImage(header.width, header.height, BufferedImage.TYPE_USHORT_GRAY);
+    }
+
+    alpha   = (header.depth == 2) || (header.depth == 4);
+    space   = ColorSpace.getInstance((header.depth < 3) ? ColorSpace.CS_GRAY : ColorSpace.CS_sRGB);
+    bits    = (header.maxVal < 256) ? 8 : 16;
+    type    = (bits == 8) ? DataBuffer.TYPE_BYTE : DataBuffer.TYPE_USHORT;
+    offsets = new int[header.depth];
+    for (i = 0; i < offsets.length; i++)
+      offsets[i] = i;
+    model   = new ComponentColorModel(
+      space, alpha, false, alpha ? Transparency.TRANSLUCENT : Transparency.OPAQUE, type);
+    raster  = Raster.createInterleavedRaster(
+      type, header.width, header.height, header.width * header.depth, header.depth, offsets, null);
+
+    return new BufferedImage(model, raster, false, null);
+  }
+
+  /**
+   * Reads the 8 bit samples straight into the raster.
+   *
+   * @param in		the stream to read from
+   * @param header	the header information
+   * @param image	the image to fill
+   * @throws IOException	if reading fails
+   */
+  protected static void read8(DataInputStream in, Header header, BufferedImage image) throws IOException {
+    byte[]	data;
+    int		i;
+    byte	tmp;
+
+    data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    in.readFully(data);
+
+    // RGB -> BGR
+    if (image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+      for (i = 0; i < data.length; i += 3) {
+	tmp         = data[i];
+	data[i]     = data[i + 2];
+	data[i + 2] = tmp;
+      }
+    }
+    // RGBA -> ABGR
+    else if (image.getType() == BufferedImage.TYPE_4BYTE_ABGR) {
+      for (i = 0; i < data.length; i += 4) {
+	tmp         = data[i];
+	data[i]     = data[i + 3];
+	data[i + 3] = tmp;
+	tmp         = data[i + 1];
+	data[i + 1] = data[i + 2];
+	data[i + 2] = tmp;
+      }
+    }
+
+    // scale to full range
+    if (header.maxVal != 255) {
+      for (i = 0; i < data.length; i++)
+	data[i] = (byte) Math.min(255, ((data[i] & 0xFF) * 255 + header.maxVal / 2) / header.maxVal);
+    }
+  }
+
+  /**
+   * Reads the 16 bit (big endian) samples row by row into the raster.
+   *
+   * @param in		the stream to read from
+   * @param header	the header information
+   * @param image	the image to fill
+   * @throws IOException	if reading fails
+   */
+  protected static void read16(DataInputStream in, Header header, BufferedImage image) throws IOException {
+    short[]	data;
+    byte[]	row;
+    int		samples;
+    int		offset;
+    int		y;
+    int		i;
+    int		value;
+
+    data    = ((DataBufferUShort) image.getRaster().getDataBuffer()).getData();
+    samples = header.width * header.depth;
+    row     = new byte[samples * 2];
+    offset  = 0;
+    for (y = 0; y < header.height; y++) {
+      in.readFully(row);
+      for (i = 0; i < samples; i++) {
+	value = ((row[i * 2] & 0xFF) << 8) | (row[i * 2 + 1] & 0xFF);
+	if (header.maxVal != 65535)
+	  value = Math.min(65535, (int) (((long) value * 65535 + header.maxVal / 2) / header.maxVal));
+	data[offset + i] = (short) value;
+      }
+      offset += samples;
+    }
+  }
+
+  /**
+   * Reads a binary PNM image (P5, P6, P7) from the stream.
+   * Caller must close stream explicitly.
+   *
+   * @param stream	the stream to read from
+   * @return		the image
+   * @throws IOException	if reading fails or format not supported
+   */
+  public static BufferedImage read(InputStream stream) throws IOException {
+    BufferedImage	result;
+    DataInputStream	in;
+    String		magic;
+    Header		header;
+
+    in    = new DataInputStream((stream instanceof BufferedInputStream) ? stream : new BufferedInputStream(stream, 65536));
+    magic = "" + (char) readChar(in) + (char) readChar(in);
+    switch (magic) {
+      case "P5":
+	header = readPNMHeader(in, 1);
+	break;
+      case "P6":
+	header = readPNMHeader(in, 3);
+	break;
+      case "P7":
+	readLine(in);
+	header = readPAMHeader(in);
+	break;
+      default:
+	throw new IOException("Unsupported PNM format: " + magic);
+    }
+
+    result = createImage(header);
+    if (header.maxVal < 256)
+      read8(in, header, result);
+    else
+      read16(in, header, result);
+
+    return result;
+  }
+}
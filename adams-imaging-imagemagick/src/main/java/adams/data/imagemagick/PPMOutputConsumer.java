@@ -20,21 +20,16 @@
 package adams.data.imagemagick;
 
 import java.awt.image.BufferedImage;
-import java.awt.image.renderable.ParameterBlock;
 import java.io.IOException;
 import java.io.InputStream;
 
-import javax.media.jai.JAI;
-import javax.media.jai.RenderedOp;
-
-import org.apache.commons.io.IOUtils;
 import org.im4java.process.OutputConsumer;
 
-import com.sun.media.jai.codec.ByteArraySeekableStream;
-
 /**
- * {@link OutputConsumer} that uses JAI to read the PPM input stream and
- * turns it into a {@link BufferedImage}.
+ * {@link OutputConsumer} that decodes the PPM/PGM/PAM input stream on the fly
+ * and turns it into a {@link BufferedImage}.
+ *
+ * @see PNMDecoder
  * 
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
@@ -46,25 +41,15 @@ public class PPMOutputConsumer
   protected BufferedImage m_Image;
   
   /**
-   * Reads the ppm input stream into a {@link BufferedImage}.
+   * Reads the PNM input stream into a {@link BufferedImage}.
    * 
    * @param stream		the stream to read from
    * @throws IOException	if reading from stream fails
    */
   @Override
   public void consumeOutput(InputStream stream) throws IOException {
-    byte[] 			bytes;
-    ByteArraySeekableStream 	bstream;
-    ParameterBlock 		pb;
-    RenderedOp 			op;
-    
     m_Image = null;
-    bytes   = IOUtils.toByteArray(stream);
-    bstream = new ByteArraySeekableStream(bytes);
-    pb      = new ParameterBlock();
-    pb.add(bstream);
-    op      = JAI.create("PNM", pb);
-    m_Image = op.getAsBufferedImage();
+    m_Image = PNMDecoder.read(stream);
   }
   
   /**
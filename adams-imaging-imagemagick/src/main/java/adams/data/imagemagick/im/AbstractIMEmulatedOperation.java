@@ -0,0 +1,242 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractIMEmulatedOperation.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.imagemagick.im;
+
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderFile;
+import adams.core.logging.LoggingHelper;
+import adams.data.imagemagick.ExecutionMode;
+import adams.data.imagemagick.ImageMagickEmulator;
+import adams.data.imagemagick.ImageMagickHelper;
+import org.im4java.core.IMOperation;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Ancestor for simple ImageMagic operations that can be emulated.<br>
+ * Depending on the execution mode, the operation can get performed within
+ * the JVM, without starting an external process (only for a subset of
+ * operations and file formats supported by ImageIO).<br>
+ * In AUTO mode, the ImageMagick executables get used if ImageIO fails to
+ * write the processed image (e.g., an image with alpha channel as JPEG).
+ * 
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @version $Revision$
+ */
+public abstract class AbstractIMEmulatedOperation
+  extends AbstractIMSimpleOperation {
+
+  /** for serialization. */
+  private static final long serialVersionUID = -2374719620845537164L;
+
+  /** how to execute the operation. */
+  protected ExecutionMode m_Mode;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "mode", "mode",
+	    ExecutionMode.EXTERNAL);
+  }
+
+  /**
+   * Sets how to execute the operation.
+   *
+   * @param value	the mode
+   */
+  public void setMode(ExecutionMode value) {
+    m_Mode = value;
+    reset();
+  }
+
+  /**
+   * Returns how to execute the operation.
+   *
+   * @return		the mode
+   */
+  public ExecutionMode getMode() {
+    return m_Mode;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String modeTipText() {
+    return
+	"How to execute the operation: " + ExecutionMode.EXTERNAL + " always uses "
+	+ "ImageMagick, " + ExecutionMode.JVM + " always executes it within the "
+	+ "JVM (fails if not supported), " + ExecutionMode.AUTO + " uses the JVM "
+	+ "if possible.";
+  }
+
+  /**
+   * Returns the operation as ImageMagick commands.
+   * 
+   * @return		the commands
+   */
+  protected List<String> getArgs() {
+    IMOperation	op;
+
+    op = new IMOperation();
+    addOperation(op);
+
+    return op.getCmdArgs();
+  }
+
+  /**
+   * Checks whether ImageIO can read/write files with the extension.
+   * 
+   * @param file	the file to check
+   * @param write	whether to check for writing or reading
+   * @return		true if supported
+   */
+  protected boolean isSupportedByImageIO(PlaceholderFile file, boolean write) {
+    String	ext;
+
+    ext = FileUtils.getExtension(file.getAbsolutePath());
+    if (ext == null)
+      return false;
+    if (write)
+      return ImageIO.getImageWritersBySuffix(ext.toLowerCase()).hasNext();
+    else
+      return ImageIO.getImageReadersBySuffix(ext.toLowerCase()).hasNext();
+  }
+
+  /**
+   * Returns whether to perform the operation within the JVM.
+   * 
+   * @param input	the input file
+   * @param output	the output file
+   * @return		true if to use the JVM
+   */
+  protected boolean useJVM(PlaceholderFile input, PlaceholderFile output) {
+    switch (m_Mode) {
+      case JVM:
+	return true;
+      case AUTO:
+	return isSupportedByImageIO(input, false) 
+	  && isSupportedByImageIO(output, true) 
+	  && ImageMagickEmulator.isSupported(getArgs());
+      default:
+	return false;
+    }
+  }
+
+  /**
+   * Returns whether the operation requires the ImageMagick executables.
+   * 
+   * @param input	the input file
+   * @param output	the output file
+   * @return		true if required
+   */
+  @Override
+  protected boolean requiresExecutables(PlaceholderFile input, PlaceholderFile output) {
+    return !useJVM(input, output);
+  }
+
+  /**
+   * Hook method for performing checks before applying the operation.
+   * 
+   * @param input	the input file
+   * @param output	the output file
+   * @return		null if successful, otherwise error message
+   */
+  @Override
+  protected String check(PlaceholderFile input, PlaceholderFile output) {
+    String	result;
+
+    result = super.check(input, output);
+
+    if ((result == null) && (m_Mode == ExecutionMode.JVM)) {
+      result = ImageMagickEmulator.checkSupported(getArgs());
+      if ((result == null) && !isSupportedByImageIO(input, false))
+	result = "Input format not supported by ImageIO: " + input;
+      if ((result == null) && !isSupportedByImageIO(output, true))
+	result = "Output format not supported by ImageIO: " + output;
+    }
+
+    return result;
+  }
+
+  /**
+   * Applies the operation within the JVM.
+   * 
+   * @param input	the input file
+   * @param output	the output file
+   * @return		null if successful, otherwise error message
+   * @see		ImageMagickEmulator
+   */
+  protected String emulate(PlaceholderFile input, PlaceholderFile output) {
+    String		result;
+    BufferedImage	image;
+
+    result = null;
+
+    try {
+      image = ImageIO.read(input.getAbsoluteFile());
+      if (image == null) {
+	result = "Failed to read image: " + input;
+      }
+      else {
+	image = ImageMagickEmulator.apply(image, getArgs());
+	if (!ImageIO.write(image, FileUtils.getExtension(output.getAbsolutePath()).toLowerCase(), output.getAbsoluteFile())) {
+	  if ((m_Mode == ExecutionMode.AUTO) && ImageMagickHelper.isConvertAvailable()) {
+	    getLogger().info("ImageIO cannot write image, using ImageMagick instead: " + output);
+	    result = super.doApply(input, output);
+	  }
+	  else {
+	    result = "Failed to write image (not supported by ImageIO for this image type): " + output;
+	  }
+	}
+      }
+    }
+    catch (Exception e) {
+      result = LoggingHelper.handleException(this, "Failed to apply operation!", e);
+    }
+
+    return result;
+  }
+
+  /**
+   * Applies the actual operation to the input file and stores the result in the 
+   * output file.
+   * 
+   * @param input	the input file
+   * @param output	the output file
+   * @return		null if successful, otherwise error message
+   */
+  @Override
+  protected String doApply(PlaceholderFile input, PlaceholderFile output) {
+    if (useJVM(input, output))
+      return emulate(input, output);
+    else
+      return super.doApply(input, output);
+  }
+}
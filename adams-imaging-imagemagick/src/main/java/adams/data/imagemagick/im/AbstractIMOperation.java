@@ -35,6 +35,17 @@ public abstract class AbstractIMOperation
   /** for serialization. */
   private static final long serialVersionUID = 4447009209054143230L;
 
+  /**
+   * Returns whether the operation requires the ImageMagick executables.
+   * 
+   * @param input	the input file
+   * @param output	the output file
+   * @return		true if required
+   */
+  protected boolean requiresExecutables(PlaceholderFile input, PlaceholderFile output) {
+    return true;
+  }
+
   /**
    * Hook method for performing checks before applying the operation.
    * 
@@ -44,7 +55,7 @@ public abstract class AbstractIMOperation
    */
   @Override
   protected String check(PlaceholderFile input, PlaceholderFile output) {
-    if (!ImageMagickHelper.isConvertAvailable())
+    if (requiresExecutables(input, output) && !ImageMagickHelper.isConvertAvailable())
       return ImageMagickHelper.getMissingConvertErrorMessage();
     else
       return super.check(input, output);
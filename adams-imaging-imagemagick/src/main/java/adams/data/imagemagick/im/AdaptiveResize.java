@@ -35,6 +35,13 @@ import adams.core.QuickInfoHelper;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-mode &lt;EXTERNAL|JVM|AUTO&gt; (property: mode)
+ * &nbsp;&nbsp;&nbsp;How to execute the operation: EXTERNAL always uses ImageMagick, JVM always 
+ * &nbsp;&nbsp;&nbsp;executes it within the JVM (fails if not supported), AUTO uses the JVM if 
+ * &nbsp;&nbsp;&nbsp;possible.
+ * &nbsp;&nbsp;&nbsp;default: EXTERNAL
+ * </pre>
+ * 
  * <pre>-width &lt;int&gt; (property: width)
  * &nbsp;&nbsp;&nbsp;The width in pixels; -1 for current width.
  * &nbsp;&nbsp;&nbsp;default: -1
@@ -59,7 +66,7 @@ import adams.core.QuickInfoHelper;
  * @version $Revision$
  */
 public class AdaptiveResize
-  extends AbstractIMSimpleOperation {
+  extends AbstractIMEmulatedOperation {
 
   /** for serialization. */
   private static final long serialVersionUID = 3529048936510645338L;
@@ -24,6 +24,7 @@ import adams.core.QuickInfoHelper;
 import adams.core.io.FileWriter;
 import adams.core.io.PlaceholderFile;
 import adams.data.imagemagick.AbstractImageOperation;
+import adams.data.imagemagick.ImageOperationPool;
 import adams.data.imagemagick.im.NoOp;
 import adams.flow.core.Token;
 
@@ -31,12 +32,67 @@ import java.io.File;
 
 /**
  <!-- globalinfo-start -->
+ * Converts an image using the specified ImageMagick operation.<br>
+ * The operation gets executed via the shared pool for image operations, which limits the number of external processes across the flows.<br>
+ * <br>
+ * NB: Uses im4java, i.e., ImageMagick (http:&#47;&#47;www.imagemagick.org&#47;) executables must be available on the PATH.
+ * <br><br>
  <!-- globalinfo-end -->
  *
  <!-- flow-summary-start -->
+ * Input&#47;output:<br>
+ * - accepts:<br>
+ * &nbsp;&nbsp;&nbsp;java.lang.String<br>
+ * &nbsp;&nbsp;&nbsp;java.io.File<br>
+ * - generates:<br>
+ * &nbsp;&nbsp;&nbsp;java.lang.String<br>
+ * <br><br>
  <!-- flow-summary-end -->
  *
  <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ * 
+ * <pre>-name &lt;java.lang.String&gt; (property: name)
+ * &nbsp;&nbsp;&nbsp;The name of the actor.
+ * &nbsp;&nbsp;&nbsp;default: ImageMagickOperation
+ * </pre>
+ * 
+ * <pre>-annotation &lt;adams.core.base.BaseText&gt; (property: annotations)
+ * &nbsp;&nbsp;&nbsp;The annotations to attach to this actor.
+ * &nbsp;&nbsp;&nbsp;default: 
+ * </pre>
+ * 
+ * <pre>-skip &lt;boolean&gt; (property: skip)
+ * &nbsp;&nbsp;&nbsp;If set to true, transformation is skipped and the input token is just forwarded 
+ * &nbsp;&nbsp;&nbsp;as it is.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
+ * <pre>-stop-flow-on-error &lt;boolean&gt; (property: stopFlowOnError)
+ * &nbsp;&nbsp;&nbsp;If set to true, the flow gets stopped in case this actor encounters an error;
+ * &nbsp;&nbsp;&nbsp; useful for critical actors.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
+ * <pre>-operation &lt;adams.data.imagemagick.AbstractImageOperation&gt; (property: operation)
+ * &nbsp;&nbsp;&nbsp;The image operation to apply.
+ * &nbsp;&nbsp;&nbsp;default: adams.data.imagemagick.im.NoOp
+ * </pre>
+ * 
+ * <pre>-output &lt;adams.core.io.PlaceholderFile&gt; (property: outputFile)
+ * &nbsp;&nbsp;&nbsp;The file to write the output of the operation to.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ * 
+ * <pre>-timeout &lt;int&gt; (property: timeout)
+ * &nbsp;&nbsp;&nbsp;The timeout in msec after which the operation gets cancelled; 0 for no timeout.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -54,6 +110,9 @@ public class ImageMagickOperation
   /** the output file. */
   protected PlaceholderFile m_OutputFile;
 
+  /** the timeout in msec. */
+  protected int m_Timeout;
+
   /**
    * Returns a string describing the object.
    *
@@ -62,7 +121,9 @@ public class ImageMagickOperation
   @Override
   public String globalInfo() {
     return
-        "Converts an image using the specified ImageMagick operation.\n\n"
+        "Converts an image using the specified ImageMagick operation.\n"
+      + "The operation gets executed via the shared pool for image operations, "
+      + "which limits the number of external processes across the flows.\n\n"
       + "NB: Uses im4java, i.e., ImageMagick (http://www.imagemagick.org/) "
       + "executables must be available on the PATH.";
   }
@@ -81,6 +142,10 @@ public class ImageMagickOperation
     m_OptionManager.add(
 	    "output", "outputFile",
 	    new PlaceholderFile("."));
+
+    m_OptionManager.add(
+	    "timeout", "timeout",
+	    0, 0, null);
   }
 
   /**
@@ -156,6 +221,37 @@ public class ImageMagickOperation
     return "The file to write the output of the operation to.";
   }
 
+  /**
+   * Sets the timeout for the operation.
+   *
+   * @param value	the timeout in msec, 0 for no timeout
+   */
+  public void setTimeout(int value) {
+    if (getOptionManager().isValid("timeout", value)) {
+      m_Timeout = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the timeout for the operation.
+   *
+   * @return		the timeout in msec, 0 for no timeout
+   */
+  public int getTimeout() {
+    return m_Timeout;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String timeoutTipText() {
+    return "The timeout in msec after which the operation gets cancelled; 0 for no timeout.";
+  }
+
   /**
    * Returns the class that the consumer accepts.
    *
@@ -168,7 +264,7 @@ public class ImageMagickOperation
   /**
    * Returns the class of objects that it generates.
    *
-   * @return		<!-- flow-generates-start -->adams.data.image.BufferedImageContainer.class<!-- flow-generates-end -->
+   * @return		<!-- flow-generates-start -->java.lang.String.class<!-- flow-generates-end -->
    */
   public Class[] generates() {
     return new Class[]{String.class};
@@ -212,7 +308,7 @@ public class ImageMagickOperation
     else
       input = (String) m_InputToken.getPayload();
     
-    result = m_Operation.apply(new PlaceholderFile(input), m_OutputFile);
+    result = ImageOperationPool.getSingleton().apply(m_Operation, new PlaceholderFile(input), m_OutputFile, m_Timeout);
     if (result == null)
       m_OutputToken = new Token(m_OutputFile.getAbsolutePath());
 
@@ -15,7 +15,7 @@
 
 /*
  * ImageMagickTransformer.java
- * Copyright (C) 2011-2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -26,20 +26,35 @@ import adams.core.base.BaseText;
 import adams.core.option.OptionUtils;
 import adams.data.image.AbstractImageContainer;
 import adams.data.image.BufferedImageContainer;
+import adams.data.imagemagick.ExecutionMode;
+import adams.data.imagemagick.ImageMagickEmulator;
 import adams.data.imagemagick.ImageMagickHelper;
+import adams.data.imagemagick.PPMOutputConsumer;
 import adams.data.jai.JAIHelper;
+import adams.flow.core.Actor;
+import adams.flow.core.ActorHandler;
+import adams.flow.core.OutputProducer;
 import adams.flow.core.Token;
 import org.im4java.core.ConvertCmd;
 import org.im4java.core.IMOperation;
-import org.im4java.core.Stream2BufferedImage;
+import org.im4java.core.MogrifyCmd;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  <!-- globalinfo-start -->
  * Converts an image using ImageMagick.<br>
  * In order to make entering of commands easier, they can be spread over multiple lines and line comments can be inserted as well (a line comment starts with '#').<br>
  * <br>
+ * With a batch size larger than 1, the images get collected and processed together with a single 'mogrify' call (via a temporary directory), avoiding starting a process per image. The processed images get forwarded in the order they arrived. An incomplete batch gets processed together with the last image, i.e., once the preceding actors have no more output.<br>
+ * Using the JVM or AUTO mode, simple commands (resize, scale, blur, unsharp, crop, rotate, colorspace) can get executed within the JVM, avoiding the external process altogether (batch size is ignored then); see adams.data.imagemagick.ImageMagickEmulator for details.<br>
+ * <br>
  * NB: Uses im4java, i.e., ImageMagick (http:&#47;&#47;www.imagemagick.org&#47;) executables must be available on the PATH.
  * <br><br>
  <!-- globalinfo-end -->
@@ -86,6 +101,20 @@ import java.util.Arrays;
  * &nbsp;&nbsp;&nbsp;default: 
  * </pre>
  * 
+ * <pre>-batch-size &lt;int&gt; (property: batchSize)
+ * &nbsp;&nbsp;&nbsp;The number of images to process with a single ImageMagick call; 1 processes
+ * &nbsp;&nbsp;&nbsp;each image immediately using 'convert'.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
+ * <pre>-mode &lt;EXTERNAL|JVM|AUTO&gt; (property: mode)
+ * &nbsp;&nbsp;&nbsp;How to execute the commands: EXTERNAL always uses ImageMagick, JVM always 
+ * &nbsp;&nbsp;&nbsp;executes them within the JVM (only a subset of commands is supported), AUTO 
+ * &nbsp;&nbsp;&nbsp;uses the JVM if possible.
+ * &nbsp;&nbsp;&nbsp;default: EXTERNAL
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -102,6 +131,21 @@ public class ImageMagickTransformer
   /** the commands to execute. */
   protected BaseText m_Commands;
 
+  /** the number of images to process at a time. */
+  protected int m_BatchSize;
+
+  /** how to execute the commands. */
+  protected ExecutionMode m_Mode;
+
+  /** the parsed commands. */
+  protected transient List<String> m_Args;
+
+  /** the collected images (batch mode). */
+  protected List<BufferedImageContainer> m_Batch;
+
+  /** the processed images to forward. */
+  protected List<Token> m_Processed;
+
   /**
    * Returns a string describing the object.
    *
@@ -113,7 +157,18 @@ public class ImageMagickTransformer
         "Converts an image using ImageMagick.\n"
       + "In order to make entering of commands easier, they can be spread over "
       + "multiple lines and line comments can be inserted as well (a line "
-      + "comment starts with '" + COMMENT + "').\n\n"
+      + "comment starts with '" + COMMENT + "').\n"
+      + "With a batch size larger than 1, the images get collected and processed "
+      + "together with a single 'mogrify' call (via a temporary directory), "
+      + "avoiding starting a process per image. The processed images get "
+      + "forwarded in the order they arrived. An incomplete batch gets "
+      + "processed together with the last image, i.e., once the preceding "
+      + "actors have no more output.\n"
+      + "Using the " + ExecutionMode.JVM + " or " + ExecutionMode.AUTO + " mode, "
+      + "simple commands (resize, scale, blur, unsharp, crop, rotate, colorspace) "
+      + "can get executed within the JVM, avoiding the external process "
+      + "altogether (batch size is ignored then); see "
+      + ImageMagickEmulator.class.getName() + " for details.\n\n"
       + "NB: Uses im4java, i.e., ImageMagick (http://www.imagemagick.org/) "
       + "executables must be available on the PATH.";
   }
@@ -128,6 +183,26 @@ public class ImageMagickTransformer
     m_OptionManager.add(
 	    "commands", "commands",
 	    new BaseText());
+
+    m_OptionManager.add(
+	    "batch-size", "batchSize",
+	    1, 1, null);
+
+    m_OptionManager.add(
+	    "mode", "mode",
+	    ExecutionMode.EXTERNAL);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_Args      = null;
+    m_Batch     = new ArrayList<>();
+    m_Processed = new ArrayList<>();
   }
 
   /**
@@ -137,7 +212,15 @@ public class ImageMagickTransformer
    */
   @Override
   public String getQuickInfo() {
-    return QuickInfoHelper.toString(this, "commands", Shortening.shortenEnd(m_Commands.stringValue(), 100));
+    String	result;
+
+    result = QuickInfoHelper.toString(this, "commands", Shortening.shortenEnd(m_Commands.stringValue(), 100));
+    if (m_BatchSize > 1)
+      result += QuickInfoHelper.toString(this, "batchSize", m_BatchSize, ", batch: ");
+    if (m_Mode != ExecutionMode.EXTERNAL)
+      result += QuickInfoHelper.toString(this, "mode", m_Mode, ", mode: ");
+
+    return result;
   }
 
   /**
@@ -169,6 +252,72 @@ public class ImageMagickTransformer
     return "The ImageMagick commands to execute.";
   }
 
+  /**
+   * Sets the number of images to process with a single ImageMagick call.
+   *
+   * @param value	the batch size
+   */
+  public void setBatchSize(int value) {
+    if (getOptionManager().isValid("batchSize", value)) {
+      m_BatchSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of images to process with a single ImageMagick call.
+   *
+   * @return		the batch size
+   */
+  public int getBatchSize() {
+    return m_BatchSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchSizeTipText() {
+    return
+	"The number of images to process with a single ImageMagick call; "
+	+ "1 processes each image immediately using 'convert'.";
+  }
+
+  /**
+   * Sets how to execute the commands.
+   *
+   * @param value	the mode
+   */
+  public void setMode(ExecutionMode value) {
+    m_Mode = value;
+    reset();
+  }
+
+  /**
+   * Returns how to execute the commands.
+   *
+   * @return		the mode
+   */
+  public ExecutionMode getMode() {
+    return m_Mode;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String modeTipText() {
+    return
+	"How to execute the commands: " + ExecutionMode.EXTERNAL + " always uses "
+	+ "ImageMagick, " + ExecutionMode.JVM + " always executes them within the "
+	+ "JVM (only a subset of commands is supported), " + ExecutionMode.AUTO
+	+ " uses the JVM if possible.";
+  }
+
   /**
    * Returns the class that the consumer accepts.
    *
@@ -198,37 +347,34 @@ public class ImageMagickTransformer
 
     result = super.setUp();
 
-    if (result == null) {
-      if (!ImageMagickHelper.isConvertAvailable())
-	result = ImageMagickHelper.getMissingConvertErrorMessage();
+    if ((result == null) && (m_Mode == ExecutionMode.JVM))
+      result = ImageMagickEmulator.checkSupported(getArgs());
+
+    if ((result == null) && !m_Mode.useJVM(getArgs())) {
+      if (m_BatchSize > 1) {
+	if (!ImageMagickHelper.isMogrifyAvailable())
+	  result = ImageMagickHelper.getMissingMogrifyErrorMessage();
+      }
+      else {
+	if (!ImageMagickHelper.isConvertAvailable())
+	  result = ImageMagickHelper.getMissingConvertErrorMessage();
+      }
     }
 
     return result;
   }
 
   /**
-   * Executes the flow item.
+   * Returns the commands as arguments, parses them if necessary.
    *
-   * @return		null if everything is fine, otherwise error message
+   * @return		the arguments
    */
-  @Override
-  protected String doExecute() {
-    String			result;
-    BufferedImageContainer	img;
-    ConvertCmd			cmd;
-    IMOperation			op;
-    StringBuilder		cmds;
-    String[]			lines;
-    Stream2BufferedImage 	s2b;
-    BufferedImageContainer	cont;
-
-    result = null;
+  protected List<String> getArgs() {
+    StringBuilder	cmds;
+    String[]		lines;
 
-    try {
-      img = JAIHelper.toBufferedImageContainer((AbstractImageContainer) m_InputToken.getPayload());
-
-      op = new IMOperation();
-      op.addImage();  // input
+    if (m_Args == null) {
+      m_Args = new ArrayList<>();
       if (!m_Commands.isEmpty()) {
 	lines = m_Commands.getValue().split("\n");
 	cmds  = new StringBuilder();
@@ -242,19 +388,138 @@ public class ImageMagickTransformer
 	    cmds.append(" ");
 	  cmds.append(line);
 	}
-	op.addRawArgs(Arrays.asList(OptionUtils.splitOptions(cmds.toString())));
+	m_Args.addAll(Arrays.asList(OptionUtils.splitOptions(cmds.toString())));
       }
-      op.addImage("-");  // output
+    }
 
-      s2b = new Stream2BufferedImage();
+    return m_Args;
+  }
+
+  /**
+   * Transforms a single image using "convert".
+   *
+   * @param img		the image to transform
+   * @throws Exception	if transformation fails
+   */
+  protected void convert(BufferedImageContainer img) throws Exception {
+    ConvertCmd			cmd;
+    IMOperation			op;
+    PPMOutputConsumer		consumer;
+    BufferedImageContainer	cont;
+
+    op = new IMOperation();
+    op.addImage();  // input
+    if (getArgs().size() > 0)
+      op.addRawArgs(getArgs());
+    op.addImage("pam:-");  // output
+
+    consumer = new PPMOutputConsumer();
+
+    cmd = new ConvertCmd();
+    cmd.setOutputConsumer(consumer);
+    cmd.run(op, img.getImage());
+
+    cont = (BufferedImageContainer) img.getHeader();
+    cont.setImage(consumer.getImage());
+    m_Processed.add(new Token(cont));
+  }
+
+  /**
+   * Transforms a single image within the JVM.
+   *
+   * @param img		the image to transform
+   * @throws Exception	if transformation fails
+   * @see		ImageMagickEmulator
+   */
+  protected void emulate(BufferedImageContainer img) throws Exception {
+    BufferedImageContainer	cont;
+
+    cont = (BufferedImageContainer) img.getHeader();
+    cont.setImage(ImageMagickEmulator.apply(img.getImage(), getArgs()));
+    m_Processed.add(new Token(cont));
+  }
+
+  /**
+   * Transforms the collected images with a single "mogrify" call.
+   *
+   * @throws Exception	if transformation fails
+   */
+  protected void mogrify() throws Exception {
+    File			dir;
+    File[]			files;
+    String[]			names;
+    MogrifyCmd			cmd;
+    IMOperation			op;
+    BufferedImage		image;
+    BufferedImageContainer	cont;
+    int				i;
+
+    dir   = Files.createTempDirectory("adams-im-").toFile();
+    files = new File[m_Batch.size()];
+    names = new String[m_Batch.size()];
+    try {
+      for (i = 0; i < m_Batch.size(); i++) {
+	files[i] = new File(dir, i + ".png");
+	names[i] = files[i].getAbsolutePath();
+	if (!ImageIO.write(m_Batch.get(i).getImage(), "png", files[i]))
+	  throw new IllegalStateException("Failed to write image: " + files[i]);
+      }
+
+      op = new IMOperation();
+      if (getArgs().size() > 0)
+	op.addRawArgs(getArgs());
+      op.addImage(names);
+
+      cmd = new MogrifyCmd();
+      cmd.run(op);
+
+      for (i = 0; i < m_Batch.size(); i++) {
+	image = ImageIO.read(files[i]);
+	if (image == null)
+	  throw new IllegalStateException("Failed to read transformed image: " + files[i]);
+	cont = (BufferedImageContainer) m_Batch.get(i).getHeader();
+	cont.setImage(image);
+	m_Processed.add(new Token(cont));
+      }
+
+      if (isLoggingEnabled())
+	getLogger().fine("Transformed batch of " + m_Batch.size() + " images");
+    }
+    finally {
+      m_Batch.clear();
+      for (File file: files) {
+	if (file != null)
+	  file.delete();
+      }
+      dir.delete();
+    }
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    String			result;
+    BufferedImageContainer	img;
 
-      cmd = new ConvertCmd();
-      cmd.setOutputConsumer(s2b);
-      cmd.run(op, img.getImage());
+    result = null;
 
-      cont = (BufferedImageContainer) img.getHeader();
-      cont.setImage(s2b.getImage());
-      m_OutputToken = new Token(cont);
+    try {
+      img = JAIHelper.toBufferedImageContainer((AbstractImageContainer) m_InputToken.getPayload());
+      if (m_Mode.useJVM(getArgs())) {
+	emulate(img);
+      }
+      else if (m_BatchSize > 1) {
+	m_Batch.add(img);
+	if ((m_Batch.size() >= m_BatchSize) || isLastInput())
+	  mogrify();
+      }
+      else {
+	convert(img);
+      }
     }
     catch (Exception e) {
       result = handleException("Failed to transform image: ", e);
@@ -262,4 +527,66 @@ public class ImageMagickTransformer
 
     return result;
   }
+
+  /**
+   * Checks whether the current input is the last one, i.e., whether the
+   * actors preceding this one in the parent have no more output.
+   *
+   * @return		true if no more images will arrive
+   */
+  protected boolean isLastInput() {
+    ActorHandler	handler;
+    Actor		actor;
+    int			index;
+    int			i;
+
+    if (!(getParent() instanceof ActorHandler))
+      return false;
+
+    handler = (ActorHandler) getParent();
+    index   = handler.indexOf(getName());
+    for (i = index - 1; i >= 0; i--) {
+      actor = handler.get(i);
+      if (actor.getSkip())
+	continue;
+      if ((actor instanceof OutputProducer) && ((OutputProducer) actor).hasPendingOutput())
+	return false;
+    }
+
+    return (index > 0);
+  }
+
+  /**
+   * Checks whether there is pending output to be collected after
+   * executing the flow item.
+   *
+   * @return		true if there is pending output
+   */
+  @Override
+  public boolean hasPendingOutput() {
+    return (m_Processed.size() > 0);
+  }
+
+  /**
+   * Returns the generated token.
+   *
+   * @return		the generated token
+   */
+  @Override
+  public Token output() {
+    return m_Processed.remove(0);
+  }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    if ((m_Batch.size() > 0) && isLoggingEnabled())
+      getLogger().info("Discarding incomplete batch of " + m_Batch.size() + " images");
+    m_Batch.clear();
+    m_Processed.clear();
+
+    super.wrapUp();
+  }
 }
@@ -0,0 +1,614 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ParallelImageMagickOperation.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer;
+
+import adams.core.QuickInfoHelper;
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderDirectory;
+import adams.core.io.PlaceholderFile;
+import adams.data.imagemagick.AbstractImageOperation;
+import adams.data.imagemagick.ImageOperationPool;
+import adams.data.imagemagick.im.NoOp;
+import adams.flow.core.Token;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ <!-- globalinfo-start -->
+ * Applies the specified image operation to all the incoming files in parallel, using the shared pool for image operations. The maximum concurrency only limits the operations of this actor.<br>
+ * The generated files get forwarded in the same order as the input files, as soon as they become available.<br>
+ * The output files are placed in the output directory, using the name of the input file with the specified extension. If that name has already been used during the flow execution (by this or another actor), a numeric suffix gets appended (eg '-1').<br>
+ * <br>
+ * NB: Uses im4java, i.e., ImageMagick (http:&#47;&#47;www.imagemagick.org&#47;) executables must be available on the PATH.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- flow-summary-start -->
+ * Input&#47;output:<br>
+ * - accepts:<br>
+ * &nbsp;&nbsp;&nbsp;java.lang.String<br>
+ * &nbsp;&nbsp;&nbsp;java.lang.String[]<br>
+ * &nbsp;&nbsp;&nbsp;java.io.File<br>
+ * &nbsp;&nbsp;&nbsp;java.io.File[]<br>
+ * - generates:<br>
+ * &nbsp;&nbsp;&nbsp;java.lang.String<br>
+ * <br><br>
+ <!-- flow-summary-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ * 
+ * <pre>-name &lt;java.lang.String&gt; (property: name)
+ * &nbsp;&nbsp;&nbsp;The name of the actor.
+ * &nbsp;&nbsp;&nbsp;default: ParallelImageMagickOperation
+ * </pre>
+ * 
+ * <pre>-annotation &lt;adams.core.base.BaseText&gt; (property: annotations)
+ * &nbsp;&nbsp;&nbsp;The annotations to attach to this actor.
+ * &nbsp;&nbsp;&nbsp;default: 
+ * </pre>
+ * 
+ * <pre>-skip &lt;boolean&gt; (property: skip)
+ * &nbsp;&nbsp;&nbsp;If set to true, transformation is skipped and the input token is just forwarded 
+ * &nbsp;&nbsp;&nbsp;as it is.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
+ * <pre>-stop-flow-on-error &lt;boolean&gt; (property: stopFlowOnError)
+ * &nbsp;&nbsp;&nbsp;If set to true, the flow gets stopped in case this actor encounters an error;
+ * &nbsp;&nbsp;&nbsp; useful for critical actors.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
+ * <pre>-operation &lt;adams.data.imagemagick.AbstractImageOperation&gt; (property: operation)
+ * &nbsp;&nbsp;&nbsp;The image operation to apply.
+ * &nbsp;&nbsp;&nbsp;default: adams.data.imagemagick.im.NoOp
+ * </pre>
+ * 
+ * <pre>-output-dir &lt;adams.core.io.PlaceholderDirectory&gt; (property: outputDir)
+ * &nbsp;&nbsp;&nbsp;The directory to write the output of the operations to.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ * 
+ * <pre>-output-extension &lt;java.lang.String&gt; (property: outputExtension)
+ * &nbsp;&nbsp;&nbsp;The extension (incl dot) to use for the output files, which determines the 
+ * &nbsp;&nbsp;&nbsp;output format.
+ * &nbsp;&nbsp;&nbsp;default: .png
+ * </pre>
+ * 
+ * <pre>-max-concurrency &lt;int&gt; (property: maxConcurrency)
+ * &nbsp;&nbsp;&nbsp;The maximum number of operations of this actor to run in parallel; -1 or 
+ * &nbsp;&nbsp;&nbsp;0 for the number of cores.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ * 
+ * <pre>-timeout &lt;int&gt; (property: timeout)
+ * &nbsp;&nbsp;&nbsp;The timeout in msec (measured from when the result is being waited for) 
+ * &nbsp;&nbsp;&nbsp;after which an operation gets cancelled; 0 for no timeout.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ParallelImageMagickOperation
+  extends AbstractTransformer {
+
+  /** for serialization. */
+  private static final long serialVersionUID = -6428283693468015457L;
+
+  /** the operation to apply. */
+  protected AbstractImageOperation m_Operation;
+
+  /** the output directory. */
+  protected PlaceholderDirectory m_OutputDir;
+
+  /** the extension for the output files. */
+  protected String m_OutputExtension;
+
+  /** the maximum number of operations to run in parallel. */
+  protected int m_MaxConcurrency;
+
+  /** the timeout in msec per operation. */
+  protected int m_Timeout;
+
+  /** the submitted jobs. */
+  protected transient List<Future<String>> m_Jobs;
+
+  /** the output files of the submitted jobs. */
+  protected transient List<PlaceholderFile> m_Outputs;
+
+  /** the permits limiting the number of operations of this actor. */
+  protected transient Semaphore m_Permits;
+
+  /** the output files generated by this actor during the current execution. */
+  protected transient List<String> m_Reserved;
+
+  /** the output files of all actors, used for making the names unique. */
+  protected static final Set<String> RESERVED = new HashSet<>();
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+        "Applies the specified image operation to all the incoming files in "
+      + "parallel, using the shared pool for image operations. The maximum "
+      + "concurrency only limits the operations of this actor.\n"
+      + "The generated files get forwarded in the same order as the input "
+      + "files, as soon as they become available.\n"
+      + "The output files are placed in the output directory, using the name "
+      + "of the input file with the specified extension. If that name has "
+      + "already been used during the flow execution (by this or another "
+      + "actor), a numeric suffix gets appended (eg '-1').\n\n"
+      + "NB: Uses im4java, i.e., ImageMagick (http://www.imagemagick.org/) "
+      + "executables must be available on the PATH.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "operation", "operation",
+	    new NoOp());
+
+    m_OptionManager.add(
+	    "output-dir", "outputDir",
+	    new PlaceholderDirectory("."));
+
+    m_OptionManager.add(
+	    "output-extension", "outputExtension",
+	    ".png");
+
+    m_OptionManager.add(
+	    "max-concurrency", "maxConcurrency",
+	    -1, -1, null);
+
+    m_OptionManager.add(
+	    "timeout", "timeout",
+	    0, 0, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    cancelJobs();
+    m_Permits = null;
+    releaseOutputs();
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String	result;
+
+    result  = QuickInfoHelper.toString(this, "operation", m_Operation, "op: ");
+    result += QuickInfoHelper.toString(this, "outputDir", m_OutputDir, ", output: ");
+    result += QuickInfoHelper.toString(this, "maxConcurrency", (m_MaxConcurrency <= 0 ? "#cores" : "" + m_MaxConcurrency), ", parallel: ");
+
+    return result;
+  }
+
+  /**
+   * Sets the operation to execute.
+   *
+   * @param value	the operation
+   */
+  public void setOperation(AbstractImageOperation value) {
+    m_Operation = value;
+    reset();
+  }
+
+  /**
+   * Returns the operation in execute.
+   *
+   * @return		the operation
+   */
+  public AbstractImageOperation getOperation() {
+    return m_Operation;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String operationTipText() {
+    return "The image operation to apply.";
+  }
+
+  /**
+   * Sets the output directory.
+   *
+   * @param value	the directory
+   */
+  public void setOutputDir(PlaceholderDirectory value) {
+    m_OutputDir = value;
+    reset();
+  }
+
+  /**
+   * Returns the output directory.
+   *
+   * @return		the directory
+   */
+  public PlaceholderDirectory getOutputDir() {
+    return m_OutputDir;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String outputDirTipText() {
+    return "The directory to write the output of the operations to.";
+  }
+
+  /**
+   * Sets the extension for the output files.
+   *
+   * @param value	the extension (incl dot)
+   */
+  public void setOutputExtension(String value) {
+    m_OutputExtension = value;
+    reset();
+  }
+
+  /**
+   * Returns the extension for the output files.
+   *
+   * @return		the extension (incl dot)
+   */
+  public String getOutputExtension() {
+    return m_OutputExtension;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String outputExtensionTipText() {
+    return "The extension (incl dot) to use for the output files, which determines the output format.";
+  }
+
+  /**
+   * Sets the maximum number of operations to run in parallel.
+   *
+   * @param value	the maximum, -1 for number of cores
+   */
+  public void setMaxConcurrency(int value) {
+    if (getOptionManager().isValid("maxConcurrency", value)) {
+      m_MaxConcurrency = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of operations to run in parallel.
+   *
+   * @return		the maximum, -1 for number of cores
+   */
+  public int getMaxConcurrency() {
+    return m_MaxConcurrency;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String maxConcurrencyTipText() {
+    return
+	"The maximum number of operations of this actor to run in parallel; "
+	+ "-1 or 0 for the number of cores.";
+  }
+
+  /**
+   * Sets the timeout per operation.
+   *
+   * @param value	the timeout in msec, 0 for no timeout
+   */
+  public void setTimeout(int value) {
+    if (getOptionManager().isValid("timeout", value)) {
+      m_Timeout = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the timeout per operation.
+   *
+   * @return		the timeout in msec, 0 for no timeout
+   */
+  public int getTimeout() {
+    return m_Timeout;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String timeoutTipText() {
+    return
+	"The timeout in msec (measured from when the result is being waited "
+	+ "for) after which an operation gets cancelled; 0 for no timeout.";
+  }
+
+  /**
+   * Returns the class that the consumer accepts.
+   *
+   * @return		the Class of objects that can be processed
+   */
+  public Class[] accepts() {
+    return new Class[]{String.class, String[].class, File.class, File[].class};
+  }
+
+  /**
+   * Returns the class of objects that it generates.
+   *
+   * @return		the generated classes
+   */
+  public Class[] generates() {
+    return new Class[]{String.class};
+  }
+
+  /**
+   * Initializes the item for flow execution.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  public String setUp() {
+    String	result;
+
+    result = super.setUp();
+
+    if (result == null) {
+      if (getOptionManager().getVariableForProperty("outputDir") == null) {
+	if (!m_OutputDir.isDirectory())
+	  result = "Output directory does not exist: " + m_OutputDir;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the permits limiting the number of operations of this actor,
+   * creates them if necessary.
+   *
+   * @return		the permits
+   */
+  protected synchronized Semaphore getPermits() {
+    if (m_Permits == null)
+      m_Permits = new Semaphore((m_MaxConcurrency <= 0) ? Runtime.getRuntime().availableProcessors() : m_MaxConcurrency);
+    return m_Permits;
+  }
+
+  /**
+   * Determines a unique output file for the input file, appending a
+   * numeric suffix if the name has already been used.
+   *
+   * @param input	the input file
+   * @return		the output file
+   */
+  protected PlaceholderFile reserveOutput(String input) {
+    PlaceholderFile	result;
+    String		base;
+    int			count;
+
+    base   = m_OutputDir.getAbsolutePath() + File.separator + new File(input).getName();
+    result = FileUtils.replaceExtension(new PlaceholderFile(base), m_OutputExtension);
+    synchronized(RESERVED) {
+      count = 0;
+      while (RESERVED.contains(result.getAbsolutePath())) {
+	count++;
+	result = FileUtils.replaceExtension(new PlaceholderFile(base), "-" + count + m_OutputExtension);
+      }
+      RESERVED.add(result.getAbsolutePath());
+    }
+    if (m_Reserved == null)
+      m_Reserved = new ArrayList<>();
+    m_Reserved.add(result.getAbsolutePath());
+
+    return result;
+  }
+
+  /**
+   * Releases the output files used by this actor.
+   */
+  protected void releaseOutputs() {
+    if (m_Reserved != null) {
+      synchronized(RESERVED) {
+	RESERVED.removeAll(m_Reserved);
+      }
+      m_Reserved = null;
+    }
+  }
+
+  /**
+   * Submits the operation, which gets executed via the shared pool. Blocks
+   * while the maximum number of operations of this actor are running.
+   *
+   * @param input	the input file
+   * @param output	the output file
+   * @return		the job, returns null if successful, otherwise error message
+   * @throws InterruptedException	if waiting got interrupted
+   */
+  protected Future<String> submit(PlaceholderFile input, PlaceholderFile output) throws InterruptedException {
+    return ImageOperationPool.getSingleton().submit(m_Operation, input, output, getPermits());
+  }
+
+  /**
+   * Cancels all outstanding jobs.
+   */
+  protected void cancelJobs() {
+    if (m_Jobs != null) {
+      for (Future<String> job: m_Jobs)
+	job.cancel(true);
+    }
+    m_Jobs    = new ArrayList<>();
+    m_Outputs = new ArrayList<>();
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    String		result;
+    List<String>	inputs;
+    PlaceholderFile	output;
+
+    result = null;
+    inputs = new ArrayList<>();
+    if (m_InputToken.getPayload() instanceof File) {
+      inputs.add(((File) m_InputToken.getPayload()).getAbsolutePath());
+    }
+    else if (m_InputToken.getPayload() instanceof File[]) {
+      for (File file: (File[]) m_InputToken.getPayload())
+	inputs.add(file.getAbsolutePath());
+    }
+    else if (m_InputToken.getPayload() instanceof String[]) {
+      for (String file: (String[]) m_InputToken.getPayload())
+	inputs.add(file);
+    }
+    else {
+      inputs.add((String) m_InputToken.getPayload());
+    }
+
+    cancelJobs();
+    try {
+      for (String input: inputs) {
+	output = reserveOutput(input);
+	m_Jobs.add(submit(new PlaceholderFile(input), output));
+	m_Outputs.add(output);
+      }
+      if (isLoggingEnabled())
+	getLogger().info("Submitted " + inputs.size() + " operations, queued in shared pool: " + ImageOperationPool.getSingleton().getQueued());
+    }
+    catch (InterruptedException e) {
+      cancelJobs();
+      if (!isStopped())
+	result = "Interrupted while submitting operations!";
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether there is pending output to be collected after
+   * executing the flow item.
+   *
+   * @return		true if there is pending output
+   */
+  @Override
+  public boolean hasPendingOutput() {
+    return (m_Jobs != null) && (m_Jobs.size() > 0);
+  }
+
+  /**
+   * Returns the generated token. Waits for the next operation (in input
+   * order) to finish. Failed operations get logged and skipped.
+   *
+   * @return		the generated token, null if no more successful operations
+   */
+  @Override
+  public Token output() {
+    Future<String>	job;
+    PlaceholderFile	output;
+    String		msg;
+
+    while (m_Jobs.size() > 0) {
+      job    = m_Jobs.remove(0);
+      output = m_Outputs.remove(0);
+      try {
+	msg = ImageOperationPool.waitFor(job, m_Timeout);
+      }
+      catch (InterruptedException e) {
+	cancelJobs();
+	break;
+      }
+      if (msg == null)
+	return new Token(output.getAbsolutePath());
+      getLogger().severe("Failed to generate '" + output + "': " + msg);
+    }
+
+    return null;
+  }
+
+  /**
+   * Stops the execution. No message set.
+   */
+  @Override
+  public void stopExecution() {
+    cancelJobs();
+    super.stopExecution();
+  }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    cancelJobs();
+    m_Permits = null;
+    releaseOutputs();
+    super.wrapUp();
+  }
+}
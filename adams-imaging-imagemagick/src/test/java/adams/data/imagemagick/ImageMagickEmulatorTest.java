@@ -0,0 +1,342 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ImageMagickEmulatorTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.imagemagick;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.im4java.core.ConvertCmd;
+import org.im4java.core.IMOperation;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests the ImageMagickEmulator. Compares the output against the one of
+ * the ImageMagick executables if available (parity), otherwise only the
+ * dimensions get checked.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ImageMagickEmulatorTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public ImageMagickEmulatorTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates the test image: color gradients with a sharp-edged rectangle.
+   *
+   * @param alpha	whether to include an alpha channel
+   * @return		the image
+   */
+  protected BufferedImage createImage(boolean alpha) {
+    BufferedImage	result;
+    int			x;
+    int			y;
+    int			a;
+    int			rgb;
+
+    result = new BufferedImage(120, 80, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    for (y = 0; y < result.getHeight(); y++) {
+      for (x = 0; x < result.getWidth(); x++) {
+	if ((x >= 40) && (x < 80) && (y >= 20) && (y < 60))
+	  rgb = 0xFFFFFF;
+	else
+	  rgb = ((x * 2) << 16) | ((y * 3) << 8) | ((x + y) & 0xFF);
+	a = alpha ? (255 - y) : 255;
+	result.setRGB(x, y, (a << 24) | rgb);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Applies the commands using the ImageMagick executables.
+   *
+   * @param image	the image to process
+   * @param args	the commands
+   * @return		the processed image
+   * @throws Exception	if processing fails
+   */
+  protected BufferedImage convert(BufferedImage image, List<String> args) throws Exception {
+    ConvertCmd		cmd;
+    IMOperation		op;
+    PPMOutputConsumer	consumer;
+
+    op = new IMOperation();
+    op.addImage();
+    op.addRawArgs(args);
+    op.addImage("pam:-");
+    consumer = new PPMOutputConsumer();
+    cmd      = new ConvertCmd();
+    cmd.setOutputConsumer(consumer);
+    cmd.run(op, image);
+
+    return consumer.getImage();
+  }
+
+  /**
+   * Computes the mean absolute difference across all channels (0-255).
+   *
+   * @param expected	the expected image
+   * @param actual	the actual image
+   * @return		the difference
+   */
+  protected double difference(BufferedImage expected, BufferedImage actual) {
+    double	result;
+    int[]	exp;
+    int[]	act;
+    int		i;
+    int		shift;
+
+    exp    = expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth());
+    act    = actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth());
+    result = 0.0;
+    for (i = 0; i < exp.length; i++) {
+      for (shift = 0; shift <= 24; shift += 8)
+	result += Math.abs(((exp[i] >> shift) & 0xFF) - ((act[i] >> shift) & 0xFF));
+    }
+
+    return result / (exp.length * 4);
+  }
+
+  /**
+   * Performs the test.
+   *
+   * @param alpha	whether to use an image with alpha channel
+   * @param width	the expected width
+   * @param height	the expected height
+   * @param tolerance	the maximum mean absolute difference to ImageMagick
+   * @param args	the commands
+   * @throws Exception	if processing fails
+   */
+  protected void performTest(boolean alpha, int width, int height, double tolerance, String... args) throws Exception {
+    BufferedImage	input;
+    BufferedImage	actual;
+    BufferedImage	expected;
+    List<String>	cmds;
+    double		diff;
+
+    cmds   = Arrays.asList(args);
+    assertNull("supported: " + cmds, ImageMagickEmulator.checkSupported(cmds));
+
+    input  = createImage(alpha);
+    actual = ImageMagickEmulator.apply(input, cmds);
+    assertNotNull("output: " + cmds, actual);
+    assertEquals("width: " + cmds, width, actual.getWidth());
+    assertEquals("height: " + cmds, height, actual.getHeight());
+
+    if (!ImageMagickHelper.isConvertAvailable())
+      return;
+
+    expected = convert(input, cmds);
+    assertEquals("width (ImageMagick): " + cmds, expected.getWidth(), actual.getWidth());
+    assertEquals("height (ImageMagick): " + cmds, expected.getHeight(), actual.getHeight());
+    diff = difference(expected, actual);
+    assertTrue("difference for " + cmds + ": " + diff + " > " + tolerance, diff <= tolerance);
+  }
+
+  /**
+   * Tests the detection of supported commands.
+   */
+  public void testSupported() {
+    assertTrue(ImageMagickEmulator.isSupported(Arrays.asList("-resize", "50%", "-blur", "0x2")));
+    assertTrue(ImageMagickEmulator.isSupported(Arrays.asList("-crop", "10x10+5+5", "+repage")));
+    assertFalse(ImageMagickEmulator.isSupported(Arrays.asList("-adaptive-blur", "2")));
+    assertFalse(ImageMagickEmulator.isSupported(Arrays.asList("-resize")));
+    assertFalse(ImageMagickEmulator.isSupported(Arrays.asList("-resize", "100@")));
+    assertFalse(ImageMagickEmulator.isSupported(Arrays.asList("-crop", "10x10")));
+    assertFalse(ImageMagickEmulator.isSupported(Arrays.asList("-colorspace", "Lab")));
+  }
+
+  /**
+   * Tests resizing.
+   *
+   * @throws Exception	if processing fails
+   */
+  public void testResize() throws Exception {
+    performTest(false, 60, 40, 2.0, "-resize", "50%");
+    performTest(false, 240, 160, 2.0, "-resize", "200%");
+    performTest(false, 90, 60, 2.0, "-resize", "90x90");
+    performTest(false, 90, 90, 2.0, "-resize", "90x90!");
+    performTest(false, 120, 80, 0.0, "-resize", "200x200>");
+    performTest(false, 45, 30, 2.0, "-filter", "Triangle", "-resize", "45x");
+    performTest(false, 30, 20, 1.0, "-filter", "Point", "-resize", "25%");
+    performTest(false, 60, 40, 2.0, "-scale", "50%");
+    performTest(true, 60, 40, 3.0, "-resize", "50%");
+  }
+
+  /**
+   * Tests blurring and sharpening.
+   *
+   * @throws Exception	if processing fails
+   */
+  public void testBlurSharpen() throws Exception {
+    performTest(false, 120, 80, 1.0, "-blur", "0x2");
+    performTest(false, 120, 80, 1.0, "-gaussian-blur", "3x1.5");
+    performTest(false, 120, 80, 2.0, "-unsharp", "0x1+1.5+0.02");
+  }
+
+  /**
+   * Tests geometric operations and colorspace.
+   *
+   * @throws Exception	if processing fails
+   */
+  public void testGeometryColorspace() throws Exception {
+    performTest(false, 30, 20, 0.0, "-crop", "30x20+40+20", "+repage");
+    performTest(false, 20, 10, 0.0, "-crop", "30x20+100+70", "+repage");
+    performTest(false, 80, 120, 0.0, "-rotate", "90");
+    performTest(false, 120, 80, 0.0, "-rotate", "-180");
+    performTest(false, 120, 80, 2.0, "-colorspace", "Gray");
+  }
+
+  /**
+   * Generates a test image that gets accessed via its samples: a gradient
+   * with a rectangle of value 119 (scaled to the bit depth).
+   *
+   * @param type	the image type, e.g., TYPE_BYTE_GRAY
+   * @return		the image
+   */
+  protected BufferedImage createSampleImage(int type) {
+    BufferedImage	result;
+    WritableRaster	raster;
+    int			max;
+    int			x;
+    int			y;
+    int			b;
+
+    result = new BufferedImage(120, 80, type);
+    raster = result.getRaster();
+    max    = (1 << result.getColorModel().getComponentSize(0)) - 1;
+    for (y = 0; y < result.getHeight(); y++) {
+      for (x = 0; x < result.getWidth(); x++) {
+	for (b = 0; b < raster.getNumBands(); b++) {
+	  if ((x >= 40) && (x < 80) && (y >= 20) && (y < 60))
+	    raster.setSample(x, y, b, 119 * max / 255);
+	  else
+	    raster.setSample(x, y, b, ((x * 97 + y * 31 + b * 1013) * 7) % (max + 1));
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Performs a lossless operation on an image that gets accessed via its
+   * samples and compares the samples with the expected ones.
+   *
+   * @param type	the image type, e.g., TYPE_USHORT_GRAY
+   * @param rotate	whether to rotate by 90 degrees or crop
+   * @throws Exception	if processing fails
+   */
+  protected void performSampleTest(int type, boolean rotate) throws Exception {
+    BufferedImage	input;
+    BufferedImage	actual;
+    List<String>	cmds;
+    int			x;
+    int			y;
+    int			b;
+    int			exp;
+
+    if (rotate)
+      cmds = Arrays.asList("-rotate", "90");
+    else
+      cmds = Arrays.asList("-crop", "30x20+40+20", "+repage");
+    input  = createSampleImage(type);
+    actual = ImageMagickEmulator.apply(input, cmds);
+    assertEquals("type: " + cmds, type, actual.getType());
+    assertEquals("bands: " + cmds, input.getRaster().getNumBands(), actual.getRaster().getNumBands());
+    assertEquals("bits: " + cmds, input.getColorModel().getComponentSize(0), actual.getColorModel().getComponentSize(0));
+    for (y = 0; y < actual.getHeight(); y++) {
+      for (x = 0; x < actual.getWidth(); x++) {
+	for (b = 0; b < actual.getRaster().getNumBands(); b++) {
+	  if (rotate)
+	    exp = input.getRaster().getSample(y, input.getHeight() - 1 - x, b);
+	  else
+	    exp = input.getRaster().getSample(x + 40, y + 20, b);
+	  assertEquals("sample " + x + "/" + y + "/" + b + ": " + cmds, exp, actual.getRaster().getSample(x, y, b));
+	}
+      }
+    }
+  }
+
+  /**
+   * Tests grayscale and 16-bit images, which must keep type, depth and
+   * sample values.
+   *
+   * @throws Exception	if processing fails
+   */
+  public void testSamples() throws Exception {
+    BufferedImage	input;
+    BufferedImage	actual;
+
+    performSampleTest(BufferedImage.TYPE_BYTE_GRAY, true);
+    performSampleTest(BufferedImage.TYPE_BYTE_GRAY, false);
+    performSampleTest(BufferedImage.TYPE_USHORT_GRAY, true);
+    performSampleTest(BufferedImage.TYPE_USHORT_GRAY, false);
+
+    input  = createSampleImage(BufferedImage.TYPE_BYTE_GRAY);
+    actual = ImageMagickEmulator.apply(input, Arrays.asList("-rotate", "90"));
+    assertEquals("gray value", 119, actual.getRaster().getSample(40, 50, 0));
+
+    input  = createSampleImage(BufferedImage.TYPE_USHORT_GRAY);
+    actual = ImageMagickEmulator.apply(input, Arrays.asList("-resize", "50%"));
+    assertEquals("type", BufferedImage.TYPE_USHORT_GRAY, actual.getType());
+    assertEquals("width", 60, actual.getWidth());
+    assertEquals("uniform area", 119 * 257, actual.getRaster().getSample(30, 20, 0), 2);
+
+    input  = createSampleImage(BufferedImage.TYPE_BYTE_GRAY);
+    actual = ImageMagickEmulator.apply(input, Arrays.asList("-colorspace", "sRGB"));
+    assertEquals("red", 119, (actual.getRGB(50, 30) >> 16) & 0xFF);
+    assertEquals("blue", 119, actual.getRGB(50, 30) & 0xFF);
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ImageMagickEmulatorTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
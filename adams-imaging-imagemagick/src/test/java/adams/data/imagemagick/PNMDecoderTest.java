@@ -0,0 +1,246 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PNMDecoderTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.imagemagick;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Tests the PNMDecoder class, using the fixtures in the
+ * adams/data/imagemagick resource directory.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PNMDecoderTest
+  extends AdamsTestCase {
+
+  /** the resource directory with the fixtures. */
+  public final static String RESOURCES = "adams/data/imagemagick/";
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public PNMDecoderTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Decodes the fixture.
+   *
+   * @param name	the name of the fixture
+   * @return		the image
+   * @throws Exception	if decoding fails
+   */
+  protected BufferedImage decode(String name) throws Exception {
+    InputStream		in;
+
+    in = getClass().getClassLoader().getResourceAsStream(RESOURCES + name);
+    assertNotNull("fixture: " + name, in);
+    try {
+      return PNMDecoder.read(in);
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Returns the samples of the specified band in row-major order.
+   *
+   * @param image	the image to get the samples from
+   * @param band	the band
+   * @return		the samples
+   */
+  protected int[] getSamples(BufferedImage image, int band) {
+    Raster	raster;
+
+    raster = image.getRaster();
+    return raster.getSamples(0, 0, raster.getWidth(), raster.getHeight(), band, (int[]) null);
+  }
+
+  /**
+   * Tests P5 with 8 bit samples (incl comment in header).
+   *
+   * @throws Exception	if test fails
+   */
+  public void testGray8() throws Exception {
+    BufferedImage	image;
+
+    image = decode("gray8.pgm");
+    assertEquals("type", BufferedImage.TYPE_BYTE_GRAY, image.getType());
+    assertEquals("width", 3, image.getWidth());
+    assertEquals("height", 2, image.getHeight());
+    assertEqualsArrays(new int[]{0, 128, 255, 10, 20, 30}, getSamples(image, 0));
+  }
+
+  /**
+   * Tests P6 with 8 bit samples.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testRGB8() throws Exception {
+    BufferedImage	image;
+
+    image = decode("rgb8.ppm");
+    assertEquals("type", BufferedImage.TYPE_3BYTE_BGR, image.getType());
+    assertEquals("red", 0xFFFF0000, image.getRGB(0, 0));
+    assertEquals("green", 0xFF00FF00, image.getRGB(1, 0));
+    assertEquals("blue", 0xFF0000FF, image.getRGB(0, 1));
+    assertEquals("mixed", 0xFF0A141E, image.getRGB(1, 1));
+  }
+
+  /**
+   * Tests P5 with 16 bit big endian samples.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testGray16() throws Exception {
+    BufferedImage	image;
+
+    image = decode("gray16.pgm");
+    assertEquals("type", BufferedImage.TYPE_USHORT_GRAY, image.getType());
+    assertEqualsArrays(new int[]{0, 256, 0x1234, 65535}, getSamples(image, 0));
+  }
+
+  /**
+   * Tests P6 with 16 bit big endian samples.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testRGB16() throws Exception {
+    BufferedImage	image;
+
+    image = decode("rgb16.ppm");
+    assertEquals("bands", 3, image.getRaster().getNumBands());
+    assertEqualsArrays(new int[]{65535, 1000}, getSamples(image, 0));
+    assertEqualsArrays(new int[]{0x0102, 2000}, getSamples(image, 1));
+    assertEqualsArrays(new int[]{0, 3000}, getSamples(image, 2));
+  }
+
+  /**
+   * Tests scaling of 8 bit samples with a maximum value other than 255.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testScale8() throws Exception {
+    BufferedImage	image;
+
+    image = decode("gray4bit.pgm");
+    assertEquals("type", BufferedImage.TYPE_BYTE_GRAY, image.getType());
+    // round(v * 255 / 15)
+    assertEqualsArrays(new int[]{0, 17, 119, 255}, getSamples(image, 0));
+  }
+
+  /**
+   * Tests scaling of 16 bit samples with a maximum value other than 65535.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testScale16() throws Exception {
+    BufferedImage	image;
+
+    image = decode("gray10bit.pgm");
+    assertEquals("type", BufferedImage.TYPE_USHORT_GRAY, image.getType());
+    // round(v * 65535 / 1023)
+    assertEqualsArrays(new int[]{0, 32800, 65535}, getSamples(image, 0));
+  }
+
+  /**
+   * Tests P7 with an alpha channel.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testPAM() throws Exception {
+    BufferedImage	image;
+
+    image = decode("rgba8.pam");
+    assertEquals("type", BufferedImage.TYPE_4BYTE_ABGR, image.getType());
+    assertEquals("translucent red", 0x80FF0000, image.getRGB(0, 0));
+    assertEquals("opaque blue", 0xFF0000FF, image.getRGB(1, 0));
+  }
+
+  /**
+   * Tests truncated pixel data and unsupported formats.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testInvalid() throws Exception {
+    try {
+      decode("truncated.ppm");
+      fail("Truncated pixel data not detected");
+    }
+    catch (EOFException e) {
+      // expected
+    }
+
+    try {
+      PNMDecoder.read(new ByteArrayInputStream("P3\n1 1\n255\n0 0 0\n".getBytes()));
+      fail("ASCII format not rejected");
+    }
+    catch (IOException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Compares the two arrays.
+   *
+   * @param expected	the expected values
+   * @param actual	the actual values
+   */
+  protected void assertEqualsArrays(int[] expected, int[] actual) {
+    int		i;
+
+    assertEquals("length", expected.length, actual.length);
+    for (i = 0; i < expected.length; i++)
+      assertEquals("sample #" + i, expected[i], actual[i]);
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(PNMDecoderTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -20,14 +20,15 @@
 package adams.data.conversion;
 
 import adams.data.image.AbstractImageContainer;
-import adams.data.image.BufferedImageContainer;
+import adams.data.openimaj.OpenIMAJHelper;
 import adams.data.openimaj.OpenIMAJImageContainer;
 import adams.data.openimaj.OpenIMAJImageType;
-import org.openimaj.image.ImageUtilities;
+import org.openimaj.image.Image;
 
 /**
  <!-- globalinfo-start -->
- * Turns a BufferedImage container into an OpenIMAJ one.
+ * Turns a BufferedImage container into an OpenIMAJ one.<br>
+ * Common image types get read from the raster directly.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -47,6 +48,23 @@ import org.openimaj.image.ImageUtilities;
  * &nbsp;&nbsp;&nbsp;default: false
  * </pre>
  * 
+ * <pre>-copy-report &lt;boolean&gt; (property: copyReport)
+ * &nbsp;&nbsp;&nbsp;Whether to copy the report of the input container.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ * 
+ * <pre>-copy-notes &lt;boolean&gt; (property: copyNotes)
+ * &nbsp;&nbsp;&nbsp;Whether to copy the notes of the input container.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ * 
+ * <pre>-reuse-buffer &lt;boolean&gt; (property: reuseBuffer)
+ * &nbsp;&nbsp;&nbsp;If enabled, the image generated by the previous conversion gets re-used 
+ * &nbsp;&nbsp;&nbsp;(if dimensions match), i.e., its content gets overwritten; only use this 
+ * &nbsp;&nbsp;&nbsp;if the previous image is no longer needed.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -65,6 +83,18 @@ public class BufferedImageToOpenIMAJ
   /** whether to add an alpha channel for multi-band images. */
   protected boolean m_Alpha;
 
+  /** whether to copy the report. */
+  protected boolean m_CopyReport;
+
+  /** whether to copy the notes. */
+  protected boolean m_CopyNotes;
+
+  /** whether to re-use the previously generated image. */
+  protected boolean m_ReuseBuffer;
+
+  /** the previously generated image. */
+  protected transient Image m_Buffer;
+
   /**
    * Returns a string describing the object.
    *
@@ -72,7 +102,9 @@ public class BufferedImageToOpenIMAJ
    */
   @Override
   public String globalInfo() {
-    return "Turns a BufferedImage container into an OpenIMAJ one.";
+    return
+      "Turns a BufferedImage container into an OpenIMAJ one.\n"
+	+ "Common image types get read from the raster directly.";
   }
 
   /**
@@ -89,6 +121,28 @@ public class BufferedImageToOpenIMAJ
     m_OptionManager.add(
       "alpha", "alpha",
       false);
+
+    m_OptionManager.add(
+      "copy-report", "copyReport",
+      true);
+
+    m_OptionManager.add(
+      "copy-notes", "copyNotes",
+      true);
+
+    m_OptionManager.add(
+      "reuse-buffer", "reuseBuffer",
+      false);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_Buffer = null;
   }
 
   /**
@@ -149,6 +203,96 @@ public class BufferedImageToOpenIMAJ
     return "Whether to include an alpha channel in case of multi-band images.";
   }
 
+  /**
+   * Sets whether to copy the report.
+   *
+   * @param value	true if to copy
+   */
+  public void setCopyReport(boolean value) {
+    m_CopyReport = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to copy the report.
+   *
+   * @return		true if to copy
+   */
+  public boolean getCopyReport() {
+    return m_CopyReport;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String copyReportTipText() {
+    return "Whether to copy the report of the input container.";
+  }
+
+  /**
+   * Sets whether to copy the notes.
+   *
+   * @param value	true if to copy
+   */
+  public void setCopyNotes(boolean value) {
+    m_CopyNotes = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to copy the notes.
+   *
+   * @return		true if to copy
+   */
+  public boolean getCopyNotes() {
+    return m_CopyNotes;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String copyNotesTipText() {
+    return "Whether to copy the notes of the input container.";
+  }
+
+  /**
+   * Sets whether to re-use the previously generated image.
+   *
+   * @param value	true if to re-use
+   */
+  public void setReuseBuffer(boolean value) {
+    m_ReuseBuffer = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to re-use the previously generated image.
+   *
+   * @return		true if to re-use
+   */
+  public boolean getReuseBuffer() {
+    return m_ReuseBuffer;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String reuseBufferTipText() {
+    return
+      "If enabled, the image generated by the previous conversion gets "
+	+ "re-used (if dimensions match), i.e., its content gets overwritten; "
+	+ "only use this if the previous image is no longer needed.";
+  }
+
   /**
    * Returns the class that is accepted as input.
    *
@@ -178,25 +322,20 @@ public class BufferedImageToOpenIMAJ
   @Override
   protected Object doConvert() throws Exception {
     OpenIMAJImageContainer	result;
-    BufferedImageContainer	input;
+    AbstractImageContainer	input;
+    Image			image;
 
-    input  = (BufferedImageContainer) m_Input;
+    input  = (AbstractImageContainer) m_Input;
     result = new OpenIMAJImageContainer();
-    result.setReport(input.getReport().getClone());
-    result.setNotes(input.getNotes().getClone());
-
-    switch (m_ImageType) {
-      case FIMAGE:
-	result.setImage(ImageUtilities.createFImage(input.toBufferedImage()));
-	break;
-
-      case MBFIMAGE:
-	result.setImage(ImageUtilities.createMBFImage(input.toBufferedImage(), m_Alpha));
-	break;
+    if (m_CopyReport)
+      result.setReport(input.getReport().getClone());
+    if (m_CopyNotes)
+      result.setNotes(input.getNotes().getClone());
 
-      default:
-	throw new IllegalStateException("Unhandled image type: " + m_ImageType);
-    }
+    image = OpenIMAJHelper.toImage(input.toBufferedImage(), m_ImageType, m_Alpha, m_ReuseBuffer ? m_Buffer : null);
+    if (m_ReuseBuffer)
+      m_Buffer = image;
+    result.setImage(image);
 
     return result;
   }
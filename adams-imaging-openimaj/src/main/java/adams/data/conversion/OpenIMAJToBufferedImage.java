@@ -20,6 +20,7 @@
 package adams.data.conversion;
 
 import adams.data.image.BufferedImageContainer;
+import adams.data.openimaj.OpenIMAJHelper;
 import adams.data.openimaj.OpenIMAJImageContainer;
 
 /**
@@ -34,6 +35,16 @@ import adams.data.openimaj.OpenIMAJImageContainer;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-copy-report &lt;boolean&gt; (property: copyReport)
+ * &nbsp;&nbsp;&nbsp;Whether to copy the report of the input container.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ * 
+ * <pre>-copy-notes &lt;boolean&gt; (property: copyNotes)
+ * &nbsp;&nbsp;&nbsp;Whether to copy the notes of the input container.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -46,6 +57,12 @@ public class OpenIMAJToBufferedImage
   /** for serialization. */
   private static final long serialVersionUID = -6909862341852136089L;
 
+  /** whether to copy the report. */
+  protected boolean m_CopyReport;
+
+  /** whether to copy the notes. */
+  protected boolean m_CopyNotes;
+
   /**
    * Returns a string describing the object.
    *
@@ -56,6 +73,80 @@ public class OpenIMAJToBufferedImage
     return "Turns an OpenIMAJ container into a BufferedImage one.";
   }
 
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "copy-report", "copyReport",
+      true);
+
+    m_OptionManager.add(
+      "copy-notes", "copyNotes",
+      true);
+  }
+
+  /**
+   * Sets whether to copy the report.
+   *
+   * @param value	true if to copy
+   */
+  public void setCopyReport(boolean value) {
+    m_CopyReport = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to copy the report.
+   *
+   * @return		true if to copy
+   */
+  public boolean getCopyReport() {
+    return m_CopyReport;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String copyReportTipText() {
+    return "Whether to copy the report of the input container.";
+  }
+
+  /**
+   * Sets whether to copy the notes.
+   *
+   * @param value	true if to copy
+   */
+  public void setCopyNotes(boolean value) {
+    m_CopyNotes = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to copy the notes.
+   *
+   * @return		true if to copy
+   */
+  public boolean getCopyNotes() {
+    return m_CopyNotes;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String copyNotesTipText() {
+    return "Whether to copy the notes of the input container.";
+  }
+
   /**
    * Returns the class that is accepted as input.
    *
@@ -89,9 +180,11 @@ public class OpenIMAJToBufferedImage
 
     input  = (OpenIMAJImageContainer) m_Input;
     result = new BufferedImageContainer();
-    result.setReport(input.getReport().getClone());
-    result.setNotes(input.getNotes().getClone());
-    result.setImage(input.toBufferedImage());
+    if (m_CopyReport)
+      result.setReport(input.getReport().getClone());
+    if (m_CopyNotes)
+      result.setNotes(input.getNotes().getClone());
+    result.setImage(OpenIMAJHelper.toBufferedImage(input.getImage()));
 
     return result;
   }
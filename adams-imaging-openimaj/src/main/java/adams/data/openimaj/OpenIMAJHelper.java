@@ -0,0 +1,343 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OpenIMAJHelper.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.openimaj;
+
+import org.openimaj.image.FImage;
+import org.openimaj.image.Image;
+import org.openimaj.image.ImageUtilities;
+import org.openimaj.image.MBFImage;
+import org.openimaj.image.colour.ColourSpace;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Helper class for converting between BufferedImage and OpenIMAJ images.
+ * Common image types (8 bit gray, 3/4 byte BGR/ABGR, int RGB/ARGB) are
+ * read from/written to the raster directly, other types fall back on
+ * OpenIMAJ's ImageUtilities. Target images can be supplied for re-use.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class OpenIMAJHelper {
+
+  /** the lookup table for turning bytes into floats. */
+  protected static final float[] BYTE_TO_FLOAT;
+  static {
+    BYTE_TO_FLOAT = new float[256];
+    for (int i = 0; i < BYTE_TO_FLOAT.length; i++)
+      BYTE_TO_FLOAT[i] = i / 255.0f;
+  }
+
+  /**
+   * Checks whether the image type can be read from the raster directly.
+   *
+   * @param image	the image to check
+   * @return		true if supported
+   */
+  public static boolean isDirectType(BufferedImage image) {
+    switch (image.getType()) {
+      case BufferedImage.TYPE_BYTE_GRAY:
+      case BufferedImage.TYPE_3BYTE_BGR:
+      case BufferedImage.TYPE_4BYTE_ABGR:
+      case BufferedImage.TYPE_INT_RGB:
+      case BufferedImage.TYPE_INT_ARGB:
+      case BufferedImage.TYPE_INT_BGR:
+	return true;
+      default:
+	return false;
+    }
+  }
+
+  /**
+   * Returns the ARGB value of the pixel at the specified index, reading
+   * directly from the data buffer.
+   *
+   * @param image	the image (direct type)
+   * @param bytes	the byte data, null if int based
+   * @param ints	the int data, null if byte based
+   * @param i		the pixel index
+   * @return		the ARGB value
+   */
+  protected static int argb(BufferedImage image, byte[] bytes, int[] ints, int i) {
+    int		g;
+
+    switch (image.getType()) {
+      case BufferedImage.TYPE_BYTE_GRAY:
+	g = bytes[i] & 0xFF;
+	return 0xFF000000 | (g << 16) | (g << 8) | g;
+      case BufferedImage.TYPE_3BYTE_BGR:
+	i *= 3;
+	return 0xFF000000 | ((bytes[i + 2] & 0xFF) << 16) | ((bytes[i + 1] & 0xFF) << 8) | (bytes[i] & 0xFF);
+      case BufferedImage.TYPE_4BYTE_ABGR:
+	i *= 4;
+	return ((bytes[i] & 0xFF) << 24) | ((bytes[i + 3] & 0xFF) << 16) | ((bytes[i + 2] & 0xFF) << 8) | (bytes[i + 1] & 0xFF);
+      case BufferedImage.TYPE_INT_RGB:
+	return 0xFF000000 | ints[i];
+      case BufferedImage.TYPE_INT_BGR:
+	return 0xFF000000 | ((ints[i] & 0xFF) << 16) | (ints[i] & 0xFF00) | ((ints[i] >> 16) & 0xFF);
+      default:
+	return ints[i];
+    }
+  }
+
+  /**
+   * Returns the byte data of the image, if byte based.
+   *
+   * @param image	the image
+   * @return		the data, null if not byte based
+   */
+  protected static byte[] bytes(BufferedImage image) {
+    if (image.getRaster().getDataBuffer() instanceof DataBufferByte)
+      return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    return null;
+  }
+
+  /**
+   * Returns the int data of the image, if int based.
+   *
+   * @param image	the image
+   * @return		the data, null if not int based
+   */
+  protected static int[] ints(BufferedImage image) {
+    if (image.getRaster().getDataBuffer() instanceof DataBufferInt)
+      return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    return null;
+  }
+
+  /**
+   * Checks whether the image can be read directly, i.e., direct type and
+   * the raster is not a sub-image.
+   *
+   * @param image	the image to check
+   * @return		true if direct access possible
+   */
+  protected static boolean canAccessDirectly(BufferedImage image) {
+    return isDirectType(image)
+      && (image.getRaster().getParent() == null)
+      && (image.getRaster().getSampleModelTranslateX() == 0)
+      && (image.getRaster().getSampleModelTranslateY() == 0);
+  }
+
+  /**
+   * Turns the BufferedImage into a grayscale float image (luminance,
+   * same weights as OpenIMAJ).
+   *
+   * @param image	the image to convert
+   * @param target	the image to re-use if dimensions match, can be null
+   * @return		the converted image
+   */
+  public static FImage toFImage(BufferedImage image, FImage target) {
+    FImage	result;
+    float[][]	pixels;
+    byte[]	bytes;
+    int[]	ints;
+    int		width;
+    int		height;
+    int		x;
+    int		y;
+    int		i;
+    int		rgb;
+
+    if (!canAccessDirectly(image))
+      return ImageUtilities.createFImage(image);
+
+    width  = image.getWidth();
+    height = image.getHeight();
+    if ((target != null) && (target.getWidth() == width) && (target.getHeight() == height))
+      result = target;
+    else
+      result = new FImage(width, height);
+    pixels = result.pixels;
+    bytes  = bytes(image);
+    ints   = ints(image);
+
+    i = 0;
+    if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+      for (y = 0; y < height; y++) {
+	for (x = 0; x < width; x++, i++)
+	  pixels[y][x] = BYTE_TO_FLOAT[bytes[i] & 0xFF];
+      }
+    }
+    else {
+      for (y = 0; y < height; y++) {
+	for (x = 0; x < width; x++, i++) {
+	  rgb = argb(image, bytes, ints, i);
+	  pixels[y][x] = (0.299f * ((rgb >> 16) & 0xFF) + 0.587f * ((rgb >> 8) & 0xFF) + 0.114f * (rgb & 0xFF)) / 255.0f;
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Turns the BufferedImage into a multi-band float image (RGB or RGBA).
+   *
+   * @param image	the image to convert
+   * @param alpha	whether to include an alpha channel
+   * @param target	the image to re-use if dimensions and bands match, can be null
+   * @return		the converted image
+   */
+  public static MBFImage toMBFImage(BufferedImage image, boolean alpha, MBFImage target) {
+    MBFImage	result;
+    float[][]	red;
+    float[][]	green;
+    float[][]	blue;
+    float[][]	trans;
+    byte[]	bytes;
+    int[]	ints;
+    int		width;
+    int		height;
+    int		x;
+    int		y;
+    int		i;
+    int		rgb;
+
+    if (!canAccessDirectly(image))
+      return ImageUtilities.createMBFImage(image, alpha);
+
+    width  = image.getWidth();
+    height = image.getHeight();
+    if ((target != null) && (target.getWidth() == width) && (target.getHeight() == height) && (target.numBands() == (alpha ? 4 : 3)))
+      result = target;
+    else
+      result = new MBFImage(width, height, alpha ? ColourSpace.RGBA : ColourSpace.RGB);
+    red    = result.getBand(0).pixels;
+    green  = result.getBand(1).pixels;
+    blue   = result.getBand(2).pixels;
+    trans  = alpha ? result.getBand(3).pixels : null;
+    bytes  = bytes(image);
+    ints   = ints(image);
+
+    i = 0;
+    for (y = 0; y < height; y++) {
+      for (x = 0; x < width; x++, i++) {
+	rgb         = argb(image, bytes, ints, i);
+	red[y][x]   = BYTE_TO_FLOAT[(rgb >> 16) & 0xFF];
+	green[y][x] = BYTE_TO_FLOAT[(rgb >> 8) & 0xFF];
+	blue[y][x]  = BYTE_TO_FLOAT[rgb & 0xFF];
+	if (alpha)
+	  trans[y][x] = BYTE_TO_FLOAT[(rgb >>> 24) & 0xFF];
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Turns the BufferedImage into the specified OpenIMAJ image type.
+   *
+   * @param image	the image to convert
+   * @param type	the type of image to generate
+   * @param alpha	whether to include an alpha channel (multi-band images only)
+   * @param target	the image to re-use if compatible, can be null
+   * @return		the converted image
+   */
+  public static Image toImage(BufferedImage image, OpenIMAJImageType type, boolean alpha, Image target) {
+    switch (type) {
+      case FIMAGE:
+	return toFImage(image, (target instanceof FImage) ? (FImage) target : null);
+      case MBFIMAGE:
+	return toMBFImage(image, alpha, (target instanceof MBFImage) ? (MBFImage) target : null);
+      default:
+	throw new IllegalStateException("Unhandled image type: " + type);
+    }
+  }
+
+  /**
+   * Turns the float value (0-1) into a byte value, rounding and clipping
+   * if necessary.
+   *
+   * @param value	the value to convert
+   * @return		the byte value
+   */
+  protected static int toByte(float value) {
+    if (value <= 0.0f)
+      return 0;
+    if (value >= 1.0f)
+      return 255;
+    return Math.round(value * 255.0f);
+  }
+
+  /**
+   * Turns the OpenIMAJ image into a BufferedImage. Grayscale images get
+   * written to a byte gray image, RGB(A) ones to an int (A)RGB image.
+   *
+   * @param image	the image to convert
+   * @return		the converted image
+   */
+  public static BufferedImage toBufferedImage(Image image) {
+    BufferedImage	result;
+    MBFImage		mbf;
+    float[][]	pixels;
+    float[][]	red;
+    float[][]	green;
+    float[][]	blue;
+    float[][]	trans;
+    byte[]	bytes;
+    int[]	ints;
+    int		width;
+    int		height;
+    int		x;
+    int		y;
+    int		i;
+
+    width  = image.getWidth();
+    height = image.getHeight();
+
+    if (image instanceof FImage) {
+      pixels = ((FImage) image).pixels;
+      result = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+      bytes  = bytes(result);
+      i      = 0;
+      for (y = 0; y < height; y++) {
+	for (x = 0; x < width; x++, i++)
+	  bytes[i] = (byte) toByte(pixels[y][x]);
+      }
+      return result;
+    }
+
+    if ((image instanceof MBFImage)
+      && ((((MBFImage) image).colourSpace == ColourSpace.RGB) || (((MBFImage) image).colourSpace == ColourSpace.RGBA))) {
+      mbf    = (MBFImage) image;
+      red    = mbf.getBand(0).pixels;
+      green  = mbf.getBand(1).pixels;
+      blue   = mbf.getBand(2).pixels;
+      trans  = (mbf.numBands() > 3) ? mbf.getBand(3).pixels : null;
+      result = new BufferedImage(width, height, (trans != null) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+      ints   = ints(result);
+      i      = 0;
+      for (y = 0; y < height; y++) {
+	for (x = 0; x < width; x++, i++) {
+	  ints[i] = ((trans != null) ? toByte(trans[y][x]) << 24 : 0)
+	    | (toByte(red[y][x]) << 16)
+	    | (toByte(green[y][x]) << 8)
+	    | toByte(blue[y][x]);
+	}
+      }
+      return result;
+    }
+
+    return ImageUtilities.createBufferedImageForDisplay(image);
+  }
+}
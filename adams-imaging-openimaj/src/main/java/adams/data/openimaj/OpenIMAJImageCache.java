@@ -0,0 +1,344 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OpenIMAJImageCache.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.openimaj;
+
+import adams.data.image.AbstractImageContainer;
+import org.openimaj.image.FImage;
+import org.openimaj.image.MBFImage;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache for data derived from images (e.g., the grayscale float image),
+ * allowing multiple detectors that process the same image to share the
+ * preprocessing.<br>
+ * The cache is keyed on the identity of the image (i.e., the payload of
+ * the container), not its content, and only holds weak references to the
+ * images: once an image has been garbage collected, its cached data gets
+ * dropped as well (the next time the cache is accessed). The number of
+ * images is limited, evicting the least recently used ones first.<br>
+ * Since the content is not checked, images that get modified in-place must
+ * not be processed with caching enabled. Cached data is shared and must
+ * therefore be treated as read-only.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class OpenIMAJImageCache {
+
+  /** the key for the grayscale image. */
+  public static final String KEY_FIMAGE = "FImage";
+
+  /** the key for the RGB image. */
+  public static final String KEY_MBFIMAGE = "MBFImage";
+
+  /** the key for the RGBA image. */
+  public static final String KEY_MBFIMAGE_ALPHA = "MBFImage-alpha";
+
+  /** the default maximum number of images to cache. */
+  public static final int DEFAULT_MAX_SIZE = 8;
+
+  /**
+   * Identity-based key that only holds a weak reference to the image.
+   */
+  protected static class ImageKey
+    extends WeakReference<Object> {
+
+    /** the identity hashcode. */
+    protected final int m_HashCode;
+
+    /**
+     * Initializes the key.
+     *
+     * @param image	the image to reference
+     * @param queue	the queue to register with, can be null
+     */
+    public ImageKey(Object image, ReferenceQueue<Object> queue) {
+      super(image, queue);
+      m_HashCode = System.identityHashCode(image);
+    }
+
+    /**
+     * Returns the identity hashcode of the image.
+     *
+     * @return		the hashcode
+     */
+    @Override
+    public int hashCode() {
+      return m_HashCode;
+    }
+
+    /**
+     * Checks whether the keys reference the same image.
+     *
+     * @param obj	the key to compare with
+     * @return		true if the same image
+     */
+    @Override
+    public boolean equals(Object obj) {
+      Object	image;
+
+      if (obj == this)
+	return true;
+      if (!(obj instanceof ImageKey))
+	return false;
+      image = get();
+      return (image != null) && (image == ((ImageKey) obj).get());
+    }
+  }
+
+  /** the singleton. */
+  protected static OpenIMAJImageCache m_Singleton;
+
+  /** the cached data per image. */
+  protected LinkedHashMap<ImageKey,Map<String,Object>> m_Cache;
+
+  /** the queue for keys whose images have been garbage collected. */
+  protected ReferenceQueue<Object> m_Queue;
+
+  /** the maximum number of images to cache. */
+  protected int m_MaxSize;
+
+  /** the number of hits. */
+  protected long m_Hits;
+
+  /** the number of misses. */
+  protected long m_Misses;
+
+  /**
+   * Initializes the cache.
+   *
+   * @param maxSize	the maximum number of images to cache
+   */
+  public OpenIMAJImageCache(int maxSize) {
+    m_Cache   = new LinkedHashMap<>(16, 0.75f, true);
+    m_Queue   = new ReferenceQueue<>();
+    m_MaxSize = maxSize;
+  }
+
+  /**
+   * Sets the maximum number of images to cache.
+   *
+   * @param value	the maximum, less than 1 disables caching
+   */
+  public synchronized void setMaxSize(int value) {
+    m_MaxSize = value;
+    shrink();
+  }
+
+  /**
+   * Returns the maximum number of images to cache.
+   *
+   * @return		the maximum, less than 1 disables caching
+   */
+  public synchronized int getMaxSize() {
+    return m_MaxSize;
+  }
+
+  /**
+   * Removes the data of images that have been garbage collected.
+   */
+  protected void expunge() {
+    Reference<?>	ref;
+
+    while ((ref = m_Queue.poll()) != null)
+      m_Cache.remove(ref);
+  }
+
+  /**
+   * Removes discarded images and evicts the least recently used ones
+   * if exceeding the size limit.
+   */
+  protected void shrink() {
+    Iterator<ImageKey>	iter;
+
+    expunge();
+
+    iter = m_Cache.keySet().iterator();
+    while ((m_Cache.size() > Math.max(0, m_MaxSize)) && iter.hasNext()) {
+      iter.next();
+      iter.remove();
+    }
+  }
+
+  /**
+   * Returns the cached data for the image, generates and caches it if
+   * not present yet.
+   *
+   * @param image	the image the data is derived from (identity is used)
+   * @param key		the key of the data
+   * @param generator	for generating the data if not cached yet
+   * @param <T>		the type of data
+   * @return		the data
+   */
+  public <T> T get(Object image, String key, Supplier<T> generator) {
+    ImageKey		imgKey;
+    Map<String,Object>	data;
+    T			result;
+
+    if (getMaxSize() < 1)
+      return generator.get();
+
+    imgKey = new ImageKey(image, m_Queue);
+    synchronized(this) {
+      expunge();
+      data = m_Cache.get(imgKey);
+      if ((data != null) && data.containsKey(key)) {
+	m_Hits++;
+	return (T) data.get(key);
+      }
+      m_Misses++;
+    }
+
+    // generate outside the lock, concurrent misses may compute it twice
+    result = generator.get();
+
+    synchronized(this) {
+      data = m_Cache.get(imgKey);
+      if (data == null) {
+	data = new HashMap<>();
+	m_Cache.put(imgKey, data);
+      }
+      if (!data.containsKey(key))
+	data.put(key, result);
+      else
+	result = (T) data.get(key);
+      shrink();
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the grayscale image for the container.
+   *
+   * @param cont	the container to get the image for
+   * @return		the grayscale image
+   */
+  public FImage getFImage(AbstractImageContainer cont) {
+    return get(cont.getImage(), KEY_FIMAGE, () -> OpenIMAJHelper.toFImage(cont.toBufferedImage(), null));
+  }
+
+  /**
+   * Returns the RGB(A) image for the container.
+   *
+   * @param cont	the container to get the image for
+   * @param alpha	whether to include an alpha channel
+   * @return		the RGB(A) image
+   */
+  public MBFImage getMBFImage(AbstractImageContainer cont, boolean alpha) {
+    return get(cont.getImage(), alpha ? KEY_MBFIMAGE_ALPHA : KEY_MBFIMAGE, () -> OpenIMAJHelper.toMBFImage(cont.toBufferedImage(), alpha, null));
+  }
+
+  /**
+   * Removes all cached data.
+   */
+  public synchronized void clear() {
+    m_Cache.clear();
+    expunge();
+  }
+
+  /**
+   * Returns the number of images currently cached.
+   *
+   * @return		the number of images
+   */
+  public synchronized int size() {
+    expunge();
+    return m_Cache.size();
+  }
+
+  /**
+   * Returns the number of cache hits.
+   *
+   * @return		the hits
+   */
+  public synchronized long getHits() {
+    return m_Hits;
+  }
+
+  /**
+   * Returns the number of cache misses.
+   *
+   * @return		the misses
+   */
+  public synchronized long getMisses() {
+    return m_Misses;
+  }
+
+  /**
+   * Returns a short description of the cache.
+   *
+   * @return		the description
+   */
+  @Override
+  public synchronized String toString() {
+    return "size=" + m_Cache.size() + "/" + m_MaxSize + ", hits=" + m_Hits + ", misses=" + m_Misses;
+  }
+
+  /**
+   * Turns the container into a grayscale image, using the shared cache
+   * if enabled.
+   *
+   * @param cont	the container to convert
+   * @param useCache	whether to use the shared cache
+   * @return		the grayscale image
+   */
+  public static FImage toFImage(AbstractImageContainer cont, boolean useCache) {
+    if (useCache)
+      return getSingleton().getFImage(cont);
+    else
+      return OpenIMAJHelper.toFImage(cont.toBufferedImage(), null);
+  }
+
+  /**
+   * Turns the container into an RGB(A) image, using the shared cache
+   * if enabled.
+   *
+   * @param cont	the container to convert
+   * @param alpha	whether to include an alpha channel
+   * @param useCache	whether to use the shared cache
+   * @return		the RGB(A) image
+   */
+  public static MBFImage toMBFImage(AbstractImageContainer cont, boolean alpha, boolean useCache) {
+    if (useCache)
+      return getSingleton().getMBFImage(cont, alpha);
+    else
+      return OpenIMAJHelper.toMBFImage(cont.toBufferedImage(), alpha, null);
+  }
+
+  /**
+   * Returns the cache shared by the detectors.
+   *
+   * @return		the cache
+   */
+  public static synchronized OpenIMAJImageCache getSingleton() {
+    if (m_Singleton == null)
+      m_Singleton = new OpenIMAJImageCache(DEFAULT_MAX_SIZE);
+    return m_Singleton;
+  }
+}
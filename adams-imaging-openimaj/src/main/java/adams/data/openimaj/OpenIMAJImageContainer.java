@@ -21,7 +21,6 @@ package adams.data.openimaj;
 
 import adams.data.image.AbstractImageContainer;
 import org.openimaj.image.Image;
-import org.openimaj.image.ImageUtilities;
 
 import java.awt.image.BufferedImage;
 
@@ -80,6 +79,6 @@ public class OpenIMAJImageContainer
    */
   @Override
   public BufferedImage toBufferedImage() {
-    return ImageUtilities.createBufferedImageForDisplay(m_Content);
+    return OpenIMAJHelper.toBufferedImage(m_Content);
   }
 }
@@ -29,7 +29,9 @@ import org.openimaj.image.processing.face.detection.FaceDetector;
 import java.util.List;
 
 /**
- * Ancestor for face detector wrappers.
+ * Ancestor for face detector wrappers.<br>
+ * Since the OpenIMAJ detectors are not thread-safe, each thread uses its own
+ * instance of the detector.
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
@@ -39,8 +41,54 @@ public abstract class AbstractFaceDetector
 
   private static final long serialVersionUID = -2154246904015540410L;
 
-  /** the actual detector. */
-  protected transient FaceDetector m_ActualDetector;
+  /** the actual detectors (one per thread). */
+  protected transient ThreadLocal<FaceDetector> m_ActualDetector;
+
+  /** whether to use the shared image cache. */
+  protected boolean m_UseCache;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "use-cache", "useCache",
+      false);
+  }
+
+  /**
+   * Sets whether to use the image cache that is shared among detectors,
+   * avoiding repeated conversions of the same image.
+   *
+   * @param value	true if to use the cache
+   */
+  public void setUseCache(boolean value) {
+    m_UseCache = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to use the image cache that is shared among detectors,
+   * avoiding repeated conversions of the same image.
+   *
+   * @return		true if to use the cache
+   */
+  public boolean getUseCache() {
+    return m_UseCache;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String useCacheTipText() {
+    return "If enabled, the converted images get cached and shared with other detectors processing the same image (treated as read-only); the cache is keyed on the image object, so do not enable if images get modified in-place.";
+  }
 
   /**
    * Resets the scheme.
@@ -68,14 +116,30 @@ public abstract class AbstractFaceDetector
   protected abstract Image convert(AbstractImageContainer cont);
 
   /**
-   * Detects the faces in the image.
+   * Returns the detector instance for the current thread, creates it if
+   * necessary.
+   *
+   * @return		the detector
+   */
+  protected FaceDetector getActualDetector() {
+    ThreadLocal<FaceDetector>	detector;
+
+    synchronized(this) {
+      if (m_ActualDetector == null)
+	m_ActualDetector = ThreadLocal.withInitial(this::newInstance);
+      detector = m_ActualDetector;
+    }
+
+    return detector.get();
+  }
+
+  /**
+   * Detects the faces in the image. Can be called from multiple threads.
    *
    * @param cont	the container with the image to analyze
    * @return		the detected faces
    */
   public List<DetectedFace> detectFaces(AbstractImageContainer cont) {
-    if (m_ActualDetector == null)
-      m_ActualDetector = newInstance();
-    return m_ActualDetector.detectFaces(convert(cont));
+    return getActualDetector().detectFaces(convert(cont));
   }
 }
@@ -25,8 +25,8 @@ import adams.core.TechnicalInformation.Field;
 import adams.core.TechnicalInformation.Type;
 import adams.core.TechnicalInformationHandler;
 import adams.data.image.AbstractImageContainer;
+import adams.data.openimaj.OpenIMAJImageCache;
 import org.openimaj.image.Image;
-import org.openimaj.image.ImageUtilities;
 import org.openimaj.image.processing.face.detection.FaceDetector;
 import org.openimaj.image.processing.face.detection.keypoints.FKEFaceDetector;
 
@@ -57,6 +57,13 @@ import org.openimaj.image.processing.face.detection.keypoints.FKEFaceDetector;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-use-cache &lt;boolean&gt; (property: useCache)
+ * &nbsp;&nbsp;&nbsp;If enabled, the converted images get cached and shared with other detectors
+ * &nbsp;&nbsp;&nbsp;processing the same image (treated as read-only); the cache is keyed on the
+ * &nbsp;&nbsp;&nbsp;image object, so do not enable if images get modified in-place.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  * <pre>-detector &lt;adams.data.openimaj.facedetector.AbstractFaceDetector&gt; (property: detector)
  * &nbsp;&nbsp;&nbsp;The base detector to use.
  * &nbsp;&nbsp;&nbsp;default: adams.data.openimaj.facedetector.HaarCascade
@@ -184,6 +191,6 @@ public class FrontalKeypointEnriched
    * @return		the generated image
    */
   protected Image convert(AbstractImageContainer cont) {
-    return ImageUtilities.createFImage(cont.toBufferedImage());
+    return OpenIMAJImageCache.toFImage(cont, m_UseCache);
   }
 }
@@ -26,8 +26,8 @@ import adams.core.TechnicalInformation.Type;
 import adams.core.TechnicalInformationHandler;
 import adams.core.io.PlaceholderFile;
 import adams.data.image.AbstractImageContainer;
+import adams.data.openimaj.OpenIMAJImageCache;
 import org.openimaj.image.Image;
-import org.openimaj.image.ImageUtilities;
 import org.openimaj.image.processing.face.detection.FaceDetector;
 import org.openimaj.image.processing.face.detection.HaarCascadeDetector;
 
@@ -60,6 +60,13 @@ import org.openimaj.image.processing.face.detection.HaarCascadeDetector;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-use-cache &lt;boolean&gt; (property: useCache)
+ * &nbsp;&nbsp;&nbsp;If enabled, the converted images get cached and shared with other detectors
+ * &nbsp;&nbsp;&nbsp;processing the same image (treated as read-only); the cache is keyed on the
+ * &nbsp;&nbsp;&nbsp;image object, so do not enable if images get modified in-place.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  * <pre>-cascade &lt;adams.core.io.PlaceholderFile&gt; (property: cascade)
  * &nbsp;&nbsp;&nbsp;The cascade to use.
  * &nbsp;&nbsp;&nbsp;default: ${CWD}
@@ -221,6 +228,6 @@ public class HaarCascade
    * @return		the generated image
    */
   protected Image convert(AbstractImageContainer cont) {
-    return ImageUtilities.createFImage(cont.toBufferedImage());
+    return OpenIMAJImageCache.toFImage(cont, m_UseCache);
   }
 }
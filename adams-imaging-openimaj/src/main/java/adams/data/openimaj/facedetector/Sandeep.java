@@ -25,8 +25,8 @@ import adams.core.TechnicalInformation.Field;
 import adams.core.TechnicalInformation.Type;
 import adams.core.TechnicalInformationHandler;
 import adams.data.image.AbstractImageContainer;
+import adams.data.openimaj.OpenIMAJImageCache;
 import org.openimaj.image.Image;
-import org.openimaj.image.ImageUtilities;
 import org.openimaj.image.processing.face.detection.FaceDetector;
 import org.openimaj.image.processing.face.detection.SandeepFaceDetector;
 
@@ -56,6 +56,13 @@ import org.openimaj.image.processing.face.detection.SandeepFaceDetector;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-use-cache &lt;boolean&gt; (property: useCache)
+ * &nbsp;&nbsp;&nbsp;If enabled, the converted images get cached and shared with other detectors
+ * &nbsp;&nbsp;&nbsp;processing the same image (treated as read-only); the cache is keyed on the
+ * &nbsp;&nbsp;&nbsp;image object, so do not enable if images get modified in-place.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
@@ -113,6 +120,6 @@ public class Sandeep
    * @return		the generated image
    */
   protected Image convert(AbstractImageContainer cont) {
-    return ImageUtilities.createMBFImage(cont.toBufferedImage(), false);
+    return OpenIMAJImageCache.toMBFImage(cont, false, m_UseCache);
   }
 }
@@ -41,6 +41,52 @@ public abstract class AbstractObjectDetector
   /** the actual detector. */
   protected transient ObjectDetector m_ActualDetector;
 
+  /** whether to use the shared image cache. */
+  protected boolean m_UseCache;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "use-cache", "useCache",
+      false);
+  }
+
+  /**
+   * Sets whether to use the image cache that is shared among detectors,
+   * avoiding repeated conversions of the same image.
+   *
+   * @param value	true if to use the cache
+   */
+  public void setUseCache(boolean value) {
+    m_UseCache = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to use the image cache that is shared among detectors,
+   * avoiding repeated conversions of the same image.
+   *
+   * @return		true if to use the cache
+   */
+  public boolean getUseCache() {
+    return m_UseCache;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String useCacheTipText() {
+    return "If enabled, the converted images get cached and shared with other detectors processing the same image (treated as read-only); the cache is keyed on the image object, so do not enable if images get modified in-place.";
+  }
+
   /**
    * Resets the scheme.
    */
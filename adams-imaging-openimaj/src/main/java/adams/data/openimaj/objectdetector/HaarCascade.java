@@ -27,8 +27,8 @@ import adams.core.TechnicalInformationHandler;
 import adams.core.io.FileUtils;
 import adams.core.io.PlaceholderFile;
 import adams.data.image.AbstractImageContainer;
+import adams.data.openimaj.OpenIMAJImageCache;
 import org.openimaj.image.Image;
-import org.openimaj.image.ImageUtilities;
 import org.openimaj.image.objectdetection.ObjectDetector;
 import org.openimaj.image.objectdetection.haar.Detector;
 import org.openimaj.image.objectdetection.haar.OCVHaarLoader;
@@ -66,6 +66,13 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-use-cache &lt;boolean&gt; (property: useCache)
+ * &nbsp;&nbsp;&nbsp;If enabled, the converted images get cached and shared with other detectors
+ * &nbsp;&nbsp;&nbsp;processing the same image (treated as read-only); the cache is keyed on the
+ * &nbsp;&nbsp;&nbsp;image object, so do not enable if images get modified in-place.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  * <pre>-cascade &lt;adams.core.io.PlaceholderFile&gt; (property: cascade)
  * &nbsp;&nbsp;&nbsp;The cascade to use.
  * &nbsp;&nbsp;&nbsp;default: ${CWD}
@@ -244,6 +251,6 @@ public class HaarCascade
    */
   @Override
   protected Image convert(AbstractImageContainer cont) {
-    return ImageUtilities.createFImage(cont.toBufferedImage());
+    return OpenIMAJImageCache.toFImage(cont, m_UseCache);
   }
 }
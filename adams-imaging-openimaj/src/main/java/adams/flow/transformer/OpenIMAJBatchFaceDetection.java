@@ -0,0 +1,509 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OpenIMAJBatchFaceDetection.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer;
+
+import adams.core.QuickInfoHelper;
+import adams.core.io.PlaceholderFile;
+import adams.data.image.AbstractImageContainer;
+import adams.data.image.BufferedImageContainer;
+import adams.data.io.input.AbstractImageReader;
+import adams.data.io.input.OpenIMAJImageReader;
+import adams.flow.core.Token;
+import adams.flow.transformer.locateobjects.LocatedObjects;
+import adams.flow.transformer.locateobjects.OpenIMAJFaceDetector;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ <!-- globalinfo-start -->
+ * Locates faces in batches of images, spreading the detection over multiple threads (see 'numThreads' of the detector).<br>
+ * Accepts either arrays of images or directories. Directories get processed in chunks of the specified batch size, with each chunk being forwarded as array.<br>
+ * The located faces get stored in the reports of the generated images, the order of the images is preserved.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- flow-summary-start -->
+ * Input&#47;output:<br>
+ * - accepts:<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.image.AbstractImageContainer[]<br>
+ * &nbsp;&nbsp;&nbsp;java.lang.String<br>
+ * &nbsp;&nbsp;&nbsp;java.io.File<br>
+ * - generates:<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.image.BufferedImageContainer[]<br>
+ * <br><br>
+ <!-- flow-summary-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-name &lt;java.lang.String&gt; (property: name)
+ * &nbsp;&nbsp;&nbsp;The name of the actor.
+ * &nbsp;&nbsp;&nbsp;default: OpenIMAJBatchFaceDetection
+ * </pre>
+ *
+ * <pre>-annotation &lt;adams.core.base.BaseAnnotation&gt; (property: annotations)
+ * &nbsp;&nbsp;&nbsp;The annotations to attach to this actor.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-skip &lt;boolean&gt; (property: skip)
+ * &nbsp;&nbsp;&nbsp;If set to true, transformation is skipped and the input token is just forwarded
+ * &nbsp;&nbsp;&nbsp;as it is.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-stop-flow-on-error &lt;boolean&gt; (property: stopFlowOnError)
+ * &nbsp;&nbsp;&nbsp;If set to true, the flow execution at this level gets stopped in case this
+ * &nbsp;&nbsp;&nbsp;actor encounters an error; the error gets propagated; useful for critical
+ * &nbsp;&nbsp;&nbsp;actors.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-silent &lt;boolean&gt; (property: silent)
+ * &nbsp;&nbsp;&nbsp;If enabled, then no errors are output in the console; Note: the enclosing
+ * &nbsp;&nbsp;&nbsp;actor handler must have this enabled as well.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-detector &lt;adams.flow.transformer.locateobjects.OpenIMAJFaceDetector&gt; (property: detector)
+ * &nbsp;&nbsp;&nbsp;The face detector to use; its number of threads determines the parallelism.
+ * &nbsp;&nbsp;&nbsp;default: adams.flow.transformer.locateobjects.OpenIMAJFaceDetector -detector adams.data.openimaj.facedetector.HaarCascade -num-threads -1
+ * </pre>
+ *
+ * <pre>-reader &lt;adams.data.io.input.AbstractImageReader&gt; (property: reader)
+ * &nbsp;&nbsp;&nbsp;The reader to use for loading the images from directories.
+ * &nbsp;&nbsp;&nbsp;default: adams.data.io.input.OpenIMAJImageReader
+ * </pre>
+ *
+ * <pre>-batch-size &lt;int&gt; (property: batchSize)
+ * &nbsp;&nbsp;&nbsp;The number of images to load and process at a time when processing directories.
+ * &nbsp;&nbsp;&nbsp;default: 100
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-prefix &lt;java.lang.String&gt; (property: prefix)
+ * &nbsp;&nbsp;&nbsp;The report field prefix used for the located faces.
+ * &nbsp;&nbsp;&nbsp;default: Object.
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class OpenIMAJBatchFaceDetection
+  extends AbstractTransformer {
+
+  private static final long serialVersionUID = 8156276539820412389L;
+
+  /** the detector to use. */
+  protected OpenIMAJFaceDetector m_Detector;
+
+  /** the reader for directories. */
+  protected AbstractImageReader m_Reader;
+
+  /** the number of images per chunk (directories). */
+  protected int m_BatchSize;
+
+  /** the report prefix. */
+  protected String m_Prefix;
+
+  /** the files still to process (directories). */
+  protected transient List<File> m_Files;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Locates faces in batches of images, spreading the detection over "
+	+ "multiple threads (see 'numThreads' of the detector).\n"
+	+ "Accepts either arrays of images or directories. Directories get "
+	+ "processed in chunks of the specified batch size, with each chunk "
+	+ "being forwarded as array.\n"
+	+ "The located faces get stored in the reports of the generated images, "
+	+ "the order of the images is preserved.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "detector", "detector",
+      getDefaultDetector());
+
+    m_OptionManager.add(
+      "reader", "reader",
+      new OpenIMAJImageReader());
+
+    m_OptionManager.add(
+      "batch-size", "batchSize",
+      100, 1, null);
+
+    m_OptionManager.add(
+      "prefix", "prefix",
+      "Object.");
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_Files = new ArrayList<>();
+  }
+
+  /**
+   * Returns the default detector.
+   *
+   * @return		the detector
+   */
+  protected OpenIMAJFaceDetector getDefaultDetector() {
+    OpenIMAJFaceDetector	result;
+
+    result = new OpenIMAJFaceDetector();
+    result.setNumThreads(-1);
+
+    return result;
+  }
+
+  /**
+   * Sets the detector to use.
+   *
+   * @param value	the detector
+   */
+  public void setDetector(OpenIMAJFaceDetector value) {
+    m_Detector = value;
+    reset();
+  }
+
+  /**
+   * Returns the detector to use.
+   *
+   * @return		the detector
+   */
+  public OpenIMAJFaceDetector getDetector() {
+    return m_Detector;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String detectorTipText() {
+    return "The face detector to use; its number of threads determines the parallelism.";
+  }
+
+  /**
+   * Sets the reader for loading images from directories.
+   *
+   * @param value	the reader
+   */
+  public void setReader(AbstractImageReader value) {
+    m_Reader = value;
+    reset();
+  }
+
+  /**
+   * Returns the reader for loading images from directories.
+   *
+   * @return		the reader
+   */
+  public AbstractImageReader getReader() {
+    return m_Reader;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String readerTipText() {
+    return "The reader to use for loading the images from directories.";
+  }
+
+  /**
+   * Sets the number of images to process at a time (directories).
+   *
+   * @param value	the batch size
+   */
+  public void setBatchSize(int value) {
+    if (getOptionManager().isValid("batchSize", value)) {
+      m_BatchSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of images to process at a time (directories).
+   *
+   * @return		the batch size
+   */
+  public int getBatchSize() {
+    return m_BatchSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchSizeTipText() {
+    return "The number of images to load and process at a time when processing directories.";
+  }
+
+  /**
+   * Sets the report field prefix for the located faces.
+   *
+   * @param value	the prefix
+   */
+  public void setPrefix(String value) {
+    m_Prefix = value;
+    reset();
+  }
+
+  /**
+   * Returns the report field prefix for the located faces.
+   *
+   * @return		the prefix
+   */
+  public String getPrefix() {
+    return m_Prefix;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String prefixTipText() {
+    return "The report field prefix used for the located faces.";
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String	result;
+
+    result  = QuickInfoHelper.toString(this, "detector", m_Detector, "detector: ");
+    result += QuickInfoHelper.toString(this, "batchSize", m_BatchSize, ", batch: ");
+
+    return result;
+  }
+
+  /**
+   * Returns the class that the consumer accepts.
+   *
+   * @return		the Class of objects that can be processed
+   */
+  public Class[] accepts() {
+    return new Class[]{AbstractImageContainer[].class, String.class, File.class};
+  }
+
+  /**
+   * Returns the class of objects that it generates.
+   *
+   * @return		the Class of the generated tokens
+   */
+  public Class[] generates() {
+    return new Class[]{BufferedImageContainer[].class};
+  }
+
+  /**
+   * Locates the faces in the images and stores them in the reports.
+   *
+   * @param conts	the images to process
+   * @return		the processed images
+   */
+  protected BufferedImageContainer[] process(AbstractImageContainer[] conts) {
+    BufferedImageContainer[]	result;
+    BufferedImage[]		images;
+    LocatedObjects[]		located;
+    int				i;
+
+    images = new BufferedImage[conts.length];
+    for (i = 0; i < conts.length; i++)
+      images[i] = conts[i].toBufferedImage();
+
+    located = m_Detector.locate(images, true);
+
+    result = new BufferedImageContainer[conts.length];
+    for (i = 0; i < conts.length; i++) {
+      result[i] = new BufferedImageContainer();
+      result[i].setImage(images[i]);
+      result[i].setReport(conts[i].getReport().getClone());
+      result[i].getReport().mergeWith(located[i].toReport(m_Prefix));
+    }
+
+    return result;
+  }
+
+  /**
+   * Collects the image files in the directory, sorted by name.
+   *
+   * @param dir		the directory to scan
+   * @return		null if successful, otherwise error message
+   */
+  protected String collectFiles(File dir) {
+    File[]	files;
+    Set<String>	exts;
+    boolean	all;
+    String	name;
+
+    if (!dir.isDirectory())
+      return "Not a directory: " + dir;
+
+    exts = new HashSet<>();
+    for (String ext: m_Reader.getFormatExtensions())
+      exts.add(ext.toLowerCase());
+    all = exts.contains("*");
+
+    files = dir.listFiles();
+    if (files == null)
+      return "Failed to list directory: " + dir;
+    Arrays.sort(files);
+    for (File file: files) {
+      if (!file.isFile())
+	continue;
+      name = file.getName().toLowerCase();
+      if (all || ((name.lastIndexOf('.') > -1) && exts.contains(name.substring(name.lastIndexOf('.') + 1))))
+	m_Files.add(file);
+    }
+
+    if (isLoggingEnabled())
+      getLogger().info("Found " + m_Files.size() + " images in " + dir);
+
+    return null;
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    String	result;
+    Object	payload;
+
+    result  = null;
+    payload = m_InputToken.getPayload();
+    m_Files.clear();
+
+    try {
+      if (payload instanceof AbstractImageContainer[])
+	m_OutputToken = new Token(process((AbstractImageContainer[]) payload));
+      else if (payload instanceof File)
+	result = collectFiles((File) payload);
+      else
+	result = collectFiles(new PlaceholderFile((String) payload));
+    }
+    catch (Exception e) {
+      result = handleException("Failed to locate faces!", e);
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether there is pending output to be collected after
+   * executing the flow item.
+   *
+   * @return		true if there is pending output
+   */
+  @Override
+  public boolean hasPendingOutput() {
+    return super.hasPendingOutput() || (m_Files.size() > 0);
+  }
+
+  /**
+   * Returns the generated token. For directories, loads and processes the
+   * next chunk of images.
+   *
+   * @return		the generated token
+   */
+  @Override
+  public Token output() {
+    List<AbstractImageContainer>	conts;
+    AbstractImageContainer		cont;
+    File				file;
+
+    if (super.hasPendingOutput())
+      return super.output();
+
+    conts = new ArrayList<>();
+    while ((m_Files.size() > 0) && (conts.size() < m_BatchSize) && !isStopped()) {
+      file = m_Files.remove(0);
+      cont = m_Reader.read(new PlaceholderFile(file));
+      if (cont == null)
+	getLogger().warning("Failed to read image: " + file);
+      else
+	conts.add(cont);
+    }
+
+    return new Token(process(conts.toArray(new AbstractImageContainer[0])));
+  }
+
+  /**
+   * Stops the execution. No message set.
+   */
+  @Override
+  public void stopExecution() {
+    m_Files.clear();
+    super.stopExecution();
+  }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    m_Files.clear();
+    m_Detector.cleanUp();
+    super.wrapUp();
+  }
+}
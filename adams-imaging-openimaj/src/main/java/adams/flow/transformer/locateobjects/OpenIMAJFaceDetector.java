@@ -20,19 +20,30 @@
 
 package adams.flow.transformer.locateobjects;
 
+import adams.core.CleanUpHandler;
+import adams.core.Performance;
 import adams.core.QuickInfoHelper;
 import adams.data.image.BufferedImageContainer;
+import adams.data.openimaj.OpenIMAJHelper;
 import adams.data.openimaj.facedetector.AbstractFaceDetector;
 import adams.data.openimaj.facedetector.HaarCascade;
-import org.openimaj.image.ImageUtilities;
 import org.openimaj.image.processing.face.detection.DetectedFace;
 
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  <!-- globalinfo-start -->
- * Uses the specified OpenIMAJ face detector algorithm to locate faces.
+ * Uses the specified OpenIMAJ face detector algorithm to locate faces.<br>
+ * Batches of images can be processed in parallel, with each thread using its own instance of the detector. The threads are kept alive till the locator gets cleaned up, i.e., the detectors only get initialized once per thread.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -69,19 +80,33 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;default: adams.data.openimaj.facedetector.HaarCascade
  * </pre>
  * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for locating faces in batches of images; -1 
+ * &nbsp;&nbsp;&nbsp;= # of CPUs&#47;cores; 0&#47;1 = sequential execution; the order of the results 
+ * &nbsp;&nbsp;&nbsp;is the same as the order of the images.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
  */
 public class OpenIMAJFaceDetector
-  extends AbstractObjectLocator {
+  extends AbstractObjectLocator
+  implements CleanUpHandler {
 
   private static final long serialVersionUID = -5521919703087480870L;
 
   /** the detector to use. */
   protected AbstractFaceDetector m_Detector;
 
+  /** the number of threads to use for batches. */
+  protected int m_NumThreads;
+
+  /** the executor for batches, re-used so the threads keep their detectors. */
+  protected transient ThreadPoolExecutor m_Executor;
+
   /**
    * Returns a string describing the object.
    *
@@ -89,7 +114,12 @@ public class OpenIMAJFaceDetector
    */
   @Override
   public String globalInfo() {
-    return "Uses the specified OpenIMAJ face detector algorithm to locate faces.";
+    return
+      "Uses the specified OpenIMAJ face detector algorithm to locate faces.\n"
+	+ "Batches of images can be processed in parallel, with each thread "
+	+ "using its own instance of the detector. The threads are kept alive "
+	+ "till the locator gets cleaned up, i.e., the detectors only get "
+	+ "initialized once per thread.";
   }
 
   /**
@@ -102,6 +132,20 @@ public class OpenIMAJFaceDetector
     m_OptionManager.add(
       "detector", "detector",
       new HaarCascade());
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    shutdownExecutor();
   }
 
   /**
@@ -133,6 +177,38 @@ public class OpenIMAJFaceDetector
     return "The detector algorithm to use.";
   }
 
+  /**
+   * Sets the number of threads to use for batches of images.
+   *
+   * @param value	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for batches of images.
+   *
+   * @return		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return
+      "The number of threads to use for locating faces in batches of images; "
+	+ "-1 = # of CPUs/cores; 0/1 = sequential execution; the order of "
+	+ "the results is the same as the order of the images.";
+  }
+
   /**
    * Returns a quick info about the object, which can be displayed in the GUI.
    *
@@ -140,7 +216,13 @@ public class OpenIMAJFaceDetector
    */
   @Override
   public String getQuickInfo() {
-    return QuickInfoHelper.toString(this, "detector", m_Detector, "detector: ");
+    String	result;
+
+    result = QuickInfoHelper.toString(this, "detector", m_Detector, "detector: ");
+    if (m_NumThreads != 1)
+      result += QuickInfoHelper.toString(this, "numThreads", m_NumThreads, ", threads: ");
+
+    return result;
   }
 
   /**
@@ -166,7 +248,7 @@ public class OpenIMAJFaceDetector
     result   = new LocatedObjects();
     for (DetectedFace face: detected) {
       obj = new LocatedObject(
-	ImageUtilities.createBufferedImage(face.getFacePatch()),
+	OpenIMAJHelper.toBufferedImage(face.getFacePatch()),
 	(int) face.getBounds().x,
 	(int) face.getBounds().y,
 	(int) face.getBounds().width,
@@ -176,4 +258,106 @@ public class OpenIMAJFaceDetector
 
     return result;
   }
+
+  /**
+   * Returns the executor for batches, creates it if necessary. The core
+   * threads do not time out, as each thread holds its own detector.
+   *
+   * @param numThreads	the number of threads to use
+   * @return		the executor
+   */
+  protected synchronized ThreadPoolExecutor getExecutor(int numThreads) {
+    if ((m_Executor != null) && (m_Executor.getCorePoolSize() != numThreads))
+      shutdownExecutor();
+    if (m_Executor == null) {
+      m_Executor = new ThreadPoolExecutor(
+	numThreads, numThreads, 0, TimeUnit.MILLISECONDS,
+	new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+	  protected int m_Count = 0;
+	  @Override
+	  public synchronized Thread newThread(Runnable r) {
+	    Thread result = new Thread(r, OpenIMAJFaceDetector.this.getClass().getSimpleName() + "-" + (++m_Count));
+	    result.setDaemon(true);
+	    return result;
+	  }
+	});
+    }
+    return m_Executor;
+  }
+
+  /**
+   * Shuts down the executor, if any.
+   */
+  protected synchronized void shutdownExecutor() {
+    if (m_Executor != null) {
+      m_Executor.shutdownNow();
+      m_Executor = null;
+    }
+  }
+
+  /**
+   * Locates the objects in the batch of images, using the specified number
+   * of threads. The results are in the same order as the images.
+   *
+   * @param images	  the images to process
+   * @param annotateOnly  whether to annotate only
+   * @return		  the containers of located objects, one per image
+   */
+  public LocatedObjects[] locate(BufferedImage[] images, final boolean annotateOnly) {
+    LocatedObjects[]			result;
+    int					numThreads;
+    int					i;
+    ThreadPoolExecutor			executor;
+    List<Future<LocatedObjects>>	jobs;
+
+    result     = new LocatedObjects[images.length];
+    numThreads = Math.min(Performance.determineNumThreads(m_NumThreads), images.length);
+
+    if (numThreads <= 1) {
+      for (i = 0; i < images.length; i++)
+	result[i] = locate(images[i], annotateOnly);
+    }
+    else {
+      jobs     = new ArrayList<>();
+      executor = getExecutor(numThreads);
+      try {
+	for (final BufferedImage image: images) {
+	  jobs.add(executor.submit(new Callable<LocatedObjects>() {
+	    @Override
+	    public LocatedObjects call() throws Exception {
+	      return locate(image, annotateOnly);
+	    }
+	  }));
+	}
+	for (i = 0; i < jobs.size(); i++)
+	  result[i] = jobs.get(i).get();
+      }
+      catch (ExecutionException e) {
+	if (e.getCause() instanceof RuntimeException)
+	  throw (RuntimeException) e.getCause();
+	throw new IllegalStateException("Failed to locate faces!", e.getCause());
+      }
+      catch (InterruptedException e) {
+	throw new IllegalStateException("Interrupted while locating faces!", e);
+      }
+      finally {
+	for (Future<LocatedObjects> job: jobs)
+	  job.cancel(true);
+      }
+    }
+
+    if (isLoggingEnabled())
+      getLogger().info("Processed batch of " + images.length + " images using " + Math.max(1, numThreads) + " thread(s)");
+
+    return result;
+  }
+
+  /**
+   * Cleans up data structures, frees up memory. Shuts down the threads
+   * used for batches.
+   */
+  @Override
+  public void cleanUp() {
+    shutdownExecutor();
+  }
 }
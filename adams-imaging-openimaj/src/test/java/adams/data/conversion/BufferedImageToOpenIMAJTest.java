@@ -0,0 +1,184 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BufferedImageToOpenIMAJTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.conversion;
+
+import adams.data.image.BufferedImageContainer;
+import adams.data.openimaj.OpenIMAJImageContainer;
+import adams.data.openimaj.OpenIMAJImageType;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.openimaj.image.FImage;
+import org.openimaj.image.Image;
+import org.openimaj.image.MBFImage;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Tests the BufferedImageToOpenIMAJ and OpenIMAJToBufferedImage conversions.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class BufferedImageToOpenIMAJTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public BufferedImageToOpenIMAJTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a container with a small color image.
+   *
+   * @return		the container
+   */
+  protected BufferedImageContainer newContainer() {
+    BufferedImageContainer	result;
+    BufferedImage		image;
+    int				x;
+    int				y;
+
+    image = new BufferedImage(4, 3, BufferedImage.TYPE_3BYTE_BGR);
+    for (y = 0; y < image.getHeight(); y++) {
+      for (x = 0; x < image.getWidth(); x++)
+	image.setRGB(x, y, 0xFF000000 | (x * 60 << 16) | (y * 100 << 8) | (x * y * 20));
+    }
+    result = new BufferedImageContainer();
+    result.setImage(image);
+    result.getReport().setStringValue("Source", "test");
+
+    return result;
+  }
+
+  /**
+   * Converts the input with the specified conversion.
+   *
+   * @param conv	the conversion to use
+   * @param input	the input to convert
+   * @return		the output
+   */
+  protected Object convert(Conversion conv, Object input) {
+    String	msg;
+
+    conv.setInput(input);
+    msg = conv.convert();
+    assertNull("conversion failed: " + msg, msg);
+
+    return conv.getOutput();
+  }
+
+  /**
+   * Tests converting back and forth.
+   */
+  public void testRoundTrip() {
+    BufferedImageContainer	input;
+    OpenIMAJImageContainer	openimaj;
+    BufferedImageContainer	output;
+    BufferedImageToOpenIMAJ	to;
+    OpenIMAJToBufferedImage	from;
+    int				x;
+    int				y;
+
+    input = newContainer();
+    to    = new BufferedImageToOpenIMAJ();
+    from  = new OpenIMAJToBufferedImage();
+
+    openimaj = (OpenIMAJImageContainer) convert(to, input);
+    assertTrue("multi-band", openimaj.getImage() instanceof MBFImage);
+    assertEquals("width", 4, openimaj.getWidth());
+    assertEquals("height", 3, openimaj.getHeight());
+    assertEquals("report", "test", openimaj.getReport().getStringValue("Source"));
+
+    output = (BufferedImageContainer) convert(from, openimaj);
+    for (y = 0; y < 3; y++) {
+      for (x = 0; x < 4; x++)
+	assertEquals("pixel " + x + "/" + y, input.getImage().getRGB(x, y), output.getImage().getRGB(x, y));
+    }
+    assertEquals("report", "test", output.getReport().getStringValue("Source"));
+
+    to.cleanUp();
+    from.cleanUp();
+  }
+
+  /**
+   * Tests the grayscale image type.
+   */
+  public void testGrayscale() {
+    BufferedImageToOpenIMAJ	to;
+    OpenIMAJImageContainer	openimaj;
+
+    to = new BufferedImageToOpenIMAJ();
+    to.setImageType(OpenIMAJImageType.FIMAGE);
+    openimaj = (OpenIMAJImageContainer) convert(to, newContainer());
+    assertTrue("grayscale", openimaj.getImage() instanceof FImage);
+    to.cleanUp();
+  }
+
+  /**
+   * Tests the re-use of the previously generated image.
+   */
+  public void testReuseBuffer() {
+    BufferedImageToOpenIMAJ	to;
+    Image			first;
+    Image			second;
+
+    to     = new BufferedImageToOpenIMAJ();
+    first  = ((OpenIMAJImageContainer) convert(to, newContainer())).getImage();
+    second = ((OpenIMAJImageContainer) convert(to, newContainer())).getImage();
+    assertNotSame("not re-used", first, second);
+
+    to.setReuseBuffer(true);
+    first  = ((OpenIMAJImageContainer) convert(to, newContainer())).getImage();
+    second = ((OpenIMAJImageContainer) convert(to, newContainer())).getImage();
+    assertSame("re-used", first, second);
+
+    // changing an option discards the buffer
+    to.setAlpha(true);
+    second = ((OpenIMAJImageContainer) convert(to, newContainer())).getImage();
+    assertNotSame("buffer discarded", first, second);
+    assertEquals("alpha", 4, ((MBFImage) second).numBands());
+    to.cleanUp();
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(BufferedImageToOpenIMAJTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OpenIMAJHelperTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.openimaj;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.openimaj.image.FImage;
+import org.openimaj.image.MBFImage;
+import org.openimaj.image.colour.ColourSpace;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Tests the OpenIMAJHelper class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class OpenIMAJHelperTest
+  extends AdamsTestCase {
+
+  /** the tolerance for comparing pixel values. */
+  public final static float DELTA = 1e-6f;
+
+  /** the colors used in the test images. */
+  public final static int[] COLORS = {0xFF000000, 0xFFFFFFFF, 0xFFFF0000, 0xFF00FF00, 0xFF0000FF, 0xFF0A141E};
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public OpenIMAJHelperTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a 3x2 image of the specified type, using the test colors.
+   *
+   * @param type	the image type
+   * @return		the image
+   */
+  protected BufferedImage newImage(int type) {
+    BufferedImage	result;
+    int			i;
+
+    result = new BufferedImage(3, 2, type);
+    for (i = 0; i < COLORS.length; i++)
+      result.setRGB(i % 3, i / 3, COLORS[i]);
+
+    return result;
+  }
+
+  /**
+   * Returns the luminance of the color.
+   *
+   * @param rgb		the color
+   * @return		the luminance (0-1)
+   */
+  protected float luminance(int rgb) {
+    return (0.299f * ((rgb >> 16) & 0xFF) + 0.587f * ((rgb >> 8) & 0xFF) + 0.114f * (rgb & 0xFF)) / 255.0f;
+  }
+
+  /**
+   * Tests converting an 8 bit grayscale image.
+   */
+  public void testToFImageGray() {
+    BufferedImage	image;
+    FImage		fimage;
+    int[]		values;
+    int			i;
+
+    values = new int[]{0, 1, 64, 128, 254, 255};
+    image  = new BufferedImage(3, 2, BufferedImage.TYPE_BYTE_GRAY);
+    for (i = 0; i < values.length; i++)
+      image.getRaster().setSample(i % 3, i / 3, 0, values[i]);
+
+    fimage = OpenIMAJHelper.toFImage(image, null);
+    assertEquals("width", 3, fimage.getWidth());
+    assertEquals("height", 2, fimage.getHeight());
+    for (i = 0; i < values.length; i++)
+      assertEquals("pixel #" + i, values[i] / 255.0f, fimage.pixels[i / 3][i % 3], DELTA);
+  }
+
+  /**
+   * Tests that the luminance is computed without truncating to 8 bit.
+   */
+  public void testToFImageColor() {
+    int[]	types;
+    FImage	fimage;
+    int		i;
+
+    types = new int[]{BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_BGR};
+    for (int type: types) {
+      fimage = OpenIMAJHelper.toFImage(newImage(type), null);
+      for (i = 0; i < COLORS.length; i++)
+	assertEquals("type " + type + ", pixel #" + i, luminance(COLORS[i]), fimage.pixels[i / 3][i % 3], DELTA);
+    }
+  }
+
+  /**
+   * Tests converting to a multi-band image, with and without alpha channel.
+   */
+  public void testToMBFImage() {
+    BufferedImage	image;
+    MBFImage		mbf;
+
+    image = newImage(BufferedImage.TYPE_4BYTE_ABGR);
+    image.setRGB(0, 0, 0x80FF0000);
+
+    mbf = OpenIMAJHelper.toMBFImage(image, false, null);
+    assertEquals("bands", 3, mbf.numBands());
+    assertEquals("red", 1.0f, mbf.getBand(0).pixels[0][0], DELTA);
+    assertEquals("green", 0.0f, mbf.getBand(1).pixels[0][0], DELTA);
+    assertEquals("blue", 30 / 255.0f, mbf.getBand(2).pixels[1][2], DELTA);
+
+    mbf = OpenIMAJHelper.toMBFImage(image, true, null);
+    assertEquals("bands", 4, mbf.numBands());
+    assertEquals("alpha", 128 / 255.0f, mbf.getBand(3).pixels[0][0], DELTA);
+    assertEquals("opaque", 1.0f, mbf.getBand(3).pixels[0][1], DELTA);
+  }
+
+  /**
+   * Tests that the direct access yields the same result as the fallback
+   * used for sub-images.
+   */
+  public void testFallback() {
+    BufferedImage	image;
+    BufferedImage	sub;
+    MBFImage		direct;
+    MBFImage		fallback;
+    int			b;
+    int			x;
+
+    image    = newImage(BufferedImage.TYPE_INT_RGB);
+    sub      = image.getSubimage(0, 1, 3, 1);
+    direct   = OpenIMAJHelper.toMBFImage(image, false, null);
+    fallback = OpenIMAJHelper.toMBFImage(sub, false, null);
+    assertEquals("width", 3, fallback.getWidth());
+    assertEquals("height", 1, fallback.getHeight());
+    for (b = 0; b < 3; b++) {
+      for (x = 0; x < 3; x++)
+	assertEquals("band " + b + ", x " + x, direct.getBand(b).pixels[1][x], fallback.getBand(b).pixels[0][x], DELTA);
+    }
+  }
+
+  /**
+   * Tests the re-use of target images.
+   */
+  public void testReuse() {
+    BufferedImage	image;
+    FImage		fimage;
+    MBFImage		mbf;
+
+    image  = newImage(BufferedImage.TYPE_INT_RGB);
+    fimage = new FImage(3, 2);
+    assertSame("re-used", fimage, OpenIMAJHelper.toFImage(image, fimage));
+    assertNotSame("dimensions differ", fimage, OpenIMAJHelper.toFImage(image, new FImage(2, 3)));
+
+    mbf = new MBFImage(3, 2, ColourSpace.RGB);
+    assertSame("re-used", mbf, OpenIMAJHelper.toMBFImage(image, false, mbf));
+    assertNotSame("bands differ", mbf, OpenIMAJHelper.toMBFImage(image, true, mbf));
+    assertSame("image type", mbf, OpenIMAJHelper.toImage(image, OpenIMAJImageType.MBFIMAGE, false, mbf));
+  }
+
+  /**
+   * Tests the rounding and clipping when converting back.
+   */
+  public void testToBufferedImage() {
+    FImage		fimage;
+    BufferedImage	image;
+
+    fimage = new FImage(new float[][]{{-0.5f, 0.0f, 0.2f}, {0.5f, 0.999f, 1.5f}});
+    image  = OpenIMAJHelper.toBufferedImage(fimage);
+    assertEquals("type", BufferedImage.TYPE_BYTE_GRAY, image.getType());
+    assertEquals("clipped", 0, image.getRaster().getSample(0, 0, 0));
+    assertEquals("zero", 0, image.getRaster().getSample(1, 0, 0));
+    assertEquals("0.2", 51, image.getRaster().getSample(2, 0, 0));
+    assertEquals("0.5", 128, image.getRaster().getSample(0, 1, 0));
+    assertEquals("0.999", 255, image.getRaster().getSample(1, 1, 0));
+    assertEquals("clipped", 255, image.getRaster().getSample(2, 1, 0));
+  }
+
+  /**
+   * Tests converting color images back and forth.
+   */
+  public void testRoundTrip() {
+    BufferedImage	image;
+    BufferedImage	converted;
+    int			i;
+
+    image     = newImage(BufferedImage.TYPE_3BYTE_BGR);
+    converted = OpenIMAJHelper.toBufferedImage(OpenIMAJHelper.toMBFImage(image, false, null));
+    assertEquals("type", BufferedImage.TYPE_INT_RGB, converted.getType());
+    for (i = 0; i < COLORS.length; i++)
+      assertEquals("pixel #" + i, COLORS[i], converted.getRGB(i % 3, i / 3));
+
+    image = newImage(BufferedImage.TYPE_INT_ARGB);
+    image.setRGB(0, 0, 0x40102030);
+    converted = OpenIMAJHelper.toBufferedImage(OpenIMAJHelper.toMBFImage(image, true, null));
+    assertEquals("type", BufferedImage.TYPE_INT_ARGB, converted.getType());
+    assertEquals("alpha", 0x40102030, converted.getRGB(0, 0));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(OpenIMAJHelperTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
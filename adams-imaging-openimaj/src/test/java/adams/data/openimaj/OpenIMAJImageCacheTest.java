@@ -0,0 +1,183 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OpenIMAJImageCacheTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.openimaj;
+
+import adams.data.image.BufferedImageContainer;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.openimaj.image.FImage;
+import org.openimaj.image.MBFImage;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the OpenIMAJImageCache class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class OpenIMAJImageCacheTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public OpenIMAJImageCacheTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Tests hits and misses.
+   */
+  public void testHits() {
+    OpenIMAJImageCache		cache;
+    final AtomicInteger		generated;
+    Object			image;
+    Object			first;
+
+    cache     = new OpenIMAJImageCache(2);
+    generated = new AtomicInteger();
+    image     = new Object();
+
+    first = cache.get(image, "a", () -> "a" + generated.incrementAndGet());
+    assertSame("cached", first, cache.get(image, "a", () -> "a" + generated.incrementAndGet()));
+    assertEquals("other key", "b", cache.get(image, "b", () -> "b"));
+    assertEquals("generated", 1, generated.get());
+    assertEquals("hits", 1, cache.getHits());
+    assertEquals("misses", 2, cache.getMisses());
+    assertEquals("size", 1, cache.size());
+
+    // identity, not equality
+    assertEquals("other image", "a2", cache.get(new String("x"), "a", () -> "a" + generated.incrementAndGet()));
+    assertEquals("other image", "a3", cache.get(new String("x"), "a", () -> "a" + generated.incrementAndGet()));
+  }
+
+  /**
+   * Tests the eviction of the least recently used images.
+   */
+  public void testEviction() {
+    OpenIMAJImageCache		cache;
+    final AtomicInteger		generated;
+    Object			image1;
+    Object			image2;
+    Object			image3;
+
+    cache     = new OpenIMAJImageCache(2);
+    generated = new AtomicInteger();
+    image1    = new Object();
+    image2    = new Object();
+    image3    = new Object();
+
+    cache.get(image1, "a", generated::incrementAndGet);
+    cache.get(image2, "a", generated::incrementAndGet);
+    cache.get(image1, "a", generated::incrementAndGet);
+    cache.get(image3, "a", generated::incrementAndGet);
+    assertEquals("size", 2, cache.size());
+    assertEquals("generated", 3, generated.get());
+
+    // image2 was the least recently used one
+    cache.get(image1, "a", generated::incrementAndGet);
+    assertEquals("image1 cached", 3, generated.get());
+    cache.get(image2, "a", generated::incrementAndGet);
+    assertEquals("image2 evicted", 4, generated.get());
+
+    cache.setMaxSize(0);
+    assertEquals("disabled", 0, cache.size());
+    cache.get(image1, "a", generated::incrementAndGet);
+    cache.get(image1, "a", generated::incrementAndGet);
+    assertEquals("not cached", 6, generated.get());
+    assertEquals("size", 0, cache.size());
+  }
+
+  /**
+   * Tests that the data of garbage collected images gets dropped.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testGarbageCollected() throws Exception {
+    OpenIMAJImageCache	cache;
+    Object		image;
+    int			i;
+
+    cache = new OpenIMAJImageCache(10);
+    image = new byte[1024];
+    cache.get(image, "a", () -> new float[1024]);
+    assertEquals("size", 1, cache.size());
+
+    image = null;
+    for (i = 0; (i < 50) && (cache.size() > 0); i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertEquals("dropped", 0, cache.size());
+  }
+
+  /**
+   * Tests the conversion of containers with and without cache.
+   */
+  public void testContainer() {
+    BufferedImageContainer	cont;
+    FImage			fimage;
+    MBFImage			mbf;
+
+    cont = new BufferedImageContainer();
+    cont.setImage(new BufferedImage(4, 3, BufferedImage.TYPE_INT_RGB));
+    OpenIMAJImageCache.getSingleton().clear();
+
+    fimage = OpenIMAJImageCache.toFImage(cont, true);
+    assertSame("cached", fimage, OpenIMAJImageCache.toFImage(cont, true));
+    assertNotSame("not cached", fimage, OpenIMAJImageCache.toFImage(cont, false));
+
+    mbf = OpenIMAJImageCache.toMBFImage(cont, false, true);
+    assertSame("cached", mbf, OpenIMAJImageCache.toMBFImage(cont, false, true));
+    assertNotSame("alpha", mbf, OpenIMAJImageCache.toMBFImage(cont, true, true));
+    assertNotSame("not cached", mbf, OpenIMAJImageCache.toMBFImage(cont, false, false));
+
+    // a new image (e.g., after processing) doesn't get the old data
+    cont.setImage(new BufferedImage(4, 3, BufferedImage.TYPE_INT_RGB));
+    assertNotSame("new image", fimage, OpenIMAJImageCache.toFImage(cont, true));
+
+    OpenIMAJImageCache.getSingleton().clear();
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(OpenIMAJImageCacheTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
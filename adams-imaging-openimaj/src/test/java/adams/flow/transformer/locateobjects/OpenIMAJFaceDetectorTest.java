@@ -19,9 +19,16 @@
  */
 package adams.flow.transformer.locateobjects;
 
+import adams.data.openimaj.facedetector.HaarCascade;
 import adams.env.Environment;
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import org.openimaj.image.processing.face.detection.FaceDetector;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Tests the OpenIMAJFaceDetector object locator.
@@ -62,6 +69,59 @@ public class OpenIMAJFaceDetectorTest
     return new AbstractObjectLocator[]{new OpenIMAJFaceDetector()};
   }
 
+  /**
+   * Tests processing batches in parallel: the threads (and their detectors)
+   * get re-used across batches and released on clean up.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testBatch() throws Exception {
+    OpenIMAJFaceDetector	locator;
+    HaarCascade			detector;
+    final AtomicInteger		created;
+    BufferedImage		image;
+    BufferedImage[]		images;
+    LocatedObjects		sequential;
+    LocatedObjects[]		first;
+    LocatedObjects[]		second;
+    ThreadPoolExecutor		executor;
+    int				i;
+
+    image = ImageIO.read(getClass().getClassLoader().getResource("adams/flow/transformer/locateobjects/data/" + getRegressionInputFiles()[0]));
+    assertNotNull("image", image);
+    images  = new BufferedImage[]{image, image, image, image};
+    created = new AtomicInteger();
+    detector = new HaarCascade() {
+      private static final long serialVersionUID = 1L;
+      @Override
+      protected FaceDetector newInstance() {
+	created.incrementAndGet();
+	return super.newInstance();
+      }
+    };
+    locator = new OpenIMAJFaceDetector();
+    locator.setDetector(detector);
+    locator.setNumThreads(2);
+
+    sequential = locator.locate(image, true);
+    first      = locator.locate(images, true);
+    executor   = locator.m_Executor;
+    second     = locator.locate(images, true);
+
+    assertNotNull("executor", executor);
+    assertSame("executor re-used", executor, locator.m_Executor);
+    // calling thread + 2 batch threads
+    assertEquals("detector instances", 3, created.get());
+    for (i = 0; i < images.length; i++) {
+      assertEquals("first batch #" + i, sequential.size(), first[i].size());
+      assertEquals("second batch #" + i, sequential.size(), second[i].size());
+    }
+
+    locator.cleanUp();
+    assertNull("executor released", locator.m_Executor);
+    assertTrue("threads stopped", executor.isShutdown());
+  }
+
   /**
    *
    * Returns a test suite.
@@ -19,12 +19,17 @@
  */
 package adams.data.conversion.mapobject;
 
+import org.openstreetmap.gui.jmapviewer.Layer;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapObject;
 
+import adams.core.CleanUpHandler;
+import adams.core.Performance;
 import adams.core.QuickInfoHelper;
 import adams.core.QuickInfoSupporter;
 import adams.core.option.AbstractOptionHandler;
 import adams.core.option.OptionUtils;
+import adams.data.mapobject.AbstractMapObject;
+import adams.data.mapobject.CompactMetaData;
 import adams.data.mapobject.MetaDataSupporter;
 import adams.data.mapobject.TimestampSupporter;
 import adams.data.spreadsheet.Row;
@@ -32,8 +37,29 @@ import adams.data.spreadsheet.SpreadSheet;
 import adams.data.spreadsheet.SpreadSheetColumnIndex;
 import adams.data.spreadsheet.SpreadSheetColumnRange;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Ancestor for generators of {@link MapObject}s.
+ * <br><br>
+ * Generators implement {@link #doGenerate(Row)}, which gets called for
+ * each row (in parallel if more than one thread is used). Legacy generators
+ * that override the deprecated {@link #doGenerate(SpreadSheet)} instead
+ * are routed there by {@link #generate(SpreadSheet)} and always process the
+ * whole spreadsheet themselves, ignoring the number of threads; they never
+ * reach {@link #doGenerate(Row)}. A generator that overrides neither fails
+ * with an {@link UnsupportedOperationException}.
  * 
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
@@ -41,7 +67,7 @@ import adams.data.spreadsheet.SpreadSheetColumnRange;
  */
 public abstract class AbstractMapObjectGenerator<T extends MapObject>
   extends AbstractOptionHandler
-  implements QuickInfoSupporter {
+  implements QuickInfoSupporter, CleanUpHandler {
 
   /** for serialization. */
   private static final long serialVersionUID = -9173206961610198326L;
@@ -49,6 +75,12 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
   /** the name of the layer. */
   protected String m_Layer;
 
+  /** the layer instance shared by all generated objects. */
+  protected transient Layer m_LayerInstance;
+
+  /** the meta-data keys shared by the objects of a generate run. */
+  protected transient CompactMetaData.Keys m_MetaDataKeys;
+
   /** the index of the column with the timestamp information (optional). */
   protected SpreadSheetColumnIndex m_Timestamp;
 
@@ -61,6 +93,18 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
   /** the actual indices of the additional attributes to store in the mapobject. */
   protected int[] m_AdditionalAttributesIndices;
 
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
+  /** the executor for parallel generation, re-used across runs. */
+  protected transient ThreadPoolExecutor m_Executor;
+
+  /** the minimum number of rows per thread. */
+  public final static int MIN_ROWS_PER_THREAD = 1000;
+
+  /** the timestamps extracted up front for parallel generation, null if not used. */
+  protected transient Date[] m_Timestamps;
+
   /**
    * Adds options to the internal list of options.
    */
@@ -71,6 +115,10 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
     m_OptionManager.add(
 	    "layer", "layer",
 	    getDefaultLayer());
+
+    m_OptionManager.add(
+	    "num-threads", "numThreads",
+	    1);
   }
   
   /**
@@ -84,6 +132,17 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
     m_AdditionalAttributes = new SpreadSheetColumnRange();
   }
   
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_LayerInstance = null;
+    shutdownExecutor();
+  }
+
   /**
    * Returns the default name for the feature type.
    * 
@@ -122,6 +181,18 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
     return "The name of the layer.";
   }
 
+  /**
+   * Returns the layer instance to use for the generated objects. The same
+   * instance is shared by all objects generated by this scheme.
+   *
+   * @return		the layer
+   */
+  protected synchronized Layer getLayerInstance() {
+    if (m_LayerInstance == null)
+      m_LayerInstance = new Layer(m_Layer);
+    return m_LayerInstance;
+  }
+
   /**
    * Sets the column containing the timestamp for the mapobject.
    *
@@ -180,6 +251,38 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
     return "The range of column to add to the map object as well.";
   }
 
+  /**
+   * Sets the number of threads to use for generating the objects.
+   *
+   * @param value	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for generating the objects.
+   *
+   * @return		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return
+      "The number of threads to use for generating the objects; "
+	+ "-1 = # of CPUs/cores; 0/1 = sequential execution; the order of "
+	+ "the generated objects is the same as the order of the rows.";
+  }
+
   /**
    * Returns the type of data the generator creates.
    * 
@@ -218,6 +321,8 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
     m_TimestampIndex = m_Timestamp.getIntIndex();
     m_AdditionalAttributes.setData(sheet);
     m_AdditionalAttributesIndices = m_AdditionalAttributes.getIntIndices();
+    m_MetaDataKeys = new CompactMetaData.Keys();
+    getLayerInstance();
   }
   
   /**
@@ -227,10 +332,38 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
    * @param mapobject	the object to update
    */
   protected void addTimestamp(Row row, TimestampSupporter mapobject) {
+    // parallel generation: already parsed, applied by generateRows
+    if (m_Timestamps != null)
+      return;
     if (!row.hasCell(m_TimestampIndex) || row.getCell(m_TimestampIndex).isMissing())
       return;
     mapobject.setTimestamp(row.getCell(m_TimestampIndex).toAnyDateType());
   }
+
+  /**
+   * Parses the timestamps of all rows in the calling thread, as the date
+   * parsing of the cells is not thread-safe.
+   *
+   * @param sheet	the spreadsheet to get the timestamps from
+   * @return		the timestamps (null for missing ones), null if no timestamp column
+   */
+  protected Date[] extractTimestamps(SpreadSheet sheet) {
+    Date[]	result;
+    Row		row;
+    int		i;
+
+    if (m_TimestampIndex == -1)
+      return null;
+
+    result = new Date[sheet.getRowCount()];
+    for (i = 0; i < result.length; i++) {
+      row = sheet.getRow(i);
+      if (row.hasCell(m_TimestampIndex) && !row.getCell(m_TimestampIndex).isMissing())
+	result[i] = row.getCell(m_TimestampIndex).toAnyDateType();
+    }
+
+    return result;
+  }
   
   /**
    * Transfers the meta-data from the row to the map-object.
@@ -239,6 +372,8 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
    * @param mapobject	the object to update
    */
   protected void addMetaData(Row row, MetaDataSupporter mapobject) {
+    if ((m_AdditionalAttributesIndices.length > 0) && (mapobject instanceof AbstractMapObject))
+      ((AbstractMapObject) mapobject).initMetaData(m_MetaDataKeys);
     for (int col: m_AdditionalAttributesIndices) {
       if (!row.hasCell(col) || row.getCell(col).isMissing())
 	continue;
@@ -262,13 +397,167 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
       addTimestamp(row, (TimestampSupporter) mapobject);
   }
   
+  /**
+   * Generates the object for a single row. Must not modify any state, as
+   * rows may get processed in parallel.
+   * <br><br>
+   * Default implementation throws an {@link UnsupportedOperationException}.
+   * Generators must either implement this method or (deprecated) override
+   * {@link #doGenerate(SpreadSheet)}, in which case this method never gets
+   * called. It is not abstract, so that legacy generators still compile.
+   * 
+   * @param row		the row to generate the object from
+   * @return		the generated object, null if the row is to be skipped
+   */
+  protected T doGenerate(Row row) {
+    throw new UnsupportedOperationException(
+      getClass().getName() + " must implement either doGenerate(Row) or doGenerate(SpreadSheet)!");
+  }
+
+  /**
+   * Generates the objects for the specified range of rows.
+   * 
+   * @param sheet	the spreadsheet to use
+   * @param from	the first row (incl)
+   * @param to		the last row (excl)
+   * @return		the generated objects
+   */
+  protected List<T> generateRows(SpreadSheet sheet, int from, int to) {
+    List<T>	result;
+    T		mapobject;
+    int		i;
+
+    result = new ArrayList<>(to - from);
+    for (i = from; i < to; i++) {
+      mapobject = doGenerate(sheet.getRow(i));
+      if (mapobject == null)
+	continue;
+      if ((m_Timestamps != null) && (m_Timestamps[i] != null) && (mapobject instanceof TimestampSupporter))
+	((TimestampSupporter) mapobject).setTimestamp(m_Timestamps[i]);
+      result.add(mapobject);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the executor for parallel generation, (re-)creating it if
+   * necessary. Idle threads time out, so the executor does not hold on to
+   * any threads between runs.
+   *
+   * @param numThreads	the number of threads to use
+   * @return		the executor
+   */
+  protected synchronized ThreadPoolExecutor getExecutor(int numThreads) {
+    if ((m_Executor != null) && (m_Executor.getCorePoolSize() != numThreads))
+      shutdownExecutor();
+    if (m_Executor == null) {
+      m_Executor = new ThreadPoolExecutor(
+	numThreads, numThreads, 30, TimeUnit.SECONDS,
+	new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+	  protected int m_Count = 0;
+	  @Override
+	  public synchronized Thread newThread(Runnable r) {
+	    Thread result = new Thread(r, AbstractMapObjectGenerator.this.getClass().getSimpleName() + "-" + (++m_Count));
+	    result.setDaemon(true);
+	    return result;
+	  }
+	});
+      m_Executor.allowCoreThreadTimeOut(true);
+    }
+    return m_Executor;
+  }
+
+  /**
+   * Shuts down the executor, if any.
+   */
+  protected synchronized void shutdownExecutor() {
+    if (m_Executor != null) {
+      m_Executor.shutdownNow();
+      m_Executor = null;
+    }
+  }
+
+  /**
+   * Generates the objects row by row using {@link #doGenerate(Row)}. Splits
+   * the rows into consecutive chunks if more than one thread is to be used;
+   * the results of the chunks get concatenated in order. In that case, the
+   * timestamps get parsed up front (see {@link #extractTimestamps(SpreadSheet)}).
+   * 
+   * @param sheet	the spreadsheet to use
+   * @return		the generated objects
+   */
+  protected T[] generateRows(final SpreadSheet sheet) {
+    T[]				result;
+    List<T>			list;
+    int				numThreads;
+    int				numRows;
+    int				chunk;
+    int				from;
+    ExecutorService		executor;
+    List<Future<List<T>>>	jobs;
+
+    numRows    = sheet.getRowCount();
+    numThreads = Performance.determineNumThreads(m_NumThreads);
+    numThreads = Math.min(numThreads, numRows / MIN_ROWS_PER_THREAD);
+
+    if (numThreads <= 1) {
+      list = generateRows(sheet, 0, numRows);
+    }
+    else {
+      list     = new ArrayList<>(numRows);
+      chunk    = (numRows + numThreads - 1) / numThreads;
+      jobs     = new ArrayList<>();
+      executor = getExecutor(numThreads);
+      m_Timestamps = extractTimestamps(sheet);
+      try {
+	for (from = 0; from < numRows; from += chunk) {
+	  final int start = from;
+	  final int end   = Math.min(numRows, from + chunk);
+	  jobs.add(executor.submit(new Callable<List<T>>() {
+	    @Override
+	    public List<T> call() throws Exception {
+	      return generateRows(sheet, start, end);
+	    }
+	  }));
+	}
+	for (Future<List<T>> job: jobs)
+	  list.addAll(job.get());
+      }
+      catch (ExecutionException e) {
+	if (e.getCause() instanceof RuntimeException)
+	  throw (RuntimeException) e.getCause();
+	throw new IllegalStateException("Failed to generate map objects!", e.getCause());
+      }
+      catch (InterruptedException e) {
+	throw new IllegalStateException("Interrupted while generating map objects!", e);
+      }
+      finally {
+	for (Future<List<T>> job: jobs)
+	  job.cancel(true);
+	m_Timestamps = null;
+      }
+    }
+
+    result = (T[]) Array.newInstance(generates().getComponentType(), list.size());
+    return list.toArray(result);
+  }
+
   /**
    * Performs the actual generation of the objects.
+   * <br><br>
+   * Default implementation generates the objects row by row, see
+   * {@link #generateRows(SpreadSheet)}.
    * 
    * @param sheet	the spreadsheet to use
    * @return		the generated objects
+   * @deprecated	implement {@link #doGenerate(Row)} instead, which allows
+   * 			the rows to get processed in parallel
    */
-  protected abstract T[] doGenerate(SpreadSheet sheet);
+  @Deprecated
+  protected T[] doGenerate(SpreadSheet sheet) {
+    return generateRows(sheet);
+  }
   
   /**
    * Generates map objects from the given spreadsheet.
@@ -304,4 +593,12 @@ public abstract class AbstractMapObjectGenerator<T extends MapObject>
   public AbstractMapObjectGenerator shallowCopy(boolean expand) {
     return (AbstractMapObjectGenerator) OptionUtils.shallowCopy(this, expand);
   }
+
+  /**
+   * Stops the threads used for parallel generation.
+   */
+  @Override
+  public void cleanUp() {
+    shutdownExecutor();
+  }
 }
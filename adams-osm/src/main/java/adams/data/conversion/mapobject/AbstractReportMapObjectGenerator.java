@@ -19,6 +19,7 @@
  */
 package adams.data.conversion.mapobject;
 
+import org.openstreetmap.gui.jmapviewer.Layer;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapObject;
 
 import adams.core.DateFormat;
@@ -27,6 +28,8 @@ import adams.core.QuickInfoHelper;
 import adams.core.QuickInfoSupporter;
 import adams.core.option.AbstractOptionHandler;
 import adams.core.option.OptionUtils;
+import adams.data.mapobject.AbstractMapObject;
+import adams.data.mapobject.CompactMetaData;
 import adams.data.mapobject.MetaDataSupporter;
 import adams.data.mapobject.TimestampSupporter;
 import adams.data.report.DataType;
@@ -50,6 +53,12 @@ public abstract class AbstractReportMapObjectGenerator<T extends MapObject>
   /** the name of the layer. */
   protected String m_Layer;
 
+  /** the layer instance shared by all generated objects. */
+  protected transient Layer m_LayerInstance;
+
+  /** the meta-data keys shared by all generated objects. */
+  protected transient CompactMetaData.Keys m_MetaDataKeys;
+
   /** the field with the timestamp information (optional). */
   protected Field m_Timestamp;
 
@@ -87,6 +96,17 @@ public abstract class AbstractReportMapObjectGenerator<T extends MapObject>
     m_DateTimeFormat       = DateUtils.getTimestampFormatter();
   }
   
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_LayerInstance = null;
+    m_MetaDataKeys  = null;
+  }
+
   /**
    * Returns the default name for the feature type.
    * 
@@ -125,6 +145,18 @@ public abstract class AbstractReportMapObjectGenerator<T extends MapObject>
     return "The name of the layer.";
   }
 
+  /**
+   * Returns the layer instance to use for the generated objects. The same
+   * instance is shared by all objects generated by this scheme.
+   *
+   * @return		the layer
+   */
+  protected synchronized Layer getLayerInstance() {
+    if (m_LayerInstance == null)
+      m_LayerInstance = new Layer(m_Layer);
+    return m_LayerInstance;
+  }
+
   /**
    * Sets the field the timestamp for the mapobject.
    *
@@ -262,6 +294,13 @@ public abstract class AbstractReportMapObjectGenerator<T extends MapObject>
    * @param mapobject	the object to update
    */
   protected void addMetaData(Report report, MetaDataSupporter mapobject) {
+    if ((m_AdditionalAttributes.length > 0) && (mapobject instanceof AbstractMapObject)) {
+      synchronized(this) {
+	if (m_MetaDataKeys == null)
+	  m_MetaDataKeys = new CompactMetaData.Keys();
+      }
+      ((AbstractMapObject) mapobject).initMetaData(m_MetaDataKeys);
+    }
     for (Field field: m_AdditionalAttributes) {
       if (!report.hasField(field))
 	return;
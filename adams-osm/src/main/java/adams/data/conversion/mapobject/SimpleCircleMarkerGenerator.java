@@ -28,13 +28,12 @@ import adams.data.spreadsheet.SpreadSheetColumnIndex;
 import adams.data.spreadsheet.SpreadSheetColumnRange;
 import adams.gui.core.Fonts;
 import org.openstreetmap.gui.jmapviewer.Coordinate;
-import org.openstreetmap.gui.jmapviewer.Layer;
+import org.openstreetmap.gui.jmapviewer.Style;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker.STYLE;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  <!-- globalinfo-start -->
@@ -53,6 +52,13 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;default: SimpleCircleMarkerGenerator
  * </pre>
  * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for generating the objects; -1 = # of CPUs&#47;
+ * &nbsp;&nbsp;&nbsp;cores; 0&#47;1 = sequential execution; the order of the generated objects 
+ * &nbsp;&nbsp;&nbsp;is the same as the order of the rows.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
  * <pre>-gps &lt;adams.data.spreadsheet.SpreadSheetColumnIndex&gt; (property: GPS)
  * &nbsp;&nbsp;&nbsp;The index of the column containing the GPS objects.
  * &nbsp;&nbsp;&nbsp;default: 
@@ -129,6 +135,9 @@ public class SimpleCircleMarkerGenerator
   
   /** the font to use. */
   protected Font m_Font;
+
+  /** the style shared by the objects generated in one run. */
+  protected transient Style m_Style;
   
   /**
    * Returns a string describing the object.
@@ -363,47 +372,36 @@ public class SimpleCircleMarkerGenerator
     
     m_RadiusIndex = m_Radius.getIntIndex();
     m_NameIndex   = m_Name.getIntIndex();
+    m_Style     = new Style(m_CircleColor, m_FillColor, null, m_Font);
   }
   
   /**
-   * Performs the actual generation of the layer.
+   * Generates the object for a single row.
    * 
-   * @param sheet	the spreadsheet to use
-   * @return		the generated layer
+   * @param row		the row to generate the object from
+   * @return		the generated object, null if the row is to be skipped
    */
   @Override
-  protected MapMarker[] doGenerate(SpreadSheet sheet) {
-    List<MapMarker>		result;
-    SimpleMapMarkerCircle	mapobject;
+  protected MapMarker doGenerate(Row row) {
+    SimpleMapMarkerCircle	result;
     double			lat;
     double			lon;
     double			radius;
-    String			name;
-    
-    result = new ArrayList<MapMarker>();
-
-    for (Row row: sheet.rows()) {
-      if (!row.hasCell(m_GPSIndex) || row.getCell(m_GPSIndex).isMissing())
-	continue;
-      if (!row.hasCell(m_RadiusIndex) || row.getCell(m_RadiusIndex).isMissing())
-	continue;
-      lat       = ((AbstractGPS) row.getCell(m_GPSIndex).getObject()).getLatitude().toDecimal();
-      lon       = ((AbstractGPS) row.getCell(m_GPSIndex).getObject()).getLongitude().toDecimal();
-      radius    = row.getCell(m_RadiusIndex).toDouble();
-      mapobject = new SimpleMapMarkerCircle(new Layer(m_Layer), new Coordinate(lat, lon), radius);
-      if (m_NameIndex > -1) {
-	if (row.hasCell(m_NameIndex) && !row.getCell(m_NameIndex).isMissing()) {
-	  name = row.getCell(m_NameIndex).getContent();
-	  mapobject.setName(name);
-	}
-      }
-      mapobject.setBackColor(m_FillColor);
-      mapobject.setColor(m_CircleColor);
-      mapobject.setFont(m_Font);
-      postProcess(row, mapobject);
-      result.add(mapobject);
+
+    if (!row.hasCell(m_GPSIndex) || row.getCell(m_GPSIndex).isMissing())
+      return null;
+    if (!row.hasCell(m_RadiusIndex) || row.getCell(m_RadiusIndex).isMissing())
+      return null;
+    lat    = ((AbstractGPS) row.getCell(m_GPSIndex).getObject()).getLatitude().toDecimal();
+    lon    = ((AbstractGPS) row.getCell(m_GPSIndex).getObject()).getLongitude().toDecimal();
+    radius = row.getCell(m_RadiusIndex).toDouble();
+    result = new SimpleMapMarkerCircle(m_LayerInstance, null, new Coordinate(lat, lon), radius, STYLE.VARIABLE, m_Style);
+    if (m_NameIndex > -1) {
+      if (row.hasCell(m_NameIndex) && !row.getCell(m_NameIndex).isMissing())
+	result.setName(row.getCell(m_NameIndex).getContent());
     }
-    
-    return result.toArray(new MapMarker[result.size()]);
+    postProcess(row, result);
+
+    return result;
   }
 }
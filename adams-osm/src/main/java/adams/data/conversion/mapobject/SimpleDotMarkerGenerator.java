@@ -28,13 +28,11 @@ import adams.data.spreadsheet.SpreadSheetColumnIndex;
 import adams.data.spreadsheet.SpreadSheetColumnRange;
 import adams.gui.core.Fonts;
 import org.openstreetmap.gui.jmapviewer.Coordinate;
-import org.openstreetmap.gui.jmapviewer.Layer;
+import org.openstreetmap.gui.jmapviewer.Style;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  <!-- globalinfo-start -->
@@ -53,6 +51,13 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;default: Default
  * </pre>
  * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for generating the objects; -1 = # of CPUs&#47;
+ * &nbsp;&nbsp;&nbsp;cores; 0&#47;1 = sequential execution; the order of the generated objects 
+ * &nbsp;&nbsp;&nbsp;is the same as the order of the rows.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
  * <pre>-gps &lt;adams.data.spreadsheet.SpreadSheetColumnIndex&gt; (property: GPS)
  * &nbsp;&nbsp;&nbsp;The index of the column containing the GPS objects.
  * &nbsp;&nbsp;&nbsp;default: 
@@ -124,6 +129,9 @@ public class SimpleDotMarkerGenerator
   /** the font to use. */
   protected Font m_Font;
 
+  /** the style shared by the objects generated in one run. */
+  protected transient Style m_Style;
+
   /** the color of the dot. */
   protected Color m_DotColor;
   
@@ -355,44 +363,33 @@ public class SimpleDotMarkerGenerator
     super.init(sheet);
     
     m_NameIndex = m_Name.getIntIndex();
+    m_Style     = new Style(m_DotColor, m_FillColor, null, m_Font);
   }
 
   /**
-   * Performs the actual generation of the layer.
+   * Generates the object for a single row.
    * 
-   * @param sheet	the spreadsheet to use
-   * @return		the generated layer
+   * @param row		the row to generate the object from
+   * @return		the generated object, null if the row is to be skipped
    */
   @Override
-  protected MapMarker[] doGenerate(SpreadSheet sheet) {
-    List<MapMarker>	result;
-    SimpleMapMarkerDot	mapobject;
+  protected MapMarker doGenerate(Row row) {
+    SimpleMapMarkerDot	result;
     double		lat;
     double		lon;
-    String		name;
-    
-    result = new ArrayList<MapMarker>();
-
-    for (Row row: sheet.rows()) {
-      if (!row.hasCell(m_GPSIndex) || row.getCell(m_GPSIndex).isMissing())
-	continue;
-      lat       = ((AbstractGPS) row.getCell(m_GPSIndex).getObject()).getLatitude().toDecimal();
-      lon       = ((AbstractGPS) row.getCell(m_GPSIndex).getObject()).getLongitude().toDecimal();
-      mapobject = new SimpleMapMarkerDot(new Layer(m_Layer), new Coordinate(lat, lon));
-      mapobject.setRadius(m_Radius);
-      if (m_NameIndex > -1) {
-	if (row.hasCell(m_NameIndex) && !row.getCell(m_NameIndex).isMissing()) {
-	  name = row.getCell(m_NameIndex).getContent();
-	  mapobject.setName(name);
-	}
-      }
-      mapobject.setBackColor(m_FillColor);
-      mapobject.setColor(m_DotColor);
-      mapobject.setFont(m_Font);
-      postProcess(row, mapobject);
-      result.add(mapobject);
+
+    if (!row.hasCell(m_GPSIndex) || row.getCell(m_GPSIndex).isMissing())
+      return null;
+    lat    = ((AbstractGPS) row.getCell(m_GPSIndex).getObject()).getLatitude().toDecimal();
+    lon    = ((AbstractGPS) row.getCell(m_GPSIndex).getObject()).getLongitude().toDecimal();
+    result = new SimpleMapMarkerDot(m_LayerInstance, null, new Coordinate(lat, lon), m_Style);
+    result.setRadius(m_Radius);
+    if (m_NameIndex > -1) {
+      if (row.hasCell(m_NameIndex) && !row.getCell(m_NameIndex).isMissing())
+	result.setName(row.getCell(m_NameIndex).getContent());
     }
-    
-    return result.toArray(new MapMarker[result.size()]);
+    postProcess(row, result);
+
+    return result;
   }
 }
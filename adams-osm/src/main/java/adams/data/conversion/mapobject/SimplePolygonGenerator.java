@@ -28,9 +28,10 @@ import adams.data.spreadsheet.SpreadSheetColumnIndex;
 import adams.data.spreadsheet.SpreadSheetColumnRange;
 import adams.gui.core.Fonts;
 import org.openstreetmap.gui.jmapviewer.Coordinate;
-import org.openstreetmap.gui.jmapviewer.Layer;
+import org.openstreetmap.gui.jmapviewer.Style;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapPolygon;
 
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
 import java.util.ArrayList;
@@ -53,6 +54,13 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;default: SimplePolygonGenerator
  * </pre>
  * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for generating the objects; -1 = # of CPUs&#47;
+ * &nbsp;&nbsp;&nbsp;cores; 0&#47;1 = sequential execution; the order of the generated objects 
+ * &nbsp;&nbsp;&nbsp;is the same as the order of the rows.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
  * <pre>-coordinates &lt;adams.data.spreadsheet.SpreadSheetColumnRange&gt; (property: coordinates)
  * &nbsp;&nbsp;&nbsp;The range of columns containing the GPS objects for the polygons.
  * &nbsp;&nbsp;&nbsp;default: 
@@ -118,6 +126,9 @@ public class SimplePolygonGenerator
   /** the font to use. */
   protected Font m_Font;
 
+  /** the style shared by the objects generated in one run. */
+  protected transient Style m_Style;
+
   /**
    * Returns a string describing the object.
    *
@@ -313,48 +324,37 @@ public class SimplePolygonGenerator
     super.init(sheet);
     
     m_NameIndex = m_Name.getIntIndex();
+    m_Style     = new Style(m_BorderColor, m_FillColor, new BasicStroke(2), m_Font);
   }
   
   /**
-   * Performs the actual generation of the layer.
+   * Generates the object for a single row.
    * 
-   * @param sheet	the spreadsheet to use
-   * @return		the generated layer
+   * @param row		the row to generate the object from
+   * @return		the generated object, null if the row is to be skipped
    */
   @Override
-  protected MapPolygon[] doGenerate(SpreadSheet sheet) {
-    List<MapPolygon>	result;
-    SimpleMapPolygon	mapobject;
+  protected MapPolygon doGenerate(Row row) {
+    SimpleMapPolygon	result;
     double		lat;
     double		lon;
-    String		name;
     List<Coordinate>	coords;
-    
-    result = new ArrayList<MapPolygon>();
-
-    for (Row row: sheet.rows()) {
-      coords = new ArrayList<Coordinate>();
-      for (int col: m_CoordinatesIndices) {
-	if (!row.hasCell(col) || row.getCell(col).isMissing())
-	  continue;
-	lat = ((AbstractGPS) row.getCell(col).getObject()).getLatitude().toDecimal();
-	lon = ((AbstractGPS) row.getCell(col).getObject()).getLongitude().toDecimal();
-	coords.add(new Coordinate(lat, lon));
-      }
-      mapobject = new SimpleMapPolygon(new Layer(m_Layer), coords);
-      if (m_NameIndex > -1) {
-	if (row.hasCell(m_NameIndex) && !row.getCell(m_NameIndex).isMissing()) {
-	  name = row.getCell(m_NameIndex).getContent();
-	  mapobject.setName(name);
-	}
-      }
-      mapobject.setBackColor(m_FillColor);
-      mapobject.setColor(m_BorderColor);
-      mapobject.setFont(m_Font);
-      postProcess(row, mapobject);
-      result.add(mapobject);
+
+    coords = new ArrayList<Coordinate>(m_CoordinatesIndices.length);
+    for (int col: m_CoordinatesIndices) {
+      if (!row.hasCell(col) || row.getCell(col).isMissing())
+	continue;
+      lat = ((AbstractGPS) row.getCell(col).getObject()).getLatitude().toDecimal();
+      lon = ((AbstractGPS) row.getCell(col).getObject()).getLongitude().toDecimal();
+      coords.add(new Coordinate(lat, lon));
     }
-    
-    return result.toArray(new MapPolygon[result.size()]);
+    result = new SimpleMapPolygon(m_LayerInstance, null, coords, m_Style);
+    if (m_NameIndex > -1) {
+      if (row.hasCell(m_NameIndex) && !row.getCell(m_NameIndex).isMissing())
+	result.setName(row.getCell(m_NameIndex).getContent());
+    }
+    postProcess(row, result);
+
+    return result;
   }
 }
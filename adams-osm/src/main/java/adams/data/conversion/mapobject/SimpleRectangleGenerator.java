@@ -29,13 +29,12 @@ import adams.data.spreadsheet.SpreadSheetColumnIndex;
 import adams.data.spreadsheet.SpreadSheetColumnRange;
 import adams.gui.core.Fonts;
 import org.openstreetmap.gui.jmapviewer.Coordinate;
-import org.openstreetmap.gui.jmapviewer.Layer;
+import org.openstreetmap.gui.jmapviewer.Style;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapRectangle;
 
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  <!-- globalinfo-start -->
@@ -54,6 +53,13 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;default: SimpleRectangleGenerator
  * </pre>
  * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for generating the objects; -1 = # of CPUs&#47;
+ * &nbsp;&nbsp;&nbsp;cores; 0&#47;1 = sequential execution; the order of the generated objects 
+ * &nbsp;&nbsp;&nbsp;is the same as the order of the rows.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
  * <pre>-top-left &lt;adams.data.spreadsheet.SpreadSheetColumnIndex&gt; (property: topLeft)
  * &nbsp;&nbsp;&nbsp;The index of the column containing the GPS objects of the top-left corner.
  * &nbsp;&nbsp;&nbsp;default: 
@@ -125,6 +131,9 @@ public class SimpleRectangleGenerator
   /** the font to use. */
   protected Font m_Font;
 
+  /** the style shared by the objects generated in one run. */
+  protected transient Style m_Style;
+
   /**
    * Returns a string describing the object.
    *
@@ -320,55 +329,44 @@ public class SimpleRectangleGenerator
     super.init(sheet);
     
     m_NameIndex = m_Name.getIntIndex();
+    m_Style     = new Style(m_RectangleColor, m_FillColor, new BasicStroke(2), m_Font);
   }
   
   /**
-   * Performs the actual generation of the layer.
+   * Generates the object for a single row.
    * 
-   * @param sheet	the spreadsheet to use
-   * @return		the generated layer
+   * @param row		the row to generate the object from
+   * @return		the generated object, null if the row is to be skipped
    */
   @Override
-  protected MapRectangle[] doGenerate(SpreadSheet sheet) {
-    List<MapRectangle>	result;
-    SimpleMapRectangle	mapobject;
+  protected MapRectangle doGenerate(Row row) {
+    SimpleMapRectangle	result;
     double		latTL;
     double		lonTL;
     double		latBR;
     double		lonBR;
-    String		name;
     AbstractGPS[]	gps;
-    
-    result = new ArrayList<MapRectangle>();
-
-    for (Row row: sheet.rows()) {
-      if (!row.hasCell(m_TopLeftIndex) || row.getCell(m_TopLeftIndex).isMissing())
-	continue;
-      if (!row.hasCell(m_BottomRightIndex) || row.getCell(m_BottomRightIndex).isMissing())
-	continue;
-      gps    = new AbstractGPS[2];
-      gps[0] = (AbstractGPS) row.getCell(m_TopLeftIndex).getObject();
-      gps[1] = (AbstractGPS) row.getCell(m_BottomRightIndex).getObject();
-      if (gps[1].compareTo(gps[0]) > 0)
-	Utils.swap(gps);
-      latTL      = gps[0].getLatitude().toDecimal();
-      lonTL      = gps[0].getLongitude().toDecimal();
-      latBR      = gps[1].getLatitude().toDecimal();
-      lonBR      = gps[1].getLongitude().toDecimal();
-      mapobject  = new SimpleMapRectangle(new Layer(m_Layer), new Coordinate(latTL, lonTL), new Coordinate(latBR, lonBR));
-      if (m_NameIndex > -1) {
-	if (row.hasCell(m_NameIndex) && !row.getCell(m_NameIndex).isMissing()) {
-	  name = row.getCell(m_NameIndex).getContent();
-	  mapobject.setName(name);
-	}
-      }
-      mapobject.setBackColor(m_FillColor);
-      mapobject.setColor(m_RectangleColor);
-      mapobject.setFont(m_Font);
-      postProcess(row, mapobject);
-      result.add(mapobject);
+
+    if (!row.hasCell(m_TopLeftIndex) || row.getCell(m_TopLeftIndex).isMissing())
+      return null;
+    if (!row.hasCell(m_BottomRightIndex) || row.getCell(m_BottomRightIndex).isMissing())
+      return null;
+    gps    = new AbstractGPS[2];
+    gps[0] = (AbstractGPS) row.getCell(m_TopLeftIndex).getObject();
+    gps[1] = (AbstractGPS) row.getCell(m_BottomRightIndex).getObject();
+    if (gps[1].compareTo(gps[0]) > 0)
+      Utils.swap(gps);
+    latTL  = gps[0].getLatitude().toDecimal();
+    lonTL  = gps[0].getLongitude().toDecimal();
+    latBR  = gps[1].getLatitude().toDecimal();
+    lonBR  = gps[1].getLongitude().toDecimal();
+    result = new SimpleMapRectangle(m_LayerInstance, null, new Coordinate(latTL, lonTL), new Coordinate(latBR, lonBR), m_Style);
+    if (m_NameIndex > -1) {
+      if (row.hasCell(m_NameIndex) && !row.getCell(m_NameIndex).isMissing())
+	result.setName(row.getCell(m_NameIndex).getContent());
     }
-    
-    return result.toArray(new MapRectangle[result.size()]);
+    postProcess(row, result);
+
+    return result;
   }
 }
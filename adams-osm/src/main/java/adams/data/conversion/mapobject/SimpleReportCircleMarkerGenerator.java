@@ -24,7 +24,6 @@ import java.awt.Font;
 
 import adams.gui.core.Fonts;
 import org.openstreetmap.gui.jmapviewer.Coordinate;
-import org.openstreetmap.gui.jmapviewer.Layer;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
 
 import adams.core.QuickInfoHelper;
@@ -358,7 +357,7 @@ public class SimpleReportCircleMarkerGenerator
     lat    = getNumericValue(report, m_Latitude);
     lon    = getNumericValue(report, m_Longitude);
     radius = getNumericValue(report, m_Radius);
-    result = new SimpleMapMarkerCircle(new Layer(m_Layer), new Coordinate(lat, lon), radius);
+    result = new SimpleMapMarkerCircle(getLayerInstance(), new Coordinate(lat, lon), radius);
     if (report.hasValue(m_Name)) {
       name = report.getStringValue(m_Name);
       result.setName(name);
@@ -24,7 +24,6 @@ import java.awt.Font;
 
 import adams.gui.core.Fonts;
 import org.openstreetmap.gui.jmapviewer.Coordinate;
-import org.openstreetmap.gui.jmapviewer.Layer;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
 
 import adams.core.QuickInfoHelper;
@@ -345,7 +344,7 @@ public class SimpleReportDotMarkerGenerator
 
     lat = getNumericValue(report, m_Latitude);
     lon = getNumericValue(report, m_Longitude);
-    result = new SimpleMapMarkerDot(new Layer(m_Layer), new Coordinate(lat, lon));
+    result = new SimpleMapMarkerDot(getLayerInstance(), new Coordinate(lat, lon));
     result.setRadius(m_Radius);
     if (report.hasValue(m_Name)) {
       name = report.getStringValue(m_Name);
@@ -26,7 +26,6 @@ import java.util.List;
 
 import adams.gui.core.Fonts;
 import org.openstreetmap.gui.jmapviewer.Coordinate;
-import org.openstreetmap.gui.jmapviewer.Layer;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapPolygon;
 
 import adams.core.QuickInfoHelper;
@@ -309,7 +308,7 @@ public class SimpleReportPolygonGenerator
 	lon = getNumericValue(report, m_Longitudes[i]);
 	coords.add(new Coordinate(lat, lon));
       }
-      result = new SimpleMapPolygon(new Layer(m_Layer), coords);
+      result = new SimpleMapPolygon(getLayerInstance(), coords);
       if (report.hasValue(m_Name)) {
 	name = report.getStringValue(m_Name);
 	result.setName(name);
@@ -24,7 +24,6 @@ import java.awt.Font;
 
 import adams.gui.core.Fonts;
 import org.openstreetmap.gui.jmapviewer.Coordinate;
-import org.openstreetmap.gui.jmapviewer.Layer;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapRectangle;
 
 import adams.core.QuickInfoHelper;
@@ -315,7 +314,7 @@ public class SimpleReportRectangleGenerator
     lonTL   = getNumericValue(report, m_TopLeftLongitude);
     latBR   = getNumericValue(report, m_BottomRightLatitude);
     lonBR   = getNumericValue(report, m_BottomRightLongitude);
-    result  = new SimpleMapRectangle(new Layer(m_Layer), new Coordinate(latTL, lonTL), new Coordinate(latBR, lonBR));
+    result  = new SimpleMapRectangle(getLayerInstance(), new Coordinate(latTL, lonTL), new Coordinate(latBR, lonBR));
     if (report.hasValue(m_Name)) {
       name = report.getStringValue(m_Name);
       result.setName(name);
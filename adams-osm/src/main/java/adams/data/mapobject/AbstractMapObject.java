@@ -27,8 +27,10 @@ import java.awt.Graphics;
 import java.awt.Point;
 import java.awt.Stroke;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.UIManager;
 
@@ -55,20 +57,32 @@ import adams.core.annotation.MixedCopyright;
 )
 public abstract class AbstractMapObject 
   implements MapObject, MetaDataSupporter, TimestampSupporter {
+
+  /** counts the geometry changes of all map objects. */
+  protected static final AtomicLong GEOMETRY_CHANGES = new AtomicLong();
   
   protected Layer layer;
   
   protected String name;
   
   protected Style style;
+
+  /** whether the style is owned by this object, i.e., not shared with others. */
+  protected boolean styleOwned;
   
   protected Boolean visible;
 
   /** the timestamp. */
   protected Date timestamp;
   
-  /** for storing meta-data. */
-  protected HashMap<String,Object> metaData;
+  /** for storing meta-data (lazily initialized). */
+  protected Map<String,Object> metaData;
+
+  /** the viewport to cull against (optional). */
+  protected transient MapViewport viewport;
+
+  /** the number of geometry changes of this object. */
+  protected transient long modificationCount;
   
   public AbstractMapObject(String name) {
     this(null, name, null);
@@ -83,7 +97,8 @@ public abstract class AbstractMapObject
     this.layer = layer;
     this.name = name;
     this.style = style;
-    metaData = new HashMap<String,Object>();
+    styleOwned = false;
+    metaData = null;
     timestamp = new Date();
   }
   
@@ -103,8 +118,30 @@ public abstract class AbstractMapObject
     return style == null ? (layer == null ? null : layer.getStyle()) : style;
   }
   
+  /**
+   * Sets the style. The style may be shared with other objects, as it gets
+   * copied before any modification via the color/stroke/font setters.
+   *
+   * @param style	the style, null to use the layer's one
+   */
   public void setStyle(Style style){
     this.style = style;
+    this.styleOwned = false;
+  }
+
+  /**
+   * Returns the style for modification, i.e., creates a new style or a copy
+   * of a shared one if necessary (copy-on-write).
+   *
+   * @return		the style owned by this object
+   */
+  protected Style getStyleForUpdate() {
+    if (style == null)
+      style = new Style();
+    else if (!styleOwned)
+      style = new Style(style.getColor(), style.getBackColor(), style.getStroke(), style.getFont());
+    styleOwned = true;
+    return style;
   }
   
   public Color getColor() {
@@ -113,8 +150,8 @@ public abstract class AbstractMapObject
   }
   
   public void setColor(Color color) {
-    if(style==null&&color!=null) style=new Style();
-    if(style!=null) style.setColor(color);
+    if(style==null&&color==null) return;
+    getStyleForUpdate().setColor(color);
   }
 
   public Color getBackColor() {
@@ -123,8 +160,8 @@ public abstract class AbstractMapObject
   }
   
   public void setBackColor(Color backColor) {
-    if(style==null&&backColor!=null) style=new Style();
-    if(style!=null) style.setBackColor(backColor);
+    if(style==null&&backColor==null) return;
+    getStyleForUpdate().setBackColor(backColor);
   }
 
   public Stroke getStroke() {
@@ -133,8 +170,8 @@ public abstract class AbstractMapObject
   }
   
   public void setStroke(Stroke stroke) {
-    if(style==null&&stroke!=null) style=new Style();
-    if(style!=null) style.setStroke(stroke);
+    if(style==null&&stroke==null) return;
+    getStyleForUpdate().setStroke(stroke);
   }
 
   public Font getFont() {
@@ -143,8 +180,8 @@ public abstract class AbstractMapObject
   }
   
   public void setFont(Font font) {
-    if(style==null&&font!=null) style=new Style();
-    if(style!=null) style.setFont(font);
+    if(style==null&&font==null) return;
+    getStyleForUpdate().setFont(font);
   }
   
   private boolean isVisibleLayer(){
@@ -154,10 +191,81 @@ public abstract class AbstractMapObject
   public boolean isVisible() {
     return visible==null?isVisibleLayer():visible.booleanValue();
   }
+
+  /**
+   * Checks whether the object lies within the viewport, if any. Only used
+   * for skipping the painting of off-screen objects, unlike
+   * {@link #isVisible()}, which reflects the object's and layer's visibility.
+   *
+   * @return		true if no viewport set or the object intersects it
+   */
+  public boolean isInViewport() {
+    return (viewport == null) || viewport.intersects(getBounds());
+  }
   
   public void setVisible(Boolean visible) {
     this.visible = visible;
   }
+
+  /**
+   * Sets the viewport to cull against. Objects outside the viewport do not
+   * get painted.
+   *
+   * @param value	the viewport, null to disable culling
+   */
+  public void setViewport(MapViewport value) {
+    viewport = value;
+  }
+
+  /**
+   * Returns the viewport to cull against.
+   *
+   * @return		the viewport, null if culling disabled
+   */
+  public MapViewport getViewport() {
+    return viewport;
+  }
+
+  /**
+   * Returns the bounding box of the object.
+   * <br><br>
+   * Default implementation returns null.
+   *
+   * @return		the bounds (min lat, min lon, max lat, max lon), null if not available
+   * @see MapObjectIndex#getBounds(org.openstreetmap.gui.jmapviewer.interfaces.MapObject)
+   */
+  public double[] getBounds() {
+    return null;
+  }
+  
+  /**
+   * Must be called whenever the location or extent of the object changes,
+   * allowing indices to re-index the object.
+   */
+  protected void geometryChanged() {
+    modificationCount++;
+    GEOMETRY_CHANGES.incrementAndGet();
+  }
+
+  /**
+   * Returns the number of geometry changes of this object.
+   *
+   * @return		the number of changes
+   * @see #geometryChanged()
+   */
+  public long getModificationCount() {
+    return modificationCount;
+  }
+
+  /**
+   * Returns the number of geometry changes across all map objects.
+   *
+   * @return		the number of changes
+   * @see #geometryChanged()
+   */
+  public static long getGeometryChanges() {
+    return GEOMETRY_CHANGES.get();
+  }
   
   public String getName() {
     return name;
@@ -193,6 +301,8 @@ public abstract class AbstractMapObject
    * @return		any previously stored object for this key, otherwise null
    */
   public Object addMetaData(String key, Object value) {
+    if (metaData == null)
+      metaData = new CompactMetaData();
     return metaData.put(key, value);
   }
 
@@ -203,6 +313,8 @@ public abstract class AbstractMapObject
    * @return		any previously stored object for this key, null if none was present
    */
   public Object removeMetaData(String key) {
+    if (metaData == null)
+      return null;
     return metaData.remove(key);
   }
 
@@ -213,17 +325,33 @@ public abstract class AbstractMapObject
    * @return		stored object for this key, null if none was present
    */
   public Object getMetaData(String key) {
+    if (metaData == null)
+      return null;
     return metaData.get(key);
   }
   
   /**
    * Returns the meta-data store.
    * 
-   * @return		the meta-data
+   * @return		the meta-data (modifiable)
    */
-  public HashMap<String,Object> getMetaData() {
+  public Map<String,Object> getMetaData() {
+    if (metaData == null)
+      metaData = new CompactMetaData();
     return metaData;
   }
+
+  /**
+   * Initializes the meta-data store with a key dictionary that is shared
+   * with other objects (e.g., the ones generated in the same run). Has no
+   * effect if meta-data has already been stored.
+   *
+   * @param keys	the key dictionary to use
+   */
+  public void initMetaData(CompactMetaData.Keys keys) {
+    if ((metaData == null) || metaData.isEmpty())
+      metaData = new CompactMetaData(keys);
+  }
   
   /**
    * Returns the set of meta-data keys.
@@ -231,6 +359,8 @@ public abstract class AbstractMapObject
    * @return		the meta-data keys
    */
   public Set<String> metaDataKeys() {
+    if (metaData == null)
+      return Collections.emptySet();
     return metaData.keySet();
   }
   
@@ -241,12 +371,11 @@ public abstract class AbstractMapObject
   
   public void paintText(Graphics g, Point position) {
     if(name!=null && g!=null && position!=null){
-      if(getFont()==null){
-	Font f = getDefaultFont(); // g.getFont();
-	setFont(new Font(f.getName(), Font.BOLD, f.getSize()));
-      }
+      // not stored in the (potentially shared) style
+      Font font = getFont();
+      if(font==null) font = getDefaultFont();
       g.setColor(Color.DARK_GRAY);
-      g.setFont(getFont());
+      g.setFont(font);
       g.drawString(name, position.x+SimpleMapMarkerDot.DOT_RADIUS+2, position.y+SimpleMapMarkerDot.DOT_RADIUS);
     }
   }
@@ -0,0 +1,291 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CompactMetaData.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.mapobject;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memory-efficient map for storing the meta-data of map objects. The keys
+ * are stored in a dictionary that can be shared between instances (e.g.,
+ * all the objects generated from the same spreadsheet), each instance only
+ * stores an array of values, indexed by the position of the key in the
+ * dictionary. Since the dictionary only grows, it should be scoped to a
+ * set of objects with the same keys rather than being global. Null values
+ * are not supported, storing null removes the key.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CompactMetaData
+  extends AbstractMap<String,Object>
+  implements Serializable {
+
+  private static final long serialVersionUID = 3606138442700432856L;
+
+  /**
+   * Dictionary of keys, mapping them to positions.
+   */
+  public static class Keys
+    implements Serializable {
+
+    private static final long serialVersionUID = 2318744926001838478L;
+
+    /** the key to position lookup. */
+    protected Map<String,Integer> m_Lookup;
+
+    /** the keys in order of their positions. */
+    protected volatile String[] m_Names;
+
+    /**
+     * Initializes the dictionary.
+     */
+    public Keys() {
+      m_Lookup = new ConcurrentHashMap<>();
+      m_Names  = new String[0];
+    }
+
+    /**
+     * Returns the position of the key.
+     *
+     * @param key	the key to look up
+     * @param add	whether to add the key if not present
+     * @return		the position, -1 if not present and not added
+     */
+    public int indexOf(String key, boolean add) {
+      Integer	result;
+
+      result = m_Lookup.get(key);
+      if (result != null)
+	return result;
+      if (!add)
+	return -1;
+
+      synchronized(this) {
+	result = m_Lookup.get(key);
+	if (result == null) {
+	  result = m_Names.length;
+	  m_Names = Arrays.copyOf(m_Names, m_Names.length + 1);
+	  m_Names[result] = key;
+	  m_Lookup.put(key, result);
+	}
+      }
+
+      return result;
+    }
+
+    /**
+     * Returns the key at the specified position.
+     *
+     * @param index	the position
+     * @return		the key
+     */
+    public String nameAt(int index) {
+      return m_Names[index];
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return		the number of keys
+     */
+    public int size() {
+      return m_Names.length;
+    }
+  }
+
+  /** the dictionary in use. */
+  protected Keys m_Keys;
+
+  /** the values. */
+  protected Object[] m_Values;
+
+  /** the number of values stored. */
+  protected int m_Size;
+
+  /**
+   * Initializes the meta-data using its own key dictionary.
+   */
+  public CompactMetaData() {
+    this(new Keys());
+  }
+
+  /**
+   * Initializes the meta-data.
+   *
+   * @param keys	the key dictionary to use
+   */
+  public CompactMetaData(Keys keys) {
+    m_Keys   = keys;
+    m_Values = new Object[0];
+    m_Size   = 0;
+  }
+
+  /**
+   * Returns the number of key-value pairs.
+   *
+   * @return		the number of pairs
+   */
+  @Override
+  public int size() {
+    return m_Size;
+  }
+
+  /**
+   * Checks whether the key is present.
+   *
+   * @param key		the key to look for
+   * @return		true if present
+   */
+  @Override
+  public boolean containsKey(Object key) {
+    return (get(key) != null);
+  }
+
+  /**
+   * Returns the value for the key.
+   *
+   * @param key		the key to get the value for
+   * @return		the value, null if not present
+   */
+  @Override
+  public Object get(Object key) {
+    int		index;
+
+    if (!(key instanceof String))
+      return null;
+    index = m_Keys.indexOf((String) key, false);
+    if ((index < 0) || (index >= m_Values.length))
+      return null;
+    return m_Values[index];
+  }
+
+  /**
+   * Stores the value under the key.
+   *
+   * @param key		the key
+   * @param value	the value, null removes the key
+   * @return		the previous value, null if none
+   */
+  @Override
+  public Object put(String key, Object value) {
+    int		index;
+    Object	result;
+
+    if (value == null)
+      return remove(key);
+
+    index = m_Keys.indexOf(key, true);
+    if (index >= m_Values.length)
+      m_Values = Arrays.copyOf(m_Values, index + 1);
+    result = m_Values[index];
+    m_Values[index] = value;
+    if (result == null)
+      m_Size++;
+
+    return result;
+  }
+
+  /**
+   * Removes the key.
+   *
+   * @param key		the key to remove
+   * @return		the previous value, null if none
+   */
+  @Override
+  public Object remove(Object key) {
+    int		index;
+    Object	result;
+
+    if (!(key instanceof String))
+      return null;
+    index = m_Keys.indexOf((String) key, false);
+    if ((index < 0) || (index >= m_Values.length))
+      return null;
+    result = m_Values[index];
+    m_Values[index] = null;
+    if (result != null)
+      m_Size--;
+
+    return result;
+  }
+
+  /**
+   * Removes all key-value pairs.
+   */
+  @Override
+  public void clear() {
+    m_Values = new Object[0];
+    m_Size   = 0;
+  }
+
+  /**
+   * Returns the key-value pairs.
+   *
+   * @return		the pairs
+   */
+  @Override
+  public Set<Entry<String,Object>> entrySet() {
+    return new AbstractSet<Entry<String,Object>>() {
+      @Override
+      public Iterator<Entry<String,Object>> iterator() {
+	return new Iterator<Entry<String,Object>>() {
+	  protected int m_Next = advance(0);
+	  protected int m_Last = -1;
+	  protected int advance(int from) {
+	    while ((from < m_Values.length) && (m_Values[from] == null))
+	      from++;
+	    return from;
+	  }
+	  @Override
+	  public boolean hasNext() {
+	    return (m_Next < m_Values.length);
+	  }
+	  @Override
+	  public Entry<String,Object> next() {
+	    if (!hasNext())
+	      throw new NoSuchElementException();
+	    m_Last = m_Next;
+	    m_Next = advance(m_Next + 1);
+	    return new SimpleImmutableEntry<>(m_Keys.nameAt(m_Last), m_Values[m_Last]);
+	  }
+	  @Override
+	  public void remove() {
+	    if (m_Last == -1)
+	      throw new IllegalStateException();
+	    m_Values[m_Last] = null;
+	    m_Size--;
+	    m_Last = -1;
+	  }
+	};
+      }
+      @Override
+      public int size() {
+	return m_Size;
+      }
+    };
+  }
+}
@@ -0,0 +1,553 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * MapObjectIndex.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.mapobject;
+
+import org.openstreetmap.gui.jmapviewer.interfaces.ICoordinate;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapObject;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapPolygon;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapRectangle;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Quadtree-based spatial index for {@link MapObject}s, using their
+ * latitude/longitude bounding boxes. Objects get stored in the deepest
+ * node that fully contains their bounding box. Objects for which no
+ * bounding box can be determined are always returned as candidates.
+ * <br>
+ * Moving {@link AbstractMapObject}s via their setters gets picked up by
+ * the index: before querying, objects whose geometry changed since they were
+ * indexed get re-indexed. Since other map objects cannot report changes,
+ * they are not placed in the tree but always returned as candidates.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @param <T> the type of map object to index
+ */
+public class MapObjectIndex<T extends MapObject>
+  implements Serializable {
+
+  private static final long serialVersionUID = -2416409233104549787L;
+
+  /** the index of the minimum latitude in the bounds array. */
+  public final static int MIN_LAT = 0;
+
+  /** the index of the minimum longitude in the bounds array. */
+  public final static int MIN_LON = 1;
+
+  /** the index of the maximum latitude in the bounds array. */
+  public final static int MAX_LAT = 2;
+
+  /** the index of the maximum longitude in the bounds array. */
+  public final static int MAX_LON = 3;
+
+  /** the default number of objects in a node before splitting. */
+  public final static int DEFAULT_CAPACITY = 16;
+
+  /** the default maximum depth of the tree. */
+  public final static int DEFAULT_MAX_DEPTH = 20;
+
+  /**
+   * Container for an indexed object and its bounding box.
+   *
+   * @param <T> the type of map object
+   */
+  protected static class Entry<T>
+    implements Serializable {
+
+    private static final long serialVersionUID = 7372001394926395227L;
+
+    /** the object. */
+    public final T object;
+
+    /** the bounding box. */
+    public final double[] bounds;
+
+    /** the modification count of the object at indexing time. */
+    public final long modificationCount;
+
+    /**
+     * Initializes the entry.
+     *
+     * @param object	the object
+     * @param bounds	the bounding box
+     * @param modificationCount	the modification count of the object
+     */
+    public Entry(T object, double[] bounds, long modificationCount) {
+      this.object            = object;
+      this.bounds            = bounds;
+      this.modificationCount = modificationCount;
+    }
+  }
+
+  /**
+   * A single node in the quadtree.
+   *
+   * @param <T> the type of map object
+   */
+  protected static class Node<T>
+    implements Serializable {
+
+    private static final long serialVersionUID = -1573180106307436335L;
+
+    /** the bounds of the node. */
+    public final double[] bounds;
+
+    /** the depth of the node. */
+    public final int depth;
+
+    /** the entries stored at this node. */
+    public List<Entry<T>> entries;
+
+    /** the child nodes (NW, NE, SW, SE), null if leaf. */
+    public Node<T>[] children;
+
+    /**
+     * Initializes the node.
+     *
+     * @param bounds	the bounds of the node
+     * @param depth	the depth
+     */
+    public Node(double[] bounds, int depth) {
+      this.bounds  = bounds;
+      this.depth   = depth;
+      this.entries = new ArrayList<>();
+    }
+  }
+
+  /** the number of entries in a node before splitting. */
+  protected int m_Capacity;
+
+  /** the maximum depth. */
+  protected int m_MaxDepth;
+
+  /** the root node. */
+  protected Node<T> m_Root;
+
+  /** the objects without bounding box or that cannot report changes. */
+  protected Set<T> m_Unbounded;
+
+  /** the geometry changes across all map objects at the last validation. */
+  protected long m_GeometryChanges;
+
+  /** the lookup for object -> node. */
+  protected IdentityHashMap<T,Node<T>> m_Lookup;
+
+  /**
+   * Initializes the index with default capacity and depth.
+   */
+  public MapObjectIndex() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_DEPTH);
+  }
+
+  /**
+   * Initializes the index.
+   *
+   * @param capacity	the number of objects in a node before splitting
+   * @param maxDepth	the maximum depth of the tree
+   */
+  public MapObjectIndex(int capacity, int maxDepth) {
+    m_Capacity = Math.max(1, capacity);
+    m_MaxDepth = Math.max(0, maxDepth);
+    clear();
+  }
+
+  /**
+   * Removes all objects from the index.
+   */
+  public synchronized void clear() {
+    m_Root      = new Node<>(new double[]{-90.0, -180.0, 90.0, 180.0}, 0);
+    m_Unbounded = Collections.newSetFromMap(new IdentityHashMap<>());
+    m_Lookup    = new IdentityHashMap<>();
+    m_GeometryChanges = AbstractMapObject.getGeometryChanges();
+  }
+
+  /**
+   * Returns the number of indexed objects.
+   *
+   * @return		the number of objects
+   */
+  public synchronized int size() {
+    return m_Lookup.size() + m_Unbounded.size();
+  }
+
+  /**
+   * Checks whether the object is indexed.
+   *
+   * @param obj		the object to check
+   * @return		true if indexed
+   */
+  public synchronized boolean contains(Object obj) {
+    return m_Lookup.containsKey(obj) || m_Unbounded.contains(obj);
+  }
+
+  /**
+   * Ensures that the index contains exactly the specified objects (compared
+   * by identity): objects no longer present get removed, new ones added.
+   * Detects replaced objects even if the number of objects stays the same.
+   *
+   * @param objs	the objects that should be indexed
+   * @return		true if the index had to be updated
+   */
+  public synchronized boolean synchronize(Collection<? extends T> objs) {
+    Set<T>	current;
+    List<T>	stale;
+    boolean	result;
+
+    current = Collections.newSetFromMap(new IdentityHashMap<>());
+    current.addAll(objs);
+
+    result = (current.size() != size());
+    if (!result) {
+      for (T obj: current) {
+	if (!contains(obj)) {
+	  result = true;
+	  break;
+	}
+      }
+    }
+    if (!result)
+      return false;
+
+    stale = new ArrayList<>();
+    for (T obj: m_Lookup.keySet()) {
+      if (!current.contains(obj))
+	stale.add(obj);
+    }
+    for (T obj: m_Unbounded) {
+      if (!current.contains(obj))
+	stale.add(obj);
+    }
+    removeAll(stale);
+    for (T obj: current) {
+      if (!contains(obj))
+	add(obj);
+    }
+
+    return true;
+  }
+
+  /**
+   * Determines the bounding box of the map object.
+   *
+   * @param obj		the object to get the bounding box for
+   * @return		the bounds (min lat, min lon, max lat, max lon), null if not available
+   */
+  public static double[] getBounds(MapObject obj) {
+    double[]	result;
+    MapMarker	marker;
+    MapRectangle rect;
+    MapPolygon	polygon;
+
+    if (obj instanceof AbstractMapObject) {
+      result = ((AbstractMapObject) obj).getBounds();
+      if (result != null)
+	return result;
+    }
+
+    result = null;
+
+    if (obj instanceof MapMarker) {
+      marker = (MapMarker) obj;
+      result = new double[]{marker.getLat(), marker.getLon(), marker.getLat(), marker.getLon()};
+    }
+    else if (obj instanceof MapRectangle) {
+      rect = (MapRectangle) obj;
+      if ((rect.getTopLeft() != null) && (rect.getBottomRight() != null)) {
+	result = new double[]{
+	  Math.min(rect.getTopLeft().getLat(), rect.getBottomRight().getLat()),
+	  Math.min(rect.getTopLeft().getLon(), rect.getBottomRight().getLon()),
+	  Math.max(rect.getTopLeft().getLat(), rect.getBottomRight().getLat()),
+	  Math.max(rect.getTopLeft().getLon(), rect.getBottomRight().getLon()),
+	};
+      }
+    }
+    else if (obj instanceof MapPolygon) {
+      polygon = (MapPolygon) obj;
+      if ((polygon.getPoints() != null) && (polygon.getPoints().size() > 0)) {
+	result = new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+	for (ICoordinate point: polygon.getPoints()) {
+	  result[MIN_LAT] = Math.min(result[MIN_LAT], point.getLat());
+	  result[MIN_LON] = Math.min(result[MIN_LON], point.getLon());
+	  result[MAX_LAT] = Math.max(result[MAX_LAT], point.getLat());
+	  result[MAX_LON] = Math.max(result[MAX_LON], point.getLon());
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether the outer bounds fully contain the inner ones.
+   *
+   * @param outer	the outer bounds
+   * @param inner	the inner bounds
+   * @return		true if fully contained
+   */
+  protected static boolean contains(double[] outer, double[] inner) {
+    return (inner[MIN_LAT] >= outer[MIN_LAT])
+      && (inner[MAX_LAT] <= outer[MAX_LAT])
+      && (inner[MIN_LON] >= outer[MIN_LON])
+      && (inner[MAX_LON] <= outer[MAX_LON]);
+  }
+
+  /**
+   * Checks whether the two bounding boxes intersect.
+   *
+   * @param a		the first bounds
+   * @param b		the second bounds
+   * @return		true if intersecting
+   */
+  protected static boolean intersects(double[] a, double[] b) {
+    return (a[MIN_LAT] <= b[MAX_LAT])
+      && (a[MAX_LAT] >= b[MIN_LAT])
+      && (a[MIN_LON] <= b[MAX_LON])
+      && (a[MAX_LON] >= b[MIN_LON]);
+  }
+
+  /**
+   * Splits the node into four quadrants and pushes down the entries that
+   * fit into a quadrant.
+   *
+   * @param node	the node to split
+   */
+  protected void split(Node<T> node) {
+    double		midLat;
+    double		midLon;
+    double[]		b;
+    List<Entry<T>>	remaining;
+    Node<T>		child;
+
+    b      = node.bounds;
+    midLat = (b[MIN_LAT] + b[MAX_LAT]) / 2;
+    midLon = (b[MIN_LON] + b[MAX_LON]) / 2;
+    node.children = new Node[]{
+      new Node<T>(new double[]{midLat, b[MIN_LON], b[MAX_LAT], midLon}, node.depth + 1),
+      new Node<T>(new double[]{midLat, midLon, b[MAX_LAT], b[MAX_LON]}, node.depth + 1),
+      new Node<T>(new double[]{b[MIN_LAT], b[MIN_LON], midLat, midLon}, node.depth + 1),
+      new Node<T>(new double[]{b[MIN_LAT], midLon, midLat, b[MAX_LON]}, node.depth + 1),
+    };
+
+    remaining = new ArrayList<>();
+    for (Entry<T> entry: node.entries) {
+      child = findChild(node, entry.bounds);
+      if (child == null) {
+	remaining.add(entry);
+      }
+      else {
+	child.entries.add(entry);
+	m_Lookup.put(entry.object, child);
+      }
+    }
+    node.entries = remaining;
+  }
+
+  /**
+   * Returns the child node that fully contains the bounds.
+   *
+   * @param node	the node to inspect
+   * @param bounds	the bounds to locate
+   * @return		the child, null if none fully contains the bounds
+   */
+  protected Node<T> findChild(Node<T> node, double[] bounds) {
+    if (node.children == null)
+      return null;
+    for (Node<T> child: node.children) {
+      if (contains(child.bounds, bounds))
+	return child;
+    }
+    return null;
+  }
+
+  /**
+   * Adds the object to the index. Objects that are already present get
+   * re-indexed.
+   *
+   * @param obj		the object to add
+   */
+  public synchronized void add(T obj) {
+    double[]	bounds;
+    Node<T>	node;
+    Node<T>	child;
+
+    remove(obj);
+
+    bounds = null;
+    if (obj instanceof AbstractMapObject)
+      bounds = getBounds(obj);
+    if ((bounds == null) || !contains(m_Root.bounds, bounds)) {
+      m_Unbounded.add(obj);
+      return;
+    }
+
+    node = m_Root;
+    while ((child = findChild(node, bounds)) != null)
+      node = child;
+    node.entries.add(new Entry<>(obj, bounds, ((AbstractMapObject) obj).getModificationCount()));
+    m_Lookup.put(obj, node);
+
+    if ((node.children == null) && (node.entries.size() > m_Capacity) && (node.depth < m_MaxDepth))
+      split(node);
+  }
+
+  /**
+   * Adds all the objects to the index.
+   *
+   * @param objs	the objects to add
+   */
+  public synchronized void addAll(Collection<? extends T> objs) {
+    for (T obj: objs)
+      add(obj);
+  }
+
+  /**
+   * Removes the object from the index.
+   *
+   * @param obj		the object to remove
+   * @return		true if the object was indexed
+   */
+  public synchronized boolean remove(Object obj) {
+    Node<T>	node;
+    int		i;
+
+    node = m_Lookup.remove(obj);
+    if (node == null)
+      return m_Unbounded.remove(obj);
+
+    for (i = 0; i < node.entries.size(); i++) {
+      if (node.entries.get(i).object == obj) {
+	node.entries.remove(i);
+	break;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Removes all the objects from the index.
+   *
+   * @param objs	the objects to remove
+   */
+  public synchronized void removeAll(Collection<?> objs) {
+    for (Object obj: objs)
+      remove(obj);
+  }
+
+  /**
+   * Collects all the objects whose geometry changed since they got indexed.
+   *
+   * @param node	the node to search
+   * @param result	for storing the objects
+   */
+  protected void collectModified(Node<T> node, List<T> result) {
+    for (Entry<T> entry: node.entries) {
+      if (((AbstractMapObject) entry.object).getModificationCount() != entry.modificationCount)
+	result.add(entry.object);
+    }
+    if (node.children != null) {
+      for (Node<T> child: node.children)
+	collectModified(child, result);
+    }
+  }
+
+  /**
+   * Re-indexes all the objects whose geometry changed since they got
+   * indexed. Only traverses the tree if any map object changed since the
+   * last validation.
+   */
+  public synchronized void validate() {
+    long	changes;
+    List<T>	modified;
+
+    changes = AbstractMapObject.getGeometryChanges();
+    if (changes == m_GeometryChanges)
+      return;
+    m_GeometryChanges = changes;
+
+    modified = new ArrayList<>();
+    collectModified(m_Root, modified);
+    for (T obj: m_Unbounded) {
+      if ((obj instanceof AbstractMapObject) && (getBounds(obj) != null))
+	modified.add(obj);
+    }
+    for (T obj: modified)
+      add(obj);
+  }
+
+  /**
+   * Collects all the objects that intersect with the bounds.
+   *
+   * @param node	the node to search
+   * @param bounds	the query bounds
+   * @param result	for storing the objects
+   */
+  protected void query(Node<T> node, double[] bounds, List<T> result) {
+    for (Entry<T> entry: node.entries) {
+      if (intersects(entry.bounds, bounds))
+	result.add(entry.object);
+    }
+    if (node.children != null) {
+      for (Node<T> child: node.children) {
+	if (intersects(child.bounds, bounds))
+	  query(child, bounds, result);
+      }
+    }
+  }
+
+  /**
+   * Returns all the objects whose bounding box intersects with the specified
+   * region, as well as objects without bounding box.
+   *
+   * @param minLat	the minimum latitude
+   * @param minLon	the minimum longitude
+   * @param maxLat	the maximum latitude
+   * @param maxLon	the maximum longitude
+   * @return		the candidates
+   */
+  public synchronized List<T> query(double minLat, double minLon, double maxLat, double maxLon) {
+    List<T>	result;
+
+    validate();
+    result = new ArrayList<>(m_Unbounded);
+    query(m_Root, new double[]{minLat, minLon, maxLat, maxLon}, result);
+
+    return result;
+  }
+
+  /**
+   * Returns all the objects whose bounding box contains the specified
+   * location, as well as objects without bounding box.
+   *
+   * @param lat		the latitude
+   * @param lon		the longitude
+   * @return		the candidates
+   */
+  public List<T> query(double lat, double lon) {
+    return query(lat, lon, lat, lon);
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * MapViewport.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.mapobject;
+
+import org.openstreetmap.gui.jmapviewer.Coordinate;
+import org.openstreetmap.gui.jmapviewer.JMapViewer;
+
+import java.io.Serializable;
+
+/**
+ * Keeps track of the geographic area that is visible in a viewer, enlarged
+ * by a margin. Map objects that are associated with a viewport and lie
+ * completely outside of it skip painting themselves, without affecting
+ * their visibility.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see AbstractMapObject#setViewport(MapViewport)
+ */
+public class MapViewport
+  implements Serializable {
+
+  private static final long serialVersionUID = 5203843337934578413L;
+
+  /** the default margin (fraction of width/height). */
+  public final static double DEFAULT_MARGIN = 0.5;
+
+  /** the margin to add on each side (fraction of width/height). */
+  protected double m_Margin;
+
+  /** the current bounds (min lat, min lon, max lat, max lon), null if unknown. */
+  protected volatile double[] m_Bounds;
+
+  /**
+   * Initializes the viewport with the default margin.
+   */
+  public MapViewport() {
+    this(DEFAULT_MARGIN);
+  }
+
+  /**
+   * Initializes the viewport.
+   *
+   * @param margin	the margin to add on each side, as fraction of width/height
+   */
+  public MapViewport(double margin) {
+    m_Margin = Math.max(0.0, margin);
+    m_Bounds = null;
+  }
+
+  /**
+   * Returns the margin.
+   *
+   * @return		the margin, fraction of width/height
+   */
+  public double getMargin() {
+    return m_Margin;
+  }
+
+  /**
+   * Updates the bounds with the area currently displayed by the viewer.
+   *
+   * @param viewer	the viewer to obtain the area from
+   */
+  public void update(JMapViewer viewer) {
+    Coordinate	topLeft;
+    Coordinate	bottomRight;
+    double[]	bounds;
+    double	dLat;
+    double	dLon;
+
+    if ((viewer.getWidth() <= 0) || (viewer.getHeight() <= 0)) {
+      m_Bounds = null;
+      return;
+    }
+
+    topLeft     = viewer.getPosition(0, 0);
+    bottomRight = viewer.getPosition(viewer.getWidth(), viewer.getHeight());
+    if ((topLeft == null) || (bottomRight == null)) {
+      m_Bounds = null;
+      return;
+    }
+
+    bounds = new double[]{
+      Math.min(topLeft.getLat(), bottomRight.getLat()),
+      Math.min(topLeft.getLon(), bottomRight.getLon()),
+      Math.max(topLeft.getLat(), bottomRight.getLat()),
+      Math.max(topLeft.getLon(), bottomRight.getLon()),
+    };
+    dLat = (bounds[MapObjectIndex.MAX_LAT] - bounds[MapObjectIndex.MIN_LAT]) * m_Margin;
+    dLon = (bounds[MapObjectIndex.MAX_LON] - bounds[MapObjectIndex.MIN_LON]) * m_Margin;
+    bounds[MapObjectIndex.MIN_LAT] -= dLat;
+    bounds[MapObjectIndex.MIN_LON] -= dLon;
+    bounds[MapObjectIndex.MAX_LAT] += dLat;
+    bounds[MapObjectIndex.MAX_LON] += dLon;
+
+    // whole world visible (or wrapped)?
+    if (bounds[MapObjectIndex.MAX_LON] - bounds[MapObjectIndex.MIN_LON] >= 360.0)
+      m_Bounds = null;
+    else
+      m_Bounds = bounds;
+  }
+
+  /**
+   * Forgets the current bounds, i.e., everything is considered visible.
+   */
+  public void invalidate() {
+    m_Bounds = null;
+  }
+
+  /**
+   * Returns the current bounds.
+   *
+   * @return		the bounds (min lat, min lon, max lat, max lon), null if unknown
+   */
+  public double[] getBounds() {
+    return m_Bounds;
+  }
+
+  /**
+   * Checks whether the bounds of an object intersect with the viewport.
+   *
+   * @param bounds	the bounds of the object, null if unknown
+   * @return		true if intersecting or either bounds are unknown
+   */
+  public boolean intersects(double[] bounds) {
+    double[]	current;
+
+    current = m_Bounds;
+    if ((current == null) || (bounds == null))
+      return true;
+    return MapObjectIndex.intersects(current, bounds);
+  }
+}
@@ -112,6 +112,7 @@ public class SimpleMapMarkerCircle
   
   public void setRadius(double value) {
     radius = value;
+    geometryChanged();
   }
 
   public double getRadius() {
@@ -149,12 +150,14 @@ public class SimpleMapMarkerCircle
   public void setLat(double lat) {
     if(coord==null) coord = new Coordinate(lat,0);
     else coord.setLat(lat);
+    geometryChanged();
   }
   
   @Override
   public void setLon(double lon) {
     if(coord==null) coord = new Coordinate(0,lon);
     else coord.setLon(lon);
+    geometryChanged();
   }
 
   /**
@@ -65,6 +65,9 @@ public class SimpleMapPolygon
 
   private List<? extends ICoordinate> points;
 
+  /** the cached bounding box. */
+  protected transient double[] bounds;
+
   public SimpleMapPolygon(ICoordinate ... points) {
     this(null, null, points);
   }
@@ -102,8 +105,30 @@ public class SimpleMapPolygon
     return this.points;
   }
 
+  /**
+   * Sets the points of the polygon. Must also be called if the list of
+   * points got modified.
+   *
+   * @param points	the points
+   */
+  public void setPoints(List<? extends ICoordinate> points) {
+    this.points = points;
+    geometryChanged();
+  }
+
+  /**
+   * Clears the cached bounding box.
+   */
+  @Override
+  protected void geometryChanged() {
+    bounds = null;
+    super.geometryChanged();
+  }
+
   @Override
   public void paint(Graphics g, List<Point> points) {
+    if (!isInViewport())
+      return;
     Polygon polygon = new Polygon();
     for (Point p : points) {
       polygon.addPoint(p.x, p.y);
@@ -111,8 +136,40 @@ public class SimpleMapPolygon
     paint(g, polygon);
   }
 
+  /**
+   * Returns the (cached) bounding box of the polygon.
+   *
+   * @return		the bounds (min lat, min lon, max lat, max lon), null if no points
+   */
+  @Override
+  public double[] getBounds() {
+    double[]	result;
+
+    if ((bounds == null) && (points != null) && (points.size() > 0)) {
+      result = new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+      for (ICoordinate point: points) {
+	result[MapObjectIndex.MIN_LAT] = Math.min(result[MapObjectIndex.MIN_LAT], point.getLat());
+	result[MapObjectIndex.MIN_LON] = Math.min(result[MapObjectIndex.MIN_LON], point.getLon());
+	result[MapObjectIndex.MAX_LAT] = Math.max(result[MapObjectIndex.MAX_LAT], point.getLat());
+	result[MapObjectIndex.MAX_LON] = Math.max(result[MapObjectIndex.MAX_LON], point.getLon());
+      }
+      bounds = result;
+    }
+
+    return bounds;
+  }
+
   @Override
   public void paint(Graphics g, Polygon polygon) {
+    // outside clip area?
+    Rectangle clip = g.getClipBounds();
+    if (clip != null) {
+      Rectangle rect = polygon.getBounds();
+      rect.grow(2, 2);
+      if (!clip.intersects(rect))
+        return;
+    }
+
     // Prepare graphics
     Color oldColor = g.getColor();
     g.setColor(getColor());
@@ -26,6 +26,7 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Stroke;
 
 import org.openstreetmap.gui.jmapviewer.Coordinate;
@@ -59,6 +60,9 @@ public class SimpleMapRectangle
   
   private Coordinate bottomRight;
 
+  /** the cached bounding box. */
+  protected transient double[] bounds;
+
   public SimpleMapRectangle(Coordinate topLeft, Coordinate bottomRight) {
     this(null, null, topLeft, bottomRight);
   }
@@ -86,13 +90,63 @@ public class SimpleMapRectangle
     return topLeft;
   }
 
+  public void setTopLeft(Coordinate topLeft) {
+    this.topLeft = topLeft;
+    geometryChanged();
+  }
+
   @Override
   public Coordinate getBottomRight() {
     return bottomRight;
   }
 
+  public void setBottomRight(Coordinate bottomRight) {
+    this.bottomRight = bottomRight;
+    geometryChanged();
+  }
+
+  /**
+   * Clears the cached bounding box.
+   */
+  @Override
+  protected void geometryChanged() {
+    bounds = null;
+    super.geometryChanged();
+  }
+
+  /**
+   * Returns the (cached) bounding box of the rectangle.
+   *
+   * @return		the bounds (min lat, min lon, max lat, max lon), null if corners missing
+   */
+  @Override
+  public double[] getBounds() {
+    if ((bounds == null) && (topLeft != null) && (bottomRight != null)) {
+      bounds = new double[]{
+	Math.min(topLeft.getLat(), bottomRight.getLat()),
+	Math.min(topLeft.getLon(), bottomRight.getLon()),
+	Math.max(topLeft.getLat(), bottomRight.getLat()),
+	Math.max(topLeft.getLon(), bottomRight.getLon()),
+      };
+    }
+
+    return bounds;
+  }
+
   @Override
   public void paint(Graphics g, Point topLeft, Point bottomRight) {
+    if (!isInViewport())
+      return;
+    // outside clip area?
+    Rectangle clip = g.getClipBounds();
+    if (clip != null) {
+      Rectangle rect = new Rectangle(topLeft);
+      rect.add(bottomRight);
+      rect.grow(2, 2);
+      if (!clip.intersects(rect))
+        return;
+    }
+
     // Prepare graphics
     Color oldColor = g.getColor();
     g.setColor(getColor());
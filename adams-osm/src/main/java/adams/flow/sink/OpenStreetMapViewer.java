@@ -25,17 +25,23 @@ import adams.core.Utils;
 import adams.core.base.BaseString;
 import adams.core.option.OptionUtils;
 import adams.data.gps.GPSDecimalDegrees;
+import adams.data.mapobject.AbstractMapObject;
 import adams.data.mapobject.HitIndicator;
+import adams.data.mapobject.MapObjectIndex;
+import adams.data.mapobject.MapViewport;
 import adams.flow.core.Token;
 import adams.flow.sink.openstreetmapviewer.AbstractMapClickListener;
 import adams.flow.sink.openstreetmapviewer.AbstractMapObjectHitListener;
 import adams.flow.sink.openstreetmapviewer.AbstractMapObjectPruner;
 import adams.flow.sink.openstreetmapviewer.AbstractMapOverlay;
+import adams.flow.sink.openstreetmapviewer.AbstractMarkerClusterer;
 import adams.flow.sink.openstreetmapviewer.AbstractTileLoaderProvider;
 import adams.flow.sink.openstreetmapviewer.AbstractTileSourceProvider;
+import adams.flow.sink.openstreetmapviewer.LocalTileSource;
 import adams.flow.sink.openstreetmapviewer.NullMapClickListener;
 import adams.flow.sink.openstreetmapviewer.NullMapObjectHitListener;
 import adams.flow.sink.openstreetmapviewer.NullMapOverlay;
+import adams.flow.sink.openstreetmapviewer.NullMarkerClusterer;
 import adams.flow.sink.openstreetmapviewer.NullPruner;
 import adams.gui.core.BasePanel;
 import adams.gui.core.BaseTreeNode;
@@ -52,24 +58,34 @@ import org.openstreetmap.gui.jmapviewer.Layer;
 import org.openstreetmap.gui.jmapviewer.LayerGroup;
 import org.openstreetmap.gui.jmapviewer.OsmTileLoader;
 import org.openstreetmap.gui.jmapviewer.checkBoxTree.CheckBoxNodeData;
+import org.openstreetmap.gui.jmapviewer.events.JMVCommandEvent;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapObject;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapPolygon;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapRectangle;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
 import org.openstreetmap.gui.jmapviewer.tilesources.OsmTileSource.Mapnik;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import java.awt.BorderLayout;
 import java.awt.Graphics;
+import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 
 /**
@@ -185,6 +201,25 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;default: adams.flow.sink.openstreetmapviewer.NullMapOverlay
  * </pre>
  * 
+ * <pre>-marker-clusterer &lt;adams.flow.sink.openstreetmapviewer.AbstractMarkerClusterer&gt; (property: markerClusterer)
+ * &nbsp;&nbsp;&nbsp;The scheme for aggregating the markers into clusters at low zoom levels.
+ * &nbsp;&nbsp;&nbsp;default: adams.flow.sink.openstreetmapviewer.NullMarkerClusterer
+ * </pre>
+ * 
+ * <pre>-batch-interval &lt;int&gt; (property: batchInterval)
+ * &nbsp;&nbsp;&nbsp;The interval in msec for adding queued map objects in batches to the map, 
+ * &nbsp;&nbsp;&nbsp;with a single repaint per batch; 0 adds them immediately.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-viewport-culling &lt;boolean&gt; (property: viewportCulling)
+ * &nbsp;&nbsp;&nbsp;If enabled, polygons and rectangles that lie completely outside the 
+ * &nbsp;&nbsp;&nbsp;visible area (plus margin) are skipped when painting; their visibility
+ * &nbsp;&nbsp;&nbsp;is not affected.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ * 
  * <pre>-initial-coordinates &lt;adams.data.gps.GPSDecimalDegrees&gt; (property: initialCoordinates)
  * &nbsp;&nbsp;&nbsp;The initial coordinates to use.
  * &nbsp;&nbsp;&nbsp;default: N0.0 W0.0
@@ -263,6 +298,15 @@ public class OpenStreetMapViewer
   
   /** the map overlay. */
   protected AbstractMapOverlay m_MapOverlay;
+
+  /** the clusterer for the markers. */
+  protected AbstractMarkerClusterer m_MarkerClusterer;
+
+  /** the interval in msec for adding map objects in batches (0 = immediately). */
+  protected int m_BatchInterval;
+
+  /** whether to skip painting polygons/rectangles outside the visible area. */
+  protected boolean m_ViewportCulling;
   
   /** the initial coordinates to use. */
   protected GPSDecimalDegrees m_InitialCoordinates;
@@ -291,6 +335,33 @@ public class OpenStreetMapViewer
   /** allows us to paint the overlays. */
   protected JPanel m_MapOverlayPlaceholderPanel;
 
+  /** the spatial index for the markers (only with hit listener). */
+  protected MapObjectIndex<MapMarker> m_MarkerIndex;
+
+  /** the spatial index for the rectangles (only with hit listener). */
+  protected MapObjectIndex<MapRectangle> m_RectangleIndex;
+
+  /** the spatial index for the polygons (only with hit listener). */
+  protected MapObjectIndex<MapPolygon> m_PolygonIndex;
+
+  /** the largest radius of fixed markers (in pixels). */
+  protected double m_MaxFixedRadius;
+
+  /** the largest radius of variable markers (in degrees). */
+  protected double m_MaxVariableRadius;
+
+  /** the queued map objects (batch mode). */
+  protected transient ConcurrentLinkedQueue<MapObject> m_Queue;
+
+  /** the timer for adding the queued map objects (batch mode). */
+  protected transient Timer m_BatchTimer;
+
+  /** the tile source in use. */
+  protected transient TileSource m_TileSourceInstance;
+
+  /** the visible area (viewport culling). */
+  protected transient MapViewport m_Viewport;
+
   /**
    * Returns a string describing the object.
    *
@@ -350,6 +421,18 @@ public class OpenStreetMapViewer
 	    "map-overlay", "mapOverlay",
 	    new NullMapOverlay());
 
+    m_OptionManager.add(
+	    "marker-clusterer", "markerClusterer",
+	    new NullMarkerClusterer());
+
+    m_OptionManager.add(
+	    "batch-interval", "batchInterval",
+	    0, 0, null);
+
+    m_OptionManager.add(
+	    "viewport-culling", "viewportCulling",
+	    true);
+
     m_OptionManager.add(
 	    "initial-coordinates", "initialCoordinates",
 	    new GPSDecimalDegrees());
@@ -399,6 +482,8 @@ public class OpenStreetMapViewer
     result += QuickInfoHelper.toString(this, "clickListener", m_ClickListener, ", clicks: ");
     result += QuickInfoHelper.toString(this, "mapObjectPruner", m_MapObjectPruner, ", pruner: ");
     result += QuickInfoHelper.toString(this, "mapOverlay", m_MapObjectPruner, ", overlay: ");
+    result += QuickInfoHelper.toString(this, "markerClusterer", m_MarkerClusterer, ", clusterer: ");
+    result += QuickInfoHelper.toString(this, "batchInterval", (m_BatchInterval == 0 ? "immediate" : m_BatchInterval + "ms"), ", batch: ");
     result += QuickInfoHelper.toString(this, "layers", (m_Layers.length == 0 ? "none" : Utils.arrayToString(m_Layers)), ", layers: ");
 
     options = new ArrayList<String>();
@@ -584,6 +669,103 @@ public class OpenStreetMapViewer
     return "The overlay for the map.";
   }
 
+  /**
+   * Sets the clusterer for the markers.
+   *
+   * @param value	the clusterer
+   */
+  public void setMarkerClusterer(AbstractMarkerClusterer value) {
+    m_MarkerClusterer = value;
+    reset();
+  }
+
+  /**
+   * Returns the clusterer for the markers.
+   *
+   * @return		the clusterer
+   */
+  public AbstractMarkerClusterer getMarkerClusterer() {
+    return m_MarkerClusterer;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String markerClustererTipText() {
+    return "The scheme for aggregating the markers into clusters at low zoom levels.";
+  }
+
+  /**
+   * Sets the interval for adding queued map objects in batches.
+   *
+   * @param value	the interval in msec, 0 to add immediately
+   */
+  public void setBatchInterval(int value) {
+    if (value >= 0) {
+      m_BatchInterval = value;
+      reset();
+    }
+    else {
+      getLogger().warning("Batch interval must be at least 0, provided: " + value);
+    }
+  }
+
+  /**
+   * Returns the interval for adding queued map objects in batches.
+   *
+   * @return		the interval in msec, 0 if added immediately
+   */
+  public int getBatchInterval() {
+    return m_BatchInterval;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchIntervalTipText() {
+    return
+	"The interval in msec for adding queued map objects in batches to the "
+	+ "map, with a single repaint per batch; 0 adds them immediately.";
+  }
+
+  /**
+   * Sets whether to skip painting polygons/rectangles outside the visible area.
+   *
+   * @param value	true if to cull
+   */
+  public void setViewportCulling(boolean value) {
+    m_ViewportCulling = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to skip painting polygons/rectangles outside the visible area.
+   *
+   * @return		true if to cull
+   */
+  public boolean getViewportCulling() {
+    return m_ViewportCulling;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String viewportCullingTipText() {
+    return
+	"If enabled, polygons and rectangles that lie completely outside the "
+	+ "visible area (plus margin) are skipped when painting; their "
+	+ "visibility is not affected.";
+  }
+
   /**
    * Sets the initial coordinates.
    *
@@ -858,6 +1040,172 @@ public class OpenStreetMapViewer
     return false;
   }
   
+  /**
+   * Adds the marker to the viewer and the spatial index.
+   *
+   * @param marker	the marker to add
+   * @param repaint	whether to repaint the viewer
+   */
+  protected void addMapMarker(MapMarker marker, boolean repaint) {
+    if (repaint)
+      m_Viewer.getViewer().addMapMarker(marker);
+    else
+      m_Viewer.getViewer().getMapMarkerList().add(marker);
+    m_MarkerClusterer.add(marker);
+    if (m_MarkerIndex != null) {
+      m_MarkerIndex.add(marker);
+      updateMaxRadius(marker);
+    }
+  }
+
+  /**
+   * Updates the maximum marker radii used for determining the search
+   * neighborhood of clicks.
+   *
+   * @param marker	the marker to include
+   */
+  protected void updateMaxRadius(MapMarker marker) {
+    if (marker.getMarkerStyle() == MapMarker.STYLE.FIXED)
+      m_MaxFixedRadius = Math.max(m_MaxFixedRadius, marker.getRadius());
+    else
+      m_MaxVariableRadius = Math.max(m_MaxVariableRadius, marker.getRadius());
+  }
+
+  /**
+   * Updates the spatial indices if they are out of sync with the objects
+   * in the viewer, e.g., when objects got added, removed or replaced
+   * directly via the viewer rather than through this actor. The objects
+   * are compared by identity, not just by their number.
+   */
+  protected void synchronizeIndices() {
+    if (m_MarkerIndex.synchronize(m_Viewer.getViewer().getMapMarkerList())) {
+      m_MaxFixedRadius    = 0;
+      m_MaxVariableRadius = 0;
+      for (MapMarker marker: m_Viewer.getViewer().getMapMarkerList())
+	updateMaxRadius(marker);
+    }
+    m_RectangleIndex.synchronize(m_Viewer.getViewer().getMapRectangleList());
+    m_PolygonIndex.synchronize(m_Viewer.getViewer().getMapPolygonList());
+  }
+
+  /**
+   * Adds the polygon to the viewer and the spatial index.
+   *
+   * @param polygon	the polygon to add
+   * @param repaint	whether to repaint the viewer
+   */
+  protected void addMapPolygon(MapPolygon polygon, boolean repaint) {
+    if ((m_Viewport != null) && (polygon instanceof AbstractMapObject))
+      ((AbstractMapObject) polygon).setViewport(m_Viewport);
+    if (repaint)
+      m_Viewer.getViewer().addMapPolygon(polygon);
+    else
+      m_Viewer.getViewer().getMapPolygonList().add(polygon);
+    if (m_PolygonIndex != null)
+      m_PolygonIndex.add(polygon);
+  }
+
+  /**
+   * Adds the rectangle to the viewer and the spatial index.
+   *
+   * @param rectangle	the rectangle to add
+   * @param repaint	whether to repaint the viewer
+   */
+  protected void addMapRectangle(MapRectangle rectangle, boolean repaint) {
+    if ((m_Viewport != null) && (rectangle instanceof AbstractMapObject))
+      ((AbstractMapObject) rectangle).setViewport(m_Viewport);
+    if (repaint)
+      m_Viewer.getViewer().addMapRectangle(rectangle);
+    else
+      m_Viewer.getViewer().getMapRectangleList().add(rectangle);
+    if (m_RectangleIndex != null)
+      m_RectangleIndex.add(rectangle);
+  }
+
+  /**
+   * Removes the pruned map objects from the spatial indices and the
+   * marker clusters.
+   *
+   * @param pruned	the removed objects
+   */
+  protected void removeFromIndex(List<MapObject> pruned) {
+    for (MapObject obj: pruned) {
+      if (obj instanceof MapMarker) {
+	m_MarkerClusterer.remove((MapMarker) obj);
+	if (m_MarkerIndex != null)
+	  m_MarkerIndex.remove(obj);
+      }
+      else if (m_MarkerIndex != null) {
+	if (obj instanceof MapRectangle)
+	  m_RectangleIndex.remove(obj);
+	else if (obj instanceof MapPolygon)
+	  m_PolygonIndex.remove(obj);
+      }
+    }
+  }
+
+  /**
+   * Adds the map object to the viewer and the spatial index.
+   *
+   * @param obj		the object to add
+   * @param repaint	whether to repaint the viewer
+   */
+  protected void addMapObject(MapObject obj, boolean repaint) {
+    if (obj instanceof MapMarker)
+      addMapMarker((MapMarker) obj, repaint);
+    else if (obj instanceof MapPolygon)
+      addMapPolygon((MapPolygon) obj, repaint);
+    else if (obj instanceof MapRectangle)
+      addMapRectangle((MapRectangle) obj, repaint);
+  }
+
+  /**
+   * Prunes the map objects, if necessary.
+   */
+  protected void pruneMapObjects() {
+    if (!(m_MapObjectPruner instanceof NullPruner)) {
+      m_MapObjectPruner.prune(m_Viewer);
+      removeFromIndex(m_MapObjectPruner.getPruned());
+    }
+  }
+
+  /**
+   * Adds all the queued map objects to the viewer, prunes them and
+   * repaints the viewer once. Stops the batch timer once the queue has
+   * been drained. Must be called from the event dispatch thread.
+   */
+  protected void flushQueue() {
+    MapObject	obj;
+    int		count;
+
+    if ((m_Viewer == null) || (m_Queue == null))
+      return;
+
+    count = 0;
+    while ((obj = m_Queue.poll()) != null) {
+      if (updateLayer(obj)) {
+	addMapObject(obj, false);
+	count++;
+      }
+    }
+
+    // objects that got queued after draining restart the timer
+    if (m_BatchTimer != null) {
+      m_BatchTimer.stop();
+      if (!m_Queue.isEmpty())
+	m_BatchTimer.start();
+    }
+
+    if (count == 0)
+      return;
+
+    if (isLoggingEnabled())
+      getLogger().fine("Batch of map objects added: " + count);
+
+    pruneMapObjects();
+    m_Viewer.getViewer().repaint();
+  }
+
   /**
    * Displays the token (the panel and dialog have already been created at
    * this stage).
@@ -866,49 +1214,37 @@ public class OpenStreetMapViewer
    */
   @Override
   protected void display(Token token) {
-    MapMarker[]		markers;
-    MapPolygon[] 	polygons;
-    MapRectangle[]	rectangles;
-    
-    if (token.getPayload() instanceof MapMarker) {
-      MapMarker marker = (MapMarker) token.getPayload();
-      if (updateLayer(marker))
-	m_Viewer.getViewer().addMapMarker(marker);
-    }
-    else if (token.getPayload() instanceof MapMarker[]) {
-      markers = (MapMarker[]) token.getPayload();
-      for (MapMarker marker: markers) {
-	if (updateLayer(marker))
-	  m_Viewer.getViewer().addMapMarker(marker);
-      }
+    MapObject[]		objects;
+
+    if (token.getPayload() instanceof MapObject) {
+      objects = new MapObject[]{(MapObject) token.getPayload()};
     }
-    else if (token.getPayload() instanceof MapPolygon) {
-      MapPolygon polygon = (MapPolygon) token.getPayload();
-      if (updateLayer(polygon))
-	m_Viewer.getViewer().addMapPolygon(polygon);
+    else if (token.getPayload() instanceof MapObject[]) {
+      objects = (MapObject[]) token.getPayload();
     }
-    else if (token.getPayload() instanceof MapPolygon[]) {
-      polygons = (MapPolygon[]) token.getPayload();
-      for (MapPolygon polygon: polygons) {
-	if (updateLayer(polygon))
-	  m_Viewer.getViewer().addMapPolygon(polygon);
-      }
+    else {
+      getLogger().warning("Unhandled payload: " + (token.getPayload() == null ? "null" : token.getPayload().getClass().getName()));
+      return;
     }
-    else if (token.getPayload() instanceof MapRectangle) {
-      MapRectangle rectangle = (MapRectangle) token.getPayload();
-      if (updateLayer(rectangle))
-	m_Viewer.getViewer().addMapRectangle(rectangle);
+
+    // batch mode: layers get updated when flushing the queue on the EDT,
+    // timer only runs while objects are queued
+    if (m_BatchInterval > 0) {
+      m_Queue.addAll(Arrays.asList(objects));
+      if (!m_BatchTimer.isRunning())
+	SwingUtilities.invokeLater(() -> {
+	  if ((m_BatchTimer != null) && !m_BatchTimer.isRunning() && !m_Queue.isEmpty())
+	    m_BatchTimer.start();
+	});
+      return;
     }
-    else if (token.getPayload() instanceof MapRectangle[]) {
-      rectangles = (MapRectangle[]) token.getPayload();
-      for (MapRectangle rectangle: rectangles) {
-	if (updateLayer(rectangle))
-	  m_Viewer.getViewer().addMapRectangle(rectangle);
-      }
+
+    for (MapObject obj: objects) {
+      if (updateLayer(obj))
+	addMapObject(obj, true);
     }
-    
-    if (!(m_MapObjectPruner instanceof NullPruner))
-      m_MapObjectPruner.prune(m_Viewer);
+
+    pruneMapObjects();
   }
 
   /**
@@ -916,10 +1252,18 @@ public class OpenStreetMapViewer
    */
   @Override
   public void clearPanel() {
+    if (m_Queue != null)
+      m_Queue.clear();
     if (m_Viewer != null) {
       m_Viewer.getViewer().removeAllMapMarkers();
       m_Viewer.getViewer().removeAllMapPolygons();
       m_Viewer.getViewer().removeAllMapRectangles();
+      m_MarkerClusterer.clear();
+      if (m_MarkerIndex != null) {
+	m_MarkerIndex.clear();
+	m_RectangleIndex.clear();
+	m_PolygonIndex.clear();
+      }
       m_Viewer.getTree().setModel(new DefaultTreeModel(new DefaultMutableTreeNode(new CheckBoxNodeData(m_LayerTreeRoot))));
       // TODO more?
     }
@@ -975,6 +1319,84 @@ public class OpenStreetMapViewer
     }
   }
 
+  /**
+   * Checks the candidates for hits, skipping objects in invisible layers.
+   *
+   * @param candidates	the candidates to check
+   * @param coord	the coordinate of the click
+   * @param visible	the visible layers, gets initialized on demand
+   * @param hits	for storing the hits
+   * @return		the (potentially initialized) visible layers
+   */
+  protected HashSet<AbstractLayer> checkHits(List<? extends MapObject> candidates, Coordinate coord, HashSet<AbstractLayer> visible, List<MapObject> hits) {
+    for (MapObject obj: candidates) {
+      if (!(obj instanceof HitIndicator))
+	continue;
+      if (visible == null)
+	visible = new HashSet<>(m_Viewer.getVisibleLayers());
+      if (!visible.contains(obj.getLayer()))
+	continue;
+      if (((HitIndicator) obj).isHit(m_Viewer.getViewer(), coord))
+	hits.add(obj);
+    }
+
+    return visible;
+  }
+
+  /**
+   * Determines all the map objects that are hit by the click at the
+   * specified position. Uses the spatial indices to determine the candidates,
+   * which re-index any objects that moved since they got added.
+   *
+   * @param point	the position of the click on the map
+   * @return		the hits
+   */
+  protected List<MapObject> findHits(Point point) {
+    List<MapObject>		result;
+    Coordinate 			coord;
+    HashSet<AbstractLayer> 	visible;
+    Point			offset;
+    int				radius;
+    Coordinate			topLeft;
+    Coordinate			bottomRight;
+    List<MapMarker>		markers;
+
+    result  = new ArrayList<>();
+    visible = null;
+    coord   = m_Viewer.getViewer().getPosition(point);
+    if (coord == null)
+      return result;
+
+    synchronizeIndices();
+
+    // markers: hit radius is in pixels, hence search neighborhood of click
+    radius = (int) Math.ceil(m_MaxFixedRadius);
+    if (m_MaxVariableRadius > 0) {
+      offset = m_Viewer.getViewer().getMapPosition(new Coordinate(Math.min(90.0, coord.getLat() + m_MaxVariableRadius), coord.getLon()), false);
+      if (offset != null)
+	radius = Math.max(radius, 2 * Math.abs(point.y - offset.y));
+    }
+    radius     += 1;
+    topLeft     = m_Viewer.getViewer().getPosition(point.x - radius, point.y - radius);
+    bottomRight = m_Viewer.getViewer().getPosition(point.x + radius, point.y + radius);
+    markers = m_MarkerIndex.query(
+      Math.min(topLeft.getLat(), bottomRight.getLat()),
+      Math.min(topLeft.getLon(), bottomRight.getLon()),
+      Math.max(topLeft.getLat(), bottomRight.getLat()),
+      Math.max(topLeft.getLon(), bottomRight.getLon()));
+    // skip markers that are replaced by clusters
+    markers.removeIf((MapMarker marker) -> !m_MarkerClusterer.isPainted(m_Viewer.getViewer(), marker));
+    visible = checkHits(markers, coord, visible, result);
+
+    // rectangles
+    visible = checkHits(m_RectangleIndex.query(coord.getLat(), coord.getLon()), coord, visible, result);
+
+    // polygons
+    checkHits(m_PolygonIndex.query(coord.getLat(), coord.getLon()), coord, visible, result);
+
+    return result;
+  }
+
   /**
    * Creates the panel to display in the dialog.
    *
@@ -994,7 +1416,9 @@ public class OpenStreetMapViewer
     m_Viewer.getViewer().setZoomContolsVisible(m_ZoomControls);
     m_Viewer.getViewer().setTileGridVisible(m_TileGrid);
     try {
-      m_Viewer.getViewer().setTileSource(m_TileSource.generate());
+      closeTileSource();
+      m_TileSourceInstance = m_TileSource.generate();
+      m_Viewer.getViewer().setTileSource(m_TileSourceInstance);
     }
     catch (Exception e) {
       getLogger().log(Level.SEVERE, "Failed to generate tile source: " + OptionUtils.getCommandLine(m_TileSource), e);
@@ -1012,43 +1436,16 @@ public class OpenStreetMapViewer
     
     // hit listener?
     if (!(m_HitListener instanceof NullMapObjectHitListener)) {
+      m_MarkerIndex       = new MapObjectIndex<>();
+      m_RectangleIndex    = new MapObjectIndex<>();
+      m_PolygonIndex      = new MapObjectIndex<>();
+      m_MaxFixedRadius    = 0;
+      m_MaxVariableRadius = 0;
       m_Viewer.getViewer().addMouseListener(new MouseAdapter() {
 	@Override
 	public void mouseClicked(MouseEvent e) {
 	  if (MouseUtils.isLeftClick(e)) {
-	    List<MapObject> hits = new ArrayList<MapObject>();
-	    Coordinate coord = m_Viewer.getViewer().getPosition(e.getPoint());
-	    HashSet<AbstractLayer> visible = new HashSet<AbstractLayer>(m_Viewer.getVisibleLayers());
-	    
-	    // markers
-	    for (MapMarker obj: m_Viewer.getViewer().getMapMarkerList()) {
-	      if (!visible.contains(obj.getLayer()))
-		continue;
-	      if (obj instanceof HitIndicator) {
-		if (((HitIndicator) obj).isHit(m_Viewer.getViewer(), coord))
-		  hits.add(obj);
-	      }
-	    }
-	    
-	    // rectangles
-	    for (MapRectangle obj: m_Viewer.getViewer().getMapRectangleList()) {
-	      if (!visible.contains(obj.getLayer()))
-		continue;
-	      if (obj instanceof HitIndicator) {
-		if (((HitIndicator) obj).isHit(m_Viewer.getViewer(), coord))
-		  hits.add(obj);
-	      }
-	    }
-	    
-	    // polygons
-	    for (MapPolygon obj: m_Viewer.getViewer().getMapPolygonList()) {
-	      if (!visible.contains(obj.getLayer()))
-		continue;
-	      if (obj instanceof HitIndicator) {
-		if (((HitIndicator) obj).isHit(m_Viewer.getViewer(), coord))
-		  hits.add(obj);
-	      }
-	    }
+	    List<MapObject> hits = findHits(e.getPoint());
 
 	    // any hits?
 	    if (hits.size() > 0) {
@@ -1063,6 +1460,11 @@ public class OpenStreetMapViewer
 	}
       });
     }
+    else {
+      m_MarkerIndex    = null;
+      m_RectangleIndex = null;
+      m_PolygonIndex   = null;
+    }
     
     // click listener?
     if (!(m_ClickListener instanceof NullMapClickListener)) {
@@ -1084,6 +1486,36 @@ public class OpenStreetMapViewer
       });
     }
 
+    // clustering replaces markers depending on zoom level
+    m_MarkerClusterer.clear();
+    m_MarkerClusterer.update(m_Viewer.getViewer());
+    m_Viewer.getViewer().addJMVListener((JMVCommandEvent e) -> m_MarkerClusterer.update(m_Viewer.getViewer()));
+
+    // viewport culling?
+    if (m_ViewportCulling) {
+      m_Viewport = new MapViewport();
+      m_Viewer.getViewer().addJMVListener((JMVCommandEvent e) -> m_Viewport.update(m_Viewer.getViewer()));
+      m_Viewer.getViewer().addComponentListener(new ComponentAdapter() {
+	@Override
+	public void componentResized(ComponentEvent e) {
+	  m_Viewport.update(m_Viewer.getViewer());
+	}
+      });
+    }
+    else {
+      m_Viewport = null;
+    }
+
+    // batch mode?
+    m_Queue = new ConcurrentLinkedQueue<>();
+    if (m_BatchInterval > 0) {
+      m_BatchTimer = new Timer(m_BatchInterval, (ActionEvent e) -> flushQueue());
+      m_BatchTimer.setCoalesce(true);
+    }
+    else {
+      m_BatchTimer = null;
+    }
+
     result.add(m_Viewer, BorderLayout.CENTER);
     
     m_MapOverlayPlaceholderPanel = new JPanel() {
@@ -1097,6 +1529,8 @@ public class OpenStreetMapViewer
       }
       @Override
       protected void paintComponent(Graphics g) {
+	// paint the marker clusters
+	m_MarkerClusterer.paintClusters(m_Viewer.getViewer(), g);
 	// pain the overlay
         m_MapOverlay.paintOverlay(OpenStreetMapViewer.this, g);
       }
@@ -1106,4 +1540,38 @@ public class OpenStreetMapViewer
     
     return result;
   }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    if (m_BatchTimer != null) {
+      m_BatchTimer.stop();
+      SwingUtilities.invokeLater(() -> flushQueue());
+    }
+
+    super.wrapUp();
+  }
+
+  /**
+   * Releases the resources held by the tile source in use, e.g., the
+   * database connections of local tile sources.
+   */
+  protected void closeTileSource() {
+    if (m_TileSourceInstance instanceof LocalTileSource.Source)
+      ((LocalTileSource.Source) m_TileSourceInstance).close();
+    m_TileSourceInstance = null;
+  }
+
+  /**
+   * Cleans up after the execution has finished. Also removes graphical
+   * components.
+   */
+  @Override
+  public void cleanUp() {
+    closeTileSource();
+
+    super.cleanUp();
+  }
 }
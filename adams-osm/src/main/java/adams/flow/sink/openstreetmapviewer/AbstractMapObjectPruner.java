@@ -20,12 +20,21 @@
 package adams.flow.sink.openstreetmapviewer;
 
 import org.openstreetmap.gui.jmapviewer.JMapViewerTree;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapObject;
 
 import adams.core.option.AbstractOptionHandler;
+import adams.data.mapobject.TimestampSupporter;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
 /**
  * Ancestor for classes that prune the map objects of a 
  * {@link JMapViewerTree}.
+ * <br>
+ * Pruning can be batched, ie only performed every N calls and/or after
+ * a minimum amount of time has passed since the last pruning run.
  * 
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
@@ -36,6 +45,243 @@ public abstract class AbstractMapObjectPruner
   /** for serialization. */
   private static final long serialVersionUID = -5527808078324909954L;
 
+  /** prune every N calls. */
+  protected int m_PruneEvery;
+
+  /** the minimum interval in msec between pruning runs. */
+  protected int m_PruneInterval;
+
+  /** the number of calls since the last pruning run. */
+  protected transient int m_Calls;
+
+  /** the timestamp of the last pruning run. */
+  protected transient long m_LastPruned;
+
+  /** the map objects that got removed in the last pruning run. */
+  protected transient List<MapObject> m_Pruned;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "prune-every", "pruneEvery",
+	    1, 0, null);
+
+    m_OptionManager.add(
+	    "prune-interval", "pruneInterval",
+	    0, 0, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_Calls      = 0;
+    m_LastPruned = 0;
+  }
+
+  /**
+   * Sets after how many calls to prune.
+   *
+   * @param value	the number of calls, 0 to disable
+   */
+  public void setPruneEvery(int value) {
+    if (value >= 0) {
+      m_PruneEvery = value;
+      reset();
+    }
+    else {
+      getLogger().warning("Prune every must be at least 0, provided: " + value);
+    }
+  }
+
+  /**
+   * Returns after how many calls to prune.
+   *
+   * @return		the number of calls, 0 if disabled
+   */
+  public int getPruneEvery() {
+    return m_PruneEvery;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String pruneEveryTipText() {
+    return 
+	"Prunes only every N calls; 0 to disable; if both, this and the "
+	+ "interval, are disabled then pruning occurs with every call.";
+  }
+
+  /**
+   * Sets the minimum interval between pruning runs.
+   *
+   * @param value	the interval in msec, 0 to disable
+   */
+  public void setPruneInterval(int value) {
+    if (value >= 0) {
+      m_PruneInterval = value;
+      reset();
+    }
+    else {
+      getLogger().warning("Prune interval must be at least 0, provided: " + value);
+    }
+  }
+
+  /**
+   * Returns the minimum interval between pruning runs.
+   *
+   * @return		the interval in msec, 0 if disabled
+   */
+  public int getPruneInterval() {
+    return m_PruneInterval;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String pruneIntervalTipText() {
+    return 
+	"Prunes once the specified time in msec has passed since the last "
+	+ "pruning run; 0 to disable; if both, this and prune every, are "
+	+ "disabled then pruning occurs with every call.";
+  }
+
+  /**
+   * Records the map object as pruned.
+   *
+   * @param obj		the object that got removed
+   */
+  protected void pruned(MapObject obj) {
+    if (m_Pruned == null)
+      m_Pruned = new ArrayList<>();
+    m_Pruned.add(obj);
+  }
+
+  /**
+   * Returns the map objects that got removed during the last pruning run,
+   * eg for updating spatial indices.
+   *
+   * @return		the removed objects
+   */
+  public List<MapObject> getPruned() {
+    if (m_Pruned == null)
+      m_Pruned = new ArrayList<>();
+    return m_Pruned;
+  }
+
+  /**
+   * Removes the specified number of objects from the start of the list,
+   * ie the oldest ones, in a single operation.
+   *
+   * @param list	the list to prune
+   * @param count	the number of objects to remove
+   * @return		the number of removed objects
+   */
+  protected <T extends MapObject> int pruneHead(List<T> list, int count) {
+    List<T>	head;
+
+    synchronized(list) {
+      count = Math.min(count, list.size());
+      if (count <= 0)
+	return 0;
+      head = list.subList(0, count);
+      for (T obj: head)
+	pruned(obj);
+      head.clear();
+    }
+
+    return count;
+  }
+
+  /**
+   * Removes all objects from the list that are older than the cut-off date.
+   * Objects that don't implement {@link TimestampSupporter} are kept.
+   *
+   * @param list	the list to prune
+   * @param cutoff	the cut-off date
+   * @param ordered	if true, the objects are assumed to be ordered by
+   * 			timestamp and only the head of the list gets inspected
+   * @return		the number of removed objects
+   */
+  protected <T extends MapObject> int pruneOlderThan(List<T> list, Date cutoff, boolean ordered) {
+    int		count;
+    List<T>	kept;
+
+    synchronized(list) {
+      // expired objects form the head of the list
+      if (ordered) {
+	count = 0;
+	for (T obj: list) {
+	  if (!(obj instanceof TimestampSupporter))
+	    break;
+	  if (((TimestampSupporter) obj).getTimestamp().compareTo(cutoff) >= 0)
+	    break;
+	  count++;
+	}
+	return pruneHead(list, count);
+      }
+
+      // single pass over all objects
+      count = 0;
+      kept  = new ArrayList<>(list.size());
+      for (T obj: list) {
+	if ((obj instanceof TimestampSupporter) && (((TimestampSupporter) obj).getTimestamp().compareTo(cutoff) < 0)) {
+	  pruned(obj);
+	  count++;
+	}
+	else {
+	  kept.add(obj);
+	}
+      }
+      if (count > 0) {
+	list.clear();
+	list.addAll(kept);
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Checks whether pruning is due, updating the counters.
+   *
+   * @return		true if to prune
+   */
+  protected boolean isPruneDue() {
+    long	now;
+
+    if ((m_PruneEvery == 0) && (m_PruneInterval == 0))
+      return true;
+
+    m_Calls++;
+    now = System.currentTimeMillis();
+    if (m_LastPruned == 0)
+      m_LastPruned = now;
+
+    if (    ((m_PruneEvery > 0) && (m_Calls >= m_PruneEvery))
+	 || ((m_PruneInterval > 0) && (now - m_LastPruned >= m_PruneInterval)) ) {
+      m_Calls      = 0;
+      m_LastPruned = now;
+      return true;
+    }
+
+    return false;
+  }
+
   /**
    * Prunes the map objects.
    * 
@@ -44,11 +290,14 @@ public abstract class AbstractMapObjectPruner
   protected abstract void doPrune(JMapViewerTree tree);
 
   /**
-   * Prunes the map objects.
+   * Prunes the map objects, if due.
    * 
    * @param tree	the tree to prune
+   * @see		#isPruneDue()
    */
   public void prune(JMapViewerTree tree) {
-    doPrune(tree);
+    m_Pruned = new ArrayList<>();
+    if (isPruneDue())
+      doPrune(tree);
   }
 }
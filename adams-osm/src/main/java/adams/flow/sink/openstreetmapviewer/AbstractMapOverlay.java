@@ -15,11 +15,15 @@
 
 /**
  * AbstractMapOverlay.java
- * Copyright (C) 2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.sink.openstreetmapviewer;
 
+import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
 
 import org.openstreetmap.gui.jmapviewer.JMapViewer;
 
@@ -28,6 +32,10 @@ import adams.flow.sink.OpenStreetMapViewer;
 
 /**
  * Ancestor for classes that paint an overlay on a {@link JMapViewer}.
+ * <br><br>
+ * Optionally, the overlay can be painted into an off-screen buffer, which
+ * only gets repainted when the state returned by
+ * {@link #getBufferState(OpenStreetMapViewer)} changes.
  * 
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
@@ -40,6 +48,15 @@ public abstract class AbstractMapOverlay
   
   /** whether the overlay is enabled. */
   protected boolean m_Enabled;
+
+  /** whether to use an off-screen buffer. */
+  protected boolean m_Buffered;
+
+  /** the off-screen buffer. */
+  protected transient BufferedImage m_Buffer;
+
+  /** the state the buffer was painted for. */
+  protected transient Object m_BufferState;
   
   /**
    * Adds options to the internal list of options.
@@ -51,6 +68,20 @@ public abstract class AbstractMapOverlay
     m_OptionManager.add(
 	    "enabled", "enabled",
 	    true);
+
+    m_OptionManager.add(
+	    "buffered", "buffered",
+	    false);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    invalidateBuffer();
   }
 
   /**
@@ -82,6 +113,60 @@ public abstract class AbstractMapOverlay
     return "If enabled, the overlay gets painted.";
   }
 
+  /**
+   * Sets whether to paint the overlay into an off-screen buffer.
+   *
+   * @param value	true if buffered
+   */
+  public void setBuffered(boolean value) {
+    m_Buffered = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to paint the overlay into an off-screen buffer.
+   *
+   * @return		true if buffered
+   */
+  public boolean getBuffered() {
+    return m_Buffered;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String bufferedTipText() {
+    return
+      "If enabled, the overlay gets painted into an off-screen buffer, which "
+	+ "only gets repainted when the size of the viewer or the content of "
+	+ "the overlay changes.";
+  }
+
+  /**
+   * Discards the off-screen buffer, forcing a repaint.
+   */
+  public void invalidateBuffer() {
+    m_Buffer      = null;
+    m_BufferState = null;
+  }
+
+  /**
+   * Returns the state that the off-screen buffer depends on. If the state
+   * differs from the one the buffer was painted for, the buffer gets
+   * repainted.
+   * <br><br>
+   * Default implementation returns the size of the viewer.
+   *
+   * @param viewer	the associated viewer
+   * @return		the state
+   */
+  protected Object getBufferState(OpenStreetMapViewer viewer) {
+    return viewer.getViewer().getViewer().getSize();
+  }
+
   /**
    * Gets executed before the actual painting.
    * <br><br>
@@ -119,10 +204,39 @@ public abstract class AbstractMapOverlay
    * @param g		the graphics context
    */
   public void paintOverlay(OpenStreetMapViewer viewer, Graphics g) {
-    if (m_Enabled) {
+    Object	state;
+    Dimension	size;
+    Graphics2D	g2d;
+
+    if (!m_Enabled)
+      return;
+
+    if (!m_Buffered) {
       prePaintOverlay(viewer, g);
       doPaintOverlay(viewer, g);
       postPaintOverlay(viewer, g);
+      return;
     }
+
+    state = getBufferState(viewer);
+    if ((m_Buffer == null) || !Objects.equals(state, m_BufferState)) {
+      invalidateBuffer();
+      size = viewer.getViewer().getViewer().getSize();
+      if ((size.width <= 0) || (size.height <= 0))
+	return;
+      m_Buffer = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+      g2d      = m_Buffer.createGraphics();
+      g2d.setFont(g.getFont());
+      g2d.setColor(g.getColor());
+      if (g instanceof Graphics2D)
+	g2d.setRenderingHints(((Graphics2D) g).getRenderingHints());
+      prePaintOverlay(viewer, g2d);
+      doPaintOverlay(viewer, g2d);
+      postPaintOverlay(viewer, g2d);
+      g2d.dispose();
+      m_BufferState = state;
+    }
+
+    g.drawImage(m_Buffer, 0, 0, null);
   }
 }
@@ -0,0 +1,116 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractMarkerClusterer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import adams.core.option.AbstractOptionHandler;
+import org.openstreetmap.gui.jmapviewer.JMapViewer;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
+
+import java.awt.Graphics;
+
+/**
+ * Ancestor for schemes that aggregate the markers of a {@link JMapViewer}
+ * into clusters at low zoom levels. While clustering is active, the
+ * clusters get painted instead of the individual markers.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class AbstractMarkerClusterer
+  extends AbstractOptionHandler {
+
+  private static final long serialVersionUID = 2912532290549424781L;
+
+  /**
+   * Removes all markers.
+   */
+  public abstract void clear();
+
+  /**
+   * Adds the marker to the clusters.
+   *
+   * @param marker	the marker to add
+   */
+  public abstract void add(MapMarker marker);
+
+  /**
+   * Removes the marker from the clusters.
+   *
+   * @param marker	the marker to remove
+   */
+  public abstract void remove(MapMarker marker);
+
+  /**
+   * Returns whether the clusters replace the markers at the specified zoom
+   * level.
+   *
+   * @param zoom	the zoom level
+   * @return		true if the clusters get painted instead of the markers
+   */
+  public abstract boolean isActive(int zoom);
+
+  /**
+   * Performs the actual painting of the clusters.
+   *
+   * @param viewer	the viewer to paint the clusters for
+   * @param g		the graphics context
+   */
+  protected abstract void doPaintClusters(JMapViewer viewer, Graphics g);
+
+  /**
+   * Toggles the painting of the markers by the viewer itself, depending on
+   * whether clustering is active at the viewer's current zoom level.
+   * Must be called whenever the zoom level changes.
+   *
+   * @param viewer	the viewer to update
+   */
+  public void update(JMapViewer viewer) {
+    boolean	active;
+
+    active = isActive(viewer.getZoom());
+    if (viewer.getMapMarkersVisible() == active)
+      viewer.setMapMarkerVisible(!active);
+  }
+
+  /**
+   * Returns whether the marker gets painted individually at the viewer's
+   * current zoom level, i.e., whether it can be hit by a click.
+   * <br><br>
+   * Default implementation returns true if clustering is not active.
+   *
+   * @param viewer	the viewer to check
+   * @param marker	the marker to check
+   * @return		true if painted individually
+   */
+  public boolean isPainted(JMapViewer viewer, MapMarker marker) {
+    return !isActive(viewer.getZoom());
+  }
+
+  /**
+   * Paints the clusters for the current zoom level, if active.
+   *
+   * @param viewer	the viewer to paint the clusters for
+   * @param g		the graphics context
+   * @see #update(JMapViewer)
+   */
+  public void paintClusters(JMapViewer viewer, Graphics g) {
+    if (isActive(viewer.getZoom()))
+      doPaintClusters(viewer, g);
+  }
+}
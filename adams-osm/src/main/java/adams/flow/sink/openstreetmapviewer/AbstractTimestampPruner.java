@@ -0,0 +1,84 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractTimestampPruner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import adams.data.mapobject.TimestampSupporter;
+
+/**
+ * Ancestor for pruners that remove map objects based on their timestamp
+ * (see {@link TimestampSupporter}).
+ * <br>
+ * If the map objects arrive in chronological order, only the head of the
+ * lists needs to be inspected, as the expired objects are the oldest ones.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class AbstractTimestampPruner
+  extends AbstractMapObjectPruner {
+
+  private static final long serialVersionUID = -8219011376301652306L;
+
+  /** whether the map objects are ordered by timestamp. */
+  protected boolean m_TimeOrdered;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "time-ordered", "timeOrdered",
+	    false);
+  }
+
+  /**
+   * Sets whether the map objects are ordered by timestamp.
+   *
+   * @param value	true if ordered
+   */
+  public void setTimeOrdered(boolean value) {
+    m_TimeOrdered = value;
+    reset();
+  }
+
+  /**
+   * Returns whether the map objects are ordered by timestamp.
+   *
+   * @return		true if ordered
+   */
+  public boolean getTimeOrdered() {
+    return m_TimeOrdered;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String timeOrderedTipText() {
+    return 
+	"If enabled, the map objects are assumed to arrive in chronological "
+	+ "order and only the oldest ones at the start of the lists get inspected; "
+	+ "pruning stops at the first object that hasn't expired or has no timestamp.";
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DirectoryTileReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Reads tiles from a z/x/y directory tree, e.g., "14/16173/10245.png".
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DirectoryTileReader
+  implements LocalTileReader {
+
+  /** the root directory. */
+  protected File m_Directory;
+
+  /** the file extension (without dot). */
+  protected String m_Extension;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param dir		the root directory of the tree
+   * @param extension	the file extension of the tiles (without dot)
+   */
+  public DirectoryTileReader(File dir, String extension) {
+    m_Directory = dir;
+    m_Extension = extension;
+  }
+
+  /**
+   * Returns the file for the specified tile.
+   *
+   * @param zoom	the zoom level
+   * @param x		the x coordinate of the tile
+   * @param y		the y coordinate of the tile
+   * @return		the file
+   */
+  public File getFile(int zoom, int x, int y) {
+    return new File(m_Directory, zoom + File.separator + x + File.separator + y + "." + m_Extension);
+  }
+
+  /**
+   * Reads the data of the specified tile.
+   *
+   * @param zoom	the zoom level
+   * @param x		the x coordinate of the tile
+   * @param y		the y coordinate of the tile
+   * @return		the raw image data, null if the tile is not available
+   * @throws IOException	if reading fails
+   */
+  @Override
+  public byte[] read(int zoom, int x, int y) throws IOException {
+    File	file;
+
+    file = getFile(zoom, x, y);
+    if (!file.isFile())
+      return null;
+
+    return Files.readAllBytes(file.toPath());
+  }
+
+  /**
+   * Does nothing.
+   */
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,689 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * GridMarkerClusterer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import org.openstreetmap.gui.jmapviewer.Coordinate;
+import org.openstreetmap.gui.jmapviewer.JMapViewer;
+import org.openstreetmap.gui.jmapviewer.Layer;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
+
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ <!-- globalinfo-start -->
+ * Aggregates the markers into count bubbles, using a grid with cells of fixed pixel size for each zoom level. The clusters of a zoom level get computed when the level is displayed for the first time and are updated incrementally afterwards. Markers that are not visible (e.g., in a hidden layer) are not clustered.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-max-zoom &lt;int&gt; (property: maxZoom)
+ * &nbsp;&nbsp;&nbsp;The maximum zoom level at which the markers still get clustered.
+ * &nbsp;&nbsp;&nbsp;default: 12
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * &nbsp;&nbsp;&nbsp;maximum: 22
+ * </pre>
+ *
+ * <pre>-cell-size &lt;int&gt; (property: cellSize)
+ * &nbsp;&nbsp;&nbsp;The size in pixels of the grid cells.
+ * &nbsp;&nbsp;&nbsp;default: 64
+ * &nbsp;&nbsp;&nbsp;minimum: 8
+ * </pre>
+ *
+ * <pre>-bubble-color &lt;java.awt.Color&gt; (property: bubbleColor)
+ * &nbsp;&nbsp;&nbsp;The fill color of the bubbles.
+ * &nbsp;&nbsp;&nbsp;default: #c8ffa500
+ * </pre>
+ *
+ * <pre>-text-color &lt;java.awt.Color&gt; (property: textColor)
+ * &nbsp;&nbsp;&nbsp;The color for the border and count of the bubbles.
+ * &nbsp;&nbsp;&nbsp;default: #000000
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class GridMarkerClusterer
+  extends AbstractMarkerClusterer {
+
+  private static final long serialVersionUID = 4622452998498958541L;
+
+  /** the tile size in pixels used by the map. */
+  public final static int TILE_SIZE = 256;
+
+  /** the maximum zoom level supported. */
+  public final static int MAX_ZOOM = 22;
+
+  /** the maximum latitude of the mercator projection. */
+  public final static double MAX_LAT = 85.05112877980659;
+
+  /**
+   * Aggregates the markers of a single grid cell.
+   */
+  protected static class Cluster
+    implements Serializable {
+
+    private static final long serialVersionUID = -1406962722062616001L;
+
+    /** the number of markers. */
+    public int count;
+
+    /** the sum of the latitudes. */
+    public double sumLat;
+
+    /** the sum of the longitudes. */
+    public double sumLon;
+
+    /** the first marker, null if removed. */
+    public MapMarker first;
+  }
+
+  /**
+   * The clusters of a single zoom level.
+   */
+  protected static class Level
+    implements Serializable {
+
+    private static final long serialVersionUID = 5216917099484787587L;
+
+    /** the clusters (cell key - cluster). */
+    public Map<Long,Cluster> clusters = new HashMap<>();
+
+    /** the total number of markers, including hidden ones. */
+    public int total;
+
+    /** the visibility of the layers at the time of clustering. */
+    public Map<Layer,Boolean> layers = new IdentityHashMap<>();
+
+    /** whether a single-marker cluster lost track of its marker. */
+    public boolean stale;
+  }
+
+  /** the maximum zoom level for clustering. */
+  protected int m_MaxZoom;
+
+  /** the size of the grid cells in pixels. */
+  protected int m_CellSize;
+
+  /** the fill color of the bubbles. */
+  protected Color m_BubbleColor;
+
+  /** the color of the text and border. */
+  protected Color m_TextColor;
+
+  /** the clusters per zoom level (null if not yet computed). */
+  protected transient Level[] m_Levels;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Aggregates the markers into count bubbles, using a grid with cells of "
+	+ "fixed pixel size for each zoom level. The clusters of a zoom level "
+	+ "get computed when the level is displayed for the first time and are "
+	+ "updated incrementally afterwards. Markers that are not visible "
+	+ "(e.g., in a hidden layer) are not clustered.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "max-zoom", "maxZoom",
+	    12, 0, MAX_ZOOM);
+
+    m_OptionManager.add(
+	    "cell-size", "cellSize",
+	    64, 8, null);
+
+    m_OptionManager.add(
+	    "bubble-color", "bubbleColor",
+	    new Color(255, 165, 0, 200));
+
+    m_OptionManager.add(
+	    "text-color", "textColor",
+	    Color.BLACK);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_Levels = null;
+  }
+
+  /**
+   * Sets the maximum zoom level for clustering.
+   *
+   * @param value	the zoom level
+   */
+  public void setMaxZoom(int value) {
+    if (getOptionManager().isValid("maxZoom", value)) {
+      m_MaxZoom = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum zoom level for clustering.
+   *
+   * @return		the zoom level
+   */
+  public int getMaxZoom() {
+    return m_MaxZoom;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String maxZoomTipText() {
+    return "The maximum zoom level at which the markers still get clustered.";
+  }
+
+  /**
+   * Sets the size of the grid cells.
+   *
+   * @param value	the size in pixels
+   */
+  public void setCellSize(int value) {
+    if (getOptionManager().isValid("cellSize", value)) {
+      m_CellSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the size of the grid cells.
+   *
+   * @return		the size in pixels
+   */
+  public int getCellSize() {
+    return m_CellSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String cellSizeTipText() {
+    return "The size in pixels of the grid cells.";
+  }
+
+  /**
+   * Sets the fill color of the bubbles.
+   *
+   * @param value	the color
+   */
+  public void setBubbleColor(Color value) {
+    m_BubbleColor = value;
+    reset();
+  }
+
+  /**
+   * Returns the fill color of the bubbles.
+   *
+   * @return		the color
+   */
+  public Color getBubbleColor() {
+    return m_BubbleColor;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String bubbleColorTipText() {
+    return "The fill color of the bubbles.";
+  }
+
+  /**
+   * Sets the color for the border and count of the bubbles.
+   *
+   * @param value	the color
+   */
+  public void setTextColor(Color value) {
+    m_TextColor = value;
+    reset();
+  }
+
+  /**
+   * Returns the color for the border and count of the bubbles.
+   *
+   * @return		the color
+   */
+  public Color getTextColor() {
+    return m_TextColor;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String textColorTipText() {
+    return "The color for the border and count of the bubbles.";
+  }
+
+  /**
+   * Returns the size of the world in pixels at the specified zoom level.
+   *
+   * @param zoom	the zoom level
+   * @return		the size in pixels
+   */
+  protected static double worldSize(int zoom) {
+    return (double) ((long) TILE_SIZE << zoom);
+  }
+
+  /**
+   * Projects the longitude onto the x axis of the world in pixels.
+   *
+   * @param lon		the longitude
+   * @param zoom	the zoom level
+   * @return		the x coordinate
+   */
+  public static double worldX(double lon, int zoom) {
+    return (lon + 180.0) / 360.0 * worldSize(zoom);
+  }
+
+  /**
+   * Projects the latitude onto the y axis of the world in pixels
+   * (mercator projection).
+   *
+   * @param lat		the latitude
+   * @param zoom	the zoom level
+   * @return		the y coordinate
+   */
+  public static double worldY(double lat, int zoom) {
+    double	sin;
+
+    lat = Math.max(-MAX_LAT, Math.min(MAX_LAT, lat));
+    sin = Math.sin(Math.toRadians(lat));
+    return (0.5 - Math.log((1.0 + sin) / (1.0 - sin)) / (4.0 * Math.PI)) * worldSize(zoom);
+  }
+
+  /**
+   * Generates the key for the cell.
+   *
+   * @param cx		the column of the cell
+   * @param cy		the row of the cell
+   * @return		the key
+   */
+  protected static long cellKey(long cx, long cy) {
+    return (cx << 32) | (cy & 0xffffffffL);
+  }
+
+  /**
+   * Generates the key for the cell that the marker falls into.
+   *
+   * @param marker	the marker to get the cell for
+   * @param zoom	the zoom level
+   * @return		the key
+   */
+  protected long cellKey(MapMarker marker, int zoom) {
+    return cellKey(
+      (long) Math.floor(worldX(marker.getLon(), zoom) / m_CellSize),
+      (long) Math.floor(worldY(marker.getLat(), zoom) / m_CellSize));
+  }
+
+  /**
+   * Returns whether the layer is visible.
+   *
+   * @param layer	the layer to check
+   * @return		true if visible
+   */
+  protected static boolean isVisible(Layer layer) {
+    return (layer.isVisible() == null) || layer.isVisible();
+  }
+
+  /**
+   * Adds the marker to the level. Markers that are hidden (e.g., in an
+   * invisible layer) only get counted, but not clustered.
+   *
+   * @param level	the level to add to
+   * @param zoom	the zoom level
+   * @param marker	the marker to add
+   */
+  protected void add(Level level, int zoom, MapMarker marker) {
+    long	key;
+    Cluster	cluster;
+
+    level.total++;
+    if ((marker.getLayer() != null) && !level.layers.containsKey(marker.getLayer()))
+      level.layers.put(marker.getLayer(), isVisible(marker.getLayer()));
+    if (!marker.isVisible())
+      return;
+
+    key     = cellKey(marker, zoom);
+    cluster = level.clusters.get(key);
+    if (cluster == null) {
+      cluster = new Cluster();
+      level.clusters.put(key, cluster);
+    }
+    cluster.count++;
+    cluster.sumLat += marker.getLat();
+    cluster.sumLon += marker.getLon();
+    if (cluster.first == null)
+      cluster.first = marker;
+  }
+
+  /**
+   * Removes the marker from the level.
+   *
+   * @param level	the level to remove from
+   * @param zoom	the zoom level
+   * @param marker	the marker to remove
+   */
+  protected void remove(Level level, int zoom, MapMarker marker) {
+    long	key;
+    Cluster	cluster;
+
+    level.total--;
+    if (!marker.isVisible())
+      return;
+
+    key     = cellKey(marker, zoom);
+    cluster = level.clusters.get(key);
+    if (cluster == null)
+      return;
+    cluster.count--;
+    cluster.sumLat -= marker.getLat();
+    cluster.sumLon -= marker.getLon();
+    if (cluster.count == 0)
+      level.clusters.remove(key);
+    else if (cluster.first == marker)
+      cluster.first = null;
+    // the remaining marker is unknown and could not be painted or hit
+    if ((cluster.count == 1) && (cluster.first == null))
+      level.stale = true;
+  }
+
+  /**
+   * Removes all markers.
+   */
+  @Override
+  public synchronized void clear() {
+    m_Levels = null;
+  }
+
+  /**
+   * Adds the marker to the already computed zoom levels.
+   *
+   * @param marker	the marker to add
+   */
+  @Override
+  public synchronized void add(MapMarker marker) {
+    int		i;
+
+    if (m_Levels == null)
+      return;
+    for (i = 0; i < m_Levels.length; i++) {
+      if (m_Levels[i] != null)
+	add(m_Levels[i], i, marker);
+    }
+  }
+
+  /**
+   * Removes the marker from the already computed zoom levels.
+   *
+   * @param marker	the marker to remove
+   */
+  @Override
+  public synchronized void remove(MapMarker marker) {
+    int		i;
+
+    if (m_Levels == null)
+      return;
+    for (i = 0; i < m_Levels.length; i++) {
+      if (m_Levels[i] != null)
+	remove(m_Levels[i], i, marker);
+    }
+  }
+
+  /**
+   * Returns whether the clusters replace the markers at the specified zoom
+   * level.
+   *
+   * @param zoom	the zoom level
+   * @return		true if the clusters get painted instead of the markers
+   */
+  @Override
+  public boolean isActive(int zoom) {
+    return (zoom <= m_MaxZoom);
+  }
+
+  /**
+   * Checks whether the visibility of any of the layers changed since the
+   * level got computed.
+   *
+   * @param level	the level to check
+   * @return		true if changed
+   */
+  protected boolean hasLayerVisibilityChanged(Level level) {
+    for (Map.Entry<Layer,Boolean> entry: level.layers.entrySet()) {
+      if (isVisible(entry.getKey()) != entry.getValue())
+	return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the clusters for the zoom level, computing them if necessary.
+   * Levels that have gone out of sync with the markers, whose layers
+   * changed visibility or that contain a single-marker cluster without
+   * its marker get recomputed.
+   *
+   * @param markers	the markers of the viewer
+   * @param zoom	the zoom level
+   * @return		the clusters
+   */
+  protected Level getLevel(List<MapMarker> markers, int zoom) {
+    Level	result;
+
+    if (m_Levels == null)
+      m_Levels = new Level[m_MaxZoom + 1];
+
+    synchronized(markers) {
+      result = m_Levels[zoom];
+      if ((result == null) || result.stale || (result.total != markers.size()) || hasLayerVisibilityChanged(result)) {
+	result = new Level();
+	for (MapMarker marker: markers)
+	  add(result, zoom, marker);
+	m_Levels[zoom] = result;
+	if (isLoggingEnabled())
+	  getLogger().fine("Zoom " + zoom + ": " + result.clusters.size() + " clusters for " + result.total + " markers");
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns whether the marker gets painted individually at the viewer's
+   * current zoom level, i.e., whether it is visible and the only marker
+   * in its cluster.
+   *
+   * @param viewer	the viewer to check
+   * @param marker	the marker to check
+   * @return		true if painted individually
+   */
+  @Override
+  public synchronized boolean isPainted(JMapViewer viewer, MapMarker marker) {
+    return isPainted(viewer.getMapMarkerList(), viewer.getZoom(), marker);
+  }
+
+  /**
+   * Returns whether the marker gets painted individually at the specified
+   * zoom level, i.e., whether it is visible and the only marker in its
+   * cluster.
+   *
+   * @param markers	the markers of the viewer
+   * @param zoom	the zoom level
+   * @param marker	the marker to check
+   * @return		true if painted individually
+   */
+  protected synchronized boolean isPainted(List<MapMarker> markers, int zoom, MapMarker marker) {
+    Cluster	cluster;
+
+    if (!isActive(zoom))
+      return true;
+    if (!marker.isVisible())
+      return false;
+    cluster = getLevel(markers, zoom).clusters.get(cellKey(marker, zoom));
+    return (cluster != null) && (cluster.count == 1) && (cluster.first == marker);
+  }
+
+  /**
+   * Paints a single cluster.
+   *
+   * @param viewer	the viewer to paint on
+   * @param g		the graphics context
+   * @param cluster	the cluster to paint
+   */
+  protected void paintCluster(JMapViewer viewer, Graphics g, Cluster cluster) {
+    Point	pos;
+    Point	offset;
+    int		radius;
+    String	count;
+    FontMetrics	metrics;
+
+    pos = viewer.getMapPosition(cluster.sumLat / cluster.count, cluster.sumLon / cluster.count, false);
+    if (pos == null)
+      return;
+
+    // single marker
+    if (cluster.count == 1) {
+      // unknown or hidden marker: cannot be hit, hence not painted
+      if ((cluster.first == null) || !cluster.first.isVisible())
+	return;
+      if (cluster.first.getMarkerStyle() == MapMarker.STYLE.FIXED) {
+	radius = (int) cluster.first.getRadius();
+      }
+      else {
+	offset = viewer.getMapPosition(cluster.first.getLat() + cluster.first.getRadius(), cluster.first.getLon(), false);
+	radius = (offset == null) ? 1 : Math.abs(pos.y - offset.y);
+      }
+      cluster.first.paint(g, pos, radius);
+      return;
+    }
+
+    // bubble
+    radius = 10 + (int) (4 * Math.log10(cluster.count));
+    g.setColor(m_BubbleColor);
+    g.fillOval(pos.x - radius, pos.y - radius, 2 * radius, 2 * radius);
+    g.setColor(m_TextColor);
+    g.drawOval(pos.x - radius, pos.y - radius, 2 * radius, 2 * radius);
+    count   = "" + cluster.count;
+    metrics = g.getFontMetrics();
+    g.drawString(count, pos.x - metrics.stringWidth(count) / 2, pos.y + (metrics.getAscent() - metrics.getDescent()) / 2);
+  }
+
+  /**
+   * Paints the clusters of the current zoom level that fall into the
+   * visible part of the map.
+   *
+   * @param viewer	the viewer to paint the clusters for
+   * @param g		the graphics context
+   */
+  @Override
+  protected synchronized void doPaintClusters(JMapViewer viewer, Graphics g) {
+    int		zoom;
+    Level	level;
+    Coordinate	topLeft;
+    double	x;
+    double	y;
+    long	cx0;
+    long	cy0;
+    long	cx1;
+    long	cy1;
+    long	cx;
+    long	cy;
+    long	key;
+    Cluster	cluster;
+
+    zoom = viewer.getZoom();
+    if (zoom > m_MaxZoom)
+      return;
+    level = getLevel(viewer.getMapMarkerList(), zoom);
+    if (level.clusters.size() == 0)
+      return;
+
+    topLeft = viewer.getPosition(0, 0);
+    if (topLeft == null)
+      return;
+    x   = worldX(topLeft.getLon(), zoom);
+    y   = worldY(topLeft.getLat(), zoom);
+    cx0 = (long) Math.floor(x / m_CellSize) - 1;
+    cy0 = (long) Math.floor(y / m_CellSize) - 1;
+    cx1 = (long) Math.floor((x + viewer.getWidth()) / m_CellSize) + 1;
+    cy1 = (long) Math.floor((y + viewer.getHeight()) / m_CellSize) + 1;
+
+    // fewer clusters than visible cells?
+    if ((cx1 - cx0 + 1) * (cy1 - cy0 + 1) > level.clusters.size()) {
+      for (Long k: level.clusters.keySet()) {
+	cx = k >> 32;
+	cy = (int) (k & 0xffffffffL);
+	if ((cx >= cx0) && (cx <= cx1) && (cy >= cy0) && (cy <= cy1))
+	  paintCluster(viewer, g, level.clusters.get(k));
+      }
+    }
+    else {
+      for (cx = cx0; cx <= cx1; cx++) {
+	for (cy = cy0; cy <= cy1; cy++) {
+	  key     = cellKey(cx, cy);
+	  cluster = level.clusters.get(key);
+	  if (cluster != null)
+	    paintCluster(viewer, g, cluster);
+	}
+      }
+    }
+  }
+}
@@ -43,6 +43,13 @@ import adams.flow.sink.OpenStreetMapViewer;
  * &nbsp;&nbsp;&nbsp;default: true
  * </pre>
  * 
+ * <pre>-buffered &lt;boolean&gt; (property: buffered)
+ * &nbsp;&nbsp;&nbsp;If enabled, the overlay gets painted into an off-screen buffer, which 
+ * &nbsp;&nbsp;&nbsp;only gets repainted when the size of the viewer or the content of the 
+ * &nbsp;&nbsp;&nbsp;overlay changes.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  * <pre>-x &lt;int&gt; (property: x)
  * &nbsp;&nbsp;&nbsp;The X position of the overlay (&gt;=0: absolute, -1: left, -2: center, -3: 
  * &nbsp;&nbsp;&nbsp;right).
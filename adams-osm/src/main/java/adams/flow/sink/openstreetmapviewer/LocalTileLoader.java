@@ -0,0 +1,260 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LocalTileLoader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import org.openstreetmap.gui.jmapviewer.OsmTileLoader;
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileJob;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileLoader;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileLoaderListener;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ <!-- globalinfo-start -->
+ * Loads the tiles directly from local storage, for tile sources generated by adams.flow.sink.openstreetmapviewer.LocalTileSource; other tile sources get loaded from the network.<br>
+ * Decoded tiles can be kept in memory.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ * 
+ * <pre>-memory-cache-size &lt;int&gt; (property: memoryCacheSize)
+ * &nbsp;&nbsp;&nbsp;The number of decoded tiles to keep in memory; 0 to disable.
+ * &nbsp;&nbsp;&nbsp;default: 256
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-loader-threads &lt;int&gt; (property: loaderThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for loading tiles, only used in conjunction 
+ * &nbsp;&nbsp;&nbsp;with the memory cache.
+ * &nbsp;&nbsp;&nbsp;default: 2
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see LocalTileSource
+ */
+public class LocalTileLoader
+  extends AbstractTileLoaderProvider {
+
+  /** for serialization. */
+  private static final long serialVersionUID = 6467401453624232375L;
+
+  /**
+   * Tile loader that reads the tiles of {@link LocalTileSource.Source}
+   * tile sources from local storage.
+   */
+  public static class Loader
+    implements TileLoader {
+
+    /** the listener to notify. */
+    protected TileLoaderListener m_Listener;
+
+    /** the loader for non-local tile sources. */
+    protected TileLoader m_Fallback;
+
+    /**
+     * Initializes the loader.
+     *
+     * @param listener	the listener to notify
+     */
+    public Loader(TileLoaderListener listener) {
+      m_Listener = listener;
+      m_Fallback = new OsmTileLoader(listener);
+    }
+
+    /**
+     * Reads the tile and notifies the listener.
+     *
+     * @param source	the source the tile belongs to
+     * @param tile	the tile to load
+     */
+    protected void load(LocalTileSource.Source source, Tile tile) {
+      byte[]	data;
+
+      if (tile.isLoaded() && !tile.hasError())
+	return;
+
+      try {
+	data = source.getReader().read(tile.getZoom(), tile.getXtile(), tile.getYtile());
+	if (data == null) {
+	  tile.setError("Tile not available");
+	  m_Listener.tileLoadingFinished(tile, false);
+	  return;
+	}
+	tile.loadImage(new ByteArrayInputStream(data));
+	tile.setLoaded(true);
+	m_Listener.tileLoadingFinished(tile, true);
+      }
+      catch (Exception e) {
+	tile.setError(e.getMessage());
+	m_Listener.tileLoadingFinished(tile, false);
+      }
+    }
+
+    /**
+     * Creates the job for loading the tile.
+     *
+     * @param tile	the tile to load
+     * @return		the job
+     */
+    @Override
+    public TileJob createTileLoaderJob(final Tile tile) {
+      if (!(tile.getSource() instanceof LocalTileSource.Source))
+	return m_Fallback.createTileLoaderJob(tile);
+
+      return new TileJob() {
+	@Override
+	public Tile getTile() {
+	  return tile;
+	}
+	@Override
+	public void run() {
+	  load((LocalTileSource.Source) tile.getSource(), tile);
+	}
+      };
+    }
+  }
+
+  /** the number of decoded tiles to keep in memory. */
+  protected int m_MemoryCacheSize;
+
+  /** the number of loader threads. */
+  protected int m_LoaderThreads;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Loads the tiles directly from local storage, for tile sources "
+	+ "generated by " + LocalTileSource.class.getName() + "; other tile "
+	+ "sources get loaded from the network.\n"
+	+ "Decoded tiles can be kept in memory.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "memory-cache-size", "memoryCacheSize",
+	    256, 0, null);
+
+    m_OptionManager.add(
+	    "loader-threads", "loaderThreads",
+	    2, 1, null);
+  }
+
+  /**
+   * Sets the number of decoded tiles to keep in memory.
+   *
+   * @param value	the number of tiles, 0 to disable
+   */
+  public void setMemoryCacheSize(int value) {
+    if (getOptionManager().isValid("memoryCacheSize", value)) {
+      m_MemoryCacheSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of decoded tiles to keep in memory.
+   *
+   * @return		the number of tiles, 0 if disabled
+   */
+  public int getMemoryCacheSize() {
+    return m_MemoryCacheSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String memoryCacheSizeTipText() {
+    return "The number of decoded tiles to keep in memory; 0 to disable.";
+  }
+
+  /**
+   * Sets the number of threads for loading tiles.
+   *
+   * @param value	the number of threads
+   */
+  public void setLoaderThreads(int value) {
+    if (getOptionManager().isValid("loaderThreads", value)) {
+      m_LoaderThreads = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of threads for loading tiles.
+   *
+   * @return		the number of threads
+   */
+  public int getLoaderThreads() {
+    return m_LoaderThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String loaderThreadsTipText() {
+    return "The number of threads to use for loading tiles, only used in conjunction with the memory cache.";
+  }
+
+  /**
+   * Performs the actual instantiation of the tileloader.
+   *
+   * @param listener	the listener to use for instantiating
+   * @return		the instantiated tileloader
+   * @throws Exception	if generation fails for some reason
+   */
+  @Override
+  protected TileLoader doGenerate(TileLoaderListener listener) throws Exception {
+    TwoTierTileLoader	result;
+
+    if (m_MemoryCacheSize == 0)
+      return new Loader(listener);
+
+    result = new TwoTierTileLoader(listener, m_MemoryCacheSize, m_LoaderThreads, 0, false);
+    result.setBase(new Loader(result));
+
+    return result;
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LocalTileReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import java.io.IOException;
+
+/**
+ * Interface for classes that read the raw tile data from local storage.
+ * Implementations must be thread-safe.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface LocalTileReader {
+
+  /**
+   * Reads the data of the specified tile (OSM/XYZ scheme).
+   *
+   * @param zoom	the zoom level
+   * @param x		the x coordinate of the tile
+   * @param y		the y coordinate of the tile
+   * @return		the raw image data, null if the tile is not available
+   * @throws IOException	if reading fails
+   */
+  public byte[] read(int zoom, int x, int y) throws IOException;
+
+  /**
+   * Releases all resources.
+   */
+  public void close();
+}
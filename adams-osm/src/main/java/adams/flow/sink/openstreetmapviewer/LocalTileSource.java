@@ -0,0 +1,438 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LocalTileSource.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import adams.core.io.PlaceholderFile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
+import org.openstreetmap.gui.jmapviewer.tilesources.AbstractOsmTileSource;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ <!-- globalinfo-start -->
+ * Returns a tile source that serves the tiles from local storage, either from an MBTiles (SQLite) file or from a z&#47;x&#47;y directory tree.<br>
+ * Needs to be used in conjunction with the adams.flow.sink.openstreetmapviewer.LocalTileLoader tile loader. MBTiles files are recognized by their extension (.mbtiles) or the SQLite file header.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ * 
+ * <pre>-location &lt;adams.core.io.PlaceholderFile&gt; (property: location)
+ * &nbsp;&nbsp;&nbsp;The MBTiles file or the root directory of the z&#47;x&#47;y tree.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ * 
+ * <pre>-extension &lt;java.lang.String&gt; (property: extension)
+ * &nbsp;&nbsp;&nbsp;The file extension of the tiles in the directory tree (without dot).
+ * &nbsp;&nbsp;&nbsp;default: png
+ * </pre>
+ * 
+ * <pre>-min-zoom &lt;int&gt; (property: minZoom)
+ * &nbsp;&nbsp;&nbsp;The minimum zoom level available.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * &nbsp;&nbsp;&nbsp;maximum: 22
+ * </pre>
+ * 
+ * <pre>-max-zoom &lt;int&gt; (property: maxZoom)
+ * &nbsp;&nbsp;&nbsp;The maximum zoom level available.
+ * &nbsp;&nbsp;&nbsp;default: 18
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * &nbsp;&nbsp;&nbsp;maximum: 22
+ * </pre>
+ * 
+ * <pre>-pool-size &lt;int&gt; (property: poolSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of database connections to use for MBTiles files.
+ * &nbsp;&nbsp;&nbsp;default: 4
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see LocalTileLoader
+ */
+public class LocalTileSource
+  extends AbstractTileSourceProvider {
+
+  /** for serialization. */
+  private static final long serialVersionUID = -5286740036585917717L;
+
+  /** the extension of MBTiles files. */
+  public final static String MBTILES_EXTENSION = ".mbtiles";
+
+  /** the header of SQLite files. */
+  public final static byte[] SQLITE_HEADER = "SQLite format 3\0".getBytes(StandardCharsets.US_ASCII);
+
+  /**
+   * Tile source that reads the tiles from local storage.
+   */
+  public static class Source
+    extends AbstractOsmTileSource {
+
+    /** the reader to use. */
+    protected LocalTileReader m_Reader;
+
+    /** the minimum zoom. */
+    protected int m_MinZoom;
+
+    /** the maximum zoom. */
+    protected int m_MaxZoom;
+
+    /**
+     * Initializes the tile source.
+     *
+     * @param location	the file/dir with the tiles
+     * @param reader	the reader to use
+     * @param minZoom	the minimum zoom level
+     * @param maxZoom	the maximum zoom level
+     */
+    public Source(File location, LocalTileReader reader, int minZoom, int maxZoom) {
+      super("Local: " + location.getName(), location.toURI().toString());
+      m_Reader  = reader;
+      m_MinZoom = minZoom;
+      m_MaxZoom = maxZoom;
+    }
+
+    /**
+     * Returns the reader to use for obtaining the tile data.
+     *
+     * @return		the reader
+     */
+    public LocalTileReader getReader() {
+      return m_Reader;
+    }
+
+    /**
+     * Releases the resources of the reader (e.g., database connections).
+     */
+    public void close() {
+      m_Reader.close();
+    }
+
+    /**
+     * Returns the minimum zoom level.
+     *
+     * @return		the zoom level
+     */
+    @Override
+    public int getMinZoom() {
+      return m_MinZoom;
+    }
+
+    /**
+     * Returns the maximum zoom level.
+     *
+     * @return		the zoom level
+     */
+    @Override
+    public int getMaxZoom() {
+      return m_MaxZoom;
+    }
+
+    /**
+     * Returns the tile update mechanism.
+     *
+     * @return 		the update mechanism, always none
+     */
+    @Override
+    public TileUpdate getTileUpdate() {
+      return TileUpdate.None;
+    }
+  }
+
+  /** the file/dir with the tiles. */
+  protected PlaceholderFile m_Location;
+
+  /** the extension for the directory tree. */
+  protected String m_Extension;
+
+  /** the minimum zoom. */
+  protected int m_MinZoom;
+
+  /** the maximum zoom. */
+  protected int m_MaxZoom;
+
+  /** the number of connections for MBTiles. */
+  protected int m_PoolSize;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Returns a tile source that serves the tiles from local storage, "
+	+ "either from an MBTiles (SQLite) file or from a z/x/y directory tree.\n"
+	+ "Needs to be used in conjunction with the " + LocalTileLoader.class.getName() + " "
+	+ "tile loader. MBTiles files are recognized by their extension (.mbtiles) "
+	+ "or the SQLite file header.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "location", "location",
+	    new PlaceholderFile("${CWD}"));
+
+    m_OptionManager.add(
+	    "extension", "extension",
+	    "png");
+
+    m_OptionManager.add(
+	    "min-zoom", "minZoom",
+	    0, 0, 22);
+
+    m_OptionManager.add(
+	    "max-zoom", "maxZoom",
+	    18, 0, 22);
+
+    m_OptionManager.add(
+	    "pool-size", "poolSize",
+	    4, 1, null);
+  }
+
+  /**
+   * Sets the MBTiles file or root directory.
+   *
+   * @param value	the file/dir
+   */
+  public void setLocation(PlaceholderFile value) {
+    m_Location = value;
+    reset();
+  }
+
+  /**
+   * Returns the MBTiles file or root directory.
+   *
+   * @return		the file/dir
+   */
+  public PlaceholderFile getLocation() {
+    return m_Location;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String locationTipText() {
+    return "The MBTiles file or the root directory of the z/x/y tree.";
+  }
+
+  /**
+   * Sets the extension of the tiles in the directory tree.
+   *
+   * @param value	the extension (without dot)
+   */
+  public void setExtension(String value) {
+    if (value.startsWith("."))
+      value = value.substring(1);
+    m_Extension = value;
+    reset();
+  }
+
+  /**
+   * Returns the extension of the tiles in the directory tree.
+   *
+   * @return		the extension (without dot)
+   */
+  public String getExtension() {
+    return m_Extension;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String extensionTipText() {
+    return "The file extension of the tiles in the directory tree (without dot).";
+  }
+
+  /**
+   * Sets the minimum zoom level.
+   *
+   * @param value	the zoom level
+   */
+  public void setMinZoom(int value) {
+    if (getOptionManager().isValid("minZoom", value)) {
+      m_MinZoom = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the minimum zoom level.
+   *
+   * @return		the zoom level
+   */
+  public int getMinZoom() {
+    return m_MinZoom;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String minZoomTipText() {
+    return "The minimum zoom level available.";
+  }
+
+  /**
+   * Sets the maximum zoom level.
+   *
+   * @param value	the zoom level
+   */
+  public void setMaxZoom(int value) {
+    if (getOptionManager().isValid("maxZoom", value)) {
+      m_MaxZoom = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum zoom level.
+   *
+   * @return		the zoom level
+   */
+  public int getMaxZoom() {
+    return m_MaxZoom;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String maxZoomTipText() {
+    return "The maximum zoom level available.";
+  }
+
+  /**
+   * Sets the maximum number of connections for MBTiles files.
+   *
+   * @param value	the number of connections
+   */
+  public void setPoolSize(int value) {
+    if (getOptionManager().isValid("poolSize", value)) {
+      m_PoolSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of connections for MBTiles files.
+   *
+   * @return		the number of connections
+   */
+  public int getPoolSize() {
+    return m_PoolSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolSizeTipText() {
+    return "The maximum number of database connections to use for MBTiles files.";
+  }
+
+  /**
+   * Checks whether the file is an MBTiles file, either by extension or
+   * by the SQLite header.
+   *
+   * @param file	the file to check
+   * @return		true if MBTiles file
+   */
+  public static boolean isMBTiles(File file) {
+    byte[]	header;
+    int		read;
+
+    if (!file.isFile())
+      return false;
+    if (file.getName().toLowerCase().endsWith(MBTILES_EXTENSION))
+      return true;
+
+    header = new byte[SQLITE_HEADER.length];
+    try (InputStream in = new FileInputStream(file)) {
+      read = in.read(header);
+    }
+    catch (IOException e) {
+      return false;
+    }
+
+    return (read == header.length) && Arrays.equals(header, SQLITE_HEADER);
+  }
+
+  /**
+   * Creates the reader for the location. The reader must be closed once
+   * no longer needed.
+   *
+   * @return		the reader
+   * @see Source#close()
+   */
+  protected LocalTileReader newReader() {
+    if (m_Location.isDirectory())
+      return new DirectoryTileReader(m_Location.getAbsoluteFile(), m_Extension);
+    if (isMBTiles(m_Location))
+      return new MBTilesTileReader(m_Location.getAbsoluteFile(), m_PoolSize);
+    throw new IllegalStateException("Neither a directory nor an MBTiles file: " + m_Location);
+  }
+
+  /**
+   * Performs the actual instantiation of the tilesource.
+   *
+   * @return		the instantiated tilesource
+   * @throws Exception	if generation fails for some reason
+   */
+  @Override
+  protected TileSource doGenerate() throws Exception {
+    if (!m_Location.exists())
+      throw new IllegalStateException("Tile location does not exist: " + m_Location);
+    if (m_MinZoom > m_MaxZoom)
+      throw new IllegalStateException("Minimum zoom is larger than maximum zoom: " + m_MinZoom + " > " + m_MaxZoom);
+
+    return new Source(m_Location.getAbsoluteFile(), newReader(), m_MinZoom, m_MaxZoom);
+  }
+}
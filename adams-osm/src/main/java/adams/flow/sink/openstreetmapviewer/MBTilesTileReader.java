@@ -0,0 +1,193 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * MBTilesTileReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads tiles from an MBTiles (SQLite) file. Uses a pool of read-only
+ * connections with prepared statements, which get created on demand.
+ * Requires the SQLite JDBC driver on the classpath.
+ * <br><br>
+ * MBTiles files use the TMS scheme, i.e., the row gets flipped.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see <a href="https://github.com/mapbox/mbtiles-spec" target="_blank">MBTiles specification</a>
+ */
+public class MBTilesTileReader
+  implements LocalTileReader {
+
+  /** the query for retrieving a tile. */
+  public final static String QUERY = "SELECT tile_data FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?";
+
+  /**
+   * Container for a connection and its prepared statement.
+   */
+  protected static class Handle {
+
+    /** the connection. */
+    public Connection connection;
+
+    /** the statement. */
+    public PreparedStatement statement;
+  }
+
+  /** the MBTiles file. */
+  protected File m_File;
+
+  /** the maximum number of connections. */
+  protected int m_PoolSize;
+
+  /** the idle connections. */
+  protected BlockingQueue<Handle> m_Idle;
+
+  /** all connections. */
+  protected List<Handle> m_All;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param file	the MBTiles file
+   * @param poolSize	the maximum number of connections to use
+   */
+  public MBTilesTileReader(File file, int poolSize) {
+    m_File     = file;
+    m_PoolSize = Math.max(1, poolSize);
+    m_Idle     = new ArrayBlockingQueue<>(m_PoolSize);
+    m_All      = new ArrayList<>();
+  }
+
+  /**
+   * Creates a new connection, if the pool is not exhausted yet.
+   *
+   * @return		the new handle, null if the pool is exhausted
+   * @throws IOException	if connecting fails
+   */
+  protected synchronized Handle newHandle() throws IOException {
+    Handle	result;
+
+    if (m_All.size() >= m_PoolSize)
+      return null;
+
+    result = new Handle();
+    try {
+      result.connection = DriverManager.getConnection("jdbc:sqlite:" + m_File.getAbsolutePath());
+      result.connection.setReadOnly(true);
+      result.statement = result.connection.prepareStatement(QUERY);
+    }
+    catch (Exception e) {
+      throw new IOException("Failed to open MBTiles file: " + m_File, e);
+    }
+    m_All.add(result);
+
+    return result;
+  }
+
+  /**
+   * Obtains a connection from the pool, waits if necessary.
+   *
+   * @return		the handle
+   * @throws IOException	if connecting fails or interrupted
+   */
+  protected Handle borrow() throws IOException {
+    Handle	result;
+
+    result = m_Idle.poll();
+    if (result == null)
+      result = newHandle();
+    if (result == null) {
+      try {
+	result = m_Idle.take();
+      }
+      catch (InterruptedException e) {
+	throw new IOException("Interrupted while waiting for connection!", e);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads the data of the specified tile.
+   *
+   * @param zoom	the zoom level
+   * @param x		the x coordinate of the tile
+   * @param y		the y coordinate of the tile (OSM scheme)
+   * @return		the raw image data, null if the tile is not available
+   * @throws IOException	if reading fails
+   */
+  @Override
+  public byte[] read(int zoom, int x, int y) throws IOException {
+    Handle	handle;
+    ResultSet	rs;
+    byte[]	result;
+
+    result = null;
+    handle = borrow();
+    try {
+      handle.statement.setInt(1, zoom);
+      handle.statement.setInt(2, x);
+      handle.statement.setInt(3, (1 << zoom) - 1 - y);
+      rs = handle.statement.executeQuery();
+      try {
+	if (rs.next())
+	  result = rs.getBytes(1);
+      }
+      finally {
+	rs.close();
+      }
+    }
+    catch (Exception e) {
+      throw new IOException("Failed to read tile " + zoom + "/" + x + "/" + y + " from: " + m_File, e);
+    }
+    finally {
+      m_Idle.offer(handle);
+    }
+
+    return result;
+  }
+
+  /**
+   * Closes all connections.
+   */
+  @Override
+  public synchronized void close() {
+    for (Handle handle: m_All) {
+      try {
+	handle.statement.close();
+	handle.connection.close();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+    m_All.clear();
+    m_Idle.clear();
+  }
+}
@@ -20,12 +20,11 @@
 package adams.flow.sink.openstreetmapviewer;
 
 import java.util.Date;
+import java.util.List;
+import java.util.ListIterator;
 
 import org.openstreetmap.gui.jmapviewer.JMapViewerTree;
-import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
 import org.openstreetmap.gui.jmapviewer.interfaces.MapObject;
-import org.openstreetmap.gui.jmapviewer.interfaces.MapPolygon;
-import org.openstreetmap.gui.jmapviewer.interfaces.MapRectangle;
 
 import adams.core.base.BaseDateTime;
 import adams.data.mapobject.TimestampSupporter;
@@ -42,6 +41,28 @@ import adams.data.mapobject.TimestampSupporter;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-prune-every &lt;int&gt; (property: pruneEvery)
+ * &nbsp;&nbsp;&nbsp;Prunes only every N calls; 0 to disable; if both, this and the interval, 
+ * &nbsp;&nbsp;&nbsp;are disabled then pruning occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-prune-interval &lt;int&gt; (property: pruneInterval)
+ * &nbsp;&nbsp;&nbsp;Prunes once the specified time in msec has passed since the last pruning 
+ * &nbsp;&nbsp;&nbsp;run; 0 to disable; if both, this and prune every, are disabled then pruning 
+ * &nbsp;&nbsp;&nbsp;occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-time-ordered &lt;boolean&gt; (property: timeOrdered)
+ * &nbsp;&nbsp;&nbsp;If enabled, the map objects are assumed to arrive in chronological order 
+ * &nbsp;&nbsp;&nbsp;and only the oldest ones at the start of the lists get inspected; pruning 
+ * &nbsp;&nbsp;&nbsp;stops at the first object that hasn't expired or has no timestamp.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  * <pre>-max-age &lt;adams.core.base.BaseDateTime&gt; (property: maxAge)
  * &nbsp;&nbsp;&nbsp;The maximum age; eg 'START -7 DAY' with 'START' being the date of the newest 
  * &nbsp;&nbsp;&nbsp;mapobject.
@@ -54,7 +75,7 @@ import adams.data.mapobject.TimestampSupporter;
  * @version $Revision$
  */
 public class MaxAgePruner
-  extends AbstractMapObjectPruner {
+  extends AbstractTimestampPruner {
 
   /** for serialization. */
   private static final long serialVersionUID = -135743438219473331L;
@@ -113,6 +134,43 @@ public class MaxAgePruner
     return "The maximum age; eg 'START -7 DAY' with 'START' being the date of the newest mapobject.";
   }
 
+  /**
+   * Determines the newest timestamp in the list.
+   * 
+   * @param list	the list to inspect
+   * @param newest	the newest timestamp so far
+   * @return		the updated newest timestamp
+   */
+  protected Date findNewest(List<? extends MapObject> list, Date newest) {
+    ListIterator<? extends MapObject>	iter;
+    MapObject				item;
+
+    synchronized(list) {
+      // newest object is at the end of the list
+      if (m_TimeOrdered) {
+	iter = list.listIterator(list.size());
+	while (iter.hasPrevious()) {
+	  item = iter.previous();
+	  if (item instanceof TimestampSupporter) {
+	    if (((TimestampSupporter) item).getTimestamp().compareTo(newest) > 0)
+	      newest = ((TimestampSupporter) item).getTimestamp();
+	    break;
+	  }
+	}
+      }
+      else {
+	for (MapObject obj: list) {
+	  if (obj instanceof TimestampSupporter) {
+	    if (((TimestampSupporter) obj).getTimestamp().compareTo(newest) > 0)
+	      newest = ((TimestampSupporter) obj).getTimestamp();
+	  }
+	}
+      }
+    }
+
+    return newest;
+  }
+
   /**
    * Prunes the map objects.
    * 
@@ -122,30 +180,13 @@ public class MaxAgePruner
   protected void doPrune(JMapViewerTree tree) {
     Date	newest;
     Date 	cutoff;
-    int		i;
-    MapObject	mapobject;
     int		pruned;
 
     // find date of newest mapobject
     newest = new BaseDateTime(BaseDateTime.INF_PAST).dateValue();
-    for (MapMarker item: tree.getViewer().getMapMarkerList()) {
-      if (item instanceof TimestampSupporter) {
-	if (((TimestampSupporter) item).getTimestamp().compareTo(newest) > 0)
-	  newest = ((TimestampSupporter) item).getTimestamp();
-      }
-    }
-    for (MapRectangle item: tree.getViewer().getMapRectangleList()) {
-      if (item instanceof TimestampSupporter) {
-	if (((TimestampSupporter) item).getTimestamp().compareTo(newest) > 0)
-	  newest = ((TimestampSupporter) item).getTimestamp();
-      }
-    }
-    for (MapPolygon item: tree.getViewer().getMapPolygonList()) {
-      if (item instanceof TimestampSupporter) {
-	if (((TimestampSupporter) item).getTimestamp().compareTo(newest) > 0)
-	  newest = ((TimestampSupporter) item).getTimestamp();
-      }
-    }
+    newest = findNewest(tree.getViewer().getMapMarkerList(), newest);
+    newest = findNewest(tree.getViewer().getMapRectangleList(), newest);
+    newest = findNewest(tree.getViewer().getMapPolygonList(), newest);
     if (isLoggingEnabled())
       getLogger().fine("newest: " + newest);
     
@@ -155,51 +196,17 @@ public class MaxAgePruner
       getLogger().fine("cutoff: " + cutoff);
     
     // markers
-    i      = 0;
-    pruned = 0;
-    while (i < tree.getViewer().getMapMarkerList().size()) {
-      mapobject = tree.getViewer().getMapMarkerList().get(i);
-      if (mapobject instanceof TimestampSupporter) {
-	if (((TimestampSupporter) mapobject).getTimestamp().compareTo(cutoff) < 0) {
-	  tree.getViewer().getMapMarkerList().remove(i);
-	  pruned++;
-	  continue;
-	}
-      }
-      i++;
-    }
+    pruned = pruneOlderThan(tree.getViewer().getMapMarkerList(), cutoff, m_TimeOrdered);
     if (isLoggingEnabled())
       getLogger().fine("Markers pruned: " + pruned);
     
     // rectangles
-    i      = 0;
-    pruned = 0;
-    while (i < tree.getViewer().getMapRectangleList().size()) {
-      mapobject = tree.getViewer().getMapRectangleList().get(i);
-      if (mapobject instanceof TimestampSupporter) {
-	if (((TimestampSupporter) mapobject).getTimestamp().compareTo(cutoff) < 0) {
-	  tree.getViewer().getMapRectangleList().remove(i);
-	  continue;
-	}
-      }
-      i++;
-    }
+    pruned = pruneOlderThan(tree.getViewer().getMapRectangleList(), cutoff, m_TimeOrdered);
     if (isLoggingEnabled())
       getLogger().fine("Rectangles pruned: " + pruned);
 
     // polygons
-    i      = 0;
-    pruned = 0;
-    while (i < tree.getViewer().getMapPolygonList().size()) {
-      mapobject = tree.getViewer().getMapPolygonList().get(i);
-      if (mapobject instanceof TimestampSupporter) {
-	if (((TimestampSupporter) mapobject).getTimestamp().compareTo(cutoff) < 0) {
-	  tree.getViewer().getMapPolygonList().remove(i);
-	  continue;
-	}
-      }
-      i++;
-    }
+    pruned = pruneOlderThan(tree.getViewer().getMapPolygonList(), cutoff, m_TimeOrdered);
     if (isLoggingEnabled())
       getLogger().fine("Polygons pruned: " + pruned);
   }
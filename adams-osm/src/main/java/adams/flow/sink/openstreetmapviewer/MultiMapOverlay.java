@@ -21,6 +21,8 @@
 package adams.flow.sink.openstreetmapviewer;
 
 import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.List;
 
 import adams.core.option.OptionUtils;
 import adams.flow.sink.OpenStreetMapViewer;
@@ -42,6 +44,13 @@ import adams.flow.sink.OpenStreetMapViewer;
  * &nbsp;&nbsp;&nbsp;default: true
  * </pre>
  * 
+ * <pre>-buffered &lt;boolean&gt; (property: buffered)
+ * &nbsp;&nbsp;&nbsp;If enabled, the overlay gets painted into an off-screen buffer, which 
+ * &nbsp;&nbsp;&nbsp;only gets repainted when the size of the viewer or the content of the 
+ * &nbsp;&nbsp;&nbsp;overlay changes.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  * <pre>-overlay &lt;adams.flow.sink.openstreetmapviewer.AbstractMapOverlay&gt; [-overlay ...] (property: overlays)
  * &nbsp;&nbsp;&nbsp;The array of overlays to use.
  * &nbsp;&nbsp;&nbsp;default: 
@@ -118,6 +127,24 @@ public class MultiMapOverlay
     return "The array of overlays to use.";
   }
 
+  /**
+   * Returns the state that the off-screen buffer depends on.
+   *
+   * @param viewer	the associated viewer
+   * @return		the combined states of the overlays
+   */
+  @Override
+  protected Object getBufferState(OpenStreetMapViewer viewer) {
+    List<Object>	result;
+
+    result = new ArrayList<>();
+    result.add(super.getBufferState(viewer));
+    for (AbstractMapOverlay overlay: m_Overlays)
+      result.add(overlay.getBufferState(viewer));
+
+    return result;
+  }
+
   /**
    * Performs the actual painting.
    * 
@@ -129,13 +156,15 @@ public class MultiMapOverlay
     int		i;
     
     for (i = 0; i < m_Overlays.length; i++) {
-      getLogger().info(
+      if (isLoggingEnabled())
+	getLogger().info(
 	    "Overlay " + (i+1) + "/" + m_Overlays.length + ": "
 	    + OptionUtils.getCommandLine(m_Overlays[i]));
 
       m_Overlays[i].paintOverlay(viewer, g);
     }
 
-    getLogger().info("Finished!");
+    if (isLoggingEnabled())
+      getLogger().info("Finished!");
   }
 }
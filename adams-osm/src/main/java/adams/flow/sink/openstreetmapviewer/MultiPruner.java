@@ -21,6 +21,7 @@
 package adams.flow.sink.openstreetmapviewer;
 
 import org.openstreetmap.gui.jmapviewer.JMapViewerTree;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapObject;
 
 import adams.core.option.OptionUtils;
 
@@ -36,6 +37,21 @@ import adams.core.option.OptionUtils;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-prune-every &lt;int&gt; (property: pruneEvery)
+ * &nbsp;&nbsp;&nbsp;Prunes only every N calls; 0 to disable; if both, this and the interval, 
+ * &nbsp;&nbsp;&nbsp;are disabled then pruning occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-prune-interval &lt;int&gt; (property: pruneInterval)
+ * &nbsp;&nbsp;&nbsp;Prunes once the specified time in msec has passed since the last pruning 
+ * &nbsp;&nbsp;&nbsp;run; 0 to disable; if both, this and prune every, are disabled then pruning 
+ * &nbsp;&nbsp;&nbsp;occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
  * <pre>-pruner &lt;adams.flow.sink.openstreetmapviewer.AbstractMapObjectPruner&gt; [-pruner ...] (property: pruners)
  * &nbsp;&nbsp;&nbsp;The array of pruners to apply.
  * &nbsp;&nbsp;&nbsp;default: 
@@ -127,6 +143,8 @@ public class MultiPruner
 	    + OptionUtils.getCommandLine(m_Overlays[i]));
 
       m_Overlays[i].prune(tree);
+      for (MapObject obj: m_Overlays[i].getPruned())
+	pruned(obj);
     }
 
     getLogger().info("Finished!");
@@ -41,6 +41,13 @@ import adams.flow.sink.OpenStreetMapViewer;
  * &nbsp;&nbsp;&nbsp;default: true
  * </pre>
  * 
+ * <pre>-buffered &lt;boolean&gt; (property: buffered)
+ * &nbsp;&nbsp;&nbsp;If enabled, the overlay gets painted into an off-screen buffer, which 
+ * &nbsp;&nbsp;&nbsp;only gets repainted when the size of the viewer or the content of the 
+ * &nbsp;&nbsp;&nbsp;overlay changes.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -0,0 +1,134 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * NullMarkerClusterer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import org.openstreetmap.gui.jmapviewer.JMapViewer;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
+
+import java.awt.Graphics;
+
+/**
+ <!-- globalinfo-start -->
+ * Dummy clusterer, the markers always get painted individually.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class NullMarkerClusterer
+  extends AbstractMarkerClusterer {
+
+  private static final long serialVersionUID = -4101297766298297766L;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return "Dummy clusterer, the markers always get painted individually.";
+  }
+
+  /**
+   * Does nothing.
+   */
+  @Override
+  public void clear() {
+  }
+
+  /**
+   * Does nothing.
+   *
+   * @param marker	ignored
+   */
+  @Override
+  public void add(MapMarker marker) {
+  }
+
+  /**
+   * Does nothing.
+   *
+   * @param marker	ignored
+   */
+  @Override
+  public void remove(MapMarker marker) {
+  }
+
+  /**
+   * Never active.
+   *
+   * @param zoom	ignored
+   * @return		always false
+   */
+  @Override
+  public boolean isActive(int zoom) {
+    return false;
+  }
+
+  /**
+   * Does nothing.
+   *
+   * @param viewer	ignored
+   * @param g		ignored
+   */
+  @Override
+  protected void doPaintClusters(JMapViewer viewer, Graphics g) {
+  }
+
+  /**
+   * Does nothing.
+   *
+   * @param viewer	ignored
+   */
+  @Override
+  public void update(JMapViewer viewer) {
+  }
+
+  /**
+   * Markers always get painted.
+   *
+   * @param viewer	ignored
+   * @param marker	ignored
+   * @return		always true
+   */
+  @Override
+  public boolean isPainted(JMapViewer viewer, MapMarker marker) {
+    return true;
+  }
+
+  /**
+   * Does nothing.
+   *
+   * @param viewer	ignored
+   * @param g		ignored
+   */
+  @Override
+  public void paintClusters(JMapViewer viewer, Graphics g) {
+  }
+}
@@ -33,6 +33,21 @@ import org.openstreetmap.gui.jmapviewer.JMapViewerTree;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-prune-every &lt;int&gt; (property: pruneEvery)
+ * &nbsp;&nbsp;&nbsp;Prunes only every N calls; 0 to disable; if both, this and the interval, 
+ * &nbsp;&nbsp;&nbsp;are disabled then pruning occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-prune-interval &lt;int&gt; (property: pruneInterval)
+ * &nbsp;&nbsp;&nbsp;Prunes once the specified time in msec has passed since the last pruning 
+ * &nbsp;&nbsp;&nbsp;run; 0 to disable; if both, this and prune every, are disabled then pruning 
+ * &nbsp;&nbsp;&nbsp;occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -15,12 +15,11 @@
 
 /**
  * OpenStreetMapCachedLoader.java
- * Copyright (C) 2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.sink.openstreetmapviewer;
 
 import org.openstreetmap.gui.jmapviewer.OsmFileCacheTileLoader;
-import org.openstreetmap.gui.jmapviewer.OsmTileLoader;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileLoader;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileLoaderListener;
 
@@ -28,7 +27,8 @@ import adams.core.io.PlaceholderDirectory;
 
 /**
  <!-- globalinfo-start -->
- * Returns the default OpenStreetMap file cache tile loader.
+ * Returns the default OpenStreetMap file cache tile loader.<br>
+ * Optionally, a bounded in-memory cache of decoded tiles is placed in front of the file cache and neighboring tiles (and adjacent zoom levels) get prefetched in the background.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -43,11 +43,36 @@ import adams.core.io.PlaceholderDirectory;
  * &nbsp;&nbsp;&nbsp;default: ${TMP}
  * </pre>
  * 
+ * <pre>-memory-cache-size &lt;int&gt; (property: memoryCacheSize)
+ * &nbsp;&nbsp;&nbsp;The number of decoded tiles to keep in memory; 0 disables the memory 
+ * &nbsp;&nbsp;&nbsp;cache and prefetching.
+ * &nbsp;&nbsp;&nbsp;default: 256
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-loader-threads &lt;int&gt; (property: loaderThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for loading tiles.
+ * &nbsp;&nbsp;&nbsp;default: 4
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
+ * <pre>-prefetch-radius &lt;int&gt; (property: prefetchRadius)
+ * &nbsp;&nbsp;&nbsp;The radius in tiles around the loaded tiles to prefetch; 0 to disable.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-prefetch-zoom &lt;boolean&gt; (property: prefetchZoom)
+ * &nbsp;&nbsp;&nbsp;If enabled, the tiles of the adjacent zoom levels get prefetched as well.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
- * @see OsmTileLoader
+ * @see OsmFileCacheTileLoader
+ * @see TwoTierTileLoader
  */
 public class OpenStreetMapCachedLoader
   extends AbstractTileLoaderProvider {
@@ -58,6 +83,18 @@ public class OpenStreetMapCachedLoader
   /** the cache directory. */
   protected PlaceholderDirectory m_CacheDir;
 
+  /** the number of decoded tiles to keep in memory. */
+  protected int m_MemoryCacheSize;
+
+  /** the number of loader threads. */
+  protected int m_LoaderThreads;
+
+  /** the prefetch radius in tiles. */
+  protected int m_PrefetchRadius;
+
+  /** whether to prefetch adjacent zoom levels. */
+  protected boolean m_PrefetchZoom;
+
   /**
    * Returns a string describing the object.
    *
@@ -78,6 +115,22 @@ public class OpenStreetMapCachedLoader
     m_OptionManager.add(
 	    "cache-dir", "cacheDir",
 	    new PlaceholderDirectory("${TMP}"));
+
+    m_OptionManager.add(
+	    "memory-cache-size", "memoryCacheSize",
+	    256, 0, null);
+
+    m_OptionManager.add(
+	    "loader-threads", "loaderThreads",
+	    4, 1, null);
+
+    m_OptionManager.add(
+	    "prefetch-radius", "prefetchRadius",
+	    1, 0, null);
+
+    m_OptionManager.add(
+	    "prefetch-zoom", "prefetchZoom",
+	    true);
   }
 
   /**
@@ -109,6 +162,137 @@ public class OpenStreetMapCachedLoader
     return "The cache directory to use.";
   }
 
+  /**
+   * Sets the number of decoded tiles to keep in memory.
+   *
+   * @param value	the number of tiles, 0 to disable
+   */
+  public void setMemoryCacheSize(int value) {
+    if (value >= 0) {
+      m_MemoryCacheSize = value;
+      reset();
+    }
+    else {
+      getLogger().warning("Memory cache size must be at least 0, provided: " + value);
+    }
+  }
+
+  /**
+   * Returns the number of decoded tiles to keep in memory.
+   *
+   * @return		the number of tiles, 0 if disabled
+   */
+  public int getMemoryCacheSize() {
+    return m_MemoryCacheSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String memoryCacheSizeTipText() {
+    return "The number of decoded tiles to keep in memory; 0 disables the memory cache and prefetching.";
+  }
+
+  /**
+   * Sets the number of threads for loading tiles.
+   *
+   * @param value	the number of threads
+   */
+  public void setLoaderThreads(int value) {
+    if (value >= 1) {
+      m_LoaderThreads = value;
+      reset();
+    }
+    else {
+      getLogger().warning("Number of loader threads must be at least 1, provided: " + value);
+    }
+  }
+
+  /**
+   * Returns the number of threads for loading tiles.
+   *
+   * @return		the number of threads
+   */
+  public int getLoaderThreads() {
+    return m_LoaderThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String loaderThreadsTipText() {
+    return "The number of threads to use for loading tiles.";
+  }
+
+  /**
+   * Sets the radius around loaded tiles to prefetch.
+   *
+   * @param value	the radius in tiles, 0 to disable
+   */
+  public void setPrefetchRadius(int value) {
+    if (value >= 0) {
+      m_PrefetchRadius = value;
+      reset();
+    }
+    else {
+      getLogger().warning("Prefetch radius must be at least 0, provided: " + value);
+    }
+  }
+
+  /**
+   * Returns the radius around loaded tiles to prefetch.
+   *
+   * @return		the radius in tiles, 0 if disabled
+   */
+  public int getPrefetchRadius() {
+    return m_PrefetchRadius;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String prefetchRadiusTipText() {
+    return "The radius in tiles around the loaded tiles to prefetch; 0 to disable.";
+  }
+
+  /**
+   * Sets whether to prefetch the tiles of the adjacent zoom levels.
+   *
+   * @param value	true if to prefetch
+   */
+  public void setPrefetchZoom(boolean value) {
+    m_PrefetchZoom = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to prefetch the tiles of the adjacent zoom levels.
+   *
+   * @return		true if to prefetch
+   */
+  public boolean getPrefetchZoom() {
+    return m_PrefetchZoom;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String prefetchZoomTipText() {
+    return "If enabled, the tiles of the adjacent zoom levels get prefetched as well.";
+  }
+
   /**
    * Performs the actual instantiation of the tileloader.
    * 
@@ -118,6 +302,14 @@ public class OpenStreetMapCachedLoader
    */
   @Override
   protected TileLoader doGenerate(TileLoaderListener listener) throws Exception {
-    return new OsmFileCacheTileLoader(listener, m_CacheDir.getAbsoluteFile());
+    TwoTierTileLoader	result;
+
+    if (m_MemoryCacheSize == 0)
+      return new OsmFileCacheTileLoader(listener, m_CacheDir.getAbsoluteFile());
+
+    result = new TwoTierTileLoader(listener, m_MemoryCacheSize, m_LoaderThreads, m_PrefetchRadius, m_PrefetchZoom);
+    result.setBase(new OsmFileCacheTileLoader(result, m_CacheDir.getAbsoluteFile()));
+
+    return result;
   }
 }
@@ -33,6 +33,21 @@ import org.openstreetmap.gui.jmapviewer.JMapViewerTree;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-prune-every &lt;int&gt; (property: pruneEvery)
+ * &nbsp;&nbsp;&nbsp;Prunes only every N calls; 0 to disable; if both, this and the interval, 
+ * &nbsp;&nbsp;&nbsp;are disabled then pruning occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-prune-interval &lt;int&gt; (property: pruneInterval)
+ * &nbsp;&nbsp;&nbsp;Prunes once the specified time in msec has passed since the last pruning 
+ * &nbsp;&nbsp;&nbsp;run; 0 to disable; if both, this and prune every, are disabled then pruning 
+ * &nbsp;&nbsp;&nbsp;occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
  * <pre>-max-markers &lt;int&gt; (property: maxMarkers)
  * &nbsp;&nbsp;&nbsp;The maximum number of markers to keep; -1 for unlimited.
  * &nbsp;&nbsp;&nbsp;default: -1
@@ -213,31 +228,19 @@ public class SimplePruner
     int		pruned;
     
     if (m_MaxMarkers > -1) {
-      pruned = 0;
-      while (tree.getViewer().getMapMarkerList().size() > m_MaxMarkers) {
-	tree.getViewer().getMapMarkerList().remove(0);
-	pruned++;
-      }
+      pruned = pruneHead(tree.getViewer().getMapMarkerList(), tree.getViewer().getMapMarkerList().size() - m_MaxMarkers);
       if (isLoggingEnabled())
 	getLogger().fine("Markers pruned: " + pruned);
     }
     
     if (m_MaxRectangles > -1) {
-      pruned = 0;
-      while (tree.getViewer().getMapRectangleList().size() > m_MaxRectangles) {
-	tree.getViewer().getMapRectangleList().remove(0);
-	pruned++;
-      }
+      pruned = pruneHead(tree.getViewer().getMapRectangleList(), tree.getViewer().getMapRectangleList().size() - m_MaxRectangles);
       if (isLoggingEnabled())
 	getLogger().fine("Rectangles pruned: " + pruned);
     }
     
     if (m_MaxPolygons > -1) {
-      pruned = 0;
-      while (tree.getViewer().getMapPolygonList().size() > m_MaxPolygons) {
-	tree.getViewer().getMapPolygonList().remove(0);
-	pruned++;
-      }
+      pruned = pruneHead(tree.getViewer().getMapPolygonList(), tree.getViewer().getMapPolygonList().size() - m_MaxPolygons);
       if (isLoggingEnabled())
 	getLogger().fine("Polygons pruned: " + pruned);
     }
@@ -28,6 +28,7 @@ import adams.gui.core.Fonts;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.util.Arrays;
 
 /**
  <!-- globalinfo-start -->
@@ -47,6 +48,13 @@ import java.awt.Graphics;
  * &nbsp;&nbsp;&nbsp;default: true
  * </pre>
  * 
+ * <pre>-buffered &lt;boolean&gt; (property: buffered)
+ * &nbsp;&nbsp;&nbsp;If enabled, the overlay gets painted into an off-screen buffer, which 
+ * &nbsp;&nbsp;&nbsp;only gets repainted when the size of the viewer or the content of the 
+ * &nbsp;&nbsp;&nbsp;overlay changes.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  * <pre>-x &lt;int&gt; (property: x)
  * &nbsp;&nbsp;&nbsp;The X position of the overlay (&gt;=0: absolute, -1: left, -2: center, -3: 
  * &nbsp;&nbsp;&nbsp;right).
@@ -433,6 +441,37 @@ public class TextMapOverlay
     return "The font to use for the text.";
   }
 
+  /**
+   * Determines the text to display.
+   * 
+   * @param viewer	the associated viewer
+   * @return		the text
+   */
+  protected String determineText(OpenStreetMapViewer viewer) {
+    String	result;
+
+    result = "";
+    if (m_Text.length() > 0)
+      result = m_Text;
+    else if (viewer.getVariables().has(m_VariableName.getValue()))
+      result = viewer.getVariables().get(m_VariableName.getValue());
+    else if (viewer.getStorageHandler().getStorage().has(m_StorageName))
+      result = viewer.getStorageHandler().getStorage().get(m_StorageName).toString();
+
+    return result;
+  }
+
+  /**
+   * Returns the state that the off-screen buffer depends on.
+   *
+   * @param viewer	the associated viewer
+   * @return		the size of the viewer and the text
+   */
+  @Override
+  protected Object getBufferState(OpenStreetMapViewer viewer) {
+    return Arrays.asList(super.getBufferState(viewer), determineText(viewer));
+  }
+
   /**
    * Performs the actual painting.
    * 
@@ -445,13 +484,7 @@ public class TextMapOverlay
   protected void doPaintOverlay(OpenStreetMapViewer viewer, Graphics g, int x, int y) {
     String	str;
 
-    str = "";
-    if (m_Text.length() > 0)
-      str = m_Text;
-    else if (viewer.getVariables().has(m_VariableName.getValue()))
-      str = viewer.getVariables().get(m_VariableName.getValue());
-    else if (viewer.getStorageHandler().getStorage().has(m_StorageName))
-      str = viewer.getStorageHandler().getStorage().get(m_StorageName).toString();
+    str = determineText(viewer);
 
     g.setColor(m_TextColor);
     g.setFont(m_Font);
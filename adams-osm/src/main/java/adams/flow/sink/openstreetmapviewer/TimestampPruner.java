@@ -22,10 +22,8 @@ package adams.flow.sink.openstreetmapviewer;
 import java.util.Date;
 
 import org.openstreetmap.gui.jmapviewer.JMapViewerTree;
-import org.openstreetmap.gui.jmapviewer.interfaces.MapObject;
 
 import adams.core.base.BaseDateTime;
-import adams.data.mapobject.TimestampSupporter;
 
 /**
  <!-- globalinfo-start -->
@@ -39,6 +37,28 @@ import adams.data.mapobject.TimestampSupporter;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  * 
+ * <pre>-prune-every &lt;int&gt; (property: pruneEvery)
+ * &nbsp;&nbsp;&nbsp;Prunes only every N calls; 0 to disable; if both, this and the interval, 
+ * &nbsp;&nbsp;&nbsp;are disabled then pruning occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-prune-interval &lt;int&gt; (property: pruneInterval)
+ * &nbsp;&nbsp;&nbsp;Prunes once the specified time in msec has passed since the last pruning 
+ * &nbsp;&nbsp;&nbsp;run; 0 to disable; if both, this and prune every, are disabled then pruning 
+ * &nbsp;&nbsp;&nbsp;occurs with every call.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-time-ordered &lt;boolean&gt; (property: timeOrdered)
+ * &nbsp;&nbsp;&nbsp;If enabled, the map objects are assumed to arrive in chronological order 
+ * &nbsp;&nbsp;&nbsp;and only the oldest ones at the start of the lists get inspected; pruning 
+ * &nbsp;&nbsp;&nbsp;stops at the first object that hasn't expired or has no timestamp.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  * <pre>-cut-off &lt;adams.core.base.BaseDateTime&gt; (property: cutOff)
  * &nbsp;&nbsp;&nbsp;The cut-off date, ie any map object older than this gets removed.
  * &nbsp;&nbsp;&nbsp;default: -INF
@@ -50,7 +70,7 @@ import adams.data.mapobject.TimestampSupporter;
  * @version $Revision$
  */
 public class TimestampPruner
-  extends AbstractMapObjectPruner {
+  extends AbstractTimestampPruner {
 
   /** for serialization. */
   private static final long serialVersionUID = -135743438219473331L;
@@ -117,60 +137,22 @@ public class TimestampPruner
   @Override
   protected void doPrune(JMapViewerTree tree) {
     Date 	cutoff;
-    int		i;
-    MapObject	mapobject;
     int		pruned;
     
     cutoff = m_CutOff.dateValue();
     
     // markers
-    i      = 0;
-    pruned = 0;
-    while (i < tree.getViewer().getMapMarkerList().size()) {
-      mapobject = tree.getViewer().getMapMarkerList().get(i);
-      if (mapobject instanceof TimestampSupporter) {
-	if (((TimestampSupporter) mapobject).getTimestamp().compareTo(cutoff) < 0) {
-	  tree.getViewer().getMapMarkerList().remove(i);
-	  pruned++;
-	  continue;
-	}
-      }
-      i++;
-    }
+    pruned = pruneOlderThan(tree.getViewer().getMapMarkerList(), cutoff, m_TimeOrdered);
     if (isLoggingEnabled())
       getLogger().fine("Markers pruned: " + pruned);
 
     // rectangles
-    i      = 0;
-    pruned = 0;
-    while (i < tree.getViewer().getMapRectangleList().size()) {
-      mapobject = tree.getViewer().getMapRectangleList().get(i);
-      if (mapobject instanceof TimestampSupporter) {
-	if (((TimestampSupporter) mapobject).getTimestamp().compareTo(cutoff) < 0) {
-	  tree.getViewer().getMapRectangleList().remove(i);
-	  pruned++;
-	  continue;
-	}
-      }
-      i++;
-    }
+    pruned = pruneOlderThan(tree.getViewer().getMapRectangleList(), cutoff, m_TimeOrdered);
     if (isLoggingEnabled())
       getLogger().fine("Rectangles pruned: " + pruned);
     
     // polygons
-    i      = 0;
-    pruned = 0;
-    while (i < tree.getViewer().getMapPolygonList().size()) {
-      mapobject = tree.getViewer().getMapPolygonList().get(i);
-      if (mapobject instanceof TimestampSupporter) {
-	if (((TimestampSupporter) mapobject).getTimestamp().compareTo(cutoff) < 0) {
-	  tree.getViewer().getMapPolygonList().remove(i);
-	  pruned++;
-	  continue;
-	}
-      }
-      i++;
-    }
+    pruned = pruneOlderThan(tree.getViewer().getMapPolygonList(), cutoff, m_TimeOrdered);
     if (isLoggingEnabled())
       getLogger().fine("Polygons pruned: " + pruned);
   }
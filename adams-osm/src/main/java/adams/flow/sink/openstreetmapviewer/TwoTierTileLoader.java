@@ -0,0 +1,455 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TwoTierTileLoader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.sink.openstreetmapviewer;
+
+import org.openstreetmap.gui.jmapviewer.MemoryTileCache;
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileCache;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileJob;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileLoader;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileLoaderListener;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tile loader that places a bounded in-memory LRU cache of decoded tiles
+ * ({@link MemoryTileCache}) in front of another tile loader (e.g., a file
+ * cache loader). The actual loading is performed by a configurable number
+ * of threads. Concurrent requests for the same tile (from the viewer or
+ * the prefetching) only trigger a single load, all requests get served
+ * once that load has finished.
+ * Once a tile requested by the viewer has been loaded, its neighbors
+ * (and optionally the tiles of the adjacent zoom levels) get prefetched
+ * in the background into the memory cache.
+ * <br><br>
+ * The base loader must be constructed with this loader as its listener
+ * and then set via {@link #setBase(TileLoader)}.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class TwoTierTileLoader
+  implements TileLoader, TileLoaderListener {
+
+  /** the maximum number of queued prefetch jobs. */
+  public final static int MAX_PREFETCH_QUEUE = 256;
+
+  /** the listener to notify. */
+  protected TileLoaderListener m_Listener;
+
+  /** the base loader. */
+  protected TileLoader m_Base;
+
+  /** the in-memory cache. */
+  protected MemoryTileCache m_Memory;
+
+  /** the maximum number of images in memory. */
+  protected int m_MemorySize;
+
+  /** the radius (in tiles) to prefetch around loaded tiles. */
+  protected int m_PrefetchRadius;
+
+  /** whether to prefetch the adjacent zoom levels. */
+  protected boolean m_PrefetchZoom;
+
+  /** the tiles currently being loaded (tile key - tiles waiting for the load). */
+  protected Map<String,List<Tile>> m_InFlight;
+
+  /** the tiles that are being prefetched. */
+  protected Set<Tile> m_Prefetching;
+
+  /** the executor for the tiles requested by the viewer. */
+  protected ThreadPoolExecutor m_Loaders;
+
+  /** the executor for prefetching tiles. */
+  protected ThreadPoolExecutor m_Prefetchers;
+
+  /**
+   * Initializes the loader.
+   *
+   * @param listener		the listener to notify
+   * @param memorySize		the number of decoded tiles to keep in memory, 0 to disable
+   * @param threads		the number of threads for loading tiles
+   * @param prefetchRadius	the radius in tiles to prefetch, 0 to disable
+   * @param prefetchZoom	whether to prefetch the adjacent zoom levels
+   */
+  public TwoTierTileLoader(TileLoaderListener listener, int memorySize, int threads, int prefetchRadius, boolean prefetchZoom) {
+    super();
+
+    m_Listener       = listener;
+    m_MemorySize     = Math.max(0, memorySize);
+    m_PrefetchRadius = Math.max(0, prefetchRadius);
+    m_PrefetchZoom   = prefetchZoom;
+    m_InFlight       = new HashMap<>();
+    m_Prefetching    = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Tile,Boolean>()));
+    m_Memory         = new MemoryTileCache();
+    m_Memory.setCacheSize(Math.max(1, m_MemorySize));
+    m_Loaders = new ThreadPoolExecutor(
+      Math.max(1, threads), Math.max(1, threads), 30, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(), newThreadFactory("load"));
+    m_Loaders.allowCoreThreadTimeOut(true);
+    m_Prefetchers = new ThreadPoolExecutor(
+      1, 1, 30, TimeUnit.SECONDS,
+      new ArrayBlockingQueue<Runnable>(MAX_PREFETCH_QUEUE), newThreadFactory("prefetch"),
+      new ThreadPoolExecutor.DiscardOldestPolicy());
+    m_Prefetchers.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Creates a factory for daemon threads.
+   *
+   * @param type	the type of thread, used in the name
+   * @return		the factory
+   */
+  protected ThreadFactory newThreadFactory(final String type) {
+    return new ThreadFactory() {
+      protected int m_Count = 0;
+      @Override
+      public synchronized Thread newThread(Runnable r) {
+	Thread result = new Thread(r, TwoTierTileLoader.class.getSimpleName() + "-" + type + "-" + (++m_Count));
+	result.setDaemon(true);
+	result.setPriority(Thread.MIN_PRIORITY);
+	return result;
+      }
+    };
+  }
+
+  /**
+   * Sets the base loader, which must use this loader as listener.
+   *
+   * @param value	the base loader
+   */
+  public void setBase(TileLoader value) {
+    m_Base = value;
+  }
+
+  /**
+   * Returns the base loader.
+   *
+   * @return		the base loader
+   */
+  public TileLoader getBase() {
+    return m_Base;
+  }
+
+  /**
+   * Returns the loaded tile from the memory cache.
+   *
+   * @param tile	the tile to look up
+   * @return		the cached tile, null if not cached
+   */
+  protected Tile getCached(Tile tile) {
+    if (m_MemorySize == 0)
+      return null;
+    synchronized(m_Memory) {
+      return m_Memory.getTile(tile.getSource(), tile.getXtile(), tile.getYtile(), tile.getZoom());
+    }
+  }
+
+  /**
+   * Stores the loaded tile in the memory cache.
+   *
+   * @param tile	the tile to store
+   */
+  protected void setCached(Tile tile) {
+    if ((m_MemorySize == 0) || (tile.getImage() == null))
+      return;
+    synchronized(m_Memory) {
+      if (m_Memory.getTile(tile.getSource(), tile.getXtile(), tile.getYtile(), tile.getZoom()) == null)
+	m_Memory.addTile(tile);
+    }
+  }
+
+  /**
+   * Returns the number of tiles currently in memory.
+   *
+   * @return		the number of tiles
+   */
+  public int getCachedCount() {
+    synchronized(m_Memory) {
+      return m_Memory.getTileCount();
+    }
+  }
+
+  /**
+   * Empties the memory cache.
+   */
+  public void clearCache() {
+    synchronized(m_Memory) {
+      m_Memory.clear();
+    }
+  }
+
+  /**
+   * Checks whether the tile is currently being loaded.
+   *
+   * @param tile	the tile to check
+   * @return		true if being loaded
+   */
+  protected boolean isLoading(Tile tile) {
+    synchronized(m_InFlight) {
+      return m_InFlight.containsKey(tile.getKey());
+    }
+  }
+
+  /**
+   * Registers the tile as being loaded, unless a load for the same tile
+   * is already in progress.
+   *
+   * @param tile	the tile to load
+   * @param wait	whether to get served by a load that is already in progress
+   * @return		true if the caller has to load the tile
+   */
+  protected boolean startLoading(Tile tile, boolean wait) {
+    List<Tile>	waiting;
+
+    synchronized(m_InFlight) {
+      waiting = m_InFlight.get(tile.getKey());
+      if (waiting == null) {
+	m_InFlight.put(tile.getKey(), new ArrayList<>());
+	return true;
+      }
+      if (wait)
+	waiting.add(tile);
+      return false;
+    }
+  }
+
+  /**
+   * Finishes the load of the tile and serves all the requests that were
+   * waiting for it. Waiting requests get loaded themselves if the load
+   * failed.
+   *
+   * @param tile	the tile that was loaded
+   */
+  protected void finishLoading(Tile tile) {
+    List<Tile>	waiting;
+    boolean	success;
+
+    synchronized(m_InFlight) {
+      waiting = m_InFlight.remove(tile.getKey());
+    }
+    if ((waiting == null) || waiting.isEmpty())
+      return;
+
+    success = tile.isLoaded() && !tile.hasError() && (tile.getImage() != null);
+    for (Tile other: waiting) {
+      if (success) {
+	other.setImage(tile.getImage());
+	other.setLoaded(true);
+	m_Listener.tileLoadingFinished(other, true);
+      }
+      else {
+	m_Base.createTileLoaderJob(other).run();
+      }
+    }
+  }
+
+  /**
+   * Loads the tile, either from memory or via the base loader.
+   *
+   * @param tile	the tile to load
+   */
+  protected void load(Tile tile) {
+    Tile	cached;
+
+    cached = getCached(tile);
+    if (cached == null) {
+      if (!startLoading(tile, true))
+	return;
+      try {
+	// loaded in the meantime?
+	cached = getCached(tile);
+	if (cached == null)
+	  m_Base.createTileLoaderJob(tile).run();
+      }
+      finally {
+	if (cached != null) {
+	  tile.setImage(cached.getImage());
+	  tile.setLoaded(true);
+	}
+	finishLoading(tile);
+      }
+      if (cached == null)
+	return;
+    }
+
+    tile.setImage(cached.getImage());
+    tile.setLoaded(true);
+    m_Listener.tileLoadingFinished(tile, true);
+    prefetch(tile);
+  }
+
+  /**
+   * Queues a single tile for prefetching, unless already in memory or
+   * being loaded.
+   *
+   * @param source	the tile source
+   * @param x		the x coordinate of the tile
+   * @param y		the y coordinate of the tile
+   * @param zoom	the zoom level
+   */
+  protected void prefetch(TileSource source, int x, int y, int zoom) {
+    final Tile	tile;
+    int		max;
+
+    if ((zoom < source.getMinZoom()) || (zoom > source.getMaxZoom()))
+      return;
+    max = (1 << zoom) - 1;
+    if ((x < 0) || (y < 0) || (x > max) || (y > max))
+      return;
+
+    tile = new Tile(source, x, y, zoom);
+    if (isLoading(tile) || (getCached(tile) != null))
+      return;
+
+    m_Prefetchers.execute(new Runnable() {
+      @Override
+      public void run() {
+	Tile	cached;
+	if (!startLoading(tile, false))
+	  return;
+	cached = null;
+	try {
+	  cached = getCached(tile);
+	  if (cached == null) {
+	    m_Prefetching.add(tile);
+	    m_Base.createTileLoaderJob(tile).run();
+	  }
+	}
+	finally {
+	  m_Prefetching.remove(tile);
+	  if (cached != null) {
+	    tile.setImage(cached.getImage());
+	    tile.setLoaded(true);
+	  }
+	  finishLoading(tile);
+	}
+      }
+    });
+  }
+
+  /**
+   * Prefetches the tiles around the specified one.
+   *
+   * @param tile	the tile that was requested by the viewer
+   */
+  protected void prefetch(Tile tile) {
+    TileSource	source;
+    int		x;
+    int		y;
+    int		z;
+    int		dx;
+    int		dy;
+
+    if (m_MemorySize == 0)
+      return;
+    if ((m_PrefetchRadius == 0) && !m_PrefetchZoom)
+      return;
+
+    source = tile.getSource();
+    x      = tile.getXtile();
+    y      = tile.getYtile();
+    z      = tile.getZoom();
+
+    for (dy = -m_PrefetchRadius; dy <= m_PrefetchRadius; dy++) {
+      for (dx = -m_PrefetchRadius; dx <= m_PrefetchRadius; dx++) {
+	if ((dx != 0) || (dy != 0))
+	  prefetch(source, x + dx, y + dy, z);
+      }
+    }
+
+    if (m_PrefetchZoom) {
+      prefetch(source, x / 2, y / 2, z - 1);
+      for (dy = 0; dy <= 1; dy++) {
+	for (dx = 0; dx <= 1; dx++)
+	  prefetch(source, x * 2 + dx, y * 2 + dy, z + 1);
+      }
+    }
+  }
+
+  /**
+   * Creates the job for loading the tile. The job only hands the tile over
+   * to the loader threads.
+   *
+   * @param tile	the tile to load
+   * @return		the job
+   */
+  @Override
+  public TileJob createTileLoaderJob(final Tile tile) {
+    return new TileJob() {
+      @Override
+      public Tile getTile() {
+	return tile;
+      }
+      @Override
+      public void run() {
+	m_Loaders.execute(new Runnable() {
+	  @Override
+	  public void run() {
+	    load(tile);
+	  }
+	});
+      }
+    };
+  }
+
+  /**
+   * Gets called by the base loader once a tile has been loaded. Stores the
+   * image in memory and notifies the listener, unless it was a prefetched
+   * tile.
+   *
+   * @param tile	the tile that was loaded
+   * @param success	whether loading was successful
+   */
+  @Override
+  public void tileLoadingFinished(Tile tile, boolean success) {
+    if (success && !tile.hasError())
+      setCached(tile);
+
+    if (m_Prefetching.contains(tile))
+      return;
+
+    m_Listener.tileLoadingFinished(tile, success);
+    if (success)
+      prefetch(tile);
+  }
+
+  /**
+   * Returns the tile cache of the listener.
+   *
+   * @return		the cache
+   */
+  @Override
+  public TileCache getTileCache() {
+    return m_Listener.getTileCache();
+  }
+}
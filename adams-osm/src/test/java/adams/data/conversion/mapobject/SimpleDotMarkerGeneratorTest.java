@@ -0,0 +1,265 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SimpleDotMarkerGeneratorTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.conversion.mapobject;
+
+import adams.core.DateTime;
+import adams.core.DateUtils;
+import adams.data.gps.GPSDecimalDegrees;
+import adams.data.mapobject.AbstractMapObject;
+import adams.data.mapobject.SimpleMapMarkerDot;
+import adams.data.spreadsheet.DefaultSpreadSheet;
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.data.spreadsheet.SpreadSheetColumnIndex;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
+
+import java.util.Date;
+
+/**
+ * Tests the SimpleDotMarkerGenerator, sequential and parallel, as well as
+ * generators that still implement the deprecated doGenerate(SpreadSheet).
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SimpleDotMarkerGeneratorTest
+  extends AdamsTestCase {
+
+  /** the number of rows to generate. */
+  public final static int NUM_ROWS = 5000;
+
+  /**
+   * Generator that only implements the deprecated sheet-based method.
+   */
+  public static class LegacyGenerator
+    extends AbstractMapMarkerGenerator {
+
+    private static final long serialVersionUID = 3146287385064418226L;
+
+    @Override
+    public String globalInfo() {
+      return "Generates one marker per row.";
+    }
+
+    @Override
+    protected MapMarker[] doGenerate(SpreadSheet sheet) {
+      MapMarker[]	result;
+      int		i;
+
+      result = new MapMarker[sheet.getRowCount()];
+      for (i = 0; i < sheet.getRowCount(); i++)
+	result[i] = new SimpleMapMarkerDot(i, i);
+
+      return result;
+    }
+  }
+
+  /**
+   * Generator that implements neither doGenerate(Row) nor
+   * doGenerate(SpreadSheet).
+   */
+  public static class IncompleteGenerator
+    extends AbstractMapMarkerGenerator {
+
+    private static final long serialVersionUID = -4711926113498153722L;
+
+    @Override
+    public String globalInfo() {
+      return "Generates nothing.";
+    }
+  }
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public SimpleDotMarkerGeneratorTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a spreadsheet with GPS coordinates, names and timestamps.
+   *
+   * @return		the spreadsheet
+   */
+  protected SpreadSheet createSheet() {
+    SpreadSheet	result;
+    Row		row;
+    int		i;
+
+    result = new DefaultSpreadSheet();
+    row    = result.getHeaderRow();
+    row.addCell("gps").setContent("gps");
+    row.addCell("name").setContent("name");
+    row.addCell("timestamp").setContent("timestamp");
+
+    for (i = 0; i < NUM_ROWS; i++) {
+      row = result.addRow();
+      // every 10th row has no coordinates and gets skipped
+      if (i % 10 != 0)
+	row.addCell("gps").setObject(new GPSDecimalDegrees(i / 100.0, i / 200.0));
+      row.addCell("name").setContentAsString("row-" + i);
+      row.addCell("timestamp").setContent(new DateTime(new Date(i * 1000L)));
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates the markers.
+   *
+   * @param sheet	the data to use
+   * @param numThreads	the number of threads
+   * @return		the markers
+   */
+  protected MapMarker[] generate(SpreadSheet sheet, int numThreads) {
+    SimpleDotMarkerGenerator	generator;
+    MapMarker[]			result;
+
+    generator = new SimpleDotMarkerGenerator();
+    generator.setGPS(new SpreadSheetColumnIndex("1"));
+    generator.setName(new SpreadSheetColumnIndex("2"));
+    generator.setTimestamp(new SpreadSheetColumnIndex("3"));
+    generator.setNumThreads(numThreads);
+    try {
+      result = generator.generate(sheet);
+      // executor gets re-used for subsequent runs
+      assertEquals("second run", result.length, generator.generate(sheet).length);
+    }
+    finally {
+      generator.cleanUp();
+    }
+
+    return result;
+  }
+
+  /**
+   * Tests that parallel generation returns the same objects in the same
+   * order as the sequential one.
+   */
+  public void testParallel() {
+    SpreadSheet		sheet;
+    MapMarker[]		sequential;
+    MapMarker[]		parallel;
+    int			i;
+
+    sheet      = createSheet();
+    sequential = generate(sheet, 1);
+    parallel   = generate(sheet, 4);
+
+    assertEquals("# objects", NUM_ROWS - NUM_ROWS / 10, sequential.length);
+    assertEquals("# objects", sequential.length, parallel.length);
+    for (i = 0; i < sequential.length; i++) {
+      assertEquals("lat #" + i, sequential[i].getLat(), parallel[i].getLat(), 1E-9);
+      assertEquals("lon #" + i, sequential[i].getLon(), parallel[i].getLon(), 1E-9);
+      assertEquals("name #" + i, sequential[i].getName(), parallel[i].getName());
+      assertEquals(
+	"timestamp #" + i,
+	((AbstractMapObject) sequential[i]).getTimestamp(),
+	((AbstractMapObject) parallel[i]).getTimestamp());
+    }
+    assertEquals("first name", "row-1", parallel[0].getName());
+    assertEquals("first timestamp", new Date(1000L), ((AbstractMapObject) parallel[0]).getTimestamp());
+  }
+
+  /**
+   * Tests that timestamps stored as strings get parsed correctly when
+   * generating in parallel.
+   */
+  public void testParallelStringTimestamps() {
+    SpreadSheet		sheet;
+    MapMarker[]		sequential;
+    MapMarker[]		parallel;
+    int			i;
+
+    sheet = createSheet();
+    for (i = 0; i < sheet.getRowCount(); i++)
+      sheet.getRow(i).getCell(2).setContentAsString(DateUtils.getTimestampFormatter().format(new Date(i * 1000L)));
+    sequential = generate(sheet, 1);
+    parallel   = generate(sheet, 4);
+
+    assertEquals("# objects", sequential.length, parallel.length);
+    for (i = 0; i < sequential.length; i++) {
+      assertNotNull("timestamp #" + i, ((AbstractMapObject) parallel[i]).getTimestamp());
+      assertEquals(
+	"timestamp #" + i,
+	((AbstractMapObject) sequential[i]).getTimestamp(),
+	((AbstractMapObject) parallel[i]).getTimestamp());
+    }
+  }
+
+  /**
+   * Tests that generators overriding the deprecated doGenerate(SpreadSheet)
+   * still work.
+   */
+  public void testLegacy() {
+    LegacyGenerator	generator;
+    MapMarker[]		markers;
+
+    generator = new LegacyGenerator();
+    generator.setGPS(new SpreadSheetColumnIndex("1"));
+    generator.setNumThreads(4);
+    markers = generator.generate(createSheet());
+    assertEquals("# objects", NUM_ROWS, markers.length);
+    assertEquals("last lat", NUM_ROWS - 1, markers[NUM_ROWS - 1].getLat(), 1E-9);
+    generator.cleanUp();
+  }
+
+  /**
+   * Tests that generators implementing neither method fail.
+   */
+  public void testIncomplete() {
+    IncompleteGenerator	generator;
+
+    generator = new IncompleteGenerator();
+    generator.setGPS(new SpreadSheetColumnIndex("1"));
+    try {
+      generator.generate(createSheet());
+      fail("Missing doGenerate(Row) not detected");
+    }
+    catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(SimpleDotMarkerGeneratorTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
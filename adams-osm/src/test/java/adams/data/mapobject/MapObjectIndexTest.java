@@ -0,0 +1,277 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * MapObjectIndexTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.mapobject;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.openstreetmap.gui.jmapviewer.Coordinate;
+import org.openstreetmap.gui.jmapviewer.MapMarkerDot;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests the MapObjectIndex class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class MapObjectIndexTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public MapObjectIndexTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates a grid of markers.
+   *
+   * @param rows	the number of rows
+   * @param cols	the number of columns
+   * @return		the markers
+   */
+  protected List<SimpleMapMarkerDot> createMarkers(int rows, int cols) {
+    List<SimpleMapMarkerDot>	result;
+    int				r;
+    int				c;
+
+    result = new ArrayList<>();
+    for (r = 0; r < rows; r++) {
+      for (c = 0; c < cols; c++)
+	result.add(new SimpleMapMarkerDot(-40.0 + r, 170.0 + c * 0.1));
+    }
+
+    return result;
+  }
+
+  /**
+   * Tests adding and removing objects.
+   */
+  public void testInsert() {
+    MapObjectIndex<MapObject>	index;
+    List<SimpleMapMarkerDot>	markers;
+
+    index   = new MapObjectIndex<>(4, 10);
+    markers = createMarkers(10, 10);
+    index.addAll(markers);
+    assertEquals("size", 100, index.size());
+
+    // re-adding does not duplicate
+    index.add(markers.get(0));
+    assertEquals("size", 100, index.size());
+
+    assertTrue("removed", index.remove(markers.get(0)));
+    assertFalse("removed twice", index.remove(markers.get(0)));
+    assertEquals("size", 99, index.size());
+
+    index.clear();
+    assertEquals("size", 0, index.size());
+  }
+
+  /**
+   * Tests synchronizing the index with a list of objects, incl replacing
+   * an object without changing the number of objects.
+   */
+  public void testSynchronize() {
+    MapObjectIndex<MapObject>	index;
+    List<MapObject>		objects;
+    SimpleMapMarkerDot		replacement;
+
+    index   = new MapObjectIndex<>(4, 10);
+    objects = new ArrayList<>(createMarkers(5, 5));
+    assertTrue("initial", index.synchronize(objects));
+    assertEquals("size", 25, index.size());
+    assertFalse("in sync", index.synchronize(objects));
+
+    replacement = new SimpleMapMarkerDot(10.0, 10.0);
+    objects.set(0, replacement);
+    assertTrue("replaced", index.synchronize(objects));
+    assertEquals("size", 25, index.size());
+    assertTrue("new object", index.contains(replacement));
+    assertEquals("old location", 0, index.query(-40.0, 170.0).size());
+    assertEquals("new location", 1, index.query(10.0, 10.0).size());
+
+    objects.remove(1);
+    assertTrue("removed", index.synchronize(objects));
+    assertEquals("size", 24, index.size());
+  }
+
+  /**
+   * Tests querying the index.
+   */
+  public void testQuery() {
+    MapObjectIndex<MapObject>	index;
+    List<SimpleMapMarkerDot>	markers;
+    List<MapObject>		hits;
+    SimpleMapPolygon		polygon;
+    SimpleMapRectangle		rect;
+
+    index   = new MapObjectIndex<>(4, 10);
+    markers = createMarkers(10, 10);
+    index.addAll(markers);
+
+    hits = index.query(-40.0, 170.0);
+    assertEquals("point hits", 1, hits.size());
+    assertSame("point hit", markers.get(0), hits.get(0));
+
+    hits = index.query(-40.5, 169.0, -37.5, 170.15);
+    assertEquals("region hits", 6, hits.size());
+
+    hits = index.query(0.0, 0.0, 10.0, 10.0);
+    assertEquals("no hits", 0, hits.size());
+
+    polygon = new SimpleMapPolygon(new Coordinate(10.0, 10.0), new Coordinate(20.0, 10.0), new Coordinate(15.0, 20.0));
+    rect    = new SimpleMapRectangle(new Coordinate(5.0, 5.0), new Coordinate(-5.0, 15.0));
+    index.add(polygon);
+    index.add(rect);
+    hits = index.query(12.0, 12.0);
+    assertEquals("polygon hits", 1, hits.size());
+    assertSame("polygon hit", polygon, hits.get(0));
+    hits = index.query(0.0, 10.0);
+    assertEquals("rectangle hits", 1, hits.size());
+    assertSame("rectangle hit", rect, hits.get(0));
+  }
+
+  /**
+   * Tests moving objects after they got indexed.
+   */
+  public void testMove() {
+    MapObjectIndex<MapObject>	index;
+    List<SimpleMapMarkerDot>	markers;
+    SimpleMapMarkerDot		marker;
+    List<MapObject>		hits;
+
+    index   = new MapObjectIndex<>(4, 10);
+    markers = createMarkers(10, 10);
+    index.addAll(markers);
+
+    marker = markers.get(0);
+    marker.setLat(50.0);
+    marker.setLon(-10.0);
+    hits = index.query(-40.0, 170.0);
+    assertEquals("old location", 0, hits.size());
+    hits = index.query(50.0, -10.0);
+    assertEquals("new location", 1, hits.size());
+    assertSame("new location", marker, hits.get(0));
+    assertEquals("size", 100, index.size());
+  }
+
+  /**
+   * Tests reshaping polygons and rectangles after they got indexed.
+   */
+  public void testReshape() {
+    MapObjectIndex<MapObject>	index;
+    SimpleMapPolygon		polygon;
+    SimpleMapRectangle		rect;
+    List<MapObject>		hits;
+
+    index   = new MapObjectIndex<>(4, 10);
+    polygon = new SimpleMapPolygon(new Coordinate(10.0, 10.0), new Coordinate(20.0, 10.0), new Coordinate(15.0, 20.0));
+    rect    = new SimpleMapRectangle(new Coordinate(5.0, 5.0), new Coordinate(-5.0, 15.0));
+    index.add(polygon);
+    index.add(rect);
+
+    polygon.setPoints(Arrays.asList(new Coordinate(-30.0, -30.0), new Coordinate(-20.0, -30.0), new Coordinate(-25.0, -20.0)));
+    assertEquals("polygon min lat", -30.0, polygon.getBounds()[MapObjectIndex.MIN_LAT], 1E-9);
+    assertEquals("polygon old location", 0, index.query(12.0, 12.0).size());
+    hits = index.query(-25.0, -25.0);
+    assertEquals("polygon new location", 1, hits.size());
+    assertSame("polygon new location", polygon, hits.get(0));
+
+    rect.setTopLeft(new Coordinate(45.0, 40.0));
+    rect.setBottomRight(new Coordinate(35.0, 50.0));
+    assertEquals("rectangle max lat", 45.0, rect.getBounds()[MapObjectIndex.MAX_LAT], 1E-9);
+    assertEquals("rectangle old location", 0, index.query(0.0, 10.0).size());
+    hits = index.query(40.0, 45.0);
+    assertEquals("rectangle new location", 1, hits.size());
+    assertSame("rectangle new location", rect, hits.get(0));
+  }
+
+  /**
+   * Tests that the viewport only affects painting, not the visibility.
+   */
+  public void testViewport() {
+    MapViewport		viewport;
+    SimpleMapRectangle	rect;
+
+    viewport = new MapViewport();
+    viewport.m_Bounds = new double[]{0.0, 0.0, 10.0, 10.0};
+    rect = new SimpleMapRectangle(new Coordinate(25.0, 20.0), new Coordinate(20.0, 25.0));
+    rect.setViewport(viewport);
+    assertTrue("visible", rect.isVisible());
+    assertFalse("outside viewport", rect.isInViewport());
+
+    rect.setTopLeft(new Coordinate(5.0, 5.0));
+    assertTrue("inside viewport", rect.isInViewport());
+
+    rect.setVisible(false);
+    assertFalse("hidden", rect.isVisible());
+    assertTrue("hidden, inside viewport", rect.isInViewport());
+
+    viewport.invalidate();
+    rect.setTopLeft(new Coordinate(25.0, 20.0));
+    assertTrue("unknown viewport", rect.isInViewport());
+  }
+
+  /**
+   * Tests objects that cannot report changes.
+   */
+  public void testUntracked() {
+    MapObjectIndex<MapObject>	index;
+    MapMarkerDot		marker;
+    List<MapObject>		hits;
+
+    index  = new MapObjectIndex<>();
+    marker = new MapMarkerDot(-40.0, 170.0);
+    index.add(marker);
+    marker.setLat(50.0);
+    hits = index.query(50.0, 170.0);
+    assertEquals("candidates", 1, hits.size());
+    assertSame("candidate", marker, hits.get(0));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(MapObjectIndexTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * GridMarkerClustererTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.sink.openstreetmapviewer;
+
+import adams.data.mapobject.SimpleMapMarkerDot;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.openstreetmap.gui.jmapviewer.Layer;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the GridMarkerClusterer class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class GridMarkerClustererTest
+  extends AdamsTestCase {
+
+  /** the zoom level to test with. */
+  public final static int ZOOM = 5;
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public GridMarkerClustererTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the number of markers clustered at the zoom level.
+   *
+   * @param clusterer	the clusterer to query
+   * @param markers	the markers
+   * @param zoom	the zoom level
+   * @return		the number of clustered markers
+   */
+  protected int count(GridMarkerClusterer clusterer, List<MapMarker> markers, int zoom) {
+    int		result;
+
+    result = 0;
+    for (GridMarkerClusterer.Cluster cluster: clusterer.getLevel(markers, zoom).clusters.values())
+      result += cluster.count;
+
+    return result;
+  }
+
+  /**
+   * Tests the clustering of nearby markers.
+   */
+  public void testClustering() {
+    GridMarkerClusterer		clusterer;
+    List<MapMarker>		markers;
+
+    clusterer = new GridMarkerClusterer();
+    markers   = new ArrayList<>();
+    markers.add(new SimpleMapMarkerDot(-37.78, 175.31));
+    markers.add(new SimpleMapMarkerDot(-37.79, 175.32));
+    markers.add(new SimpleMapMarkerDot(-37.80, 175.30));
+    markers.add(new SimpleMapMarkerDot(51.5, -0.1));
+
+    assertEquals("clusters", 2, clusterer.getLevel(markers, ZOOM).clusters.size());
+    assertEquals("markers", 4, count(clusterer, markers, ZOOM));
+
+    assertFalse("clustered", clusterer.isPainted(markers, ZOOM, markers.get(0)));
+    assertTrue("single", clusterer.isPainted(markers, ZOOM, markers.get(3)));
+    assertTrue("inactive", clusterer.isPainted(markers, clusterer.getMaxZoom() + 1, markers.get(0)));
+  }
+
+  /**
+   * Tests adding and removing markers incrementally.
+   */
+  public void testIncremental() {
+    GridMarkerClusterer		clusterer;
+    List<MapMarker>		markers;
+    MapMarker			marker;
+
+    clusterer = new GridMarkerClusterer();
+    markers   = new ArrayList<>();
+    markers.add(new SimpleMapMarkerDot(-37.78, 175.31));
+    assertEquals("markers", 1, count(clusterer, markers, ZOOM));
+
+    marker = new SimpleMapMarkerDot(-37.79, 175.32);
+    markers.add(marker);
+    clusterer.add(marker);
+    assertEquals("markers", 2, count(clusterer, markers, ZOOM));
+    assertFalse("clustered", clusterer.isPainted(markers, ZOOM, markers.get(0)));
+
+    markers.remove(marker);
+    clusterer.remove(marker);
+    assertEquals("markers", 1, count(clusterer, markers, ZOOM));
+    assertEquals("clusters", 1, clusterer.getLevel(markers, ZOOM).clusters.size());
+  }
+
+  /**
+   * Tests that removing the first marker of a cluster, leaving a single
+   * marker, keeps the remaining marker paintable and hittable.
+   */
+  public void testRemoveFirst() {
+    GridMarkerClusterer			clusterer;
+    List<MapMarker>			markers;
+    MapMarker				first;
+    MapMarker				second;
+    GridMarkerClusterer.Cluster		cluster;
+
+    clusterer = new GridMarkerClusterer();
+    first     = new SimpleMapMarkerDot(-37.78, 175.31);
+    second    = new SimpleMapMarkerDot(-37.79, 175.32);
+    markers   = new ArrayList<>();
+    markers.add(first);
+    markers.add(second);
+    assertEquals("clusters", 1, clusterer.getLevel(markers, ZOOM).clusters.size());
+
+    markers.remove(first);
+    clusterer.remove(first);
+    assertTrue("single", clusterer.isPainted(markers, ZOOM, second));
+    cluster = clusterer.getLevel(markers, ZOOM).clusters.values().iterator().next();
+    assertEquals("count", 1, cluster.count);
+    assertSame("first", second, cluster.first);
+
+    // remaining member got hidden in the meantime: no cluster left
+    clusterer = new GridMarkerClusterer();
+    markers.add(0, first);
+    assertEquals("clusters", 1, clusterer.getLevel(markers, ZOOM).clusters.size());
+    second.setVisible(false);
+    markers.remove(first);
+    clusterer.remove(first);
+    assertEquals("clusters", 0, clusterer.getLevel(markers, ZOOM).clusters.size());
+    assertFalse("hidden", clusterer.isPainted(markers, ZOOM, second));
+  }
+
+  /**
+   * Tests that markers in hidden layers are ignored.
+   */
+  public void testHiddenLayer() {
+    GridMarkerClusterer		clusterer;
+    List<MapMarker>		markers;
+    Layer			visible;
+    Layer			hidden;
+
+    clusterer = new GridMarkerClusterer();
+    visible   = new Layer("visible");
+    hidden    = new Layer("hidden");
+    hidden.setVisible(false);
+    markers   = new ArrayList<>();
+    markers.add(new SimpleMapMarkerDot(visible, -37.78, 175.31));
+    markers.add(new SimpleMapMarkerDot(hidden, -37.79, 175.32));
+    markers.add(new SimpleMapMarkerDot(hidden, -37.80, 175.30));
+
+    assertEquals("markers", 1, count(clusterer, markers, ZOOM));
+    assertTrue("single", clusterer.isPainted(markers, ZOOM, markers.get(0)));
+    assertFalse("hidden", clusterer.isPainted(markers, ZOOM, markers.get(1)));
+
+    // showing the layer again triggers re-clustering
+    hidden.setVisible(true);
+    assertEquals("markers", 3, count(clusterer, markers, ZOOM));
+    assertFalse("clustered", clusterer.isPainted(markers, ZOOM, markers.get(0)));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(GridMarkerClustererTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LocalTileSourceTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.sink.openstreetmapviewer;
+
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderFile;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Tests the LocalTileSource class and its readers.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LocalTileSourceTest
+  extends AdamsTestCase {
+
+  /** the temporary directory. */
+  protected File m_Dir;
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public LocalTileSourceTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates the temporary directory.
+   *
+   * @throws Exception	if setup fails
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    m_Dir = Files.createTempDirectory("localtiles").toFile();
+  }
+
+  /**
+   * Removes the temporary directory.
+   *
+   * @throws Exception	if tear down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtils.delete(m_Dir);
+
+    super.tearDown();
+  }
+
+  /**
+   * Creates an MBTiles file with a single tile (TMS scheme).
+   *
+   * @param file	the file to create
+   * @param zoom	the zoom level
+   * @param x		the column
+   * @param y		the row (OSM scheme)
+   * @param data	the tile data
+   * @throws Exception	if creation fails
+   */
+  protected void createMBTiles(File file, int zoom, int x, int y, byte[] data) throws Exception {
+    PreparedStatement	stmt;
+
+    try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath())) {
+      try (Statement create = conn.createStatement()) {
+	create.execute("CREATE TABLE tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_data BLOB)");
+      }
+      stmt = conn.prepareStatement("INSERT INTO tiles VALUES (?, ?, ?, ?)");
+      stmt.setInt(1, zoom);
+      stmt.setInt(2, x);
+      stmt.setInt(3, (1 << zoom) - 1 - y);
+      stmt.setBytes(4, data);
+      stmt.executeUpdate();
+      stmt.close();
+    }
+  }
+
+  /**
+   * Tests the detection of MBTiles files.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testDetection() throws Exception {
+    File	file;
+
+    file = new File(m_Dir, "empty.mbtiles");
+    Files.write(file.toPath(), new byte[0]);
+    assertTrue("extension", LocalTileSource.isMBTiles(file));
+
+    file = new File(m_Dir, "tiles.db");
+    createMBTiles(file, 1, 0, 0, new byte[]{1, 2, 3});
+    assertTrue("header", LocalTileSource.isMBTiles(file));
+
+    file = new File(m_Dir, "tiles.txt");
+    Files.write(file.toPath(), "SQLite".getBytes());
+    assertFalse("other file", LocalTileSource.isMBTiles(file));
+
+    assertFalse("directory", LocalTileSource.isMBTiles(m_Dir));
+  }
+
+  /**
+   * Tests reading from an MBTiles file.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testMBTiles() throws Exception {
+    File		file;
+    byte[]		data;
+    LocalTileSource	provider;
+    LocalTileSource.Source	source;
+
+    file = new File(m_Dir, "tiles.mbtiles");
+    data = new byte[]{10, 20, 30, 40};
+    createMBTiles(file, 2, 1, 0, data);
+
+    provider = new LocalTileSource();
+    provider.setLocation(new PlaceholderFile(file));
+    source = (LocalTileSource.Source) provider.generate();
+    assertTrue("reader", source.getReader() instanceof MBTilesTileReader);
+    assertTrue("data", Arrays.equals(data, source.getReader().read(2, 1, 0)));
+    assertNull("missing", source.getReader().read(2, 1, 1));
+
+    // connections get re-opened on demand after closing
+    source.close();
+    assertTrue("data after close", Arrays.equals(data, source.getReader().read(2, 1, 0)));
+    source.close();
+  }
+
+  /**
+   * Tests reading from a directory tree.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testDirectory() throws Exception {
+    File		file;
+    byte[]		data;
+    LocalTileSource	provider;
+    LocalTileSource.Source	source;
+
+    file = new File(m_Dir, "3" + File.separator + "2" + File.separator + "1.png");
+    file.getParentFile().mkdirs();
+    data = new byte[]{1, 2, 3};
+    Files.write(file.toPath(), data);
+
+    provider = new LocalTileSource();
+    provider.setLocation(new PlaceholderFile(m_Dir));
+    source = (LocalTileSource.Source) provider.generate();
+    assertTrue("reader", source.getReader() instanceof DirectoryTileReader);
+    assertTrue("data", Arrays.equals(data, source.getReader().read(3, 2, 1)));
+    assertNull("missing", source.getReader().read(3, 2, 2));
+    source.close();
+  }
+
+  /**
+   * Tests that files that are neither directories nor MBTiles get rejected.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testInvalidLocation() throws Exception {
+    File		file;
+    LocalTileSource	provider;
+
+    file = new File(m_Dir, "tiles.txt");
+    Files.write(file.toPath(), "not a database".getBytes());
+
+    provider = new LocalTileSource();
+    provider.setLocation(new PlaceholderFile(file));
+    try {
+      provider.generate();
+      fail("Should have failed for: " + file);
+    }
+    catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(LocalTileSourceTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SimplePrunerTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.sink.openstreetmapviewer;
+
+import adams.data.mapobject.SimpleMapMarkerDot;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.openstreetmap.gui.jmapviewer.JMapViewerTree;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the SimplePruner class and the batching of pruning runs.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SimplePrunerTest
+  extends AdamsTestCase {
+
+  /**
+   * Pruner that only counts the pruning runs.
+   */
+  public static class CountingPruner
+    extends SimplePruner {
+
+    private static final long serialVersionUID = 5166338390713484155L;
+
+    /** the number of pruning runs. */
+    public int runs;
+
+    /**
+     * Counts the pruning run.
+     *
+     * @param tree	ignored
+     */
+    @Override
+    protected void doPrune(JMapViewerTree tree) {
+      runs++;
+    }
+  }
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public SimplePrunerTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Calls prune the specified number of times.
+   *
+   * @param pruner	the pruner to use
+   * @param calls	the number of calls
+   */
+  protected void prune(CountingPruner pruner, int calls) {
+    int		i;
+
+    for (i = 0; i < calls; i++)
+      pruner.prune(null);
+  }
+
+  /**
+   * Tests removing the oldest objects from the start of the list.
+   */
+  public void testPruneHead() {
+    SimplePruner	pruner;
+    List<MapMarker>	markers;
+    List<MapMarker>	expected;
+    int			i;
+
+    pruner  = new SimplePruner();
+    markers = new ArrayList<>();
+    for (i = 0; i < 10; i++)
+      markers.add(new SimpleMapMarkerDot(i, i));
+    expected = new ArrayList<>(markers.subList(7, 10));
+
+    assertEquals("pruned", 7, pruner.pruneHead(markers, markers.size() - 3));
+    assertEquals("remaining", expected, markers);
+    assertEquals("recorded", 7, pruner.getPruned().size());
+    assertEquals("nothing to prune", 0, pruner.pruneHead(markers, 0));
+    assertEquals("negative count", 0, pruner.pruneHead(markers, -5));
+    assertEquals("more than available", 3, pruner.pruneHead(markers, 10));
+    assertEquals("empty", 0, markers.size());
+  }
+
+  /**
+   * Tests the defaults: every 1 call, no interval, ie pruning with every call.
+   */
+  public void testDefault() {
+    CountingPruner	pruner;
+
+    pruner = new CountingPruner();
+    assertEquals("every", 1, pruner.getPruneEvery());
+    assertEquals("interval", 0, pruner.getPruneInterval());
+    prune(pruner, 5);
+    assertEquals("runs", 5, pruner.runs);
+
+    // both disabled also prunes every call
+    pruner = new CountingPruner();
+    pruner.setPruneEvery(0);
+    prune(pruner, 5);
+    assertEquals("runs", 5, pruner.runs);
+  }
+
+  /**
+   * Tests pruning every N calls.
+   */
+  public void testEvery() {
+    CountingPruner	pruner;
+
+    pruner = new CountingPruner();
+    pruner.setPruneEvery(3);
+    prune(pruner, 2);
+    assertEquals("runs", 0, pruner.runs);
+    prune(pruner, 1);
+    assertEquals("runs", 1, pruner.runs);
+    prune(pruner, 7);
+    assertEquals("runs", 3, pruner.runs);
+  }
+
+  /**
+   * Tests pruning after a minimum interval.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testInterval() throws Exception {
+    CountingPruner	pruner;
+
+    pruner = new CountingPruner();
+    pruner.setPruneEvery(0);
+    pruner.setPruneInterval(200);
+    prune(pruner, 5);
+    assertEquals("runs", 0, pruner.runs);
+    Thread.sleep(300);
+    prune(pruner, 1);
+    assertEquals("runs", 1, pruner.runs);
+    prune(pruner, 5);
+    assertEquals("runs", 1, pruner.runs);
+
+    // whichever comes first
+    pruner = new CountingPruner();
+    pruner.setPruneEvery(4);
+    pruner.setPruneInterval(200);
+    prune(pruner, 4);
+    assertEquals("runs", 1, pruner.runs);
+    prune(pruner, 1);
+    Thread.sleep(300);
+    prune(pruner, 1);
+    assertEquals("runs", 2, pruner.runs);
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(SimplePrunerTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
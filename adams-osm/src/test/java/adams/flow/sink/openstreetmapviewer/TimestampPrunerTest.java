@@ -0,0 +1,161 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TimestampPrunerTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.sink.openstreetmapviewer;
+
+import adams.data.mapobject.SimpleMapMarkerDot;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.openstreetmap.gui.jmapviewer.MapMarkerDot;
+import org.openstreetmap.gui.jmapviewer.interfaces.MapMarker;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tests the timestamp-based pruning of the TimestampPruner class, for
+ * ordered and unordered map objects.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class TimestampPrunerTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public TimestampPrunerTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a marker with the specified timestamp.
+   *
+   * @param time	the timestamp in msec
+   * @return		the marker
+   */
+  protected MapMarker newMarker(long time) {
+    SimpleMapMarkerDot	result;
+
+    result = new SimpleMapMarkerDot(-37.78, 175.28);
+    result.setTimestamp(new Date(time));
+
+    return result;
+  }
+
+  /**
+   * Creates markers with the specified timestamps.
+   *
+   * @param times	the timestamps in msec
+   * @return		the markers
+   */
+  protected List<MapMarker> newMarkers(long... times) {
+    List<MapMarker>	result;
+
+    result = new ArrayList<>();
+    for (long time: times)
+      result.add(newMarker(time));
+
+    return result;
+  }
+
+  /**
+   * Tests pruning of time-ordered objects: only the expired head of the
+   * list gets removed, inspection stops at the first object that hasn't
+   * expired.
+   */
+  public void testOrdered() {
+    TimestampPruner	pruner;
+    List<MapMarker>	markers;
+    List<MapMarker>	expected;
+
+    pruner  = new TimestampPruner();
+    markers = newMarkers(1000, 2000, 3000, 4000, 5000);
+    expected = new ArrayList<>(markers.subList(3, 5));
+    assertEquals("pruned", 3, pruner.pruneOlderThan(markers, new Date(3500), true));
+    assertEquals("remaining", expected, markers);
+    assertEquals("recorded", 3, pruner.getPruned().size());
+
+    // out-of-order object past the first non-expired one is kept
+    markers = newMarkers(1000, 5000, 2000);
+    assertEquals("pruned", 1, pruner.pruneOlderThan(markers, new Date(3500), true));
+    assertEquals("remaining", 2, markers.size());
+
+    // object without timestamp stops the inspection
+    markers = newMarkers(1000);
+    markers.add(new MapMarkerDot(-37.78, 175.28));
+    markers.add(newMarker(2000));
+    assertEquals("pruned", 1, pruner.pruneOlderThan(markers, new Date(3500), true));
+    assertEquals("remaining", 2, markers.size());
+
+    // nothing expired
+    markers = newMarkers(4000, 5000);
+    assertEquals("pruned", 0, pruner.pruneOlderThan(markers, new Date(3500), true));
+    assertEquals("remaining", 2, markers.size());
+  }
+
+  /**
+   * Tests pruning of unordered objects: all expired objects get removed
+   * in a single pass, preserving the order of the remaining ones.
+   */
+  public void testUnordered() {
+    TimestampPruner	pruner;
+    List<MapMarker>	markers;
+    List<MapMarker>	expected;
+    MapMarker		untracked;
+
+    pruner    = new TimestampPruner();
+    markers   = newMarkers(5000, 1000, 4000, 2000, 3000);
+    untracked = new MapMarkerDot(-37.78, 175.28);
+    markers.add(1, untracked);
+    expected  = new ArrayList<>();
+    expected.add(markers.get(0));
+    expected.add(untracked);
+    expected.add(markers.get(3));
+    assertEquals("pruned", 3, pruner.pruneOlderThan(markers, new Date(3500), false));
+    assertEquals("remaining", expected, markers);
+    assertEquals("recorded", 3, pruner.getPruned().size());
+    assertFalse("not recorded", pruner.getPruned().contains(untracked));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(TimestampPrunerTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
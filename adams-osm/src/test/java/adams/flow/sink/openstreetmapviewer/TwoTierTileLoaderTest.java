@@ -0,0 +1,300 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TwoTierTileLoaderTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.sink.openstreetmapviewer;
+
+import adams.core.io.FileUtils;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.openstreetmap.gui.jmapviewer.MemoryTileCache;
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileCache;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileLoaderListener;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the TwoTierTileLoader class, using a directory of tiles.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class TwoTierTileLoaderTest
+  extends AdamsTestCase {
+
+  /**
+   * Directory reader that counts the reads and can slow them down.
+   */
+  public static class CountingReader
+    extends DirectoryTileReader {
+
+    /** the number of reads. */
+    public AtomicInteger reads = new AtomicInteger();
+
+    /** the delay in msec per read. */
+    public int delay;
+
+    /**
+     * Initializes the reader.
+     *
+     * @param dir	the root directory
+     * @param delay	the delay in msec per read
+     */
+    public CountingReader(File dir, int delay) {
+      super(dir, "png");
+      this.delay = delay;
+    }
+
+    /**
+     * Reads the data of the specified tile.
+     *
+     * @param zoom	the zoom level
+     * @param x		the x coordinate of the tile
+     * @param y		the y coordinate of the tile
+     * @return		the raw image data, null if the tile is not available
+     * @throws IOException	if reading fails
+     */
+    @Override
+    public byte[] read(int zoom, int x, int y) throws IOException {
+      reads.incrementAndGet();
+      try {
+	Thread.sleep(delay);
+      }
+      catch (InterruptedException e) {
+	// ignored
+      }
+      return super.read(zoom, x, y);
+    }
+  }
+
+  /**
+   * Listener that records the finished tiles.
+   */
+  public static class RecordingListener
+    implements TileLoaderListener {
+
+    /** the finished tiles. */
+    public final List<Tile> finished = new ArrayList<>();
+
+    /** the cache. */
+    protected TileCache m_Cache = new MemoryTileCache();
+
+    /**
+     * Records the tile.
+     *
+     * @param tile	the tile
+     * @param success	whether successfully loaded
+     */
+    @Override
+    public synchronized void tileLoadingFinished(Tile tile, boolean success) {
+      finished.add(tile);
+      notifyAll();
+    }
+
+    /**
+     * Returns the cache.
+     *
+     * @return		the cache
+     */
+    @Override
+    public TileCache getTileCache() {
+      return m_Cache;
+    }
+
+    /**
+     * Waits for the specified number of tiles to finish.
+     *
+     * @param count	the number of tiles
+     * @throws Exception	if interrupted
+     */
+    public synchronized void waitFor(int count) throws Exception {
+      long	end;
+
+      end = System.currentTimeMillis() + 10000;
+      while ((finished.size() < count) && (System.currentTimeMillis() < end))
+	wait(100);
+    }
+  }
+
+  /** the directory with the tiles. */
+  protected File m_Dir;
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public TwoTierTileLoaderTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates the tile directory.
+   *
+   * @throws Exception	if setup fails
+   */
+  @Override
+  protected void setUp() throws Exception {
+    BufferedImage	image;
+    File		file;
+    int			x;
+    int			y;
+
+    super.setUp();
+
+    m_Dir = Files.createTempDirectory("tiles").toFile();
+    image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+    for (x = 0; x < 2; x++) {
+      for (y = 0; y < 2; y++) {
+	file = new File(m_Dir, "1" + File.separator + x + File.separator + y + ".png");
+	file.getParentFile().mkdirs();
+	ImageIO.write(image, "png", file);
+      }
+    }
+  }
+
+  /**
+   * Removes the tile directory.
+   *
+   * @throws Exception	if tear down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtils.delete(m_Dir);
+
+    super.tearDown();
+  }
+
+  /**
+   * Creates the loader.
+   *
+   * @param listener	the listener to notify
+   * @return		the loader
+   */
+  protected TwoTierTileLoader newLoader(TileLoaderListener listener) {
+    TwoTierTileLoader	result;
+
+    result = new TwoTierTileLoader(listener, 16, 4, 0, false);
+    result.setBase(new LocalTileLoader.Loader(result));
+
+    return result;
+  }
+
+  /**
+   * Tests loading tiles and serving them from memory.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testMemoryCache() throws Exception {
+    CountingReader		reader;
+    LocalTileSource.Source	source;
+    RecordingListener		listener;
+    TwoTierTileLoader		loader;
+    Tile			tile;
+
+    reader   = new CountingReader(m_Dir, 0);
+    source   = new LocalTileSource.Source(m_Dir, reader, 0, 2);
+    listener = new RecordingListener();
+    loader   = newLoader(listener);
+
+    tile = new Tile(source, 0, 1, 1);
+    loader.createTileLoaderJob(tile).run();
+    listener.waitFor(1);
+    assertEquals("finished", 1, listener.finished.size());
+    assertTrue("loaded", tile.isLoaded());
+    assertNotNull("image", tile.getImage());
+    assertEquals("cached", 1, loader.getCachedCount());
+
+    // served from memory
+    tile = new Tile(source, 0, 1, 1);
+    loader.createTileLoaderJob(tile).run();
+    listener.waitFor(2);
+    assertEquals("finished", 2, listener.finished.size());
+    assertTrue("loaded", tile.isLoaded());
+    assertEquals("reads", 1, reader.reads.get());
+
+    // missing tile
+    tile = new Tile(source, 1, 1, 2);
+    loader.createTileLoaderJob(tile).run();
+    listener.waitFor(3);
+    assertTrue("error", tile.hasError());
+    assertEquals("cached", 1, loader.getCachedCount());
+  }
+
+  /**
+   * Tests that concurrent requests for the same tile only load it once.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testInFlight() throws Exception {
+    CountingReader		reader;
+    LocalTileSource.Source	source;
+    RecordingListener		listener;
+    TwoTierTileLoader		loader;
+    List<Tile>			tiles;
+    int				i;
+
+    reader   = new CountingReader(m_Dir, 500);
+    source   = new LocalTileSource.Source(m_Dir, reader, 0, 2);
+    listener = new RecordingListener();
+    loader   = newLoader(listener);
+
+    tiles = new ArrayList<>();
+    for (i = 0; i < 4; i++)
+      tiles.add(new Tile(source, 1, 0, 1));
+    for (Tile tile: tiles)
+      loader.createTileLoaderJob(tile).run();
+    listener.waitFor(tiles.size());
+
+    assertEquals("finished", tiles.size(), listener.finished.size());
+    for (Tile tile: tiles) {
+      assertTrue("loaded", tile.isLoaded());
+      assertNotNull("image", tile.getImage());
+    }
+    assertEquals("reads", 1, reader.reads.get());
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(TwoTierTileLoaderTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
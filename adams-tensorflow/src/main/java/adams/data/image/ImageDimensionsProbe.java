@@ -0,0 +1,285 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ImageDimensionsProbe.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Determines the dimensions of images without decoding the pixels.
+ * JPEG (SOF segment), PNG (IHDR chunk), BMP and GIF headers are parsed
+ * directly, any other format falls back on the ImageIO reader's
+ * meta-data.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ImageDimensionsProbe {
+
+  /** the PNG signature. */
+  protected static final int[] PNG_SIGNATURE = {0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+  /**
+   * Reads an unsigned byte, fails on EOF.
+   *
+   * @param in		the stream to read from
+   * @return		the byte
+   * @throws IOException	if reading fails or EOF reached
+   */
+  protected static int readByte(DataInputStream in) throws IOException {
+    return in.readUnsignedByte();
+  }
+
+  /**
+   * Reads a little endian unsigned short.
+   *
+   * @param in		the stream to read from
+   * @return		the value
+   * @throws IOException	if reading fails or EOF reached
+   */
+  protected static int readShortLE(DataInputStream in) throws IOException {
+    return readByte(in) | (readByte(in) << 8);
+  }
+
+  /**
+   * Reads a little endian int.
+   *
+   * @param in		the stream to read from
+   * @return		the value
+   * @throws IOException	if reading fails or EOF reached
+   */
+  protected static int readIntLE(DataInputStream in) throws IOException {
+    return readShortLE(in) | (readShortLE(in) << 16);
+  }
+
+  /**
+   * Skips the specified number of bytes.
+   *
+   * @param in		the stream to skip bytes in
+   * @param n		the number of bytes to skip
+   * @throws IOException	if skipping fails or EOF reached
+   */
+  protected static void skip(DataInputStream in, long n) throws IOException {
+    long	skipped;
+
+    while (n > 0) {
+      skipped = in.skip(n);
+      if (skipped <= 0) {
+	readByte(in);
+	skipped = 1;
+      }
+      n -= skipped;
+    }
+  }
+
+  /**
+   * Parses the PNG IHDR chunk, the signature has already been read.
+   *
+   * @param in		the stream to read from
+   * @return		the dimensions, null if not a valid header
+   * @throws IOException	if reading fails
+   */
+  protected static Dimension probePNG(DataInputStream in) throws IOException {
+    in.readInt();  // chunk length
+    if (in.readInt() != 0x49484452)  // IHDR
+      return null;
+    return new Dimension(in.readInt(), in.readInt());
+  }
+
+  /**
+   * Parses the JPEG segments until the first SOF marker, the SOI marker
+   * has already been read.
+   *
+   * @param in		the stream to read from
+   * @return		the dimensions, null if no SOF segment found
+   * @throws IOException	if reading fails
+   */
+  protected static Dimension probeJPEG(DataInputStream in) throws IOException {
+    int		marker;
+    int		length;
+    int		width;
+    int		height;
+
+    while (true) {
+      // find next marker, skipping fill bytes
+      if (readByte(in) != 0xFF)
+	return null;
+      do {
+	marker = readByte(in);
+      }
+      while (marker == 0xFF);
+
+      // standalone markers
+      if ((marker == 0x01) || ((marker >= 0xD0) && (marker <= 0xD7)))
+	continue;
+      if ((marker == 0xD9) || (marker == 0xDA))  // EOI/SOS: no SOF before image data
+	return null;
+
+      length = in.readUnsignedShort();
+      if (length < 2)
+	return null;
+
+      // SOF0-SOF15, excluding DHT (C4), JPG (C8) and DAC (CC)
+      if ((marker >= 0xC0) && (marker <= 0xCF) && (marker != 0xC4) && (marker != 0xC8) && (marker != 0xCC)) {
+	readByte(in);  // precision
+	height = in.readUnsignedShort();
+	width  = in.readUnsignedShort();
+	if ((width == 0) || (height == 0))  // height defined by DNL segment
+	  return null;
+	return new Dimension(width, height);
+      }
+
+      skip(in, length - 2);
+    }
+  }
+
+  /**
+   * Parses the BMP info header, the "BM" signature has already been read.
+   *
+   * @param in		the stream to read from
+   * @return		the dimensions, null if not a valid header
+   * @throws IOException	if reading fails
+   */
+  protected static Dimension probeBMP(DataInputStream in) throws IOException {
+    int		size;
+
+    skip(in, 12);  // file size, reserved, data offset
+    size = readIntLE(in);
+    if (size == 12)  // OS/2 BITMAPCOREHEADER
+      return new Dimension(readShortLE(in), readShortLE(in));
+    if (size < 40)
+      return null;
+    // negative height = top-down bitmap
+    return new Dimension(Math.abs(readIntLE(in)), Math.abs(readIntLE(in)));
+  }
+
+  /**
+   * Parses the GIF logical screen descriptor, the "GIF" signature has
+   * already been read.
+   *
+   * @param in		the stream to read from
+   * @return		the dimensions
+   * @throws IOException	if reading fails
+   */
+  protected static Dimension probeGIF(DataInputStream in) throws IOException {
+    skip(in, 3);  // version
+    return new Dimension(readShortLE(in), readShortLE(in));
+  }
+
+  /**
+   * Determines the dimensions by parsing the image header.
+   *
+   * @param file	the image file
+   * @return		the dimensions, null if format not handled or invalid header
+   * @throws IOException	if reading fails
+   */
+  protected static Dimension probeHeader(File file) throws IOException {
+    int		b0;
+    int		b1;
+    int		i;
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 8192))) {
+      b0 = readByte(in);
+      b1 = readByte(in);
+
+      if ((b0 == 0xFF) && (b1 == 0xD8))
+	return probeJPEG(in);
+
+      if ((b0 == 'B') && (b1 == 'M'))
+	return probeBMP(in);
+
+      if ((b0 == 'G') && (b1 == 'I')) {
+	if (readByte(in) != 'F')
+	  return null;
+	return probeGIF(in);
+      }
+
+      if ((b0 == PNG_SIGNATURE[0]) && (b1 == PNG_SIGNATURE[1])) {
+	for (i = 2; i < PNG_SIGNATURE.length; i++) {
+	  if (readByte(in) != PNG_SIGNATURE[i])
+	    return null;
+	}
+	return probePNG(in);
+      }
+    }
+    catch (EOFException e) {
+      // truncated header
+    }
+
+    return null;
+  }
+
+  /**
+   * Determines the dimensions using the meta-data of the ImageIO reader,
+   * without decoding the pixels.
+   *
+   * @param file	the image file
+   * @return		the dimensions, null if no reader available
+   * @throws IOException	if reading fails
+   */
+  protected static Dimension probeImageIO(File file) throws IOException {
+    Iterator<ImageReader>	readers;
+    ImageReader			reader;
+
+    try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+      if (in == null)
+	return null;
+      readers = ImageIO.getImageReaders(in);
+      if (!readers.hasNext())
+	return null;
+      reader = readers.next();
+      try {
+	reader.setInput(in, true, true);
+	return new Dimension(reader.getWidth(0), reader.getHeight(0));
+      }
+      finally {
+	reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Determines the dimensions of the image, parsing only the header.
+   *
+   * @param file	the image file
+   * @return		the dimensions
+   * @throws IOException	if reading fails or dimensions cannot be determined
+   */
+  public static Dimension probe(File file) throws IOException {
+    Dimension	result;
+
+    result = probeHeader(file);
+    if ((result == null) || (result.width <= 0) || (result.height <= 0))
+      result = probeImageIO(file);
+    if ((result == null) || (result.width <= 0) || (result.height <= 0))
+      throw new IOException("Failed to determine image dimensions: " + file);
+
+    return result;
+  }
+}
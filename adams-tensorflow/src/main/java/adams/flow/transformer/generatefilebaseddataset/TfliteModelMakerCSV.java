@@ -20,13 +20,14 @@
 
 package adams.flow.transformer.generatefilebaseddataset;
 
+import adams.core.Performance;
 import adams.core.QuickInfoHelper;
 import adams.core.base.BaseObject;
 import adams.core.base.BaseString;
 import adams.core.io.FileUtils;
 import adams.core.io.PlaceholderFile;
-import adams.data.image.BufferedImageContainer;
-import adams.data.image.BufferedImageHelper;
+import adams.core.option.OptionUtils;
+import adams.data.image.ImageDimensionsProbe;
 import adams.data.io.input.DefaultSimpleReportReader;
 import adams.data.objectfinder.AllFinder;
 import adams.data.objectfinder.ObjectFinder;
@@ -38,9 +39,17 @@ import adams.flow.container.FileBasedDatasetContainer;
 import adams.flow.transformer.locateobjects.LocatedObject;
 import adams.flow.transformer.locateobjects.LocatedObjects;
 
+import java.awt.Dimension;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Generates a spreadsheet from the incoming files.
@@ -52,6 +61,21 @@ public class TfliteModelMakerCSV
 
   private static final long serialVersionUID = 590645786308393421L;
 
+  /**
+   * Container for the annotations generated from a single image.
+   */
+  protected static class ImageAnnotations {
+
+    /** the file name to output. */
+    public String file;
+
+    /** the labels of the objects. */
+    public List<String> labels = new ArrayList<>();
+
+    /** the normalized bounding boxes (TLX, TLY, BRX, BRY) of the objects. */
+    public List<double[]> boxes = new ArrayList<>();
+  }
+
   /** the values in the container to use. */
   protected BaseString[] m_Values;
 
@@ -67,6 +91,9 @@ public class TfliteModelMakerCSV
   /** the directory prefix to use for the files. */
   protected String m_DirectoryPrefix;
 
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
   /**
    * Returns a string describing the object.
    *
@@ -108,6 +135,10 @@ public class TfliteModelMakerCSV
     m_OptionManager.add(
         "directory-prefix", "directoryPrefix",
         "");
+
+    m_OptionManager.add(
+        "num-threads", "numThreads",
+        -1);
   }
 
   /**
@@ -255,6 +286,38 @@ public class TfliteModelMakerCSV
     return "The custom directory prefix to use instead of the file's actual directory part (leave empty to use file path).";
   }
 
+  /**
+   * Sets the number of threads to use for loading the annotations.
+   *
+   * @param value	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for loading the annotations.
+   *
+   * @return		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return
+      "The number of threads to use for loading the reports and image dimensions; "
+	+ "-1 = # of CPUs/cores; 0/1 = sequential execution; the order of the "
+	+ "rows is the same as the order of the files.";
+  }
+
   /**
    * Returns a quick info about the actor, which will be displayed in the GUI.
    *
@@ -269,6 +332,7 @@ public class TfliteModelMakerCSV
     result += QuickInfoHelper.toString(this, "metaDataKeyType", m_MetaDataKeyType, ", type: ");
     result += QuickInfoHelper.toString(this, "defaultLabel", m_DefaultLabel, ", default: ");
     result += QuickInfoHelper.toString(this, "directoryPrefix", (m_DirectoryPrefix.isEmpty() ? "-use file-" : m_DirectoryPrefix), ", prefix: ");
+    result += QuickInfoHelper.toString(this, "numThreads", m_NumThreads, ", threads: ");
 
     return result;
   }
@@ -318,6 +382,127 @@ public class TfliteModelMakerCSV
     return result;
   }
 
+  /**
+   * Generates the annotations for a single image. Only the header of the
+   * image gets read to determine its dimensions.
+   *
+   * @param file	the image file
+   * @param finder	the object finder to use
+   * @return		the annotations, null if image or report missing
+   */
+  protected ImageAnnotations generateAnnotations(String file, ObjectFinder finder) {
+    ImageAnnotations	result;
+    Report		report;
+    LocatedObjects	objects;
+    Dimension		dims;
+    String		label;
+
+    if (!FileUtils.fileExists(file)) {
+      getLogger().warning("Image does not exist: " + file);
+      return null;
+    }
+
+    report = loadReport(file);
+    if (report == null) {
+      getLogger().warning("No report found for: " + file);
+      return null;
+    }
+    objects = finder.findObjects(report);
+
+    result = new ImageAnnotations();
+    if (m_DirectoryPrefix.isEmpty())
+      result.file = file;
+    else
+      result.file = m_DirectoryPrefix + new PlaceholderFile(file).getName();
+    if (objects.size() == 0)
+      return result;
+
+    if (isLoggingEnabled())
+      getLogger().info("Loading: " + file);
+
+    try {
+      dims = ImageDimensionsProbe.probe(new PlaceholderFile(file).getAbsoluteFile());
+    }
+    catch (IOException e) {
+      getLogger().warning("Failed to determine dimensions of image: " + file + "\n" + e);
+      return null;
+    }
+
+    for (LocatedObject object: objects) {
+      if ((object.getWidth() == 0) || (object.getHeight() == 0)) {
+        getLogger().warning("Skipping invalid annotation");
+        continue;
+      }
+      label = m_DefaultLabel;
+      if (object.getMetaData().containsKey(m_MetaDataKeyType))
+        label = "" + object.getMetaData().get(m_MetaDataKeyType);
+      result.labels.add(label);
+      result.boxes.add(new double[]{
+        (double) object.getX() / dims.width,
+        (double) object.getY() / dims.height,
+        (double) (object.getX() + object.getWidth() - 1) / dims.width,
+        (double) (object.getY() + object.getHeight() - 1) / dims.height,
+      });
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates the annotations for the images, using the specified number
+   * of threads. The results are in the same order as the files.
+   * Each thread uses its own copy of the object finder.
+   *
+   * @param files	the image files
+   * @return		the annotations, null entries for skipped files
+   */
+  protected ImageAnnotations[] generateAnnotations(String[] files) {
+    ImageAnnotations[]			result;
+    int					numThreads;
+    int					i;
+    ExecutorService			executor;
+    List<Future<ImageAnnotations>>	jobs;
+    final ThreadLocal<ObjectFinder>	finders;
+
+    result     = new ImageAnnotations[files.length];
+    numThreads = Math.min(Performance.determineNumThreads(m_NumThreads), files.length);
+
+    if (numThreads <= 1) {
+      for (i = 0; i < files.length; i++)
+	result[i] = generateAnnotations(files[i], m_Finder);
+    }
+    else {
+      jobs     = new ArrayList<>();
+      finders  = ThreadLocal.withInitial(() -> (ObjectFinder) OptionUtils.shallowCopy(m_Finder));
+      executor = Executors.newFixedThreadPool(numThreads);
+      try {
+	for (final String file: files) {
+	  jobs.add(executor.submit(new Callable<ImageAnnotations>() {
+	    @Override
+	    public ImageAnnotations call() throws Exception {
+	      return generateAnnotations(file, finders.get());
+	    }
+	  }));
+	}
+	for (i = 0; i < jobs.size(); i++)
+	  result[i] = jobs.get(i).get();
+      }
+      catch (ExecutionException e) {
+	if (e.getCause() instanceof RuntimeException)
+	  throw (RuntimeException) e.getCause();
+	throw new IllegalStateException("Failed to generate annotations!", e.getCause());
+      }
+      catch (InterruptedException e) {
+	throw new IllegalStateException("Interrupted while generating annotations!", e);
+      }
+      finally {
+	executor.shutdownNow();
+      }
+    }
+
+    return result;
+  }
+
   /**
    * Generates the dataset.
    *
@@ -330,15 +515,12 @@ public class TfliteModelMakerCSV
     Row				row;
     String[]			files;
     String 			type;
-    Report              	report;
-    BufferedImageContainer 	img;
-    int				width;
-    int				height;
-    LocatedObjects		objects;
+    ImageAnnotations[]		annotations;
+    double[]			box;
     Set<String> 		labels;
     String			label;
     boolean			isTrain;
-    String 			fileActual;
+    int				i;
 
     result    = new SpreadSheet[2];
     result[0] = new DefaultSpreadSheet();
@@ -372,46 +554,20 @@ public class TfliteModelMakerCSV
       }
       type = type.toUpperCase();
 
-      // iterate files
-      files = cont.getValue(value.getValue(), String[].class);
-      for (String file: files) {
-        // load image
-        if (!FileUtils.fileExists(file)) {
-	  getLogger().warning("Image does not exist: " + file);
-	  continue;
-	}
+      // load annotations
+      files       = cont.getValue(value.getValue(), String[].class);
+      annotations = generateAnnotations(files);
 
-        report = loadReport(file);
-        if (report == null) {
-          getLogger().warning("No report found for: " + file);
+      // add rows in order of files
+      for (ImageAnnotations annotation: annotations) {
+        if (annotation == null)
           continue;
-        }
-        objects = m_Finder.findObjects(report);
-
-        if (isLoggingEnabled())
-          getLogger().info("Loading: " + file);
-
-        img    = BufferedImageHelper.read(new PlaceholderFile(file));
-        width  = img.getWidth();
-        height = img.getHeight();
-
-        for (LocatedObject object: objects) {
-          if ((object.getWidth() == 0) || (object.getHeight() == 0)) {
-            getLogger().warning("Skipping invalid annotation");
-            continue;
-          }
-
-          if (m_DirectoryPrefix.isEmpty())
-            fileActual = file;
-          else
-            fileActual = m_DirectoryPrefix + new PlaceholderFile(file).getName();
-
+        for (i = 0; i < annotation.labels.size(); i++) {
+          label = annotation.labels.get(i);
+          box   = annotation.boxes.get(i);
 	  row = result[0].addRow();
 	  row.addCell("T").setContentAsString(type);
-	  row.addCell("F").setContentAsString(fileActual);
-	  label = m_DefaultLabel;
-	  if (object.getMetaData().containsKey(m_MetaDataKeyType))
-	    label = "" + object.getMetaData().get(m_MetaDataKeyType);
+	  row.addCell("F").setContentAsString(annotation.file);
           row.addCell("L").setContentAsString(label);
           if (isTrain) {
             if (!labels.contains(label)) {
@@ -419,10 +575,10 @@ public class TfliteModelMakerCSV
               result[1].addRow().addCell("L").setContentAsString(label);
             }
           }
-	  row.addCell("TLX").setContent((double) object.getX() / width);
-	  row.addCell("TLY").setContent((double) object.getY() / height);
-	  row.addCell("BRX").setContent((double) (object.getX() + object.getWidth() - 1) / width);
-	  row.addCell("BRY").setContent((double) (object.getY() + object.getHeight() - 1) / height);
+	  row.addCell("TLX").setContent(box[0]);
+	  row.addCell("TLY").setContent(box[1]);
+	  row.addCell("BRX").setContent(box[2]);
+	  row.addCell("BRY").setContent(box[3]);
 	}
       }
     }
@@ -0,0 +1,172 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ImageDimensionsProbeTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.image;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.TestHelper;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.awt.Dimension;
+import java.io.IOException;
+
+/**
+ * Tests the ImageDimensionsProbe class, using the fixtures in the
+ * adams/data/image/data resource directory.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ImageDimensionsProbeTest
+  extends AdamsTestCase {
+
+  /** the fixtures. */
+  public final static String[] FIXTURES = {
+    "image.jpg",
+    "image.png",
+    "image.bmp",
+    "image.gif",
+    "image.tif",
+    "truncated.jpg",
+  };
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public ImageDimensionsProbeTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the test helper class to use.
+   *
+   * @return		the helper class instance
+   */
+  @Override
+  protected TestHelper newTestHelper() {
+    return new TestHelper(this, "adams/data/image/data");
+  }
+
+  /**
+   * Called by JUnit before each test method. Copies the fixtures into the
+   * tmp directory.
+   *
+   * @throws Exception if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    for (String fixture: FIXTURES)
+      m_TestHelper.copyResourceToTmp(fixture);
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    for (String fixture: FIXTURES)
+      m_TestHelper.deleteFileFromTmp(fixture);
+
+    super.tearDown();
+  }
+
+  /**
+   * Probes the fixture and compares the dimensions.
+   *
+   * @param fixture	the fixture to probe
+   * @param width	the expected width
+   * @param height	the expected height
+   * @throws Exception	if probing fails
+   */
+  protected void check(String fixture, int width, int height) throws Exception {
+    Dimension	dims;
+
+    dims = ImageDimensionsProbe.probe(new TmpFile(fixture));
+    assertEquals(fixture + ": width", width, dims.width);
+    assertEquals(fixture + ": height", height, dims.height);
+  }
+
+  /**
+   * Tests the formats whose header gets parsed directly.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testHeader() throws Exception {
+    check("image.jpg", 5, 3);
+    check("image.png", 7, 4);
+    check("image.bmp", 6, 2);
+    check("image.gif", 3, 9);
+
+    assertNotNull("jpg", ImageDimensionsProbe.probeHeader(new TmpFile("image.jpg")));
+    assertNull("tif", ImageDimensionsProbe.probeHeader(new TmpFile("image.tif")));
+  }
+
+  /**
+   * Tests the fallback on the ImageIO meta-data.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testImageIO() throws Exception {
+    check("image.tif", 4, 8);
+  }
+
+  /**
+   * Tests a truncated header.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testTruncated() throws Exception {
+    assertNull("header", ImageDimensionsProbe.probeHeader(new TmpFile("truncated.jpg")));
+    try {
+      ImageDimensionsProbe.probe(new TmpFile("truncated.jpg"));
+      fail("Truncated image not detected");
+    }
+    catch (IOException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ImageDimensionsProbeTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -26,6 +26,8 @@ import adams.flow.source.twitterlistener.AbstractListener;
 import adams.flow.source.twitterlistener.SampleListener;
 import twitter4j.Status;
 
+import java.util.List;
+
 /**
  <!-- globalinfo-start -->
  * Listens to the twitter stream API using the specified listener.
@@ -46,7 +48,7 @@ import twitter4j.Status;
  * 
  * <pre>-listener &lt;adams.flow.source.twitterlistener.AbstractListener&gt; (property: listener)
  * &nbsp;&nbsp;&nbsp;The listener to use for generating the status objects.
- * &nbsp;&nbsp;&nbsp;default: adams.flow.source.twitterlistener.SampleListener
+ * &nbsp;&nbsp;&nbsp;default: adams.flow.source.twitterlistener.SampleListener -max-updates 100 -queue-size 10000 -overflow-policy DROP_OLDEST -sample-interval 10
  * </pre>
  * 
  <!-- options-end -->
@@ -59,6 +61,9 @@ public class TwitterListener
 
   private static final long serialVersionUID = 7627032152241150448L;
 
+  /** the maximum number of status updates to transfer at a time. */
+  public final static int TRANSFER_BATCH = 100;
+
   /** the listener for retrieving the status updates. */
   protected AbstractListener m_Listener;
 
@@ -204,16 +209,19 @@ public class TwitterListener
       }
 
       if (result == null) {
+	final AbstractListener listener = m_ActualListener;
 	m_TransferThread = new Thread(() -> {
-	  while (m_ActualListener.isListening()) {
-	    Status status = m_ActualListener.next();
-	    if (status != null) {
+	  // listener wakes us up as soon as status updates arrive
+	  while (listener.hasNext() && !Thread.currentThread().isInterrupted()) {
+	    List<Status> batch = listener.nextBatch(TRANSFER_BATCH);
+	    for (Status status: batch) {
 	      bufferData(status);
 	      if (isLoggingEnabled())
 		getLogger().info(status.toString());
 	    }
 	  }
 	});
+	m_TransferThread.setDaemon(true);
 	m_TransferThread.start();
       }
     }
@@ -228,7 +236,7 @@ public class TwitterListener
     if (m_ActualListener != null)
       m_ActualListener.stopExecution();
     if (m_TransferThread != null) {
-      m_TransferThread.stop();
+      m_TransferThread.interrupt();
       m_TransferThread = null;
     }
   }
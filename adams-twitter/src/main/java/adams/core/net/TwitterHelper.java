@@ -24,6 +24,12 @@ import adams.core.Properties;
 import adams.core.Utils;
 import adams.core.base.BasePassword;
 import adams.data.twitter.SimulatedHashtagEntity;
+import adams.data.twitter.SimulatedPlace;
+import adams.data.twitter.SimulatedScopes;
+import adams.data.twitter.SimulatedStatus;
+import adams.data.twitter.SimulatedSymbolEntity;
+import adams.data.twitter.SimulatedURLEntity;
+import adams.data.twitter.SimulatedUser;
 import adams.data.twitter.SimulatedUserMentionEntity;
 import adams.data.twitter.TwitterField;
 import adams.env.Environment;
@@ -31,6 +37,7 @@ import adams.env.TwitterDefinition;
 import adams.flow.core.Actor;
 import adams.flow.core.ActorUtils;
 import adams.flow.standalone.TwitterConnection;
+import twitter4j.GeoLocation;
 import twitter4j.HashtagEntity;
 import twitter4j.Status;
 import twitter4j.SymbolEntity;
@@ -39,6 +46,7 @@ import twitter4j.URLEntity;
 import twitter4j.UserMentionEntity;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
@@ -211,88 +219,311 @@ public class TwitterHelper {
    */
   public static Hashtable<TwitterField,Object> statusToHashtable(Status status) {
     Hashtable<TwitterField,Object>	result;
-    List<String>			list;
+    Object				value;
 
     result = new Hashtable<>();
-
-    result.put(TwitterField.ID, status.getId());
-    if (status.getUser() != null) {
-      result.put(TwitterField.USER_ID, status.getUser().getId());
-      if (status.getUser().getName() != null)
-	result.put(TwitterField.USER_NAME, status.getUser().getName());
-      if (status.getUser().getScreenName() != null)
-        result.put(TwitterField.USER_SCREENNAME, status.getUser().getScreenName());
-    }
-    result.put(TwitterField.SOURCE, status.getSource());
-    result.put(TwitterField.TEXT, status.getText());
-    if (status.getCreatedAt() != null)
-      result.put(TwitterField.CREATED, status.getCreatedAt());
-    result.put(TwitterField.FAVORITED, status.isFavorited());
-    result.put(TwitterField.RETWEET, status.isRetweet());
-    result.put(TwitterField.IN_REPLY_TO_STATUS_ID, status.getInReplyToStatusId());
-    result.put(TwitterField.IN_REPLY_TO_USER_ID, status.getInReplyToUserId());
-    if (status.getRetweetedStatus() != null) {
-      result.put(TwitterField.RETWEETED_STATUS_ID, status.getRetweetedStatus().getId());
-      if (status.getRetweetedStatus().getUser() != null)
-	result.put(TwitterField.RETWEETED_STATUS_USER_ID, status.getRetweetedStatus().getUser().getId());
-      if (status.getRetweetedStatus().getCreatedAt() != null)
-	result.put(TwitterField.RETWEETED_STATUS_CREATED, status.getRetweetedStatus().getCreatedAt());
-    }
-    result.put(TwitterField.RETWEET_BY_ME, status.isRetweetedByMe());
-    result.put(TwitterField.RETWEET_COUNT, status.getRetweetCount());
-    result.put(TwitterField.POSSIBLY_SENSITIVE, status.isPossiblySensitive());
-    if (status.getGeoLocation() != null) {
-      result.put(TwitterField.GEO_LATITUDE, status.getGeoLocation().getLatitude());
-      result.put(TwitterField.GEO_LONGITUDE, status.getGeoLocation().getLongitude());
-    }
-    if (status.getPlace() != null) {
-      if (status.getPlace().getPlaceType() != null)
-	result.put(TwitterField.PLACE_TYPE, status.getPlace().getPlaceType());
-      if (status.getPlace().getURL() != null)
-	result.put(TwitterField.PLACE_URL, status.getPlace().getURL());
-      if (status.getPlace().getStreetAddress() != null)
-	result.put(TwitterField.STREET_ADDRESS, status.getPlace().getStreetAddress());
-      if (status.getPlace().getCountryCode() != null)
-	result.put(TwitterField.COUNTRY_CODE, status.getPlace().getCountryCode());
-      if (status.getPlace().getCountry() != null)
-	result.put(TwitterField.COUNTRY, status.getPlace().getCountry());
-      if (status.getPlace().getName() != null)
-	result.put(TwitterField.PLACE, status.getPlace().getName());
+    for (TwitterField field: TwitterField.values()) {
+      value = getValue(status, field);
+      if (value != null)
+	result.put(field, value);
     }
-    if (status.getURLEntities() != null) {
-      list = new ArrayList<>();
-      for (URLEntity url: status.getURLEntities())
-	list.add(url.getExpandedURL());
-      if (list.size() > 0)
-	result.put(TwitterField.EXPANDED_URLS, Utils.flatten(list, ","));
-    }
-    if (status.getSymbolEntities() != null) {
-      list = new ArrayList<>();
-      for (SymbolEntity sym: status.getSymbolEntities())
-	list.add(sym.getText());
-      if (list.size() > 0)
-	result.put(TwitterField.SYMBOL_ENTITIES, Utils.flatten(list, ","));
-    }
-    result.put(TwitterField.IS_RETWEETED, status.isRetweeted());
-    result.put(TwitterField.FAVORITE_COUNT, status.getFavoriteCount());
-    if (status.getLang() != null)
-      result.put(TwitterField.STATUS_LANG, status.getLang());
-    if (status.getScopes() != null) {
-      list = new ArrayList<>();
-      for (String id: status.getScopes().getPlaceIds())
-	list.add(id);
-      if (list.size() > 0)
-	result.put(TwitterField.SCOPES, Utils.flatten(list, ","));
+
+    return result;
+  }
+
+  /**
+   * Flattens the texts into a comma-separated list.
+   *
+   * @param values	the values to flatten
+   * @return		the list, null if no values
+   */
+  protected static String flatten(List<String> values) {
+    if (values.size() == 0)
+      return null;
+    return Utils.flatten(values, ",");
+  }
+
+  /**
+   * Extracts the value of a single field from the status, without
+   * generating all the other fields as well. Used by
+   * {@link #statusToHashtable(Status)} and {@link TwitterStatusSymbols}.
+   *
+   * @param status	the status to process
+   * @param field	the field to extract
+   * @return		the value, null if not available
+   */
+  public static Object getValue(Status status, TwitterField field) {
+    List<String>	list;
+
+    switch (field) {
+      case ID:
+	return status.getId();
+      case USER_ID:
+	return (status.getUser() == null) ? null : status.getUser().getId();
+      case USER_NAME:
+	return (status.getUser() == null) ? null : status.getUser().getName();
+      case USER_SCREENNAME:
+	return (status.getUser() == null) ? null : status.getUser().getScreenName();
+      case SOURCE:
+	return status.getSource();
+      case TEXT:
+	return status.getText();
+      case CREATED:
+	return status.getCreatedAt();
+      case FAVORITED:
+	return status.isFavorited();
+      case RETWEET:
+	return status.isRetweet();
+      case IN_REPLY_TO_STATUS_ID:
+	return status.getInReplyToStatusId();
+      case IN_REPLY_TO_USER_ID:
+	return status.getInReplyToUserId();
+      case RETWEETED_STATUS_ID:
+	return (status.getRetweetedStatus() == null) ? null : status.getRetweetedStatus().getId();
+      case RETWEETED_STATUS_USER_ID:
+	if ((status.getRetweetedStatus() == null) || (status.getRetweetedStatus().getUser() == null))
+	  return null;
+	return status.getRetweetedStatus().getUser().getId();
+      case RETWEETED_STATUS_CREATED:
+	return (status.getRetweetedStatus() == null) ? null : status.getRetweetedStatus().getCreatedAt();
+      case RETWEET_BY_ME:
+	return status.isRetweetedByMe();
+      case RETWEET_COUNT:
+	return status.getRetweetCount();
+      case POSSIBLY_SENSITIVE:
+	return status.isPossiblySensitive();
+      case LANGUAGE_CODE:
+	return (status.getUser() == null) ? null : status.getUser().getLang();
+      case GEO_LATITUDE:
+	return (status.getGeoLocation() == null) ? null : status.getGeoLocation().getLatitude();
+      case GEO_LONGITUDE:
+	return (status.getGeoLocation() == null) ? null : status.getGeoLocation().getLongitude();
+      case PLACE_TYPE:
+	return (status.getPlace() == null) ? null : status.getPlace().getPlaceType();
+      case PLACE_URL:
+	return (status.getPlace() == null) ? null : status.getPlace().getURL();
+      case STREET_ADDRESS:
+	return (status.getPlace() == null) ? null : status.getPlace().getStreetAddress();
+      case COUNTRY_CODE:
+	return (status.getPlace() == null) ? null : status.getPlace().getCountryCode();
+      case COUNTRY:
+	return (status.getPlace() == null) ? null : status.getPlace().getCountry();
+      case PLACE:
+	return (status.getPlace() == null) ? null : status.getPlace().getName();
+      case EXPANDED_URLS:
+	if (status.getURLEntities() == null)
+	  return null;
+	list = new ArrayList<>();
+	for (URLEntity url: status.getURLEntities())
+	  list.add(url.getExpandedURL());
+	return flatten(list);
+      case SYMBOL_ENTITIES:
+	if (status.getSymbolEntities() == null)
+	  return null;
+	list = new ArrayList<>();
+	for (SymbolEntity sym: status.getSymbolEntities())
+	  list.add(sym.getText());
+	return flatten(list);
+      case IS_RETWEETED:
+	return status.isRetweeted();
+      case FAVORITE_COUNT:
+	return status.getFavoriteCount();
+      case STATUS_LANG:
+	return status.getLang();
+      case SCOPES:
+	if (status.getScopes() == null)
+	  return null;
+	list = new ArrayList<>();
+	for (String id: status.getScopes().getPlaceIds())
+	  list.add(id);
+	return flatten(list);
+      case WITHHELD_IN_COUNTRIES:
+	if ((status.getWithheldInCountries() == null) || (status.getWithheldInCountries().length == 0))
+	  return null;
+	return Utils.flatten(status.getWithheldInCountries(), ",");
+      case QUOTED_STATUS_ID:
+	return status.getQuotedStatusId();
+      case QUOTED_STATUS:
+	return (status.getQuotedStatus() == null) ? null : status.getQuotedStatus().getText();
+      default:
+	return null;
     }
-    if (status.getWithheldInCountries() != null) {
-      if (status.getWithheldInCountries().length > 0)
-        result.put(TwitterField.WITHHELD_IN_COUNTRIES, Utils.flatten(status.getWithheldInCountries(), ","));
+  }
+
+  /**
+   * Returns the retweeted status, creates it if necessary.
+   *
+   * @param status	the status to get the retweeted status from
+   * @return		the retweeted status
+   */
+  protected static SimulatedStatus retweeted(SimulatedStatus status) {
+    if (status.getRetweetedStatus() == null) {
+      status.setRetweetedStatus(new SimulatedStatus());
+      ((SimulatedStatus) status.getRetweetedStatus()).setUser(new SimulatedUser());
     }
-    result.put(TwitterField.QUOTED_STATUS_ID, status.getQuotedStatusId());
-    if (status.getQuotedStatus() != null)
-      result.put(TwitterField.QUOTED_STATUS, status.getQuotedStatus().getText());
+    return (SimulatedStatus) status.getRetweetedStatus();
+  }
 
-    return result;
+  /**
+   * Returns the quoted status, creates it if necessary.
+   *
+   * @param status	the status to get the quoted status from
+   * @return		the quoted status
+   */
+  protected static SimulatedStatus quoted(SimulatedStatus status) {
+    if (status.getQuotedStatus() == null)
+      status.setQuotedStatus(new SimulatedStatus());
+    return (SimulatedStatus) status.getQuotedStatus();
+  }
+
+  /**
+   * Sets the value of a single field in the status, the counterpart of
+   * {@link #getValue(Status, TwitterField)}. The user and the place must
+   * have been set already, retweeted and quoted status get created on
+   * demand. Numbers can be of any {@link Number} type.<br>
+   * {@link TwitterField#GEO_LATITUDE} and {@link TwitterField#GEO_LONGITUDE}
+   * are ignored, as they need to be set as pair via
+   * {@link SimulatedStatus#setGeoLocation(GeoLocation)}.
+   *
+   * @param status	the status to update
+   * @param field	the field to set
+   * @param value	the value
+   */
+  public static void setValue(SimulatedStatus status, TwitterField field, Object value) {
+    String[]		parts;
+    URLEntity[]		urlEntities;
+    SymbolEntity[]	symEntities;
+    SimulatedScopes	scopes;
+    long		id;
+    int			i;
+
+    switch (field) {
+      case ID:
+	status.setId(((Number) value).longValue());
+	break;
+      case USER_ID:
+	((SimulatedUser) status.getUser()).setId(((Number) value).longValue());
+	break;
+      case USER_NAME:
+	((SimulatedUser) status.getUser()).setName(value.toString());
+	break;
+      case USER_SCREENNAME:
+	((SimulatedUser) status.getUser()).setScreenName(value.toString());
+	break;
+      case SOURCE:
+	status.setSource(value.toString());
+	break;
+      case TEXT:
+	status.setText(value.toString());
+	status.setHashtagEntities(extractHashtags(value.toString()));
+	status.setUserMentionEntities(extractUserMentions(value.toString()));
+	break;
+      case CREATED:
+	status.setCreatedAt((Date) value);
+	break;
+      case RETWEET:
+	status.setRetweet((Boolean) value);
+	break;
+      case RETWEET_COUNT:
+	status.setRetweetCount(((Number) value).intValue());
+	break;
+      case RETWEET_BY_ME:
+	status.setRetweetedByMe((Boolean) value);
+	break;
+      case RETWEETED_STATUS_ID:
+	retweeted(status).setId(((Number) value).longValue());
+	break;
+      case RETWEETED_STATUS_USER_ID:
+	((SimulatedUser) retweeted(status).getUser()).setId(((Number) value).longValue());
+	break;
+      case RETWEETED_STATUS_CREATED:
+	retweeted(status).setCreatedAt((Date) value);
+	break;
+      case EXPANDED_URLS:
+	parts = value.toString().split(",");
+	if (parts.length > 0) {
+	  urlEntities = new URLEntity[parts.length];
+	  for (i = 0; i < parts.length; i++)
+	    urlEntities[i] = new SimulatedURLEntity(parts[i]);
+	  status.setURLEntities(urlEntities);
+	}
+	break;
+      case IN_REPLY_TO_STATUS_ID:
+	status.setInReplyToStatusId(((Number) value).longValue());
+	break;
+      case IN_REPLY_TO_USER_ID:
+	status.setInReplyToUserId(((Number) value).longValue());
+	break;
+      case FAVORITED:
+	status.setFavorited((Boolean) value);
+	break;
+      case COUNTRY:
+	((SimulatedPlace) status.getPlace()).setCountry(value.toString());
+	break;
+      case COUNTRY_CODE:
+	((SimulatedPlace) status.getPlace()).setCountryCode(value.toString());
+	break;
+      case LANGUAGE_CODE:
+	((SimulatedUser) status.getUser()).setLang(value.toString());
+	break;
+      case PLACE:
+	((SimulatedPlace) status.getPlace()).setName(value.toString());
+	break;
+      case PLACE_TYPE:
+	((SimulatedPlace) status.getPlace()).setPlaceType(value.toString());
+	break;
+      case PLACE_URL:
+	((SimulatedPlace) status.getPlace()).setURL(value.toString());
+	break;
+      case STREET_ADDRESS:
+	((SimulatedPlace) status.getPlace()).setStreetAddress(value.toString());
+	break;
+      case POSSIBLY_SENSITIVE:
+	status.setPossiblySensitive((Boolean) value);
+	break;
+      case GEO_LATITUDE:
+      case GEO_LONGITUDE:
+	// set as pair by the caller
+	break;
+      case SYMBOL_ENTITIES:
+	parts       = value.toString().split(",");
+	symEntities = new SymbolEntity[parts.length];
+	for (i = 0; i < parts.length; i++) {
+	  symEntities[i] = new SimulatedSymbolEntity();
+	  ((SimulatedSymbolEntity) symEntities[i]).setText(parts[i]);
+	}
+	status.setSymbolEntities(symEntities);
+	break;
+      case IS_RETWEETED:
+	status.setIsRetweeted((Boolean) value);
+	break;
+      case FAVORITE_COUNT:
+	status.setFavoriteCount(((Number) value).intValue());
+	break;
+      case STATUS_LANG:
+	status.setLang(value.toString());
+	break;
+      case SCOPES:
+	scopes = new SimulatedScopes();
+	scopes.setPlaceIds(value.toString().split(","));
+	status.setScopes(scopes);
+	break;
+      case WITHHELD_IN_COUNTRIES:
+	status.setWithheldInCountries(value.toString().split(","));
+	break;
+      case QUOTED_STATUS_ID:
+	id = ((Number) value).longValue();
+	status.setQuotedStatusId(id);
+	// -1 = not a quote
+	if (id != -1)
+	  quoted(status).setId(id);
+	break;
+      case QUOTED_STATUS:
+	quoted(status).setText(value.toString());
+	break;
+      default:
+	throw new IllegalStateException("Unhandled twitter field: " + field);
+    }
   }
 
   /**
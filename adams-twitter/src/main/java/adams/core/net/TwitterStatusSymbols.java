@@ -0,0 +1,207 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TwitterStatusSymbols.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core.net;
+
+import adams.data.twitter.TwitterField;
+import twitter4j.HashtagEntity;
+import twitter4j.Status;
+import twitter4j.UserMentionEntity;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Read-only symbol map for a status that only extracts the values that
+ * actually get requested, rather than all the fields up front like
+ * {@link TwitterHelper#statusToSymbols(Status, boolean)}. Extracted values
+ * get remembered. Listing the entries extracts all the values.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class TwitterStatusSymbols
+  extends AbstractMap<Object,Object> {
+
+  /** placeholder for values that haven't been extracted yet. */
+  protected final static Object UNDEFINED = new Object();
+
+  /** the status to extract the values from. */
+  protected Status m_Status;
+
+  /** whether to use lower case for strings. */
+  protected boolean m_LowerCase;
+
+  /** the extracted field values (indexed by ordinal). */
+  protected Object[] m_Fields;
+
+  /** the hashtags. */
+  protected Object m_Hashtags;
+
+  /** the user mentions. */
+  protected Object m_UserMentions;
+
+  /** all symbols, only created when required. */
+  protected HashMap m_All;
+
+  /**
+   * Initializes the symbols.
+   *
+   * @param status	the status to extract the values from
+   * @param lowerCase	whether to use lower case for strings
+   */
+  public TwitterStatusSymbols(Status status, boolean lowerCase) {
+    m_Status       = status;
+    m_LowerCase    = lowerCase;
+    m_Fields       = new Object[TwitterField.values().length];
+    m_Hashtags     = UNDEFINED;
+    m_UserMentions = UNDEFINED;
+    m_All          = null;
+    for (int i = 0; i < m_Fields.length; i++)
+      m_Fields[i] = UNDEFINED;
+  }
+
+  /**
+   * Returns the status.
+   *
+   * @return		the status
+   */
+  public Status getStatus() {
+    return m_Status;
+  }
+
+  /**
+   * Returns all the symbols, extracts them if necessary.
+   *
+   * @return		the symbols
+   */
+  protected synchronized HashMap all() {
+    if (m_All == null)
+      m_All = TwitterHelper.statusToSymbols(m_Status, m_LowerCase);
+    return m_All;
+  }
+
+  /**
+   * Extracts the value of the field from the status.
+   *
+   * @param field	the field to extract
+   * @return		the value, null if not available
+   */
+  protected Object extract(TwitterField field) {
+    Object	result;
+
+    result = TwitterHelper.getValue(m_Status, field);
+    if (m_LowerCase && (result instanceof String))
+      result = ((String) result).toLowerCase();
+
+    return result;
+  }
+
+  /**
+   * Returns the hashtags of the status.
+   *
+   * @return		the hashtags
+   */
+  protected String[] extractHashtags() {
+    String[]		result;
+    HashtagEntity[]	entities;
+    int			i;
+
+    entities = m_Status.getHashtagEntities();
+    if (entities == null)
+      return new String[0];
+    result = new String[entities.length];
+    for (i = 0; i < entities.length; i++)
+      result[i] = entities[i].getText();
+
+    return result;
+  }
+
+  /**
+   * Returns the user mentions of the status.
+   *
+   * @return		the screen names of the mentioned users
+   */
+  protected String[] extractUserMentions() {
+    String[]		result;
+    UserMentionEntity[]	entities;
+    int			i;
+
+    entities = m_Status.getUserMentionEntities();
+    if (entities == null)
+      return new String[0];
+    result = new String[entities.length];
+    for (i = 0; i < entities.length; i++)
+      result[i] = entities[i].getScreenName();
+
+    return result;
+  }
+
+  /**
+   * Returns the value for the symbol, extracts it if necessary.
+   *
+   * @param key		the symbol
+   * @return		the value, null if not available
+   */
+  @Override
+  public synchronized Object get(Object key) {
+    int		index;
+
+    if (key instanceof TwitterField) {
+      index = ((TwitterField) key).ordinal();
+      if (m_Fields[index] == UNDEFINED)
+	m_Fields[index] = extract((TwitterField) key);
+      return m_Fields[index];
+    }
+    else if (TwitterHelper.SYMBOL_HASHTAGS.equals(key)) {
+      if (m_Hashtags == UNDEFINED)
+	m_Hashtags = extractHashtags();
+      return m_Hashtags;
+    }
+    else if (TwitterHelper.SYMBOL_USERMENTIONS.equals(key)) {
+      if (m_UserMentions == UNDEFINED)
+	m_UserMentions = extractUserMentions();
+      return m_UserMentions;
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns whether a value is available for the symbol.
+   *
+   * @param key		the symbol
+   * @return		true if available
+   */
+  @Override
+  public boolean containsKey(Object key) {
+    return (get(key) != null);
+  }
+
+  /**
+   * Returns all symbols, extracts all the values.
+   *
+   * @return		the symbols
+   */
+  @Override
+  public Set<Entry<Object,Object>> entrySet() {
+    return all().entrySet();
+  }
+}
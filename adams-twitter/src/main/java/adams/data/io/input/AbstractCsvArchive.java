@@ -28,19 +28,16 @@ import adams.data.spreadsheet.Cell;
 import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
 import adams.data.twitter.SimulatedPlace;
-import adams.data.twitter.SimulatedScopes;
 import adams.data.twitter.SimulatedStatus;
-import adams.data.twitter.SimulatedSymbolEntity;
-import adams.data.twitter.SimulatedURLEntity;
 import adams.data.twitter.SimulatedUser;
 import adams.data.twitter.TwitterField;
 import twitter4j.GeoLocation;
-import twitter4j.Scopes;
 import twitter4j.Status;
-import twitter4j.SymbolEntity;
-import twitter4j.URLEntity;
 
 import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  <!-- globalinfo-start -->
@@ -79,9 +76,159 @@ public abstract class AbstractCsvArchive
   /** the current chunk. */
   protected SpreadSheet m_Chunk;
 
+  /** the number of rows to read at a time. */
+  protected int m_ChunkSize;
+
+  /** whether to parse the archive in a separate thread. */
+  protected boolean m_ParseThread;
+
+  /** the maximum number of parsed tweets to queue (parse thread). */
+  protected int m_QueueSize;
+
   /** the twitter field, column index relation. */
   protected HashMap<TwitterField,Integer> m_Columns;
 
+  /** the mapped twitter fields (same order as m_Indices). */
+  protected TwitterField[] m_Fields;
+
+  /** the column indices of the mapped twitter fields. */
+  protected int[] m_Indices;
+
+  /** the index of the next row in the current chunk. */
+  protected int m_Row;
+
+  /** the thread parsing the archive. */
+  protected transient ArchiveParser m_Parser;
+
+  /** the next element taken from the queue (parse thread). */
+  protected transient Object m_Next;
+
+  /** marks the end of the archive in the queue. */
+  protected final static Object END = new Object();
+
+  /** marks a row that failed to convert in the queue. */
+  protected final static Object FAILED = new Object();
+
+  /**
+   * Thread that reads and converts the archive, queuing up the tweets.
+   * Owns its reader, chunk and queue, so that resetting or re-configuring
+   * the archive does not interfere with a running parser.
+   */
+  protected class ArchiveParser
+    extends Thread {
+
+    /** the reader to use. */
+    protected final CsvSpreadSheetReader m_Reader;
+
+    /** the queue with the parsed tweets. */
+    protected final BlockingQueue<Object> m_Queue;
+
+    /** the current chunk. */
+    protected SpreadSheet m_Chunk;
+
+    /** the index of the next row in the current chunk. */
+    protected int m_Row;
+
+    /** whether the parser got stopped. */
+    protected volatile boolean m_Stopped;
+
+    /**
+     * Initializes the parser.
+     *
+     * @param reader	the reader to continue reading from
+     * @param chunk	the first chunk
+     * @param queueSize	the maximum number of tweets to queue
+     */
+    public ArchiveParser(CsvSpreadSheetReader reader, SpreadSheet chunk, int queueSize) {
+      super(AbstractCsvArchive.this.getClass().getSimpleName() + "-parser");
+      setDaemon(true);
+      m_Reader  = reader;
+      m_Chunk   = chunk;
+      m_Row     = 0;
+      m_Queue   = new ArrayBlockingQueue<>(queueSize);
+      m_Stopped = false;
+    }
+
+    /**
+     * Returns the queue with the parsed tweets.
+     *
+     * @return		the queue
+     */
+    public BlockingQueue<Object> getQueue() {
+      return m_Queue;
+    }
+
+    /**
+     * Returns whether the parser got stopped.
+     *
+     * @return		true if stopped
+     */
+    public boolean isStopped() {
+      return m_Stopped;
+    }
+
+    /**
+     * Adds the element to the queue, waiting for space to become available.
+     *
+     * @param element	the element to add
+     * @return		false if the parser got stopped
+     */
+    protected boolean queue(Object element) {
+      try {
+	while (!m_Stopped) {
+	  if (m_Queue.offer(element, 100, TimeUnit.MILLISECONDS))
+	    return true;
+	}
+      }
+      catch (InterruptedException e) {
+	// ignored
+      }
+      return false;
+    }
+
+    /**
+     * Reads and converts the rows.
+     */
+    @Override
+    public void run() {
+      Status	status;
+
+      try {
+	while (!m_Stopped) {
+	  while ((m_Chunk != null) && (m_Row >= m_Chunk.getRowCount())) {
+	    m_Chunk = nextChunk(m_Reader);
+	    m_Row   = 0;
+	  }
+	  if (m_Chunk == null)
+	    break;
+	  status = convert(m_Chunk.getRow(m_Row++));
+	  if (!queue((status == null) ? FAILED : status))
+	    return;
+	}
+      }
+      catch (Throwable t) {
+	if (!m_Stopped)
+	  LoggingHelper.handleException(AbstractCsvArchive.this, "Failed to parse archive!", t);
+      }
+      queue(END);
+    }
+
+    /**
+     * Stops the parser and waits for it to finish.
+     */
+    public void stopParsing() {
+      m_Stopped = true;
+      interrupt();
+      try {
+	join();
+      }
+      catch (InterruptedException e) {
+	// ignored
+      }
+      m_Queue.clear();
+    }
+  }
+
   /**
    * Adds options to the internal list of options.
    */
@@ -92,6 +239,18 @@ public abstract class AbstractCsvArchive
     m_OptionManager.add(
 	    "archive", "archive",
 	    new PlaceholderFile("."));
+
+    m_OptionManager.add(
+	    "chunk-size", "chunkSize",
+	    1000, 1, null);
+
+    m_OptionManager.add(
+	    "parse-thread", "parseThread",
+	    false);
+
+    m_OptionManager.add(
+	    "queue-size", "queueSize",
+	    1000, 1, null);
   }
 
   /**
@@ -101,11 +260,7 @@ public abstract class AbstractCsvArchive
   protected void initialize() {
     super.initialize();
 
-    m_Reader = new CsvSpreadSheetReader();
-    m_Reader.setChunkSize(1);
-    m_Reader.setParseFormulas(false);
-    //m_Reader.setTextColumns(new Range(Range.ALL));
-    m_Reader.setMissingValue(new BaseRegExp(""));
+    m_Reader = newReader();
   }
 
   /**
@@ -115,8 +270,12 @@ public abstract class AbstractCsvArchive
   protected void reset() {
     super.reset();
 
+    cleanUp();
     m_Chunk   = null;
     m_Columns = null;
+    m_Fields  = null;
+    m_Indices = null;
+    m_Row     = 0;
   }
 
   /**
@@ -146,6 +305,101 @@ public abstract class AbstractCsvArchive
    */
   public abstract String archiveTipText();
 
+  /**
+   * Sets the number of rows to read from the archive at a time.
+   *
+   * @param value	the number of rows
+   */
+  public void setChunkSize(int value) {
+    if (getOptionManager().isValid("chunkSize", value)) {
+      m_ChunkSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of rows to read from the archive at a time.
+   *
+   * @return		the number of rows
+   */
+  public int getChunkSize() {
+    return m_ChunkSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String chunkSizeTipText() {
+    return "The number of rows to read from the archive at a time.";
+  }
+
+  /**
+   * Sets whether to parse the archive in a separate thread.
+   *
+   * @param value	true if to use a separate thread
+   */
+  public void setParseThread(boolean value) {
+    m_ParseThread = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to parse the archive in a separate thread.
+   *
+   * @return		true if to use a separate thread
+   */
+  public boolean getParseThread() {
+    return m_ParseThread;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String parseThreadTipText() {
+    return
+	"If enabled, the archive gets read and converted in a separate thread, "
+	+ "which queues up the tweets.";
+  }
+
+  /**
+   * Sets the maximum number of parsed tweets to queue up when using a
+   * separate thread.
+   *
+   * @param value	the maximum number
+   */
+  public void setQueueSize(int value) {
+    if (getOptionManager().isValid("queueSize", value)) {
+      m_QueueSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of parsed tweets to queue up when using a
+   * separate thread.
+   *
+   * @return		the maximum number
+   */
+  public int getQueueSize() {
+    return m_QueueSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String queueSizeTipText() {
+    return "The maximum number of parsed tweets to queue up when using a separate thread.";
+  }
+
   /**
    * Returns a quick info about the actor, which will be displayed in the GUI.
    *
@@ -153,7 +407,13 @@ public abstract class AbstractCsvArchive
    */
   @Override
   public String getQuickInfo() {
-    return QuickInfoHelper.toString(this, "archive", m_Archive, "archive: ");
+    String	result;
+
+    result  = QuickInfoHelper.toString(this, "archive", m_Archive, "archive: ");
+    result += QuickInfoHelper.toString(this, "chunkSize", m_ChunkSize, ", chunk: ");
+    result += QuickInfoHelper.toString(this, "parseThread", m_ParseThread, "thread", ", ");
+
+    return result;
   }
 
   /**
@@ -164,6 +424,23 @@ public abstract class AbstractCsvArchive
    */
   protected abstract HashMap<TwitterField,Integer> configureColumns(SpreadSheet chunk);
 
+  /**
+   * Creates a new reader for the archive.
+   *
+   * @return		the reader
+   */
+  protected CsvSpreadSheetReader newReader() {
+    CsvSpreadSheetReader	result;
+
+    result = new CsvSpreadSheetReader();
+    result.setParseFormulas(false);
+    //result.setTextColumns(new Range(Range.ALL));
+    result.setMissingValue(new BaseRegExp(""));
+    result.setChunkSize(Math.max(1, m_ChunkSize));
+
+    return result;
+  }
+
   /**
    * Performs the actual setup.
    *
@@ -172,19 +449,81 @@ public abstract class AbstractCsvArchive
   @Override
   protected String doConfigure() {
     String	result;
+    int		i;
 
     result  = null;
 
-    m_Chunk = m_Reader.read(m_Archive);
+    cleanUp();
+    m_Reader = newReader();
+    m_Chunk  = m_Reader.read(m_Archive);
+    m_Row   = 0;
     if (m_Chunk == null)
       result = "Failed to read from archive?";
 
-    if (result == null)
+    if (result == null) {
+      m_Chunk   = preprocessChunk(m_Chunk);
       m_Columns = configureColumns(m_Chunk);
+      m_Fields  = new TwitterField[m_Columns.size()];
+      m_Indices = new int[m_Columns.size()];
+      i         = 0;
+      for (TwitterField field: m_Columns.keySet()) {
+	m_Fields[i]  = field;
+	m_Indices[i] = m_Columns.get(field);
+	i++;
+      }
+
+      if (m_ParseThread)
+	startParser();
+    }
+
+    return result;
+  }
+
+  /**
+   * Starts the thread that reads and converts the archive, queuing up
+   * the tweets. The thread takes over the reader and the current chunk.
+   */
+  protected void startParser() {
+    m_Next   = null;
+    m_Parser = new ArchiveParser(m_Reader, m_Chunk, m_QueueSize);
+    m_Reader = newReader();
+    m_Chunk  = null;
+    m_Row    = 0;
+    m_Parser.start();
+  }
+
+  /**
+   * Reads the next chunk from the reader.
+   *
+   * @param reader	the reader to use
+   * @return		the preprocessed chunk, null if no more data
+   */
+  protected SpreadSheet nextChunk(CsvSpreadSheetReader reader) {
+    SpreadSheet		result;
+
+    result = null;
+    if (reader.hasMoreChunks())
+      result = reader.nextChunk();
+    if (result != null)
+      result = preprocessChunk(result);
 
     return result;
   }
 
+  /**
+   * Ensures that the current chunk has another row available, reading
+   * the next chunk if necessary.
+   *
+   * @return		true if another row is available
+   */
+  protected boolean nextRow() {
+    while ((m_Chunk != null) && (m_Row >= m_Chunk.getRowCount())) {
+      m_Chunk = nextChunk(m_Reader);
+      m_Row   = 0;
+    }
+    return (m_Chunk != null);
+  }
+
   /**
    * Checks whether there is another tweet available.
    *
@@ -192,7 +531,24 @@ public abstract class AbstractCsvArchive
    */
   @Override
   public boolean hasNext() {
-    return (m_Chunk != null) || m_Reader.hasMoreChunks();
+    ArchiveParser	parser;
+
+    parser = m_Parser;
+    if (parser == null)
+      return nextRow();
+
+    try {
+      while (m_Next == null) {
+	m_Next = parser.getQueue().poll(100, TimeUnit.MILLISECONDS);
+	if ((m_Next == null) && parser.isStopped())
+	  return false;
+      }
+    }
+    catch (InterruptedException e) {
+      return false;
+    }
+
+    return (m_Next != END);
   }
 
   /**
@@ -207,6 +563,43 @@ public abstract class AbstractCsvArchive
     return chunk;
   }
 
+  /**
+   * Turns the cell into a value suitable for
+   * {@link TwitterHelper#setValue(SimulatedStatus, TwitterField, Object)}.
+   *
+   * @param field	the field the cell represents
+   * @param cell	the cell to convert
+   * @return		the value
+   */
+  protected Object toValue(TwitterField field, Cell cell) {
+    switch (field) {
+      case ID:
+      case USER_ID:
+      case RETWEETED_STATUS_ID:
+      case RETWEETED_STATUS_USER_ID:
+      case IN_REPLY_TO_STATUS_ID:
+      case IN_REPLY_TO_USER_ID:
+      case QUOTED_STATUS_ID:
+      case RETWEET_COUNT:
+      case FAVORITE_COUNT:
+	return cell.toLong();
+      case CREATED:
+      case RETWEETED_STATUS_CREATED:
+	return cell.toAnyDateType();
+      case RETWEET:
+      case RETWEET_BY_ME:
+      case IS_RETWEETED:
+      case FAVORITED:
+      case POSSIBLY_SENSITIVE:
+	if (cell.isDouble())
+	  return cell.toDouble() != 0.0;
+	else
+	  return cell.toBoolean();
+      default:
+	return cell.getContent();
+    }
+  }
+
   /**
    * Converts the row to a status object.
    *
@@ -217,27 +610,15 @@ public abstract class AbstractCsvArchive
     SimulatedStatus	result;
     int			index;
     Cell		cell;
-    String[]		parts;
-    URLEntity[]		urlEntities;
-    SymbolEntity[]	symEntities;
-    Scopes		scopes;
-    int			i;
+    int			n;
+    TwitterField	field;
 
     result = new SimulatedStatus();
     result.setUser(new SimulatedUser());
     result.setPlace(new SimulatedPlace());
-    if (   m_Columns.containsKey(TwitterField.RETWEETED_STATUS_ID)
-	|| m_Columns.containsKey(TwitterField.RETWEETED_STATUS_USER_ID)
-	|| m_Columns.containsKey(TwitterField.RETWEETED_STATUS_CREATED)) {
-      result.setRetweetedStatus(new SimulatedStatus());
-      ((SimulatedStatus) result.getRetweetedStatus()).setUser(new SimulatedUser());
-    }
-    if (   m_Columns.containsKey(TwitterField.QUOTED_STATUS_ID)
-	|| m_Columns.containsKey(TwitterField.QUOTED_STATUS)) {
-      result.setQuotedStatus(new SimulatedStatus());
-    }
-    for (TwitterField field: m_Columns.keySet()) {
-      index = m_Columns.get(field);
+    for (n = 0; n < m_Fields.length; n++) {
+      field = m_Fields[n];
+      index = m_Indices[n];
       try {
 	if (!row.hasCell(index) || row.getCell(index).isMissing())
 	  continue;
@@ -251,95 +632,6 @@ public abstract class AbstractCsvArchive
 
       try {
 	switch (field) {
-	  case ID:
-	    result.setId(cell.toLong());
-	    break;
-	  case USER_ID:
-	    ((SimulatedUser) result.getUser()).setId(cell.toLong());
-	    break;
-	  case USER_NAME:
-	    ((SimulatedUser) result.getUser()).setName(cell.getContent());
-	    break;
-	  case USER_SCREENNAME:
-	    ((SimulatedUser) result.getUser()).setScreenName(cell.getContent());
-	    break;
-	  case SOURCE:
-	    result.setSource(cell.getContent());
-	    break;
-	  case TEXT:
-	    result.setText(cell.getContent());
-	    result.setHashtagEntities(TwitterHelper.extractHashtags(cell.getContent()));
-	    result.setUserMentionEntities(TwitterHelper.extractUserMentions(cell.getContent()));
-	    break;
-	  case CREATED:
-	    result.setCreatedAt(cell.toAnyDateType());
-	    break;
-	  case RETWEET:
-	    result.setRetweet(cell.toBoolean());
-	    break;
-	  case RETWEET_COUNT:
-	    result.setRetweetCount(cell.toLong().intValue());
-	    break;
-	  case RETWEET_BY_ME:
-	    result.setRetweetedByMe(cell.toBoolean());
-	    break;
-	  case RETWEETED_STATUS_ID:
-	    ((SimulatedStatus) result.getRetweetedStatus()).setId(cell.toLong());
-	    break;
-	  case RETWEETED_STATUS_USER_ID:
-	    ((SimulatedUser) ((SimulatedStatus) result.getRetweetedStatus()).getUser()).setId(cell.toLong());
-	    break;
-	  case RETWEETED_STATUS_CREATED:
-	    ((SimulatedStatus) result.getRetweetedStatus()).setCreatedAt(cell.toAnyDateType());
-	    break;
-	  case EXPANDED_URLS:
-	    parts = cell.getContent().split(",");
-	    if (parts.length > 0) {
-	      urlEntities = new URLEntity[parts.length];
-	      for (i = 0; i < parts.length; i++)
-		urlEntities[i] = new SimulatedURLEntity(parts[i]);
-	      result.setURLEntities(urlEntities);
-	    }
-	    break;
-	  case IN_REPLY_TO_STATUS_ID:
-	    result.setInReplyToStatusId(cell.toLong());
-	    break;
-	  case IN_REPLY_TO_USER_ID:
-	    result.setInReplyToUserId(cell.toLong());
-	    break;
-	  case FAVORITED:
-	    if (cell.isDouble())
-	      result.setFavorited(cell.toDouble() != 0.0);
-	    else
-	      result.setFavorited(cell.toBoolean());
-	    break;
-	  case COUNTRY:
-	    ((SimulatedPlace) result.getPlace()).setCountry(cell.getContent());
-	    break;
-	  case COUNTRY_CODE:
-	    ((SimulatedPlace) result.getPlace()).setCountryCode(cell.getContent());
-	    break;
-	  case LANGUAGE_CODE:
-	    ((SimulatedUser) result.getUser()).setLang(cell.getContent());
-	    break;
-	  case PLACE:
-	    ((SimulatedPlace) result.getPlace()).setName(cell.getContent());
-	    break;
-	  case PLACE_TYPE:
-	    ((SimulatedPlace) result.getPlace()).setPlaceType(cell.getContent());
-	    break;
-	  case PLACE_URL:
-	    ((SimulatedPlace) result.getPlace()).setURL(cell.getContent());
-	    break;
-	  case STREET_ADDRESS:
-	    ((SimulatedPlace) result.getPlace()).setStreetAddress(cell.getContent());
-	    break;
-	  case POSSIBLY_SENSITIVE:
-	    if (cell.isDouble())
-	      result.setPossiblySensitive(cell.toDouble() != 0.0);
-	    else
-	      result.setPossiblySensitive(cell.toBoolean());
-	    break;
 	  case GEO_LATITUDE:
 	  case GEO_LONGITUDE:
 	    if (result.getGeoLocation() == null)
@@ -348,48 +640,14 @@ public abstract class AbstractCsvArchive
 		      row.getCell(m_Columns.get(TwitterField.GEO_LATITUDE)).toDouble(),
 		      row.getCell(m_Columns.get(TwitterField.GEO_LONGITUDE)).toDouble()));
 	    break;
-	  case SYMBOL_ENTITIES:
-	    parts       = cell.getContent().split(",");
-	    symEntities = new SymbolEntity[parts.length];
-	    for (i = 0; i < parts.length; i++) {
-	      symEntities[i] = new SimulatedSymbolEntity();
-	      ((SimulatedSymbolEntity) symEntities[i]).setText(parts[i]);
-	    }
-	    result.setSymbolEntities(symEntities);
-	    break;
-	  case IS_RETWEETED:
-	    result.setIsRetweeted(cell.toBoolean());
-	    break;
-	  case FAVORITE_COUNT:
-	    result.setFavoriteCount(cell.toLong().intValue());
-	    break;
-	  case STATUS_LANG:
-	    result.setLang(cell.getContent());
-	    break;
-	  case SCOPES:
-	    parts  = cell.getContent().split(",");
-	    scopes = new SimulatedScopes();
-	    ((SimulatedScopes) scopes).setPlaceIds(parts);
-	    result.setScopes(scopes);
-	    break;
-	  case WITHHELD_IN_COUNTRIES:
-	    result.setWithheldInCountries(cell.getContent().split(","));
-	    break;
-	  case QUOTED_STATUS_ID:
-	    result.setQuotedStatusId(cell.toLong());
-	    ((SimulatedStatus) result.getQuotedStatus()).setId(cell.toLong());
-	    break;
-	  case QUOTED_STATUS:
-	    ((SimulatedStatus) result.getQuotedStatus()).setText(cell.getContent());
-	    break;
 	  default:
-	    throw new IllegalStateException("Unhandled twitter field: " + field);
+	    TwitterHelper.setValue(result, field, toValue(field, cell));
 	}
       }
       catch (Throwable t) {
 	if (isLoggingEnabled())
 	  LoggingHelper.handleException(this, "Failed to convert field '" + field + "': " + cell + "\n" + row, t);
-	result = null;
+	return null;
       }
     }
 
@@ -403,15 +661,34 @@ public abstract class AbstractCsvArchive
    */
   @Override
   public Status next() {
-    Status	result;
+    Object	result;
 
-    result = null;
+    if (!hasNext())
+      return null;
 
-    if (m_Chunk.getRowCount() > 0)
-      result = convert(m_Chunk.getRow(0));
+    if (m_Parser == null)
+      return convert(m_Chunk.getRow(m_Row++));
 
-    m_Chunk = m_Reader.nextChunk();
+    result = m_Next;
+    m_Next = null;
+    if (result == FAILED)
+      return null;
+    return (Status) result;
+  }
 
-    return result;
+  /**
+   * Stops the parse thread, if running, and waits for it to finish.
+   */
+  @Override
+  public void cleanUp() {
+    ArchiveParser	parser;
+
+    parser   = m_Parser;
+    m_Parser = null;
+    if (parser != null)
+      parser.stopParsing();
+    m_Next = null;
+
+    super.cleanUp();
   }
 }
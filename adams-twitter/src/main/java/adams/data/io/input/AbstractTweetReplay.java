@@ -90,6 +90,15 @@ public abstract class AbstractTweetReplay
   public void remove() {
   }
 
+  /**
+   * Frees up resources, e.g., stops background threads, once the replay
+   * is no longer needed.
+   * <br><br>
+   * Default implementation does nothing.
+   */
+  public void cleanUp() {
+  }
+
   /**
    * Checks whether there is another tweet available.
    * 
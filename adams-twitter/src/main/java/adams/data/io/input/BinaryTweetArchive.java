@@ -0,0 +1,463 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BinaryTweetArchive.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.io.input;
+
+import adams.core.QuickInfoHelper;
+import adams.core.base.BaseDateTime;
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderFile;
+import adams.core.logging.LoggingHelper;
+import adams.data.twitter.BinaryTweetArchiveFormat;
+import adams.data.twitter.TwitterField;
+import twitter4j.Status;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ <!-- globalinfo-start -->
+ * Replays tweets from a binary tweet archive, as generated by adams.flow.sink.BinaryTweetArchiveWriter.<br>
+ * If the sparse index of the archive is available, the replay seeks directly
+ * to the first tweet of the specified time window rather than reading the
+ * archive from the start.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-archive &lt;adams.core.io.PlaceholderFile&gt; (property: archive)
+ * &nbsp;&nbsp;&nbsp;The binary tweet archive to replay.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-start &lt;adams.core.base.BaseDateTime&gt; (property: start)
+ * &nbsp;&nbsp;&nbsp;The start of the time window (incl) to replay.
+ * &nbsp;&nbsp;&nbsp;default: -INF
+ * </pre>
+ *
+ * <pre>-end &lt;adams.core.base.BaseDateTime&gt; (property: end)
+ * &nbsp;&nbsp;&nbsp;The end of the time window (incl) to replay.
+ * &nbsp;&nbsp;&nbsp;default: +INF
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @version $Revision$
+ */
+public class BinaryTweetArchive
+  extends AbstractTweetReplay {
+
+  /** for serialization. */
+  private static final long serialVersionUID = 4563468451318744393L;
+
+  /** the archive to obtain the tweets from. */
+  protected PlaceholderFile m_Archive;
+
+  /** the start of the time window. */
+  protected BaseDateTime m_Start;
+
+  /** the end of the time window. */
+  protected BaseDateTime m_End;
+
+  /** the fields used by the archive. */
+  protected TwitterField[] m_Fields;
+
+  /** the stream to read the records from. */
+  protected transient DataInputStream m_Stream;
+
+  /** the start timestamp in msec. */
+  protected long m_StartTime;
+
+  /** the end timestamp in msec. */
+  protected long m_EndTime;
+
+  /** the next tweet. */
+  protected transient Status m_Next;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+	"Replays tweets from a binary tweet archive, as generated by "
+	+ adams.flow.sink.BinaryTweetArchiveWriter.class.getName() + ".\n"
+	+ "If the sparse index of the archive is available, the replay seeks "
+	+ "directly to the first tweet of the specified time window rather "
+	+ "than reading the archive from the start.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "archive", "archive",
+	    new PlaceholderFile("."));
+
+    m_OptionManager.add(
+	    "start", "start",
+	    new BaseDateTime(BaseDateTime.INF_PAST));
+
+    m_OptionManager.add(
+	    "end", "end",
+	    new BaseDateTime(BaseDateTime.INF_FUTURE));
+  }
+
+  /**
+   * Resets the object.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    cleanUp();
+    m_Next = null;
+  }
+
+  /**
+   * Sets the binary tweet archive.
+   *
+   * @param value	the archive
+   */
+  public void setArchive(PlaceholderFile value) {
+    m_Archive = value;
+    reset();
+  }
+
+  /**
+   * Returns the binary tweet archive.
+   *
+   * @return		the archive
+   */
+  public PlaceholderFile getArchive() {
+    return m_Archive;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String archiveTipText() {
+    return "The binary tweet archive to replay.";
+  }
+
+  /**
+   * Sets the start of the time window (incl).
+   *
+   * @param value	the start
+   */
+  public void setStart(BaseDateTime value) {
+    m_Start = value;
+    reset();
+  }
+
+  /**
+   * Returns the start of the time window (incl).
+   *
+   * @return		the start
+   */
+  public BaseDateTime getStart() {
+    return m_Start;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String startTipText() {
+    return "The start of the time window (incl) to replay.";
+  }
+
+  /**
+   * Sets the end of the time window (incl).
+   *
+   * @param value	the end
+   */
+  public void setEnd(BaseDateTime value) {
+    m_End = value;
+    reset();
+  }
+
+  /**
+   * Returns the end of the time window (incl).
+   *
+   * @return		the end
+   */
+  public BaseDateTime getEnd() {
+    return m_End;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String endTipText() {
+    return "The end of the time window (incl) to replay.";
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String	result;
+
+    result  = QuickInfoHelper.toString(this, "archive", m_Archive, "archive: ");
+    result += QuickInfoHelper.toString(this, "start", m_Start, ", start: ");
+    result += QuickInfoHelper.toString(this, "end", m_End, ", end: ");
+
+    return result;
+  }
+
+  /**
+   * Performs checks before starting the replay.
+   *
+   * @return		null if everything OK, otherwise error message
+   */
+  @Override
+  protected String check() {
+    String	result;
+
+    result = super.check();
+
+    if (result == null) {
+      if (!m_Archive.exists())
+	result = "Archive does not exist: " + m_Archive;
+      else if (m_Archive.isDirectory())
+	result = "Archive points to a directory: " + m_Archive;
+    }
+
+    return result;
+  }
+
+  /**
+   * Determines the offset of the record to start reading from, using the
+   * sparse index. Uses the last index entry that lies before the start of
+   * the time window.
+   *
+   * @param header	the size of the archive header
+   * @return		the offset
+   */
+  protected long locate(long header) {
+    long		result;
+    File		file;
+    DataInputStream	in;
+    List<long[]>	entries;
+    int			low;
+    int			high;
+    int			mid;
+
+    result = header;
+    file   = BinaryTweetArchiveFormat.getIndexFile(m_Archive.getAbsoluteFile());
+    if (!file.exists()) {
+      if (isLoggingEnabled())
+	getLogger().info("Index missing, reading archive from start: " + file);
+      return result;
+    }
+
+    in      = null;
+    entries = new ArrayList<>();
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      BinaryTweetArchiveFormat.readIndexHeader(in);
+      while (true) {
+	try {
+	  entries.add(new long[]{in.readLong(), in.readLong()});
+	}
+	catch (EOFException e) {
+	  break;
+	}
+      }
+    }
+    catch (Exception e) {
+      LoggingHelper.handleException(this, "Failed to read index, reading archive from start: " + file, e);
+      return result;
+    }
+    finally {
+      FileUtils.closeQuietly(in);
+    }
+
+    // last entry with timestamp < start
+    low  = 0;
+    high = entries.size() - 1;
+    while (low <= high) {
+      mid = (low + high) >>> 1;
+      if (entries.get(mid)[0] < m_StartTime) {
+	result = entries.get(mid)[1];
+	low    = mid + 1;
+      }
+      else {
+	high = mid - 1;
+      }
+    }
+
+    if (isLoggingEnabled())
+      getLogger().info("Seeking to offset " + result + " (index entries: " + entries.size() + ")");
+
+    return result;
+  }
+
+  /**
+   * Performs the actual setup.
+   *
+   * @return		null if everything OK, otherwise error message
+   */
+  @Override
+  protected String doConfigure() {
+    FileInputStream	fis;
+    DataInputStream	header;
+    long		offset;
+
+    cleanUp();
+
+    m_StartTime = m_Start.dateValue().getTime();
+    m_EndTime   = m_End.dateValue().getTime();
+
+    try {
+      fis      = new FileInputStream(m_Archive.getAbsoluteFile());
+      header   = new DataInputStream(fis);
+      m_Fields = BinaryTweetArchiveFormat.readArchiveHeader(header);
+      offset   = locate(fis.getChannel().position());
+      fis.getChannel().position(offset);
+      m_Stream = new DataInputStream(new BufferedInputStream(fis, 65536));
+    }
+    catch (Exception e) {
+      cleanUp();
+      return LoggingHelper.handleException(this, "Failed to open archive: " + m_Archive, e);
+    }
+
+    m_Next = read();
+
+    return null;
+  }
+
+  /**
+   * Reads the next tweet that falls into the time window. Records before
+   * the start get skipped without decoding them.
+   *
+   * @return		the tweet, null if no more available
+   */
+  protected Status read() {
+    int		length;
+    int		skipped;
+    long	timestamp;
+    byte[]	payload;
+
+    if (m_Stream == null)
+      return null;
+
+    try {
+      while (true) {
+	try {
+	  length = m_Stream.readInt();
+	}
+	catch (EOFException e) {
+	  cleanUp();
+	  return null;
+	}
+	timestamp = m_Stream.readLong();
+	if (timestamp < m_StartTime) {
+	  while (length > 0) {
+	    skipped = m_Stream.skipBytes(length);
+	    if (skipped == 0) {
+	      m_Stream.readByte();
+	      skipped = 1;
+	    }
+	    length -= skipped;
+	  }
+	  continue;
+	}
+	if (timestamp > m_EndTime) {
+	  cleanUp();
+	  return null;
+	}
+	payload = new byte[length];
+	m_Stream.readFully(payload);
+	return BinaryTweetArchiveFormat.decode(m_Fields, payload);
+      }
+    }
+    catch (Exception e) {
+      LoggingHelper.handleException(this, "Failed to read tweet from archive: " + m_Archive, e);
+      cleanUp();
+      return null;
+    }
+  }
+
+  /**
+   * Checks whether there is another tweet available.
+   *
+   * @return		true if tweet available
+   */
+  @Override
+  public boolean hasNext() {
+    return (m_Next != null);
+  }
+
+  /**
+   * Returns the next tweet.
+   *
+   * @return		the next tweet, null if none available
+   */
+  @Override
+  public Status next() {
+    Status	result;
+
+    result = m_Next;
+    if (result != null)
+      m_Next = read();
+
+    return result;
+  }
+
+  /**
+   * Closes the archive.
+   */
+  @Override
+  public void cleanUp() {
+    if (m_Stream != null) {
+      FileUtils.closeQuietly(m_Stream);
+      m_Stream = null;
+    }
+  }
+}
@@ -43,6 +43,24 @@ import adams.data.twitter.TwitterField;
  * &nbsp;&nbsp;&nbsp;default: ${CWD}
  * </pre>
  * 
+ * <pre>-chunk-size &lt;int&gt; (property: chunkSize)
+ * &nbsp;&nbsp;&nbsp;The number of rows to read from the archive at a time.
+ * &nbsp;&nbsp;&nbsp;default: 1000
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
+ * <pre>-parse-thread &lt;boolean&gt; (property: parseThread)
+ * &nbsp;&nbsp;&nbsp;If enabled, the archive gets read and converted in a separate thread, which 
+ * &nbsp;&nbsp;&nbsp;queues up the tweets.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
+ * <pre>-queue-size &lt;int&gt; (property: queueSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of parsed tweets to queue up when using a separate thread.
+ * &nbsp;&nbsp;&nbsp;default: 1000
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -121,6 +121,19 @@ public abstract class AbstractTwitterStatusConverter<T>
    */
   protected abstract T doConvert(Hashtable<TwitterField,Object> fields);
 
+  /**
+   * Performs the actual conversion.
+   * <br><br>
+   * Default implementation turns the status into a hashtable first.
+   *
+   * @param status	the status to convert
+   * @return		the generated output
+   * @see		#doConvert(Hashtable)
+   */
+  protected T doConvert(Status status) {
+    return doConvert(TwitterHelper.statusToHashtable(status));
+  }
+
   /**
    * Performs the conversion.
    *
@@ -129,6 +142,6 @@ public abstract class AbstractTwitterStatusConverter<T>
    */
   public T convert(Status status) {
     check(status);
-    return doConvert(TwitterHelper.statusToHashtable(status));
+    return doConvert(status);
   }
 }
@@ -0,0 +1,48 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BatchStatusConverter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.twitter;
+
+import twitter4j.Status;
+
+/**
+ * Interface for status converters that can collect multiple status updates
+ * in a single output object.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @param <T> the type of output data to generate
+ */
+public interface BatchStatusConverter<T> {
+
+  /**
+   * Creates a new, empty batch.
+   *
+   * @return		the batch
+   */
+  public T newBatch();
+
+  /**
+   * Adds the status to the batch.
+   *
+   * @param batch	the batch to add the status to
+   * @param status	the status to add
+   */
+  public void append(T batch, Status status);
+}
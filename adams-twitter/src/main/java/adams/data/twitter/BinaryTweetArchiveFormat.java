@@ -0,0 +1,338 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BinaryTweetArchiveFormat.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.twitter;
+
+import adams.core.net.TwitterHelper;
+import twitter4j.GeoLocation;
+import twitter4j.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Hashtable;
+import java.util.Map;
+
+/**
+ * Helper class for the binary tweet archive format.
+ * <br><br>
+ * Archive file:
+ * <ul>
+ *   <li>header: magic number, version, number of field names, field names</li>
+ *   <li>records: payload length (int), timestamp in msec (long), payload</li>
+ * </ul>
+ * The payload consists of the number of fields (short), followed by the
+ * field (position in the header's field names), the type and the value
+ * of each field.
+ * <br><br>
+ * Sparse index file (archive name + ".idx"):
+ * <ul>
+ *   <li>header: magic number, version</li>
+ *   <li>entries: timestamp in msec (long), offset of the record in the archive (long)</li>
+ * </ul>
+ * The index assumes that the tweets get archived in chronological order.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class BinaryTweetArchiveFormat {
+
+  /** the magic number of archive files. */
+  public final static int MAGIC_ARCHIVE = 0x41544241;
+
+  /** the magic number of index files. */
+  public final static int MAGIC_INDEX = 0x41544249;
+
+  /** the format version. */
+  public final static int VERSION = 1;
+
+  /** the extension of the index file. */
+  public final static String INDEX_EXTENSION = ".idx";
+
+  /** type: string. */
+  public final static byte TYPE_STRING = 'S';
+
+  /** type: long. */
+  public final static byte TYPE_LONG = 'L';
+
+  /** type: integer. */
+  public final static byte TYPE_INT = 'I';
+
+  /** type: double. */
+  public final static byte TYPE_DOUBLE = 'D';
+
+  /** type: boolean. */
+  public final static byte TYPE_BOOLEAN = 'B';
+
+  /** type: date. */
+  public final static byte TYPE_DATE = 'T';
+
+  /**
+   * Returns the index file associated with the archive.
+   *
+   * @param archive	the archive
+   * @return		the index file
+   */
+  public static File getIndexFile(File archive) {
+    return new File(archive.getAbsolutePath() + INDEX_EXTENSION);
+  }
+
+  /**
+   * Returns the timestamp to use for the status.
+   *
+   * @param status	the status
+   * @return		the creation time in msec, 0 if not available
+   */
+  public static long getTimestamp(Status status) {
+    if (status.getCreatedAt() == null)
+      return 0;
+    return status.getCreatedAt().getTime();
+  }
+
+  /**
+   * Writes the archive header.
+   *
+   * @param out		the output to write to
+   * @throws IOException	if writing fails
+   */
+  public static void writeArchiveHeader(DataOutput out) throws IOException {
+    out.writeInt(MAGIC_ARCHIVE);
+    out.writeInt(VERSION);
+    out.writeShort(TwitterField.values().length);
+    for (TwitterField field: TwitterField.values())
+      out.writeUTF(field.name());
+  }
+
+  /**
+   * Reads the archive header.
+   *
+   * @param in		the input to read from
+   * @return		the fields in the order used by the archive, null
+   * 			for unknown fields
+   * @throws IOException	if reading fails or not an archive
+   */
+  public static TwitterField[] readArchiveHeader(DataInput in) throws IOException {
+    TwitterField[]	result;
+    String		name;
+    int			i;
+
+    if (in.readInt() != MAGIC_ARCHIVE)
+      throw new IOException("Not a binary tweet archive!");
+    if (in.readInt() > VERSION)
+      throw new IOException("Unsupported archive version!");
+    result = new TwitterField[in.readShort()];
+    for (i = 0; i < result.length; i++) {
+      name = in.readUTF();
+      try {
+	result[i] = TwitterField.valueOf(name);
+      }
+      catch (Exception e) {
+	result[i] = null;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Writes the index header.
+   *
+   * @param out		the output to write to
+   * @throws IOException	if writing fails
+   */
+  public static void writeIndexHeader(DataOutput out) throws IOException {
+    out.writeInt(MAGIC_INDEX);
+    out.writeInt(VERSION);
+  }
+
+  /**
+   * Reads the index header.
+   *
+   * @param in		the input to read from
+   * @throws IOException	if reading fails or not an index
+   */
+  public static void readIndexHeader(DataInput in) throws IOException {
+    if (in.readInt() != MAGIC_INDEX)
+      throw new IOException("Not a binary tweet archive index!");
+    if (in.readInt() > VERSION)
+      throw new IOException("Unsupported index version!");
+  }
+
+  /**
+   * Writes a string as UTF-8 (without the 64KB limit of writeUTF).
+   *
+   * @param out		the output to write to
+   * @param value	the string to write
+   * @throws IOException	if writing fails
+   */
+  protected static void writeString(DataOutput out, String value) throws IOException {
+    byte[]	bytes;
+
+    bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string written with {@link #writeString(DataOutput, String)}.
+   *
+   * @param in		the input to read from
+   * @return		the string
+   * @throws IOException	if reading fails
+   */
+  protected static String readString(DataInput in) throws IOException {
+    byte[]	bytes;
+
+    bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Turns the status into the payload of a record.
+   *
+   * @param status	the status to encode
+   * @return		the payload
+   * @throws IOException	if encoding fails
+   */
+  public static byte[] encode(Status status) throws IOException {
+    ByteArrayOutputStream		bytes;
+    DataOutputStream			out;
+    Hashtable<TwitterField,Object>	table;
+    Object				value;
+
+    table = TwitterHelper.statusToHashtable(status);
+    bytes = new ByteArrayOutputStream(512);
+    out   = new DataOutputStream(bytes);
+    out.writeShort(table.size());
+    for (Map.Entry<TwitterField,Object> entry: table.entrySet()) {
+      value = entry.getValue();
+      out.writeShort(entry.getKey().ordinal());
+      if (value instanceof Long) {
+	out.writeByte(TYPE_LONG);
+	out.writeLong((Long) value);
+      }
+      else if (value instanceof Integer) {
+	out.writeByte(TYPE_INT);
+	out.writeInt((Integer) value);
+      }
+      else if (value instanceof Double) {
+	out.writeByte(TYPE_DOUBLE);
+	out.writeDouble((Double) value);
+      }
+      else if (value instanceof Boolean) {
+	out.writeByte(TYPE_BOOLEAN);
+	out.writeBoolean((Boolean) value);
+      }
+      else if (value instanceof Date) {
+	out.writeByte(TYPE_DATE);
+	out.writeLong(((Date) value).getTime());
+      }
+      else {
+	out.writeByte(TYPE_STRING);
+	writeString(out, value.toString());
+      }
+    }
+    out.flush();
+
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Reads a single value.
+   *
+   * @param in		the input to read from
+   * @return		the value
+   * @throws IOException	if reading fails or unknown type
+   */
+  protected static Object readValue(DataInput in) throws IOException {
+    byte	type;
+
+    type = in.readByte();
+    switch (type) {
+      case TYPE_STRING:
+	return readString(in);
+      case TYPE_LONG:
+	return in.readLong();
+      case TYPE_INT:
+	return in.readInt();
+      case TYPE_DOUBLE:
+	return in.readDouble();
+      case TYPE_BOOLEAN:
+	return in.readBoolean();
+      case TYPE_DATE:
+	return new Date(in.readLong());
+      default:
+	throw new IOException("Unknown value type: " + (char) type);
+    }
+  }
+
+  /**
+   * Turns the payload of a record back into a status.
+   *
+   * @param fields	the fields of the archive
+   * @param payload	the payload to decode
+   * @return		the status
+   * @throws IOException	if decoding fails
+   */
+  public static Status decode(TwitterField[] fields, byte[] payload) throws IOException {
+    SimulatedStatus	result;
+    DataInputStream	in;
+    int			count;
+    int			i;
+    int			index;
+    TwitterField	field;
+    Object		value;
+    Double		lat;
+    Double		lon;
+
+    in     = new DataInputStream(new ByteArrayInputStream(payload));
+    result = new SimulatedStatus();
+    result.setUser(new SimulatedUser());
+    result.setPlace(new SimulatedPlace());
+    lat    = null;
+    lon    = null;
+    count  = in.readShort();
+    for (i = 0; i < count; i++) {
+      index = in.readShort();
+      value = readValue(in);
+      field = ((index >= 0) && (index < fields.length)) ? fields[index] : null;
+      if (field == null)
+	continue;
+      if (field == TwitterField.GEO_LATITUDE)
+	lat = ((Number) value).doubleValue();
+      else if (field == TwitterField.GEO_LONGITUDE)
+	lon = ((Number) value).doubleValue();
+      else
+	TwitterHelper.setValue(result, field, value);
+    }
+    if ((lat != null) && (lon != null))
+      result.setGeoLocation(new GeoLocation(lat, lon));
+
+    return result;
+  }
+}
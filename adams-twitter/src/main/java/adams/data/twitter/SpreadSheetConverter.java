@@ -20,19 +20,22 @@
 package adams.data.twitter;
 
 import adams.core.DateTime;
+import adams.core.net.TwitterHelper;
 import adams.data.spreadsheet.DataRow;
 import adams.data.spreadsheet.DefaultSpreadSheet;
 import adams.data.spreadsheet.DenseDataRow;
 import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
 import adams.data.spreadsheet.SpreadSheetTypeHandler;
+import twitter4j.Status;
 
 import java.util.Date;
 import java.util.Hashtable;
 
 /**
  <!-- globalinfo-start -->
- * Turns a status update into a spreadsheet object containing a single row.
+ * Turns a status update into a spreadsheet object containing a single row.<br>
+ * Supports batch conversion, i.e., appending multiple status updates as rows to the same spreadsheet.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -54,7 +57,7 @@ import java.util.Hashtable;
  */
 public class SpreadSheetConverter
   extends AbstractTwitterStatusConverter<SpreadSheet>
-  implements SpreadSheetTypeHandler {
+  implements SpreadSheetTypeHandler, BatchStatusConverter<SpreadSheet> {
 
   /** for serialization. */
   private static final long serialVersionUID = -4932470309464987225L;
@@ -75,7 +78,10 @@ public class SpreadSheetConverter
    */
   @Override
   public String globalInfo() {
-    return "Turns a status update into a spreadsheet object containing a single row.";
+    return
+	"Turns a status update into a spreadsheet object containing a single row.\n"
+	+ "Supports batch conversion, i.e., appending multiple status updates as "
+	+ "rows to the same spreadsheet.";
   }
 
   /**
@@ -191,6 +197,32 @@ public class SpreadSheetConverter
     m_Header = sheet;
   }
 
+  /**
+   * Sets the value of the cell.
+   *
+   * @param row		the row to add the cell to
+   * @param index	the index of the field
+   * @param obj		the value, ignored if null
+   */
+  protected void setCell(Row row, int index, Object obj) {
+    if (obj == null)
+      return;
+    if (obj instanceof Long)
+      row.addCell(index).setContent((Long) obj);
+    else if (obj instanceof Integer)
+      row.addCell(index).setContent(((Integer) obj).longValue());
+    else if (obj instanceof String)
+      row.addCell(index).setContentAsString((String) obj);
+    else if (obj instanceof Date)
+      row.addCell(index).setContent(new DateTime((Date) obj));
+    else if (obj instanceof Double)
+      row.addCell(index).setContent((Double) obj);
+    else if (obj instanceof Boolean)
+      row.addCell(index).setContent((Boolean) obj);
+    else
+      throw new IllegalStateException("Unhandled tweet field/class: " + m_Fields[index] + "/" + obj.getClass().getName());
+  }
+
   /**
    * Performs the actual conversion.
    *
@@ -202,33 +234,58 @@ public class SpreadSheetConverter
     SpreadSheet	result;
     Row		row;
     int		i;
-    Object	obj;
 
+    result = newBatch();
+    row    = result.addRow();
+    for (i = 0; i < m_Fields.length; i++)
+      setCell(row, i, fields.get(m_Fields[i]));
+
+    return result;
+  }
+
+  /**
+   * Performs the actual conversion. Only extracts the selected fields
+   * from the status.
+   *
+   * @param status	the status to convert
+   * @return		the generated output
+   */
+  @Override
+  protected SpreadSheet doConvert(Status status) {
+    SpreadSheet	result;
+
+    result = newBatch();
+    append(result, status);
+
+    return result;
+  }
+
+  /**
+   * Creates a new, empty spreadsheet.
+   *
+   * @return		the spreadsheet
+   */
+  @Override
+  public SpreadSheet newBatch() {
     if (m_Header == null)
       generateHeader();
+    return m_Header.getClone();
+  }
 
-    result = m_Header.getClone();
-    row   = result.addRow();
-    for (i = 0; i < m_Fields.length; i++) {
-      obj = fields.get(m_Fields[i]);
-      if (obj == null)
-	continue;
-      if (obj instanceof Long)
-	row.addCell(i).setContent((Long) obj);
-      else if (obj instanceof Integer)
-	row.addCell(i).setContent(((Integer) obj).longValue());
-      else if (obj instanceof String)
-	row.addCell(i).setContentAsString((String) obj);
-      else if (obj instanceof Date)
-	row.addCell(i).setContent(new DateTime((Date) obj));
-      else if (obj instanceof Double)
-	row.addCell(i).setContent((Double) obj);
-      else if (obj instanceof Boolean)
-	row.addCell(i).setContent((Boolean) obj);
-      else
-	throw new IllegalStateException("Unhandled tweet field/class: " + m_Fields[i] + "/" + obj.getClass().getName());
-    }
+  /**
+   * Adds the status as new row to the spreadsheet.
+   *
+   * @param batch	the spreadsheet to add the row to
+   * @param status	the status to add
+   */
+  @Override
+  public void append(SpreadSheet batch, Status status) {
+    Row		row;
+    int		i;
 
-    return result;
+    check(status);
+    row = batch.addRow();
+    for (i = 0; i < m_Fields.length; i++)
+      setCell(row, i, TwitterHelper.getValue(status, m_Fields[i]));
   }
 }
@@ -20,12 +20,13 @@
 package adams.flow.condition.bool;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Level;
 
 import twitter4j.Status;
 import adams.core.QuickInfoHelper;
 import adams.core.Variables;
-import adams.core.net.TwitterHelper;
+import adams.core.net.TwitterStatusSymbols;
 import adams.flow.core.Actor;
 import adams.flow.core.Token;
 import adams.parser.GrammarSupplier;
@@ -247,7 +248,7 @@ public class TwitterFilterExpression
    * @param symbols	the symbols to use in the evaluation
    * @return		the result of the boolean condition
    */
-  protected boolean doEvaluate(String exp, HashMap symbols) {
+  protected boolean doEvaluate(String exp, Map symbols) {
     boolean	result;
 
     try {
@@ -276,13 +277,13 @@ public class TwitterFilterExpression
   @Override
   protected boolean doEvaluate(Actor owner, Token token) {
     String	exp;
-    HashMap	symbols;
+    Map		symbols;
 
     exp     = owner.getVariables().expand(getExpression().getValue());
     symbols = new HashMap();
     if ((token != null) && (token.getPayload() != null)) {
       if (token.getPayload() instanceof Status)
-	symbols = TwitterHelper.statusToSymbols((Status) token.getPayload(), true);
+	symbols = new TwitterStatusSymbols((Status) token.getPayload(), true);
     }
 
     try {
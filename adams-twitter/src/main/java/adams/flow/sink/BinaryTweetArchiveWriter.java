@@ -0,0 +1,336 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BinaryTweetArchiveWriter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.sink;
+
+import adams.core.QuickInfoHelper;
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderFile;
+import adams.data.twitter.BinaryTweetArchiveFormat;
+import twitter4j.Status;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+
+/**
+ <!-- globalinfo-start -->
+ * Writes the incoming tweets to a binary tweet archive, which can be replayed
+ * with adams.data.io.input.BinaryTweetArchive.<br>
+ * Alongside the archive, a sparse index (extension '.idx') gets written that
+ * allows the replay to seek to a point in time. The tweets are expected to
+ * arrive in chronological order.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- flow-summary-start -->
+ * Input&#47;output:<br>
+ * - accepts:<br>
+ * &nbsp;&nbsp;&nbsp;twitter4j.Status<br>
+ * <br><br>
+ <!-- flow-summary-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-name &lt;java.lang.String&gt; (property: name)
+ * &nbsp;&nbsp;&nbsp;The name of the actor.
+ * &nbsp;&nbsp;&nbsp;default: BinaryTweetArchiveWriter
+ * </pre>
+ *
+ * <pre>-annotation &lt;adams.core.base.BaseAnnotation&gt; (property: annotations)
+ * &nbsp;&nbsp;&nbsp;The annotations to attach to this actor.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-skip &lt;boolean&gt; (property: skip)
+ * &nbsp;&nbsp;&nbsp;If set to true, transformation is skipped and the input token is just forwarded
+ * &nbsp;&nbsp;&nbsp;as it is.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-stop-flow-on-error &lt;boolean&gt; (property: stopFlowOnError)
+ * &nbsp;&nbsp;&nbsp;If set to true, the flow execution at this level gets stopped in case this
+ * &nbsp;&nbsp;&nbsp;actor encounters an error; the error gets propagated; useful for critical
+ * &nbsp;&nbsp;&nbsp;actors.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-silent &lt;boolean&gt; (property: silent)
+ * &nbsp;&nbsp;&nbsp;If enabled, then no errors are output in the console; Note: the enclosing
+ * &nbsp;&nbsp;&nbsp;actor handler must have this enabled as well.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-output-file &lt;adams.core.io.PlaceholderFile&gt; (property: outputFile)
+ * &nbsp;&nbsp;&nbsp;The binary archive to write the tweets to.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-index-interval &lt;int&gt; (property: indexInterval)
+ * &nbsp;&nbsp;&nbsp;The number of tweets between two entries in the index.
+ * &nbsp;&nbsp;&nbsp;default: 1000
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @version $Revision$
+ */
+public class BinaryTweetArchiveWriter
+  extends AbstractSink {
+
+  /** for serialization. */
+  private static final long serialVersionUID = -2217399468432911307L;
+
+  /** the archive to write to. */
+  protected PlaceholderFile m_OutputFile;
+
+  /** the number of tweets between index entries. */
+  protected int m_IndexInterval;
+
+  /** the stream for the archive. */
+  protected transient DataOutputStream m_Archive;
+
+  /** the stream for the index. */
+  protected transient DataOutputStream m_Index;
+
+  /** the number of tweets written so far. */
+  protected long m_Count;
+
+  /** the offset of the next record in the archive. */
+  protected long m_Offset;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+	"Writes the incoming tweets to a binary tweet archive, which can be "
+	+ "replayed with " + adams.data.io.input.BinaryTweetArchive.class.getName() + ".\n"
+	+ "Alongside the archive, a sparse index (extension '" + BinaryTweetArchiveFormat.INDEX_EXTENSION + "') "
+	+ "gets written that allows the replay to seek to a point in time. "
+	+ "The tweets are expected to arrive in chronological order.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "output-file", "outputFile",
+	    new PlaceholderFile("."));
+
+    m_OptionManager.add(
+	    "index-interval", "indexInterval",
+	    1000, 1, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    closeStreams();
+  }
+
+  /**
+   * Sets the archive to write to.
+   *
+   * @param value	the file
+   */
+  public void setOutputFile(PlaceholderFile value) {
+    m_OutputFile = value;
+    reset();
+  }
+
+  /**
+   * Returns the archive to write to.
+   *
+   * @return		the file
+   */
+  public PlaceholderFile getOutputFile() {
+    return m_OutputFile;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String outputFileTipText() {
+    return "The binary archive to write the tweets to.";
+  }
+
+  /**
+   * Sets the number of tweets between two index entries.
+   *
+   * @param value	the interval
+   */
+  public void setIndexInterval(int value) {
+    if (getOptionManager().isValid("indexInterval", value)) {
+      m_IndexInterval = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of tweets between two index entries.
+   *
+   * @return		the interval
+   */
+  public int getIndexInterval() {
+    return m_IndexInterval;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String indexIntervalTipText() {
+    return "The number of tweets between two entries in the index.";
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String	result;
+
+    result  = QuickInfoHelper.toString(this, "outputFile", m_OutputFile, "output: ");
+    result += QuickInfoHelper.toString(this, "indexInterval", m_IndexInterval, ", index: ");
+
+    return result;
+  }
+
+  /**
+   * Returns the class that the consumer accepts.
+   *
+   * @return		the Class of objects that can be processed
+   */
+  public Class[] accepts() {
+    return new Class[]{Status.class};
+  }
+
+  /**
+   * Opens the archive and the index, writes the headers.
+   *
+   * @throws Exception	if opening fails
+   */
+  protected void openStreams() throws Exception {
+    m_Archive = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(m_OutputFile.getAbsoluteFile()), 65536));
+    BinaryTweetArchiveFormat.writeArchiveHeader(m_Archive);
+    m_Offset = m_Archive.size();
+    m_Index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(BinaryTweetArchiveFormat.getIndexFile(m_OutputFile.getAbsoluteFile()))));
+    BinaryTweetArchiveFormat.writeIndexHeader(m_Index);
+    m_Count = 0;
+  }
+
+  /**
+   * Flushes and closes the archive and the index, if open.
+   */
+  protected void closeStreams() {
+    if (m_Archive != null) {
+      FileUtils.flushQuietly(m_Archive);
+      FileUtils.closeQuietly(m_Archive);
+      m_Archive = null;
+    }
+    if (m_Index != null) {
+      FileUtils.flushQuietly(m_Index);
+      FileUtils.closeQuietly(m_Index);
+      m_Index = null;
+    }
+    m_Count  = 0;
+    m_Offset = 0;
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    String	result;
+    Status	status;
+    byte[]	payload;
+    long	timestamp;
+
+    result = null;
+    status = (Status) m_InputToken.getPayload();
+
+    try {
+      if (m_Archive == null)
+	openStreams();
+      payload   = BinaryTweetArchiveFormat.encode(status);
+      timestamp = BinaryTweetArchiveFormat.getTimestamp(status);
+      if (m_Count % m_IndexInterval == 0) {
+	m_Index.writeLong(timestamp);
+	m_Index.writeLong(m_Offset);
+      }
+      m_Archive.writeInt(payload.length);
+      m_Archive.writeLong(timestamp);
+      m_Archive.write(payload);
+      m_Count++;
+      m_Offset += 12 + payload.length;
+    }
+    catch (Exception e) {
+      result = handleException("Failed to write tweet to archive: " + m_OutputFile, e);
+    }
+
+    return result;
+  }
+
+  /**
+   * Stops the execution. No message set.
+   */
+  @Override
+  public void stopExecution() {
+    closeStreams();
+    super.stopExecution();
+  }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    closeStreams();
+    super.wrapUp();
+  }
+}
@@ -195,4 +195,22 @@ public class TweetReplay
     else
       return null;
   }
+
+  /**
+   * Stops the execution. No message set.
+   */
+  @Override
+  public void stopExecution() {
+    m_Replay.cleanUp();
+    super.stopExecution();
+  }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    m_Replay.cleanUp();
+    super.wrapUp();
+  }
 }
@@ -30,9 +30,12 @@ import adams.flow.source.twitterlistener.AbstractListener;
 import adams.flow.source.twitterlistener.SampleListener;
 import twitter4j.Status;
 
+import java.util.List;
+
 /**
  <!-- globalinfo-start -->
- * Uses the Twitter streaming API to retrieve tweets.
+ * Uses the Twitter streaming API (and the specified listener) to retrieve tweets.<br>
+ * With a batch size larger than 1, arrays of the status updates that are currently available get forwarded.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -73,10 +76,16 @@ import twitter4j.Status;
  * &nbsp;&nbsp;&nbsp; useful for critical actors.
  * </pre>
  *
- * <pre>-max-updates &lt;int&gt; (property: maxStatusUpdates)
- * &nbsp;&nbsp;&nbsp;The maximum number of status updates to output; use &lt;=0 for unlimited.
- * &nbsp;&nbsp;&nbsp;default: 100
- * &nbsp;&nbsp;&nbsp;minimum: -1
+ * <pre>-listener &lt;adams.flow.source.twitterlistener.AbstractListener&gt; (property: listener)
+ * &nbsp;&nbsp;&nbsp;The listener to use for generating the status objects.
+ * &nbsp;&nbsp;&nbsp;default: adams.flow.source.twitterlistener.SampleListener -max-updates 100 -queue-size 10000 -overflow-policy DROP_OLDEST -sample-interval 10
+ * </pre>
+ *
+ * <pre>-batch-size &lt;int&gt; (property: batchSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of status updates to forward at a time; with a batch
+ * &nbsp;&nbsp;&nbsp;size larger than 1, arrays of the currently available status updates get forwarded.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 1
  * </pre>
  *
  <!-- options-end -->
@@ -103,6 +112,9 @@ public class TwitterListener
   /** the actual listener. */
   protected AbstractListener m_ActualListener;
 
+  /** the maximum number of status updates to forward at a time. */
+  protected int m_BatchSize;
+
   /**
    * Returns a string describing the object.
    *
@@ -110,7 +122,10 @@ public class TwitterListener
    */
   @Override
   public String globalInfo() {
-    return "Uses the Twitter streaming API (and the specified listener) to retrieve tweets.";
+    return
+	"Uses the Twitter streaming API (and the specified listener) to retrieve tweets.\n"
+	+ "With a batch size larger than 1, arrays of the status updates that "
+	+ "are currently available get forwarded.";
   }
 
   /**
@@ -123,6 +138,10 @@ public class TwitterListener
     m_OptionManager.add(
             "listener", "listener",
             new SampleListener());
+
+    m_OptionManager.add(
+            "batch-size", "batchSize",
+            1, 1, null);
   }
 
   /**
@@ -132,7 +151,13 @@ public class TwitterListener
    */
   @Override
   public String getQuickInfo() {
-    return QuickInfoHelper.toString(this, "listener", m_Listener, "listener: ");
+    String	result;
+
+    result = QuickInfoHelper.toString(this, "listener", m_Listener, "listener: ");
+    if (m_BatchSize > 1)
+      result += QuickInfoHelper.toString(this, "batchSize", m_BatchSize, ", batch: ");
+
+    return result;
   }
 
   /**
@@ -141,7 +166,10 @@ public class TwitterListener
    * @return		the classes
    */
   public Class[] generates() {
-    return new Class[]{Status.class};
+    if (m_BatchSize > 1)
+      return new Class[]{Status[].class};
+    else
+      return new Class[]{Status.class};
   }
 
   /**
@@ -173,6 +201,40 @@ public class TwitterListener
     return "The listener to use for generating the status objects.";
   }
 
+  /**
+   * Sets the maximum number of status updates to forward at a time.
+   *
+   * @param value	the batch size
+   */
+  public void setBatchSize(int value) {
+    if (getOptionManager().isValid("batchSize", value)) {
+      m_BatchSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of status updates to forward at a time.
+   *
+   * @return		the batch size
+   */
+  public int getBatchSize() {
+    return m_BatchSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchSizeTipText() {
+    return
+	"The maximum number of status updates to forward at a time; with a "
+	+ "batch size larger than 1, arrays of the currently available status "
+	+ "updates get forwarded.";
+  }
+
   /**
    * Initializes the sub-actors for flow execution.
    *
@@ -261,13 +323,21 @@ public class TwitterListener
    * @return		the generated token
    */
   public Token output() {
-    Token	result;
-    Status	status;
+    Token		result;
+    Status		status;
+    List<Status>	batch;
 
     result = null;
-    status = m_ActualListener.next();
-    if (status != null)
-      result = new Token(status);
+    if (m_BatchSize > 1) {
+      batch = m_ActualListener.nextBatch(m_BatchSize);
+      if (batch.size() > 0)
+	result = new Token(batch.toArray(new Status[batch.size()]));
+    }
+    else {
+      status = m_ActualListener.next();
+      if (status != null)
+	result = new Token(status);
+    }
 
     return result;
   }
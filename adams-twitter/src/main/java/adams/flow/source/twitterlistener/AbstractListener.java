@@ -31,8 +31,19 @@ import adams.flow.core.Actor;
 import adams.flow.core.FlowContextHandler;
 import twitter4j.Status;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Ancestor for twitter stream listeners.
+ * <br><br>
+ * The status updates received by the twitter4j thread get handed over to
+ * the flow via a bounded queue. Consumers get woken up as soon as a status
+ * update arrives. What happens when the queue is full is determined by the
+ * overflow policy.
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision: 13567 $
@@ -43,9 +54,33 @@ public abstract class AbstractListener
 
   private static final long serialVersionUID = 5406360301457780558L;
 
+  /**
+   * What to do with status updates if the queue is full.
+   */
+  public enum OverflowPolicy {
+    /** waits till space becomes available (can stall the stream). */
+    BLOCK,
+    /** removes the oldest status update from the queue. */
+    DROP_OLDEST,
+    /** only every n-th status update replaces the oldest one in the queue. */
+    SAMPLE,
+  }
+
+  /** the maximum time in msec to wait for a status update in {@link #next()}. */
+  public final static int MAX_WAIT = 5000;
+
   /** the maximum number of status updates to output. */
   protected int m_MaxStatusUpdates;
 
+  /** the maximum number of status updates to queue. */
+  protected int m_QueueSize;
+
+  /** the overflow policy. */
+  protected OverflowPolicy m_OverflowPolicy;
+
+  /** the sampling interval used by the SAMPLE policy. */
+  protected int m_SampleInterval;
+
   /** the owner. */
   protected Actor m_FlowContext;
 
@@ -53,16 +88,22 @@ public abstract class AbstractListener
   protected transient twitter4j.TwitterStream m_Twitter;
 
   /** the counter for tweets. */
-  protected int m_Count;
+  protected volatile int m_Count;
 
-  /** the next available Status. */
-  protected Status m_Next;
+  /** the queue of status updates. */
+  protected transient BlockingQueue<Status> m_Queue;
+
+  /** the number of status updates that were dropped due to a full queue. */
+  protected long m_Dropped;
+
+  /** the number of status updates that arrived while the queue was full (SAMPLE). */
+  protected long m_Overflow;
 
   /** the listener is paused. */
-  protected boolean m_Paused;
+  protected volatile boolean m_Paused;
 
   /** whether the listener is running. */
-  protected boolean m_Listening;
+  protected volatile boolean m_Listening;
 
   /**
    * Initializes the members.
@@ -86,6 +127,18 @@ public abstract class AbstractListener
     m_OptionManager.add(
             "max-updates", "maxStatusUpdates",
             100, -1, null);
+
+    m_OptionManager.add(
+            "queue-size", "queueSize",
+            10000, 1, null);
+
+    m_OptionManager.add(
+            "overflow-policy", "overflowPolicy",
+            OverflowPolicy.DROP_OLDEST);
+
+    m_OptionManager.add(
+            "sample-interval", "sampleInterval",
+            10, 1, null);
   }
 
   /**
@@ -117,6 +170,100 @@ public abstract class AbstractListener
     return "The maximum number of status updates to output; use <=0 for unlimited.";
   }
 
+  /**
+   * Sets the maximum number of status updates to queue.
+   *
+   * @param value	the queue size
+   */
+  public void setQueueSize(int value) {
+    if (getOptionManager().isValid("queueSize", value)) {
+      m_QueueSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of status updates to queue.
+   *
+   * @return		the queue size
+   */
+  public int getQueueSize() {
+    return m_QueueSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String queueSizeTipText() {
+    return "The maximum number of received status updates to queue up for the flow.";
+  }
+
+  /**
+   * Sets what to do when the queue is full.
+   *
+   * @param value	the policy
+   */
+  public void setOverflowPolicy(OverflowPolicy value) {
+    m_OverflowPolicy = value;
+    reset();
+  }
+
+  /**
+   * Returns what to do when the queue is full.
+   *
+   * @return		the policy
+   */
+  public OverflowPolicy getOverflowPolicy() {
+    return m_OverflowPolicy;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String overflowPolicyTipText() {
+    return
+	"What to do with a status update when the queue is full: wait for space "
+	+ "(can stall the stream), drop the oldest queued status update, or only "
+	+ "let every n-th status update replace the oldest one (sample).";
+  }
+
+  /**
+   * Sets the interval for the SAMPLE overflow policy.
+   *
+   * @param value	the interval
+   */
+  public void setSampleInterval(int value) {
+    if (getOptionManager().isValid("sampleInterval", value)) {
+      m_SampleInterval = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the interval for the SAMPLE overflow policy.
+   *
+   * @return		the interval
+   */
+  public int getSampleInterval() {
+    return m_SampleInterval;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String sampleIntervalTipText() {
+    return "When using the SAMPLE overflow policy, only every n-th status update gets queued while the queue is full.";
+  }
+
   /**
    * Returns a quick info about the actor, which will be displayed in the GUI.
    *
@@ -151,6 +298,9 @@ public abstract class AbstractListener
 
     m_FlowContext = value;
     m_Count       = 0;
+    m_Dropped     = 0;
+    m_Overflow    = 0;
+    m_Queue       = new ArrayBlockingQueue<>(m_QueueSize);
     m_Twitter     = TwitterHelper.getTwitterStreamConnection(getFlowContext());
   }
 
@@ -216,6 +366,8 @@ public abstract class AbstractListener
   public void stopExecution() {
     m_Listening = false;
     m_Paused    = false;
+    if (m_Twitter == null)
+      return;
     removeListener();
     try {
       m_Twitter.shutdown();
@@ -226,60 +378,175 @@ public abstract class AbstractListener
     m_Twitter.cleanUp();
   }
 
+  /**
+   * Adds the status update received by the listener to the queue, applying
+   * the overflow policy if necessary. Stops the listener once the maximum
+   * number of status updates has been reached.
+   *
+   * @param status	the status update
+   */
+  protected void enqueue(Status status) {
+    boolean	dropped;
+
+    if (!m_Listening || m_Paused)
+      return;
+
+    if ((getMaxStatusUpdates() > 0) && (m_Count >= getMaxStatusUpdates())) {
+      stopExecution();
+      return;
+    }
+
+    dropped = false;
+    switch (m_OverflowPolicy) {
+      case BLOCK:
+	try {
+	  // short timeout, to notice when listening stops
+	  while (m_Listening) {
+	    if (m_Queue.offer(status, 100, TimeUnit.MILLISECONDS))
+	      break;
+	  }
+	}
+	catch (InterruptedException e) {
+	  dropped = true;
+	}
+	break;
+
+      case DROP_OLDEST:
+	while (!m_Queue.offer(status)) {
+	  if (m_Queue.poll() != null)
+	    dropped = true;
+	}
+	break;
+
+      case SAMPLE:
+	if (!m_Queue.offer(status)) {
+	  dropped = true;
+	  m_Overflow++;
+	  if (m_Overflow % m_SampleInterval == 0) {
+	    m_Queue.poll();
+	    m_Queue.offer(status);
+	  }
+	}
+	else {
+	  m_Overflow = 0;
+	}
+	break;
+
+      default:
+	throw new IllegalStateException("Unhandled overflow policy: " + m_OverflowPolicy);
+    }
+
+    if (dropped) {
+      m_Dropped++;
+      if (m_Dropped % 1000 == 1)
+	getLogger().warning("Queue full (" + m_OverflowPolicy + "), dropped status updates so far: " + m_Dropped);
+    }
+  }
+
+  /**
+   * Returns the number of status updates that got dropped due to a full queue.
+   *
+   * @return		the number of dropped status updates
+   */
+  public long getDropped() {
+    return m_Dropped;
+  }
+
   /**
    * Returns whether there is another update available.
    *
    * @return		true if another update available
    */
   public boolean hasNext() {
-    return m_Listening || (m_Next != null);
+    return m_Listening || ((m_Queue != null) && !m_Queue.isEmpty());
   }
 
   /**
-   * Retrieves the next status update.
+   * Updates the counter with the status updates that got retrieved.
    *
-   * @return		the next status
+   * @param count	the number of status updates
    */
-  public Status next() {
-   Status	result;
-    int	count;
-
-    result = null;
-
-    count = 0;
-    while (result == null) {
-      result = m_Next;
-      count++;
-
-      if (result == null) {
-	if (m_Listening) {
-	  try {
-	    synchronized(this) {
-	      wait(50);
-	    }
-	  }
-	  catch (Exception e) {
-	    // ignored
-	  }
-	}
-	else {
-	  break;
-	}
-      }
+  protected void retrieved(int count) {
+    int		before;
 
-      // problem with obtaining data?
-      if (count == 100)
-	break;
+    before   = m_Count;
+    m_Count += count;
+    if (getFlowContext().isLoggingEnabled() && (m_Count / 100 > before / 100))
+      getLogger().info("status updates: " + m_Count);
+  }
+
+  /**
+   * Waits for the next status update to arrive, at most {@link #MAX_WAIT} msec.
+   *
+   * @return		the status update, null if none available
+   */
+  protected Status waitForNext() {
+    Status	result;
+    long	end;
+
+    if (m_Queue == null)
+      return null;
+
+    // limit reached?
+    if ((getMaxStatusUpdates() > 0) && (m_Count >= getMaxStatusUpdates())) {
+      if (m_Listening)
+	stopExecution();
+      m_Queue.clear();
+      return null;
     }
 
-    // only increment counter when the status update was actually used
-    if (result != null) {
-      m_Count++;
-      if (getFlowContext().isLoggingEnabled() && (m_Count % 100 == 0))
-	getLogger().info("status updates: " + m_Count);
+    result = m_Queue.poll();
+    end    = System.currentTimeMillis() + MAX_WAIT;
+    while ((result == null) && m_Listening && (System.currentTimeMillis() < end)) {
+      try {
+	// short timeout, to notice when listening stops
+	result = m_Queue.poll(100, TimeUnit.MILLISECONDS);
+      }
+      catch (InterruptedException e) {
+	Thread.currentThread().interrupt();
+	break;
+      }
     }
 
-    m_Next = null;
+    return result;
+  }
+
+  /**
+   * Retrieves the next status update. Waits for it to arrive if necessary.
+   *
+   * @return		the next status, null if none available
+   */
+  public Status next() {
+    Status	result;
+
+    result = waitForNext();
+    if (result != null)
+      retrieved(1);
+
+    return result;
+  }
+
+  /**
+   * Retrieves the next status updates. Waits for the first one to arrive if
+   * necessary, then takes whatever else is queued up (up to the maximum).
+   *
+   * @param max		the maximum number of status updates to retrieve
+   * @return		the status updates, empty if none available
+   */
+  public List<Status> nextBatch(int max) {
+    List<Status>	result;
+    Status		first;
+
+    result = new ArrayList<>();
+    first  = waitForNext();
+    if (first != null) {
+      result.add(first);
+      if (getMaxStatusUpdates() > 0)
+	max = Math.min(max, getMaxStatusUpdates() - m_Count);
+      if (max > 1)
+	m_Queue.drainTo(result, max - 1);
+      retrieved(result.size());
+    }
 
     return result;
   }
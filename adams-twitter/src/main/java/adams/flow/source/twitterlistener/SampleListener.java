@@ -79,12 +79,7 @@ public class SampleListener
    */
   @Override
   public void onStatus(Status status) {
-    if (m_Listening && !m_Paused) {
-      if ((getMaxStatusUpdates() > 0) && (m_Count >= getMaxStatusUpdates()))
-	stopExecution();
-      else
-	m_Next = status;
-    }
+    enqueue(status);
   }
 
   /**
@@ -266,12 +266,7 @@ public class UserListener
    */
   @Override
   public void onStatus(Status status) {
-    if (m_Listening && !m_Paused) {
-      if ((getMaxStatusUpdates() > 0) && (m_Count >= getMaxStatusUpdates()))
-	stopExecution();
-      else
-	m_Next = status;
-    }
+    enqueue(status);
   }
 
   @Override
@@ -26,7 +26,11 @@ import adams.core.QuickInfoHelper;
 import adams.core.TechnicalInformation;
 import adams.core.TechnicalInformationHandler;
 import adams.data.twitter.AbstractTwitterStatusConverter;
+import adams.data.twitter.BatchStatusConverter;
 import adams.data.twitter.TextConverter;
+import adams.flow.core.Actor;
+import adams.flow.core.ActorHandler;
+import adams.flow.core.OutputProducer;
 import adams.flow.core.Token;
 import adams.flow.core.Unknown;
 
@@ -34,6 +38,7 @@ import adams.flow.core.Unknown;
  <!-- globalinfo-start -->
  * Turns a Twitter tweet or status into different representation.<br>
  * GEO location data might not be available.<br>
+ * Converters that support batching can collect multiple status updates in a single output object, which gets forwarded once the batch size has been reached or the batch timeout has expired (checked whenever a status update arrives or the actor gets polled for pending output). An incomplete batch gets forwarded together with the last status update, i.e., once the preceding actors have no more output.<br>
  * For more information on the date format, see:<br>
  * Javadoc. java.text.SimpleDateFormat.
  * <br><br>
@@ -92,6 +97,21 @@ import adams.flow.core.Unknown;
  * &nbsp;&nbsp;&nbsp;default: adams.data.twitter.TextConverter -separator \\t
  * </pre>
  * 
+ * <pre>-batch-size &lt;int&gt; (property: batchSize)
+ * &nbsp;&nbsp;&nbsp;The number of status updates to collect in a single output object; requires
+ * &nbsp;&nbsp;&nbsp;a converter that supports batching if greater than 1.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
+ * <pre>-batch-timeout &lt;int&gt; (property: batchTimeout)
+ * &nbsp;&nbsp;&nbsp;The maximum time in msec to collect status updates for a batch before forwarding
+ * &nbsp;&nbsp;&nbsp;it (checked whenever a status update arrives or the actor gets polled for
+ * &nbsp;&nbsp;&nbsp;pending output); 0 to only use the batch size.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -107,6 +127,21 @@ public class TwitterConverter
   /** the converter to use. */
   protected AbstractTwitterStatusConverter m_Converter;
 
+  /** the number of status updates per batch. */
+  protected int m_BatchSize;
+
+  /** the maximum time in msec to collect a batch (0 = no timeout). */
+  protected int m_BatchTimeout;
+
+  /** the current batch. */
+  protected transient Object m_Batch;
+
+  /** the number of status updates in the current batch. */
+  protected int m_BatchCount;
+
+  /** the time the current batch was started. */
+  protected long m_BatchStart;
+
   /**
    * Returns a string describing the object.
    *
@@ -117,6 +152,12 @@ public class TwitterConverter
     return
         "Turns a Twitter tweet or status into different representation.\n"
       + "GEO location data might not be available.\n"
+      + "Converters that support batching can collect multiple status updates "
+      + "in a single output object, which gets forwarded once the batch size "
+      + "has been reached or the batch timeout has expired (checked whenever "
+      + "a status update arrives or the actor gets polled for pending output). "
+      + "An incomplete batch gets forwarded together with the last status "
+      + "update, i.e., once the preceding actors have no more output.\n"
       + "For more information on the date format, see:\n"
       + getTechnicalInformation().toString();
   }
@@ -142,6 +183,25 @@ public class TwitterConverter
     m_OptionManager.add(
 	    "converter", "converter",
 	    new TextConverter());
+
+    m_OptionManager.add(
+	    "batch-size", "batchSize",
+	    1, 1, null);
+
+    m_OptionManager.add(
+	    "batch-timeout", "batchTimeout",
+	    0, 0, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_Batch      = null;
+    m_BatchCount = 0;
   }
 
   /**
@@ -173,6 +233,73 @@ public class TwitterConverter
     return "The converter to use.";
   }
 
+  /**
+   * Sets the number of status updates to collect in a single output object.
+   *
+   * @param value	the batch size
+   */
+  public void setBatchSize(int value) {
+    if (getOptionManager().isValid("batchSize", value)) {
+      m_BatchSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of status updates to collect in a single output object.
+   *
+   * @return		the batch size
+   */
+  public int getBatchSize() {
+    return m_BatchSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchSizeTipText() {
+    return
+	"The number of status updates to collect in a single output object; "
+	+ "requires a converter that supports batching if greater than 1.";
+  }
+
+  /**
+   * Sets the maximum time in msec to collect status updates for a batch.
+   *
+   * @param value	the timeout, 0 to only use the batch size
+   */
+  public void setBatchTimeout(int value) {
+    if (getOptionManager().isValid("batchTimeout", value)) {
+      m_BatchTimeout = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum time in msec to collect status updates for a batch.
+   *
+   * @return		the timeout, 0 to only use the batch size
+   */
+  public int getBatchTimeout() {
+    return m_BatchTimeout;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchTimeoutTipText() {
+    return
+	"The maximum time in msec to collect status updates for a batch before "
+	+ "forwarding it (checked whenever a status update arrives or the actor "
+	+ "gets polled for pending output); 0 to only use the batch size.";
+  }
+
   /**
    * Returns a quick info about the actor, which will be displayed in the GUI.
    *
@@ -180,7 +307,13 @@ public class TwitterConverter
    */
   @Override
   public String getQuickInfo() {
-    return QuickInfoHelper.toString(this, "converter", m_Converter);
+    String	result;
+
+    result = QuickInfoHelper.toString(this, "converter", m_Converter);
+    if (m_BatchSize > 1)
+      result += QuickInfoHelper.toString(this, "batchSize", m_BatchSize, ", batch: ");
+
+    return result;
   }
 
   /**
@@ -204,6 +337,97 @@ public class TwitterConverter
       return new Class[]{Unknown.class};
   }
 
+  /**
+   * Initializes the item for flow execution.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  public String setUp() {
+    String	result;
+
+    result = super.setUp();
+
+    if (result == null) {
+      if ((m_BatchSize > 1) && !(m_Converter instanceof BatchStatusConverter))
+	result = "Converter does not support batching: " + m_Converter.getClass().getName();
+    }
+
+    return result;
+  }
+
+  /**
+   * Adds the status to the current batch and forwards the batch if
+   * complete.
+   *
+   * @param status	the status to add
+   */
+  protected void addToBatch(Status status) {
+    BatchStatusConverter	converter;
+
+    converter = (BatchStatusConverter) m_Converter;
+    if (m_Batch == null) {
+      m_Batch      = converter.newBatch();
+      m_BatchCount = 0;
+      m_BatchStart = System.currentTimeMillis();
+    }
+    converter.append(m_Batch, status);
+    m_BatchCount++;
+
+    if ((m_BatchCount >= m_BatchSize) || isBatchExpired() || isLastInput())
+      forwardBatch();
+  }
+
+  /**
+   * Checks whether the batch timeout of the current batch has expired.
+   *
+   * @return		true if expired
+   */
+  protected boolean isBatchExpired() {
+    return (m_Batch != null)
+      && (m_BatchTimeout > 0)
+      && (System.currentTimeMillis() - m_BatchStart >= m_BatchTimeout);
+  }
+
+  /**
+   * Checks whether the current input is the last one, i.e., whether the
+   * actors preceding this one in the parent have no more output.
+   *
+   * @return		true if no more status updates will arrive
+   */
+  protected boolean isLastInput() {
+    ActorHandler	handler;
+    Actor		actor;
+    int			index;
+    int			i;
+
+    if (!(getParent() instanceof ActorHandler))
+      return false;
+
+    handler = (ActorHandler) getParent();
+    index   = handler.indexOf(getName());
+    for (i = index - 1; i >= 0; i--) {
+      actor = handler.get(i);
+      if (actor.getSkip())
+	continue;
+      if ((actor instanceof OutputProducer) && ((OutputProducer) actor).hasPendingOutput())
+	return false;
+    }
+
+    return (index > 0);
+  }
+
+  /**
+   * Turns the current batch into the output token.
+   */
+  protected void forwardBatch() {
+    if (isLoggingEnabled())
+      getLogger().fine("Forwarding batch of " + m_BatchCount + " status updates");
+    m_OutputToken = new Token(m_Batch);
+    m_Batch       = null;
+    m_BatchCount  = 0;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -216,7 +440,10 @@ public class TwitterConverter
     result = null;
 
     try {
-      m_OutputToken = new Token(m_Converter.convert((Status) m_InputToken.getPayload()));
+      if (m_BatchSize > 1)
+	addToBatch((Status) m_InputToken.getPayload());
+      else
+	m_OutputToken = new Token(m_Converter.convert((Status) m_InputToken.getPayload()));
     }
     catch (Exception e) {
       result = handleException("Failed to process status update!", e);
@@ -224,4 +451,43 @@ public class TwitterConverter
 
     return result;
   }
+
+  /**
+   * Checks whether there is pending output to be collected after
+   * executing the flow item, i.e., also whether the timeout of the
+   * current batch has expired.
+   *
+   * @return		true if there is pending output
+   */
+  @Override
+  public boolean hasPendingOutput() {
+    return super.hasPendingOutput() || (!isStopped() && isBatchExpired());
+  }
+
+  /**
+   * Returns the generated token. Forwards the current batch if its
+   * timeout has expired.
+   *
+   * @return		the generated token
+   */
+  @Override
+  public Token output() {
+    if (!super.hasPendingOutput() && isBatchExpired())
+      forwardBatch();
+
+    return super.output();
+  }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    if ((m_Batch != null) && isLoggingEnabled())
+      getLogger().info("Discarding incomplete batch of " + m_BatchCount + " status updates");
+    m_Batch      = null;
+    m_BatchCount = 0;
+
+    super.wrapUp();
+  }
 }
@@ -22,13 +22,10 @@ package adams.flow.transformer;
 
 import adams.core.QuickInfoHelper;
 import adams.core.base.TwitterFilterExpression;
-import adams.core.net.TwitterHelper;
 import adams.flow.core.Token;
 import adams.parser.GrammarSupplier;
 import twitter4j.Status;
 
-import java.util.HashMap;
-
 /**
  <!-- globalinfo-start -->
  * Filters Twitter objects (tweet&#47;status) according to the provided filter expression. Only objects that match the filter expression are passed on.<br>
@@ -257,7 +254,6 @@ public class TwitterFilter
   @Override
   protected String doExecute() {
     String	result;
-    HashMap	symbols;
     boolean	match;
     String	exp;
 
@@ -265,11 +261,8 @@ public class TwitterFilter
 
     exp = m_Expression.getValue();
     try {
-      // get input
-      symbols = TwitterHelper.statusToSymbols((Status) m_InputToken.getPayload(), true);
-
-      // evaluate the expression
-      match = adams.parser.TwitterFilter.evaluate(exp, symbols);
+      // evaluate the expression, only extracting the referenced fields
+      match = adams.parser.TwitterFilter.evaluate(exp, (Status) m_InputToken.getPayload());
       if (match)
 	m_OutputToken = new Token(m_InputToken.getPayload());
     }
@@ -15,18 +15,24 @@
 
 /*
  * TwitterFilter.java
- * Copyright (C) 2010-2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2010-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.parser;
 
+import adams.core.net.TwitterStatusSymbols;
+import adams.parser.twitterfilter.Nodes.BooleanNode;
 import adams.parser.twitterfilter.Parser;
 import adams.parser.twitterfilter.Scanner;
 import java_cup.runtime.DefaultSymbolFactory;
 import java_cup.runtime.SymbolFactory;
+import twitter4j.Status;
 
 import java.io.ByteArrayInputStream;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  <!-- globalinfo-start -->
@@ -129,6 +135,19 @@ public class TwitterFilter
   /** for serialization. */
   private static final long serialVersionUID = -1217454324054448107L;
 
+  /** the maximum number of compiled expressions to keep. */
+  public final static int MAX_CACHE_SIZE = 100;
+
+  /** the cache for compiled expressions (expression - root node). */
+  protected static Map<String,BooleanNode> m_Cache = Collections.synchronizedMap(
+    new LinkedHashMap<String,BooleanNode>(16, 0.75f, true) {
+      private static final long serialVersionUID = 4389166013562417398L;
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String,BooleanNode> eldest) {
+	return (size() > MAX_CACHE_SIZE);
+      }
+    });
+
   /**
    * Returns a string describing the object.
    *
@@ -258,27 +277,63 @@ public class TwitterFilter
   }
 
   /**
-   * Parses and evaluates the given expression.
-   * Returns the result of the boolean expression, based on the given
-   * values of the symbols.
+   * Compiles the given expression into a tree of nodes that can be
+   * evaluated repeatedly. Compiled expressions get cached.
    *
-   * @param expr	the expression to evaluate
-   * @param symbols	the symbol/value mapping
-   * @return		the evaluated result
-   * @throws Exception	if something goes wrong
+   * @param expr	the expression to compile
+   * @return		the root of the compiled expression
+   * @throws Exception	if parsing fails
    */
-  public static boolean evaluate(String expr, HashMap symbols) throws Exception {
+  public static BooleanNode compile(String expr) throws Exception {
+    BooleanNode			result;
     SymbolFactory 		sf;
     ByteArrayInputStream 	parserInput;
     Parser 			parser;
 
+    result = m_Cache.get(expr);
+    if (result != null)
+      return result;
+
     sf          = new DefaultSymbolFactory();
     parserInput = new ByteArrayInputStream(expr.getBytes());
     parser      = new Parser(new Scanner(parserInput, sf), sf);
-    parser.setSymbols(symbols);
     parser.parse();
+    result = parser.getRoot();
+    if (result == null)
+      throw new IllegalArgumentException("Expression did not produce a result: " + expr);
+    m_Cache.put(expr, result);
+
+    return result;
+  }
+
+  /**
+   * Parses and evaluates the given expression.
+   * Returns the result of the boolean expression, based on the given
+   * values of the symbols.
+   *
+   * @param expr	the expression to evaluate
+   * @param symbols	the symbol/value mapping
+   * @return		the evaluated result
+   * @throws Exception	if something goes wrong
+   * @see		#compile(String)
+   */
+  public static boolean evaluate(String expr, Map symbols) throws Exception {
+    return compile(expr).evaluate(symbols);
+  }
 
-    return parser.getResult();
+  /**
+   * Parses and evaluates the given expression against the status.
+   * Only the fields of the status that the expression references get
+   * extracted (using lower case strings).
+   *
+   * @param expr	the expression to evaluate
+   * @param status	the status to evaluate the expression against
+   * @return		the evaluated result
+   * @throws Exception	if something goes wrong
+   * @see		TwitterStatusSymbols
+   */
+  public static boolean evaluate(String expr, Status status) throws Exception {
+    return evaluate(expr, new TwitterStatusSymbols(status, true));
   }
   
   /**
@@ -0,0 +1,628 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Nodes.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.parser.twitterfilter;
+
+import adams.data.twitter.TwitterField;
+import adams.parser.ParserHelper;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The nodes of a compiled twitter filter expression. The parser turns an
+ * expression into a tree of these nodes once, which then gets evaluated
+ * against the symbols of each status. The nodes are immutable and can be
+ * shared between threads.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public final class Nodes {
+
+  /** the helper for comparing numbers. */
+  protected final static ParserHelper HELPER = new ParserHelper();
+
+  /**
+   * The type of string matching.
+   */
+  public enum MatchType {
+    /** the pattern can occur anywhere. */
+    SUBSTRING,
+    /** the value must be the same as the pattern. */
+    EXACT,
+    /** the pattern is a regular expression that must match the value. */
+    REGEXP
+  }
+
+  /**
+   * The type of numeric comparison.
+   */
+  public enum CompareType {
+    LT,
+    LE,
+    EQ,
+    NOT_EQ,
+    GE,
+    GT
+  }
+
+  /**
+   * Node that evaluates to a boolean.
+   */
+  public interface BooleanNode {
+
+    /**
+     * Evaluates the node.
+     *
+     * @param symbols	the symbols to use
+     * @return		the result
+     */
+    public boolean evaluate(Map symbols);
+  }
+
+  /**
+   * Node that evaluates to a number.
+   */
+  public interface NumericNode {
+
+    /**
+     * Evaluates the node.
+     *
+     * @param symbols	the symbols to use
+     * @return		the result, NaN if not available
+     */
+    public Double evaluate(Map symbols);
+  }
+
+  /**
+   * A boolean constant.
+   */
+  public static class BooleanConstant
+    implements BooleanNode {
+
+    /** the value. */
+    protected final boolean m_Value;
+
+    /**
+     * Initializes the node.
+     *
+     * @param value	the value
+     */
+    public BooleanConstant(boolean value) {
+      m_Value = value;
+    }
+
+    /**
+     * Returns the constant.
+     *
+     * @param symbols	ignored
+     * @return		the constant
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      return m_Value;
+    }
+  }
+
+  /**
+   * Negates another node.
+   */
+  public static class Not
+    implements BooleanNode {
+
+    /** the node to negate. */
+    protected final BooleanNode m_Node;
+
+    /**
+     * Initializes the node.
+     *
+     * @param node	the node to negate
+     */
+    public Not(BooleanNode node) {
+      m_Node = node;
+    }
+
+    /**
+     * Returns the negated result.
+     *
+     * @param symbols	the symbols to use
+     * @return		the result
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      return !m_Node.evaluate(symbols);
+    }
+  }
+
+  /**
+   * Logical AND.
+   */
+  public static class And
+    implements BooleanNode {
+
+    /** the left node. */
+    protected final BooleanNode m_Left;
+
+    /** the right node. */
+    protected final BooleanNode m_Right;
+
+    /**
+     * Initializes the node.
+     *
+     * @param left	the left node
+     * @param right	the right node
+     */
+    public And(BooleanNode left, BooleanNode right) {
+      m_Left  = left;
+      m_Right = right;
+    }
+
+    /**
+     * Returns whether both nodes evaluate to true.
+     *
+     * @param symbols	the symbols to use
+     * @return		the result
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      return m_Left.evaluate(symbols) && m_Right.evaluate(symbols);
+    }
+  }
+
+  /**
+   * Logical OR.
+   */
+  public static class Or
+    implements BooleanNode {
+
+    /** the left node. */
+    protected final BooleanNode m_Left;
+
+    /** the right node. */
+    protected final BooleanNode m_Right;
+
+    /**
+     * Initializes the node.
+     *
+     * @param left	the left node
+     * @param right	the right node
+     */
+    public Or(BooleanNode left, BooleanNode right) {
+      m_Left  = left;
+      m_Right = right;
+    }
+
+    /**
+     * Returns whether either node evaluates to true.
+     *
+     * @param symbols	the symbols to use
+     * @return		the result
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      return m_Left.evaluate(symbols) || m_Right.evaluate(symbols);
+    }
+  }
+
+  /**
+   * Logical XOR.
+   */
+  public static class Xor
+    implements BooleanNode {
+
+    /** the left node. */
+    protected final BooleanNode m_Left;
+
+    /** the right node. */
+    protected final BooleanNode m_Right;
+
+    /**
+     * Initializes the node.
+     *
+     * @param left	the left node
+     * @param right	the right node
+     */
+    public Xor(BooleanNode left, BooleanNode right) {
+      m_Left  = left;
+      m_Right = right;
+    }
+
+    /**
+     * Returns whether exactly one of the nodes evaluates to true.
+     *
+     * @param symbols	the symbols to use
+     * @return		the result
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      return m_Left.evaluate(symbols) != m_Right.evaluate(symbols);
+    }
+  }
+
+  /**
+   * Evaluates either of two nodes, depending on the outcome of a test.
+   */
+  public static class IfElse
+    implements BooleanNode {
+
+    /** the test. */
+    protected final BooleanNode m_Test;
+
+    /** the node to evaluate if the test is true. */
+    protected final BooleanNode m_True;
+
+    /** the node to evaluate if the test is false. */
+    protected final BooleanNode m_False;
+
+    /**
+     * Initializes the node.
+     *
+     * @param test	the test
+     * @param nodeTrue	the node to evaluate if the test is true
+     * @param nodeFalse	the node to evaluate if the test is false
+     */
+    public IfElse(BooleanNode test, BooleanNode nodeTrue, BooleanNode nodeFalse) {
+      m_Test  = test;
+      m_True  = nodeTrue;
+      m_False = nodeFalse;
+    }
+
+    /**
+     * Evaluates the test and then the corresponding node.
+     *
+     * @param symbols	the symbols to use
+     * @return		the result
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      if (m_Test.evaluate(symbols))
+	return m_True.evaluate(symbols);
+      else
+	return m_False.evaluate(symbols);
+    }
+  }
+
+  /**
+   * Checks whether a field is present.
+   */
+  public static class Has
+    implements BooleanNode {
+
+    /** the field to look for. */
+    protected final TwitterField m_Field;
+
+    /**
+     * Initializes the node.
+     *
+     * @param field	the field to look for
+     */
+    public Has(TwitterField field) {
+      m_Field = field;
+    }
+
+    /**
+     * Returns whether the field is present.
+     *
+     * @param symbols	the symbols to use
+     * @return		true if present
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      return symbols.containsKey(m_Field);
+    }
+  }
+
+  /**
+   * Returns the value of a boolean field.
+   */
+  public static class BooleanField
+    implements BooleanNode {
+
+    /** the field to get the value from. */
+    protected final TwitterField m_Field;
+
+    /**
+     * Initializes the node.
+     *
+     * @param field	the field to get the value from
+     */
+    public BooleanField(TwitterField field) {
+      m_Field = field;
+    }
+
+    /**
+     * Returns the value of the field.
+     *
+     * @param symbols	the symbols to use
+     * @return		the value, false if not available
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      Object	value;
+
+      value = symbols.get(m_Field);
+      if (value == null)
+	return false;
+      return (Boolean) value;
+    }
+  }
+
+  /**
+   * Ancestor for nodes that match strings against a pattern. Regular
+   * expressions get compiled only once.
+   */
+  public static abstract class AbstractMatch
+    implements BooleanNode {
+
+    /** the type of matching. */
+    protected final MatchType m_Type;
+
+    /** the pattern. */
+    protected final String m_Pattern;
+
+    /** the compiled regular expression (only for regexp matching). */
+    protected final Pattern m_Regexp;
+
+    /**
+     * Initializes the node.
+     *
+     * @param type	the type of matching
+     * @param pattern	the pattern
+     */
+    protected AbstractMatch(MatchType type, String pattern) {
+      m_Type    = type;
+      m_Pattern = pattern;
+      if (type == MatchType.REGEXP)
+	m_Regexp = Pattern.compile(pattern);
+      else
+	m_Regexp = null;
+    }
+
+    /**
+     * Matches the value against the pattern.
+     *
+     * @param value	the value to match
+     * @return		true if a match
+     */
+    protected boolean matches(String value) {
+      switch (m_Type) {
+	case SUBSTRING:
+	  return value.contains(m_Pattern);
+	case EXACT:
+	  return value.equals(m_Pattern);
+	case REGEXP:
+	  return m_Regexp.matcher(value).matches();
+	default:
+	  throw new IllegalStateException("Unhandled match type: " + m_Type);
+      }
+    }
+  }
+
+  /**
+   * Matches a string field against a pattern.
+   */
+  public static class StringMatch
+    extends AbstractMatch {
+
+    /** the field to match. */
+    protected final TwitterField m_Field;
+
+    /**
+     * Initializes the node.
+     *
+     * @param field	the field to match
+     * @param type	the type of matching
+     * @param pattern	the pattern
+     */
+    public StringMatch(TwitterField field, MatchType type, String pattern) {
+      super(type, pattern);
+      m_Field = field;
+    }
+
+    /**
+     * Returns whether the field matches the pattern.
+     *
+     * @param symbols	the symbols to use
+     * @return		true if a match
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      Object	value;
+
+      value = symbols.get(m_Field);
+      if (value == null)
+	value = "";
+      return matches((String) value);
+    }
+  }
+
+  /**
+   * Matches the elements of a string array against a pattern.
+   */
+  public static class ArrayMatch
+    extends AbstractMatch {
+
+    /** the symbol to match. */
+    protected final String m_Symbol;
+
+    /**
+     * Initializes the node.
+     *
+     * @param symbol	the symbol to match
+     * @param type	the type of matching
+     * @param pattern	the pattern
+     */
+    public ArrayMatch(String symbol, MatchType type, String pattern) {
+      super(type, pattern);
+      m_Symbol = symbol;
+    }
+
+    /**
+     * Returns whether any of the array elements matches the pattern.
+     *
+     * @param symbols	the symbols to use
+     * @return		true if a match
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      Object	values;
+
+      values = symbols.get(m_Symbol);
+      if (values == null)
+	return false;
+      for (String value: (String[]) values) {
+	if (matches(value))
+	  return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Compares two numeric nodes.
+   */
+  public static class Compare
+    implements BooleanNode {
+
+    /** the left node. */
+    protected final NumericNode m_Left;
+
+    /** the type of comparison. */
+    protected final CompareType m_Type;
+
+    /** the right node. */
+    protected final NumericNode m_Right;
+
+    /**
+     * Initializes the node.
+     *
+     * @param left	the left node
+     * @param type	the type of comparison
+     * @param right	the right node
+     */
+    public Compare(NumericNode left, CompareType type, NumericNode right) {
+      m_Left  = left;
+      m_Type  = type;
+      m_Right = right;
+    }
+
+    /**
+     * Returns the outcome of the comparison.
+     *
+     * @param symbols	the symbols to use
+     * @return		the result
+     */
+    @Override
+    public boolean evaluate(Map symbols) {
+      int	cmp;
+
+      cmp = HELPER.compare(m_Left.evaluate(symbols), m_Right.evaluate(symbols));
+      switch (m_Type) {
+	case LT:
+	  return (cmp < 0);
+	case LE:
+	  return (cmp <= 0);
+	case EQ:
+	  return (cmp == 0);
+	case NOT_EQ:
+	  return (cmp != 0);
+	case GE:
+	  return (cmp >= 0);
+	case GT:
+	  return (cmp > 0);
+	default:
+	  throw new IllegalStateException("Unhandled comparison: " + m_Type);
+      }
+    }
+  }
+
+  /**
+   * A numeric constant.
+   */
+  public static class NumericConstant
+    implements NumericNode {
+
+    /** the value. */
+    protected final Double m_Value;
+
+    /**
+     * Initializes the node.
+     *
+     * @param value	the value
+     */
+    public NumericConstant(Double value) {
+      m_Value = value;
+    }
+
+    /**
+     * Returns the constant.
+     *
+     * @param symbols	ignored
+     * @return		the constant
+     */
+    @Override
+    public Double evaluate(Map symbols) {
+      return m_Value;
+    }
+  }
+
+  /**
+   * Returns the value of a numeric field.
+   */
+  public static class NumericField
+    implements NumericNode {
+
+    /** the field to get the value from. */
+    protected final TwitterField m_Field;
+
+    /**
+     * Initializes the node.
+     *
+     * @param field	the field to get the value from
+     */
+    public NumericField(TwitterField field) {
+      m_Field = field;
+    }
+
+    /**
+     * Returns the value of the field.
+     *
+     * @param symbols	the symbols to use
+     * @return		the value, NaN if not available
+     */
+    @Override
+    public Double evaluate(Map symbols) {
+      Object	value;
+
+      value = symbols.get(m_Field);
+      if (value instanceof Double)
+	return (Double) value;
+      if (value instanceof Number)
+	return ((Number) value).doubleValue();
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * Private constructor, only nested classes.
+   */
+  private Nodes() {
+  }
+}
@@ -7,7 +7,23 @@ package adams.parser.twitterfilter;
 
 import adams.core.net.TwitterHelper;
 import adams.data.twitter.TwitterField;
-import adams.parser.ParserHelper;
+import adams.parser.twitterfilter.Nodes.And;
+import adams.parser.twitterfilter.Nodes.ArrayMatch;
+import adams.parser.twitterfilter.Nodes.BooleanConstant;
+import adams.parser.twitterfilter.Nodes.BooleanField;
+import adams.parser.twitterfilter.Nodes.BooleanNode;
+import adams.parser.twitterfilter.Nodes.Compare;
+import adams.parser.twitterfilter.Nodes.CompareType;
+import adams.parser.twitterfilter.Nodes.Has;
+import adams.parser.twitterfilter.Nodes.IfElse;
+import adams.parser.twitterfilter.Nodes.MatchType;
+import adams.parser.twitterfilter.Nodes.Not;
+import adams.parser.twitterfilter.Nodes.NumericConstant;
+import adams.parser.twitterfilter.Nodes.NumericField;
+import adams.parser.twitterfilter.Nodes.NumericNode;
+import adams.parser.twitterfilter.Nodes.Or;
+import adams.parser.twitterfilter.Nodes.StringMatch;
+import adams.parser.twitterfilter.Nodes.Xor;
 import java_cup.runtime.DefaultSymbolFactory;
 import java_cup.runtime.SymbolFactory;
 
@@ -520,11 +536,8 @@ public class Parser extends java_cup.runtime.lr_parser {
   /** variable - value relation. */
   protected HashMap m_Symbols = new HashMap();
 
-  /** for storing the result of the expression. */
-  protected Boolean m_Result = null;
-
-  /** the helper. */
-  protected ParserHelper m_Helper = new ParserHelper();
+  /** the root of the compiled expression. */
+  protected BooleanNode m_Root = null;
 
   /**
    * Sets the variable - value relation to use.
@@ -545,171 +558,33 @@ public class Parser extends java_cup.runtime.lr_parser {
   }
 
   /**
-   * Returns the parser helper.
-   *
-   * @return the helper
-   */
-  public ParserHelper getHelper() {
-    return m_Helper;
-  }
-
-  /**
-   * Returns the string value associated with the symbol.
+   * Sets the root of the compiled expression.
    *
-   * @param symbol the symbol to look up
-   * @return the string value, "" if not available
+   * @param value the root node
    */
-  protected String get(TwitterField symbol) {
-  	String		result;
-
-    if (m_Symbols.containsKey(symbol))
-      result = (String) m_Symbols.get(symbol);
-    else
-      result = "";
-
-    return result;
-  }
-
-  /**
-   * Returns the object value associated with the symbol.
-   *
-   * @param symbol the symbol to look up
-   * @return the string value, null if not available
-   */
-  protected Object get(String symbol) {
-  	Object		result;
-
-    if (m_Symbols.containsKey(symbol))
-      result = m_Symbols.get(symbol);
-    else
-      result = null;
-
-    return result;
-  }
-
-  /**
-   * Returns the double value associated with the symbol.
-   *
-   * @return the double value, Double.NaN if not available
-   */
-  protected Double getDouble(TwitterField symbol) {
-  	Double		result;
-
-    if (m_Symbols.containsKey(symbol))
-      result = (Double) m_Symbols.get(symbol);
-    else
-      result = Double.NaN;
-
-    return result;
-  }
-
-  /**
-   * Returns the boolean value associated with the symbol.
-   *
-   * @return the boolean value, false if not available
-   */
-  protected Boolean getBoolean(TwitterField symbol) {
-  	Boolean		result;
-
-    if (m_Symbols.containsKey(symbol))
-      result = (Boolean) m_Symbols.get(symbol);
-    else
-      result = false;
-
-    return result;
+  public void setRoot(BooleanNode value) {
+    m_Root = value;
   }
 
   /**
-   * Returns whether the symbol is present at all.
+   * Returns the root of the compiled expression.
    *
-   * @return true if present
+   * @return the root node, null if nothing parsed
    */
-  protected boolean has(TwitterField symbol) {
-    return m_Symbols.containsKey(symbol);
+  public BooleanNode getRoot() {
+    return m_Root;
   }
 
   /**
-   * Sets the result of the evaluation.
+   * Returns the result of evaluating the compiled expression with the
+   * current symbols.
    *
-   * @param value the result
-   */
-  public void setResult(Boolean value) {
-    m_Result = value;
-  }
-
-  /**
-   * Returns the result of the evaluation.
-   *
-   * @return the result
+   * @return the result, null if nothing parsed
    */
   public Boolean getResult() {
-    return m_Result;
-  }
-
-  /**
-   * Returns whether an exact match was found in array.
-   *
-   * @param search the search term
-   * @param values the array of values to search
-   * @return true if match
-   */
-  public boolean isExactMatch(String search, String[] values) {
-    boolean result;
-    
-    result = false;
-    
-    for (String value: values) {
-      if (value.equals(search)) {
-        result = true;
-        break;
-      }
-    }
-    
-    return result;
-  }
-
-  /**
-   * Returns whether a substring was found in the array.
-   *
-   * @param search the substring to find
-   * @param values the array of values to search
-   * @return true if match
-   */
-  public boolean isSubstringMatch(String search, String[] values) {
-    boolean result;
-    
-    result = false;
-    
-    for (String value: values) {
-      if (value.indexOf(search) > -1) {
-        result = true;
-        break;
-      }
-    }
-    
-    return result;
-  }
-
-  /**
-   * Returns whether a regexp matched a value of the array.
-   *
-   * @param search the regexp to match against the values
-   * @param values the array of values to search
-   * @return true if match
-   */
-  public boolean isRegExpMatch(String search, String[] values) {
-    boolean result;
-    
-    result = false;
-    
-    for (String value: values) {
-      if (value.matches(search)) {
-        result = true;
-        break;
-      }
-    }
-    
-    return result;
+    if (m_Root == null)
+      return null;
+    return m_Root.evaluate(m_Symbols);
   }
 
   /**
@@ -836,8 +711,8 @@ class CUP$Parser$actions {
               Object RESULT =null;
 		int eleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int eright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Boolean e = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 parser.setResult(e); 
+		BooleanNode e = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 parser.setRoot(e); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("expr_part",1, ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -845,10 +720,10 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 4: // expr ::= LPAREN expr RPAREN 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int eleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-1)).left;
 		int eright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-1)).right;
-		Boolean e = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
+		BooleanNode e = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
 		 RESULT = e; 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("expr",2, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
@@ -857,10 +732,10 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 5: // expr ::= boolexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int mleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int mright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Boolean m = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		BooleanNode m = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
 		 RESULT = m; 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("expr",2, ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
@@ -869,11 +744,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 6: // boolexpr ::= BOOLEAN 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int bleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int bright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		Boolean b = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = b; 
+		 RESULT = new BooleanConstant(b); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -881,10 +756,10 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 7: // boolexpr ::= LPAREN boolexpr RPAREN 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int bleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-1)).left;
 		int bright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-1)).right;
-		Boolean b = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
+		BooleanNode b = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
 		 RESULT = b; 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
@@ -893,11 +768,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 8: // boolexpr ::= NOT boolexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int bleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int bright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Boolean b = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = !b; 
+		BooleanNode b = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new Not(b); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-1)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -905,14 +780,14 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 9: // boolexpr ::= boolexpr AND boolexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int lleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).left;
 		int lright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).right;
-		Boolean l = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
+		BooleanNode l = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
 		int rleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int rright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Boolean r = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = l && r; 
+		BooleanNode r = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new And(l, r); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -920,14 +795,14 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 10: // boolexpr ::= boolexpr OR boolexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int lleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).left;
 		int lright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).right;
-		Boolean l = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
+		BooleanNode l = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
 		int rleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int rright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Boolean r = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = l || r; 
+		BooleanNode r = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new Or(l, r); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -935,14 +810,14 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 11: // boolexpr ::= boolexpr XOR boolexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int lleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).left;
 		int lright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).right;
-		Boolean l = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
+		BooleanNode l = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
 		int rleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int rright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Boolean r = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = l != r; 
+		BooleanNode r = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new Xor(l, r); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -950,8 +825,8 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 12: // boolexpr ::= RETWEET 
             {
-              Boolean RESULT =null;
-		 RESULT = parser.getBoolean(TwitterField.RETWEET); 
+              BooleanNode RESULT =null;
+		 RESULT = new BooleanField(TwitterField.RETWEET); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -959,8 +834,8 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 13: // boolexpr ::= ISRETWEETED 
             {
-              Boolean RESULT =null;
-		 RESULT = parser.getBoolean(TwitterField.IS_RETWEETED); 
+              BooleanNode RESULT =null;
+		 RESULT = new BooleanField(TwitterField.IS_RETWEETED); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -968,11 +843,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 14: // boolexpr ::= LANGUAGE_CODE SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.get(TwitterField.LANGUAGE_CODE).indexOf(s) > -1); 
+		 RESULT = new StringMatch(TwitterField.LANGUAGE_CODE, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -980,11 +855,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 15: // boolexpr ::= LANGUAGE_CODE EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.LANGUAGE_CODE).equals(s); 
+		 RESULT = new StringMatch(TwitterField.LANGUAGE_CODE, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -992,11 +867,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 16: // boolexpr ::= LANGUAGE_CODE REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.LANGUAGE_CODE).matches(s); 
+		 RESULT = new StringMatch(TwitterField.LANGUAGE_CODE, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1004,11 +879,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 17: // boolexpr ::= COUNTRY SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.get(TwitterField.COUNTRY).indexOf(s) > -1); 
+		 RESULT = new StringMatch(TwitterField.COUNTRY, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1016,11 +891,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 18: // boolexpr ::= COUNTRY EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.COUNTRY).equals(s); 
+		 RESULT = new StringMatch(TwitterField.COUNTRY, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1028,11 +903,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 19: // boolexpr ::= COUNTRY REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.COUNTRY).matches(s); 
+		 RESULT = new StringMatch(TwitterField.COUNTRY, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1040,11 +915,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 20: // boolexpr ::= COUNTRY_CODE SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.get(TwitterField.COUNTRY_CODE).indexOf(s) > -1); 
+		 RESULT = new StringMatch(TwitterField.COUNTRY_CODE, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1052,11 +927,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 21: // boolexpr ::= COUNTRY_CODE EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.COUNTRY_CODE).equals(s); 
+		 RESULT = new StringMatch(TwitterField.COUNTRY_CODE, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1064,11 +939,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 22: // boolexpr ::= COUNTRY_CODE REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.COUNTRY_CODE).matches(s); 
+		 RESULT = new StringMatch(TwitterField.COUNTRY_CODE, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1076,11 +951,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 23: // boolexpr ::= PLACE SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.get(TwitterField.PLACE).indexOf(s) > -1); 
+		 RESULT = new StringMatch(TwitterField.PLACE, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1088,11 +963,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 24: // boolexpr ::= PLACE EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.PLACE).equals(s); 
+		 RESULT = new StringMatch(TwitterField.PLACE, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1100,11 +975,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 25: // boolexpr ::= PLACE REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.PLACE).matches(s); 
+		 RESULT = new StringMatch(TwitterField.PLACE, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1112,11 +987,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 26: // boolexpr ::= SOURCE SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.get(TwitterField.SOURCE).indexOf(s) > -1); 
+		 RESULT = new StringMatch(TwitterField.SOURCE, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1124,11 +999,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 27: // boolexpr ::= SOURCE EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.SOURCE).equals(s); 
+		 RESULT = new StringMatch(TwitterField.SOURCE, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1136,11 +1011,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 28: // boolexpr ::= SOURCE REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.SOURCE).matches(s); 
+		 RESULT = new StringMatch(TwitterField.SOURCE, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1148,11 +1023,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 29: // boolexpr ::= TEXT SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.get(TwitterField.TEXT).indexOf(s) > -1); 
+		 RESULT = new StringMatch(TwitterField.TEXT, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1160,11 +1035,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 30: // boolexpr ::= TEXT EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.TEXT).equals(s); 
+		 RESULT = new StringMatch(TwitterField.TEXT, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1172,11 +1047,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 31: // boolexpr ::= TEXT REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.TEXT).matches(s); 
+		 RESULT = new StringMatch(TwitterField.TEXT, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1184,11 +1059,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 32: // boolexpr ::= USER SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.get(TwitterField.USER_NAME).indexOf(s) > -1); 
+		 RESULT = new StringMatch(TwitterField.USER_NAME, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1196,11 +1071,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 33: // boolexpr ::= USER EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.USER_NAME).equals(s); 
+		 RESULT = new StringMatch(TwitterField.USER_NAME, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1208,11 +1083,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 34: // boolexpr ::= USER REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.USER_NAME).matches(s); 
+		 RESULT = new StringMatch(TwitterField.USER_NAME, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1220,11 +1095,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 35: // boolexpr ::= SCREENNAME SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.get(TwitterField.USER_SCREENNAME).indexOf(s) > -1); 
+		 RESULT = new StringMatch(TwitterField.USER_SCREENNAME, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1232,11 +1107,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 36: // boolexpr ::= SCREENNAME EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.USER_SCREENNAME).equals(s); 
+		 RESULT = new StringMatch(TwitterField.USER_SCREENNAME, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1244,11 +1119,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 37: // boolexpr ::= SCREENNAME REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.USER_SCREENNAME).matches(s); 
+		 RESULT = new StringMatch(TwitterField.USER_SCREENNAME, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1256,11 +1131,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 38: // boolexpr ::= HASHTAG SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.isSubstringMatch(s, (String[]) parser.get(TwitterHelper.SYMBOL_HASHTAGS))); 
+		 RESULT = new ArrayMatch(TwitterHelper.SYMBOL_HASHTAGS, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1268,11 +1143,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 39: // boolexpr ::= HASHTAG EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.isExactMatch(s, (String[]) parser.get(TwitterHelper.SYMBOL_HASHTAGS))); 
+		 RESULT = new ArrayMatch(TwitterHelper.SYMBOL_HASHTAGS, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1280,11 +1155,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 40: // boolexpr ::= HASHTAG REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.isRegExpMatch(s, (String[]) parser.get(TwitterHelper.SYMBOL_HASHTAGS))); 
+		 RESULT = new ArrayMatch(TwitterHelper.SYMBOL_HASHTAGS, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1292,11 +1167,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 41: // boolexpr ::= USERMENTION SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.isSubstringMatch(s, (String[]) parser.get(TwitterHelper.SYMBOL_USERMENTIONS))); 
+		 RESULT = new ArrayMatch(TwitterHelper.SYMBOL_USERMENTIONS, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1304,11 +1179,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 42: // boolexpr ::= USERMENTION EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.isExactMatch(s, (String[]) parser.get(TwitterHelper.SYMBOL_USERMENTIONS))); 
+		 RESULT = new ArrayMatch(TwitterHelper.SYMBOL_USERMENTIONS, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1316,11 +1191,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 43: // boolexpr ::= USERMENTION REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.isRegExpMatch(s, (String[]) parser.get(TwitterHelper.SYMBOL_USERMENTIONS))); 
+		 RESULT = new ArrayMatch(TwitterHelper.SYMBOL_USERMENTIONS, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1328,11 +1203,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 44: // boolexpr ::= STATUSLANG SUBSTRING_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = (parser.get(TwitterField.STATUS_LANG).indexOf(s) > -1); 
+		 RESULT = new StringMatch(TwitterField.STATUS_LANG, MatchType.SUBSTRING, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1340,11 +1215,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 45: // boolexpr ::= STATUSLANG EXACT_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.STATUS_LANG).equals(s); 
+		 RESULT = new StringMatch(TwitterField.STATUS_LANG, MatchType.EXACT, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1352,11 +1227,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 46: // boolexpr ::= STATUSLANG REGEXP_MATCH STRING 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int sleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		String s = (String)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = parser.get(TwitterField.STATUS_LANG).matches(s); 
+		 RESULT = new StringMatch(TwitterField.STATUS_LANG, MatchType.REGEXP, s); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1364,21 +1239,17 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 47: // boolexpr ::= IFELSE LPAREN boolexpr COMMA boolexpr COMMA boolexpr RPAREN 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int bleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-5)).left;
 		int bright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-5)).right;
-		Boolean b = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-5)).value;
+		BooleanNode b = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-5)).value;
 		int e_trueleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-3)).left;
 		int e_trueright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-3)).right;
-		Boolean e_true = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-3)).value;
+		BooleanNode e_true = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-3)).value;
 		int e_falseleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-1)).left;
 		int e_falseright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-1)).right;
-		Boolean e_false = (Boolean)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		 if (b)
-                     RESULT = e_true;
-                   else
-                     RESULT = e_false;
-                
+		BooleanNode e_false = (BooleanNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
+		 RESULT = new IfElse(b, e_true, e_false); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-7)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1386,11 +1257,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 48: // boolexpr ::= HAS LPAREN parameter RPAREN 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int pleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-1)).left;
 		int pright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-1)).right;
 		TwitterField p = (TwitterField)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		 RESULT = parser.has(p); 
+		 RESULT = new Has(p); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-3)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1398,14 +1269,14 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 49: // boolexpr ::= numexpr LT numexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int lleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).left;
 		int lright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).right;
-		Double l = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
+		NumericNode l = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
 		int rleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int rright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Double r = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = new Boolean(parser.getHelper().compare(l, r) < 0); 
+		NumericNode r = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new Compare(l, CompareType.LT, r); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1413,14 +1284,14 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 50: // boolexpr ::= numexpr LE numexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int lleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).left;
 		int lright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).right;
-		Double l = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
+		NumericNode l = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
 		int rleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int rright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Double r = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = new Boolean(parser.getHelper().compare(l, r) <= 0); 
+		NumericNode r = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new Compare(l, CompareType.LE, r); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1428,14 +1299,14 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 51: // boolexpr ::= numexpr GT numexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int lleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).left;
 		int lright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).right;
-		Double l = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
+		NumericNode l = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
 		int rleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int rright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Double r = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = new Boolean(parser.getHelper().compare(l, r) > 0); 
+		NumericNode r = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new Compare(l, CompareType.GT, r); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1443,14 +1314,14 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 52: // boolexpr ::= numexpr GE numexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int lleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).left;
 		int lright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).right;
-		Double l = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
+		NumericNode l = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
 		int rleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int rright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Double r = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = new Boolean(parser.getHelper().compare(l, r) >= 0); 
+		NumericNode r = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new Compare(l, CompareType.GE, r); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1458,14 +1329,14 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 53: // boolexpr ::= numexpr EXACT_MATCH numexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int lleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).left;
 		int lright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).right;
-		Double l = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
+		NumericNode l = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
 		int rleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int rright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Double r = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = new Boolean(parser.getHelper().compare(l, r) == 0); 
+		NumericNode r = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new Compare(l, CompareType.EQ, r); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1473,14 +1344,14 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 54: // boolexpr ::= numexpr NOT_EQ numexpr 
             {
-              Boolean RESULT =null;
+              BooleanNode RESULT =null;
 		int lleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).left;
 		int lright = ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)).right;
-		Double l = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
+		NumericNode l = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
 		int rleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int rright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
-		Double r = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = new Boolean(parser.getHelper().compare(l, r) != 0); 
+		NumericNode r = (NumericNode)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
+		 RESULT = new Compare(l, CompareType.NOT_EQ, r); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("boolexpr",3, ((java_cup.runtime.Symbol)CUP$Parser$stack.elementAt(CUP$Parser$top-2)), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1488,11 +1359,11 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 55: // numexpr ::= NUMBER 
             {
-              Double RESULT =null;
+              NumericNode RESULT =null;
 		int nleft = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).left;
 		int nright = ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()).right;
 		Double n = (Double)((java_cup.runtime.Symbol) CUP$Parser$stack.peek()).value;
-		 RESULT = n; 
+		 RESULT = new NumericConstant(n); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("numexpr",4, ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1500,8 +1371,8 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 56: // numexpr ::= LONGITUDE 
             {
-              Double RESULT =null;
-		 RESULT = parser.getDouble(TwitterField.GEO_LONGITUDE); 
+              NumericNode RESULT =null;
+		 RESULT = new NumericField(TwitterField.GEO_LONGITUDE); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("numexpr",4, ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1509,8 +1380,8 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 57: // numexpr ::= LATITUDE 
             {
-              Double RESULT =null;
-		 RESULT = parser.getDouble(TwitterField.GEO_LATITUDE); 
+              NumericNode RESULT =null;
+		 RESULT = new NumericField(TwitterField.GEO_LATITUDE); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("numexpr",4, ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -1518,8 +1389,8 @@ class CUP$Parser$actions {
           /*. . . . . . . . . . . . . . . . . . . .*/
           case 58: // numexpr ::= FAVCOUNT 
             {
-              Double RESULT =null;
-		 RESULT = parser.getDouble(TwitterField.FAVORITE_COUNT); 
+              NumericNode RESULT =null;
+		 RESULT = new NumericField(TwitterField.FAVORITE_COUNT); 
               CUP$Parser$result = parser.getSymbolFactory().newSymbol("numexpr",4, ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$Parser$stack.peek()), RESULT);
             }
           return CUP$Parser$result;
@@ -0,0 +1,148 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TwitterStatusSymbolsTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core.net;
+
+import adams.data.twitter.SimulatedPlace;
+import adams.data.twitter.SimulatedStatus;
+import adams.data.twitter.SimulatedUser;
+import adams.data.twitter.TwitterField;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.HashMap;
+import java.util.Hashtable;
+
+/**
+ * Tests the TwitterStatusSymbols class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class TwitterStatusSymbolsTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public TwitterStatusSymbolsTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a status.
+   *
+   * @return		the status
+   */
+  protected SimulatedStatus createStatus() {
+    SimulatedStatus	result;
+    SimulatedUser	user;
+    SimulatedPlace	place;
+
+    user = new SimulatedUser();
+    user.setId(42);
+    user.setName("The University of Waikato");
+    user.setScreenName("Waikato");
+    user.setLang("EN");
+
+    place = new SimulatedPlace();
+    place.setName("Hamilton");
+    place.setCountry("New Zealand");
+
+    result = new SimulatedStatus();
+    result.setId(1234);
+    result.setText("Hello World");
+    result.setUser(user);
+    result.setPlace(place);
+    result.setFavoriteCount(3);
+    result.setLang("en");
+
+    return result;
+  }
+
+  /**
+   * Tests that the lazily extracted values are the same as the ones
+   * extracted all at once.
+   */
+  public void testExtract() {
+    SimulatedStatus		status;
+    TwitterStatusSymbols	symbols;
+    HashMap			all;
+
+    status  = createStatus();
+    symbols = new TwitterStatusSymbols(status, true);
+    all     = TwitterHelper.statusToSymbols(status, true);
+    for (TwitterField field: TwitterField.values())
+      assertEquals(field.toString(), all.get(field), symbols.get(field));
+
+    assertEquals("text", "hello world", symbols.get(TwitterField.TEXT));
+    assertEquals("language code", "en", symbols.get(TwitterField.LANGUAGE_CODE));
+    assertEquals("country", "new zealand", symbols.get(TwitterField.COUNTRY));
+    assertEquals("favorite count", 3, symbols.get(TwitterField.FAVORITE_COUNT));
+    assertFalse("no location", symbols.containsKey(TwitterField.GEO_LATITUDE));
+  }
+
+  /**
+   * Tests the case of the strings.
+   */
+  public void testCase() {
+    TwitterStatusSymbols	symbols;
+
+    symbols = new TwitterStatusSymbols(createStatus(), false);
+    assertEquals("language code", "EN", symbols.get(TwitterField.LANGUAGE_CODE));
+    assertEquals("screen name", "Waikato", symbols.get(TwitterField.USER_SCREENNAME));
+  }
+
+  /**
+   * Tests the hashtable with all the values.
+   */
+  public void testHashtable() {
+    Hashtable<TwitterField,Object>	table;
+
+    table = TwitterHelper.statusToHashtable(createStatus());
+    assertEquals("id", 1234L, table.get(TwitterField.ID));
+    assertEquals("user id", 42L, table.get(TwitterField.USER_ID));
+    assertEquals("language code", "EN", table.get(TwitterField.LANGUAGE_CODE));
+    assertEquals("place", "Hamilton", table.get(TwitterField.PLACE));
+    assertFalse("no country code", table.containsKey(TwitterField.COUNTRY_CODE));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(TwitterStatusSymbolsTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpreadSheetConverterArchiveTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.input;
+
+import adams.core.io.PlaceholderFile;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import twitter4j.Status;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests reading CSV archives, sequentially and with a parse thread.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpreadSheetConverterArchiveTest
+  extends AdamsTestCase {
+
+  /** the number of tweets in the archive. */
+  public final static int NUM_TWEETS = 2500;
+
+  /** the archive. */
+  protected File m_Archive;
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public SpreadSheetConverterArchiveTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates the archive.
+   *
+   * @throws Exception	if setup fails
+   */
+  @Override
+  protected void setUp() throws Exception {
+    StringBuilder	content;
+    int			i;
+
+    super.setUp();
+
+    content = new StringBuilder("ID,TEXT,USER_SCREENNAME\n");
+    for (i = 1; i <= NUM_TWEETS; i++)
+      content.append(i).append(",tweet ").append(i).append(" #adams,user").append(i % 7).append("\n");
+    m_Archive = Files.createTempFile("archive", ".csv").toFile();
+    Files.write(m_Archive.toPath(), content.toString().getBytes());
+  }
+
+  /**
+   * Removes the archive.
+   *
+   * @throws Exception	if tear down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    m_Archive.delete();
+
+    super.tearDown();
+  }
+
+  /**
+   * Creates a configured archive reader.
+   *
+   * @param thread	whether to use a parse thread
+   * @return		the reader
+   */
+  protected SpreadSheetConverterArchive newArchive(boolean thread) {
+    SpreadSheetConverterArchive	result;
+
+    result = new SpreadSheetConverterArchive();
+    result.setArchive(new PlaceholderFile(m_Archive));
+    result.setChunkSize(100);
+    result.setParseThread(thread);
+    result.setQueueSize(10);
+    assertNull("configure", result.configure());
+
+    return result;
+  }
+
+  /**
+   * Reads the IDs of the tweets.
+   *
+   * @param archive	the archive to read from
+   * @param max		the maximum number of tweets to read, -1 for all
+   * @return		the IDs
+   */
+  protected List<Long> read(SpreadSheetConverterArchive archive, int max) {
+    List<Long>	result;
+    Status	status;
+
+    result = new ArrayList<>();
+    while (archive.hasNext() && ((max == -1) || (result.size() < max))) {
+      status = archive.next();
+      assertNotNull("status #" + result.size(), status);
+      result.add(status.getId());
+    }
+
+    return result;
+  }
+
+  /**
+   * Tests that sequential reading and reading with a parse thread return
+   * the same tweets in the same order.
+   */
+  public void testParseThread() {
+    SpreadSheetConverterArchive	archive;
+    List<Long>			sequential;
+    List<Long>			threaded;
+    Status			status;
+
+    archive    = newArchive(false);
+    sequential = read(archive, -1);
+    archive.cleanUp();
+    assertEquals("# tweets", NUM_TWEETS, sequential.size());
+    assertEquals("first", 1L, (long) sequential.get(0));
+    assertEquals("last", NUM_TWEETS, (long) sequential.get(NUM_TWEETS - 1));
+
+    archive  = newArchive(true);
+    threaded = read(archive, -1);
+    assertFalse("exhausted", archive.hasNext());
+    archive.cleanUp();
+    assertEquals("tweets", sequential, threaded);
+
+    archive = newArchive(true);
+    status  = archive.next();
+    assertEquals("text", "tweet 1 #adams", status.getText());
+    assertEquals("screen name", "user1", status.getUser().getScreenName());
+    assertEquals("hashtags", 1, status.getHashtagEntities().length);
+    archive.cleanUp();
+  }
+
+  /**
+   * Tests stopping and re-configuring while the parse thread is running.
+   */
+  public void testRestart() {
+    SpreadSheetConverterArchive	archive;
+    List<Long>			ids;
+
+    archive = newArchive(true);
+    ids     = read(archive, 50);
+    assertEquals("partial", 50, ids.size());
+
+    // stopping does not fail subsequent calls
+    archive.cleanUp();
+    assertFalse("stopped", archive.hasNext());
+    assertNull("stopped", archive.next());
+    archive.cleanUp();
+
+    // re-configuring starts from scratch
+    assertNull("configure", archive.configure());
+    ids = read(archive, -1);
+    assertEquals("restarted", NUM_TWEETS, ids.size());
+    assertEquals("first", 1L, (long) ids.get(0));
+
+    // changing options while parsing stops the parser
+    assertNull("configure", archive.configure());
+    read(archive, 10);
+    archive.setQueueSize(20);
+    assertFalse("reset", archive.hasNext());
+    archive.cleanUp();
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(SpreadSheetConverterArchiveTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
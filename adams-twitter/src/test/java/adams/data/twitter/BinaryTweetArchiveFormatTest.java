@@ -0,0 +1,334 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BinaryTweetArchiveFormatTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.twitter;
+
+import adams.core.base.BaseDateTime;
+import adams.core.io.PlaceholderFile;
+import adams.data.io.input.BinaryTweetArchive;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import twitter4j.GeoLocation;
+import twitter4j.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tests the BinaryTweetArchiveFormat class and the seeking of the
+ * BinaryTweetArchive replay.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class BinaryTweetArchiveFormatTest
+  extends AdamsTestCase {
+
+  /** the number of tweets in the archive. */
+  public final static int NUM_TWEETS = 100;
+
+  /** the temporary archive. */
+  protected File m_Archive;
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public BinaryTweetArchiveFormatTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_Archive = Files.createTempFile("tweets", ".bta").toFile();
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    if (m_Archive != null) {
+      BinaryTweetArchiveFormat.getIndexFile(m_Archive).delete();
+      m_Archive.delete();
+    }
+    super.tearDown();
+  }
+
+  /**
+   * Returns the timestamp of the first tweet.
+   *
+   * @return		the timestamp in msec
+   */
+  protected long getBaseTime() {
+    return new BaseDateTime("2026-01-01 00:00:00").dateValue().getTime();
+  }
+
+  /**
+   * Creates a status.
+   *
+   * @param id		the ID of the status
+   * @param created	the creation time in msec
+   * @return		the status
+   */
+  protected SimulatedStatus createStatus(long id, long created) {
+    SimulatedStatus	result;
+    SimulatedUser	user;
+    SimulatedPlace	place;
+
+    user = new SimulatedUser();
+    user.setId(42);
+    user.setScreenName("Waikato");
+    user.setLang("en");
+
+    place = new SimulatedPlace();
+    place.setName("Hamilton");
+    place.setCountryCode("NZ");
+
+    result = new SimulatedStatus();
+    result.setId(id);
+    result.setText("tweet " + id + " by @waikato #adams");
+    result.setCreatedAt(new Date(created));
+    result.setUser(user);
+    result.setPlace(place);
+    result.setRetweetCount(7);
+    result.setFavorited(true);
+
+    return result;
+  }
+
+  /**
+   * Returns the fields as stored in the archive header.
+   *
+   * @return		the fields
+   * @throws Exception	if header cannot be written or read
+   */
+  protected TwitterField[] getFields() throws Exception {
+    ByteArrayOutputStream	bytes;
+    DataOutputStream		out;
+
+    bytes = new ByteArrayOutputStream();
+    out   = new DataOutputStream(bytes);
+    BinaryTweetArchiveFormat.writeArchiveHeader(out);
+    out.flush();
+
+    return BinaryTweetArchiveFormat.readArchiveHeader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  /**
+   * Writes the archive and its index, using the same layout as the
+   * BinaryTweetArchiveWriter sink.
+   *
+   * @param interval	the interval for the index entries
+   * @throws Exception	if writing fails
+   */
+  protected void writeArchive(int interval) throws Exception {
+    DataOutputStream	archive;
+    DataOutputStream	index;
+    SimulatedStatus	status;
+    byte[]		payload;
+    long		timestamp;
+    long		offset;
+    int			i;
+
+    archive = new DataOutputStream(new FileOutputStream(m_Archive));
+    index   = new DataOutputStream(new FileOutputStream(BinaryTweetArchiveFormat.getIndexFile(m_Archive)));
+    try {
+      BinaryTweetArchiveFormat.writeArchiveHeader(archive);
+      BinaryTweetArchiveFormat.writeIndexHeader(index);
+      offset = archive.size();
+      for (i = 0; i < NUM_TWEETS; i++) {
+	status    = createStatus(i, getBaseTime() + i * 60000L);
+	payload   = BinaryTweetArchiveFormat.encode(status);
+	timestamp = BinaryTweetArchiveFormat.getTimestamp(status);
+	if (i % interval == 0) {
+	  index.writeLong(timestamp);
+	  index.writeLong(offset);
+	}
+	archive.writeInt(payload.length);
+	archive.writeLong(timestamp);
+	archive.write(payload);
+	offset += 12 + payload.length;
+      }
+    }
+    finally {
+      archive.close();
+      index.close();
+    }
+  }
+
+  /**
+   * Replays the archive for the specified time window.
+   *
+   * @param start	the start of the window
+   * @param end		the end of the window
+   * @return		the IDs of the tweets
+   */
+  protected List<Long> replay(String start, String end) {
+    List<Long>		result;
+    BinaryTweetArchive	replay;
+
+    result = new ArrayList<>();
+    replay = new BinaryTweetArchive();
+    replay.setArchive(new PlaceholderFile(m_Archive));
+    replay.setStart(new BaseDateTime(start));
+    replay.setEnd(new BaseDateTime(end));
+    assertNull("configure", replay.configure());
+    while (replay.hasNext())
+      result.add(replay.next().getId());
+    replay.cleanUp();
+
+    return result;
+  }
+
+  /**
+   * Tests encoding and decoding a status.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testRoundTrip() throws Exception {
+    SimulatedStatus	status;
+    Status		decoded;
+
+    status = createStatus(1234, getBaseTime());
+    status.setGeoLocation(new GeoLocation(-37.78, 175.28));
+    decoded = BinaryTweetArchiveFormat.decode(getFields(), BinaryTweetArchiveFormat.encode(status));
+
+    assertEquals("id", 1234L, decoded.getId());
+    assertEquals("text", status.getText(), decoded.getText());
+    assertEquals("created", status.getCreatedAt(), decoded.getCreatedAt());
+    assertEquals("user id", 42L, decoded.getUser().getId());
+    assertEquals("screen name", "Waikato", decoded.getUser().getScreenName());
+    assertEquals("language code", "en", decoded.getUser().getLang());
+    assertEquals("place", "Hamilton", decoded.getPlace().getName());
+    assertEquals("country code", "NZ", decoded.getPlace().getCountryCode());
+    assertEquals("retweet count", 7, decoded.getRetweetCount());
+    assertTrue("favorited", decoded.isFavorited());
+    assertEquals("hashtags", 1, decoded.getHashtagEntities().length);
+    assertEquals("mentions", 1, decoded.getUserMentionEntities().length);
+    assertEquals("latitude", -37.78, decoded.getGeoLocation().getLatitude(), 1e-9);
+    assertEquals("longitude", 175.28, decoded.getGeoLocation().getLongitude(), 1e-9);
+    assertNull("no retweeted status", decoded.getRetweetedStatus());
+    assertEquals("no quoted status id", -1L, decoded.getQuotedStatusId());
+    assertNull("no quoted status", decoded.getQuotedStatus());
+  }
+
+  /**
+   * Tests encoding and decoding a quote.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testQuote() throws Exception {
+    SimulatedStatus	status;
+    SimulatedStatus	quoted;
+    Status		decoded;
+
+    quoted = new SimulatedStatus();
+    quoted.setId(99);
+    quoted.setText("original");
+    status = createStatus(1234, getBaseTime());
+    status.setQuotedStatusId(99);
+    status.setQuotedStatus(quoted);
+    decoded = BinaryTweetArchiveFormat.decode(getFields(), BinaryTweetArchiveFormat.encode(status));
+
+    assertEquals("quoted status id", 99L, decoded.getQuotedStatusId());
+    assertNotNull("quoted status", decoded.getQuotedStatus());
+    assertEquals("quoted id", 99L, decoded.getQuotedStatus().getId());
+    assertEquals("quoted text", "original", decoded.getQuotedStatus().getText());
+  }
+
+  /**
+   * Tests seeking with the index.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testSeek() throws Exception {
+    List<Long>	ids;
+    int		i;
+
+    writeArchive(10);
+
+    ids = replay("2026-01-01 00:55:00", "2026-01-01 01:04:00");
+    assertEquals("# tweets", 10, ids.size());
+    for (i = 0; i < ids.size(); i++)
+      assertEquals("id", 55L + i, (long) ids.get(i));
+
+    ids = replay(BaseDateTime.INF_PAST, BaseDateTime.INF_FUTURE);
+    assertEquals("# tweets", NUM_TWEETS, ids.size());
+    assertEquals("first", 0L, (long) ids.get(0));
+
+    ids = replay("2026-01-02 00:00:00", BaseDateTime.INF_FUTURE);
+    assertEquals("# tweets", 0, ids.size());
+  }
+
+  /**
+   * Tests the time window without the index.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testSeekWithoutIndex() throws Exception {
+    List<Long>	ids;
+
+    writeArchive(10);
+    assertTrue("index removed", BinaryTweetArchiveFormat.getIndexFile(m_Archive).delete());
+
+    ids = replay("2026-01-01 00:55:00", "2026-01-01 01:04:00");
+    assertEquals("# tweets", 10, ids.size());
+    assertEquals("first", 55L, (long) ids.get(0));
+    assertEquals("last", 64L, (long) ids.get(ids.size() - 1));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(BinaryTweetArchiveFormatTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpreadSheetConverterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.twitter;
+
+import adams.data.spreadsheet.SpreadSheet;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the SpreadSheetConverter class, incl the LANGUAGE_CODE field
+ * (language of the user).
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpreadSheetConverterTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public SpreadSheetConverterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a status.
+   *
+   * @param id		the ID of the status
+   * @param lang	the language of the user, null for no user
+   * @return		the status
+   */
+  protected SimulatedStatus createStatus(long id, String lang) {
+    SimulatedStatus	result;
+    SimulatedUser	user;
+
+    result = new SimulatedStatus();
+    result.setId(id);
+    result.setText("tweet " + id);
+    if (lang != null) {
+      user = new SimulatedUser();
+      user.setId(42);
+      user.setLang(lang);
+      result.setUser(user);
+    }
+
+    return result;
+  }
+
+  /**
+   * Tests the default fields: only the text.
+   */
+  public void testDefault() {
+    SpreadSheetConverter	converter;
+    SpreadSheet			sheet;
+
+    converter = new SpreadSheetConverter();
+    sheet     = converter.convert(createStatus(1, "en"));
+    assertEquals("# cols", 1, sheet.getColumnCount());
+    assertEquals("header", TwitterField.TEXT.toString(), sheet.getColumnName(0));
+    assertEquals("text", "tweet 1", sheet.getRow(0).getCell(0).getContent());
+  }
+
+  /**
+   * Tests the LANGUAGE_CODE column, via single conversions and batches.
+   */
+  public void testLanguageCode() {
+    SpreadSheetConverter	converter;
+    SpreadSheet			sheet;
+
+    converter = new SpreadSheetConverter();
+    converter.setFields(new TwitterField[]{TwitterField.ID, TwitterField.LANGUAGE_CODE});
+
+    sheet = converter.convert(createStatus(1, "en"));
+    assertEquals("# cols", 2, sheet.getColumnCount());
+    assertEquals("header", TwitterField.LANGUAGE_CODE.toString(), sheet.getColumnName(1));
+    assertEquals("language code", "en", sheet.getRow(0).getCell(1).getContent());
+
+    sheet = converter.newBatch();
+    converter.append(sheet, createStatus(2, "de"));
+    converter.append(sheet, createStatus(3, null));
+    assertEquals("# rows", 2, sheet.getRowCount());
+    assertEquals("language code", "de", sheet.getRow(0).getCell(1).getContent());
+    assertFalse("no user", sheet.getRow(1).hasCell(1));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(SpreadSheetConverterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
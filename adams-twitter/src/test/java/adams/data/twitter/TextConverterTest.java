@@ -0,0 +1,110 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TextConverterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.twitter;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the TextConverter class, incl the LANGUAGE_CODE field (language
+ * of the user).
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class TextConverterTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public TextConverterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a status.
+   *
+   * @param lang	the language of the user, null for no user
+   * @return		the status
+   */
+  protected SimulatedStatus createStatus(String lang) {
+    SimulatedStatus	result;
+    SimulatedUser	user;
+
+    result = new SimulatedStatus();
+    result.setId(1);
+    result.setText("hello");
+    if (lang != null) {
+      user = new SimulatedUser();
+      user.setId(42);
+      user.setLang(lang);
+      result.setUser(user);
+    }
+
+    return result;
+  }
+
+  /**
+   * Tests the default fields: only the text.
+   */
+  public void testDefault() {
+    TextConverter	converter;
+
+    converter = new TextConverter();
+    assertEquals("output", "hello", converter.convert(createStatus("en")));
+  }
+
+  /**
+   * Tests the LANGUAGE_CODE field.
+   */
+  public void testLanguageCode() {
+    TextConverter	converter;
+
+    converter = new TextConverter();
+    converter.setSeparator(",");
+    converter.setFields(new TwitterField[]{TwitterField.TEXT, TwitterField.LANGUAGE_CODE});
+    assertEquals("with user", "hello,en", converter.convert(createStatus("en")));
+    assertEquals("without user", "hello,?", converter.convert(createStatus(null)));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(TextConverterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SampleListenerTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.source.twitterlistener;
+
+import adams.data.twitter.SimulatedStatus;
+import adams.env.Environment;
+import adams.flow.source.TwitterListener;
+import adams.flow.source.twitterlistener.AbstractListener.OverflowPolicy;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import twitter4j.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Tests the bounded queue and the overflow policies of the twitter
+ * listeners, without connecting to twitter.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SampleListenerTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public SampleListenerTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a listener that is ready to receive status updates, without
+   * a twitter connection.
+   *
+   * @param queueSize	the size of the queue
+   * @param policy	the overflow policy
+   * @param max		the maximum number of status updates
+   * @return		the listener
+   */
+  protected SampleListener newListener(int queueSize, OverflowPolicy policy, int max) {
+    SampleListener	result;
+
+    result = new SampleListener();
+    result.setQueueSize(queueSize);
+    result.setOverflowPolicy(policy);
+    result.setMaxStatusUpdates(max);
+    result.m_FlowContext = new TwitterListener();
+    result.m_Queue       = new ArrayBlockingQueue<>(result.getQueueSize());
+    result.m_Listening   = true;
+
+    return result;
+  }
+
+  /**
+   * Creates a status.
+   *
+   * @param id		the ID of the status
+   * @return		the status
+   */
+  protected Status newStatus(long id) {
+    SimulatedStatus	result;
+
+    result = new SimulatedStatus();
+    result.setId(id);
+    result.setText("status " + id);
+
+    return result;
+  }
+
+  /**
+   * Returns the IDs of the status updates.
+   *
+   * @param statuses	the status updates
+   * @return		the IDs
+   */
+  protected List<Long> toIDs(List<Status> statuses) {
+    List<Long>	result;
+
+    result = new ArrayList<>();
+    for (Status status: statuses)
+      result.add(status.getId());
+
+    return result;
+  }
+
+  /**
+   * Takes all the queued status updates and returns their IDs.
+   *
+   * @param listener	the listener to get the updates from
+   * @return		the IDs
+   */
+  protected List<Long> drain(SampleListener listener) {
+    return toIDs(listener.nextBatch(Integer.MAX_VALUE));
+  }
+
+  /**
+   * Tests the DROP_OLDEST policy.
+   */
+  public void testDropOldest() {
+    SampleListener	listener;
+    int			i;
+
+    listener = newListener(3, OverflowPolicy.DROP_OLDEST, -1);
+    for (i = 1; i <= 5; i++)
+      listener.onStatus(newStatus(i));
+
+    assertEquals("dropped", 2, listener.getDropped());
+    assertEquals("queue", "[3, 4, 5]", drain(listener).toString());
+  }
+
+  /**
+   * Tests the SAMPLE policy.
+   */
+  public void testSample() {
+    SampleListener	listener;
+    int			i;
+
+    listener = newListener(2, OverflowPolicy.SAMPLE, -1);
+    listener.setSampleInterval(3);
+    for (i = 1; i <= 5; i++)
+      listener.onStatus(newStatus(i));
+
+    // 3 and 4 get dropped, 5 replaces the oldest one (1)
+    assertEquals("dropped", 3, listener.getDropped());
+    assertEquals("queue", "[2, 5]", drain(listener).toString());
+  }
+
+  /**
+   * Tests the BLOCK policy.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testBlock() throws Exception {
+    final SampleListener	listener;
+    Thread			producer;
+    List<Long>			ids;
+    Status			status;
+
+    listener = newListener(2, OverflowPolicy.BLOCK, -1);
+    producer = new Thread(() -> {
+      for (int i = 1; i <= 5; i++)
+	listener.onStatus(newStatus(i));
+    });
+    producer.start();
+
+    ids = new ArrayList<>();
+    while (ids.size() < 5) {
+      status = listener.next();
+      assertNotNull("status #" + (ids.size() + 1), status);
+      ids.add(status.getId());
+    }
+    producer.join(5000);
+
+    assertFalse("producer finished", producer.isAlive());
+    assertEquals("dropped", 0, listener.getDropped());
+    assertEquals("order", "[1, 2, 3, 4, 5]", ids.toString());
+  }
+
+  /**
+   * Tests that a producer blocked by a full queue gets released when
+   * listening stops.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testBlockStop() throws Exception {
+    final SampleListener	listener;
+    Thread			producer;
+
+    listener = newListener(1, OverflowPolicy.BLOCK, -1);
+    listener.onStatus(newStatus(1));
+    producer = new Thread(() -> listener.onStatus(newStatus(2)));
+    producer.start();
+    Thread.sleep(200);
+    assertTrue("producer blocked", producer.isAlive());
+
+    listener.stopExecution();
+    producer.join(5000);
+
+    assertFalse("producer released", producer.isAlive());
+    assertTrue("queued update still available", listener.hasNext());
+    assertEquals("queue", "[1]", drain(listener).toString());
+    assertFalse("no more updates", listener.hasNext());
+  }
+
+  /**
+   * Tests the maximum number of status updates.
+   */
+  public void testMaxStatusUpdates() {
+    SampleListener	listener;
+    int			i;
+
+    listener = newListener(10, OverflowPolicy.DROP_OLDEST, 3);
+    for (i = 1; i <= 5; i++)
+      listener.onStatus(newStatus(i));
+
+    assertEquals("first batch", "[1, 2]", toIDs(listener.nextBatch(2)).toString());
+    assertEquals("third", 3L, listener.next().getId());
+    assertNull("limit reached", listener.next());
+    assertFalse("stopped", listener.isListening());
+    assertFalse("no more updates", listener.hasNext());
+  }
+
+  /**
+   * Tests that status updates get ignored while paused.
+   */
+  public void testPaused() {
+    SampleListener	listener;
+
+    listener = newListener(10, OverflowPolicy.DROP_OLDEST, -1);
+    listener.onStatus(newStatus(1));
+    listener.pauseExecution();
+    listener.onStatus(newStatus(2));
+    listener.resumeExecution();
+    listener.onStatus(newStatus(3));
+
+    assertEquals("queue", "[1, 3]", drain(listener).toString());
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(SampleListenerTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TwitterFilterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.parser;
+
+import adams.core.net.TwitterHelper;
+import adams.data.twitter.TwitterField;
+import adams.env.Environment;
+import adams.parser.twitterfilter.Nodes.BooleanNode;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.HashMap;
+
+/**
+ * Tests the TwitterFilter expression evaluator.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class TwitterFilterTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public TwitterFilterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the symbols of a fictitious status.
+   *
+   * @return		the symbols
+   */
+  protected HashMap getSymbols() {
+    HashMap	result;
+
+    result = new HashMap();
+    result.put(TwitterField.TEXT, "hello world, this is adams");
+    result.put(TwitterField.USER_SCREENNAME, "waikato");
+    result.put(TwitterField.LANGUAGE_CODE, "en");
+    result.put(TwitterField.RETWEET, false);
+    result.put(TwitterField.IS_RETWEETED, true);
+    result.put(TwitterField.FAVORITE_COUNT, 7);
+    result.put(TwitterField.GEO_LATITUDE, -37.78);
+    result.put(TwitterHelper.SYMBOL_HASHTAGS, new String[]{"java", "ml"});
+    result.put(TwitterHelper.SYMBOL_USERMENTIONS, new String[0]);
+
+    return result;
+  }
+
+  /**
+   * Evaluates the expression against the default symbols.
+   *
+   * @param expr	the expression
+   * @return		the result
+   * @throws Exception	if evaluation fails
+   */
+  protected boolean evaluate(String expr) throws Exception {
+    return TwitterFilter.evaluate(expr, getSymbols());
+  }
+
+  /**
+   * Tests matching strings.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testStrings() throws Exception {
+    assertTrue("substring", evaluate("text:\"world\""));
+    assertFalse("substring", evaluate("text:\"moon\""));
+    assertTrue("exact", evaluate("screenname=\"waikato\""));
+    assertFalse("exact", evaluate("screenname=\"waika\""));
+    assertTrue("regexp", evaluate("text~\"hello.*adams\""));
+    assertFalse("regexp", evaluate("text~\"adams.*\""));
+    assertTrue("langcode", evaluate("langcode=\"en\""));
+    assertFalse("missing field", evaluate("country:\"new\""));
+    assertTrue("missing field matches empty", evaluate("country=\"\""));
+  }
+
+  /**
+   * Tests matching arrays.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testArrays() throws Exception {
+    assertTrue("hashtag", evaluate("hashtag=\"ml\""));
+    assertTrue("hashtag", evaluate("hashtag~\"j.*\""));
+    assertFalse("hashtag", evaluate("hashtag=\"python\""));
+    assertFalse("no mentions", evaluate("usermention:\"\""));
+  }
+
+  /**
+   * Tests boolean logic and numeric comparisons.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testLogic() throws Exception {
+    assertTrue("not", evaluate("not retweet"));
+    assertTrue("and", evaluate("isretweeted and text:\"hello\""));
+    assertFalse("and", evaluate("retweet and text:\"hello\""));
+    assertTrue("or", evaluate("retweet or text:\"hello\""));
+    assertFalse("xor", evaluate("isretweeted xor text:\"hello\""));
+    assertTrue("favcount", evaluate("favcount > 5"));
+    assertFalse("favcount", evaluate("favcount <> 7"));
+    assertTrue("latitude", evaluate("latitude < 0"));
+    assertFalse("missing longitude", evaluate("longitude < 0"));
+    assertTrue("ifelse", evaluate("if(retweet, retweet, favcount >= 7)"));
+    assertTrue("has", evaluate("has(latitude)"));
+    assertFalse("has", evaluate("has(place)"));
+  }
+
+  /**
+   * Tests that compiled expressions get re-used.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testCompile() throws Exception {
+    BooleanNode		root;
+    HashMap		symbols;
+
+    root = TwitterFilter.compile("text:\"adams\" and favcount >= 7");
+    assertSame("cached", root, TwitterFilter.compile("text:\"adams\" and favcount >= 7"));
+
+    // the same compiled expression can be evaluated against different symbols
+    symbols = getSymbols();
+    assertTrue("first", root.evaluate(symbols));
+    symbols.put(TwitterField.FAVORITE_COUNT, 3);
+    assertFalse("second", root.evaluate(symbols));
+  }
+
+  /**
+   * Tests evaluation via the option handler.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testEvaluator() throws Exception {
+    TwitterFilter	filter;
+
+    filter = new TwitterFilter();
+    filter.setExpression("text:\"hello\"");
+    assertTrue("default", TwitterFilter.evaluate(filter.getExpression(), getSymbols()));
+  }
+
+  /**
+   * Tests that invalid expressions fail.
+   */
+  public void testInvalid() {
+    try {
+      TwitterFilter.compile("text and");
+      fail("Should have failed to parse");
+    }
+    catch (Exception e) {
+      // expected
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(TwitterFilterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}